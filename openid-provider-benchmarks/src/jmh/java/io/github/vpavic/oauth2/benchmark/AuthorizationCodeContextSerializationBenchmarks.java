@@ -0,0 +1,83 @@
+package io.github.vpavic.oauth2.benchmark;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.pkce.CodeChallenge;
+import com.nimbusds.oauth2.sdk.pkce.CodeChallengeMethod;
+import com.nimbusds.oauth2.sdk.pkce.CodeVerifier;
+import com.nimbusds.openid.connect.sdk.Nonce;
+import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import com.nimbusds.openid.connect.sdk.claims.ACR;
+import com.nimbusds.openid.connect.sdk.claims.AMR;
+import com.nimbusds.openid.connect.sdk.claims.SessionID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.vpavic.oauth2.grant.code.AuthorizationCodeContext;
+import io.github.vpavic.oauth2.grant.code.AuthorizationCodeContextSerializer;
+
+/**
+ * Benchmarks for Hazelcast serialization of {@link AuthorizationCodeContext}, comparing
+ * {@link AuthorizationCodeContextSerializer} against Java serialization.
+ *
+ * @author Vedran Pavic
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AuthorizationCodeContextSerializationBenchmarks {
+
+	@Param({ "java", "compact" })
+	private String serialization;
+
+	private InternalSerializationService serializationService;
+
+	private AuthorizationCodeContext context;
+
+	private Data data;
+
+	@Setup
+	public void setUp() {
+		SerializationConfig config = new SerializationConfig();
+
+		if ("compact".equals(this.serialization)) {
+			config.addSerializerConfig(new SerializerConfig().setTypeClass(AuthorizationCodeContext.class)
+					.setImplementation(new AuthorizationCodeContextSerializer()));
+		}
+
+		this.serializationService = new DefaultSerializationServiceBuilder().setConfig(config).build();
+		this.context = new AuthorizationCodeContext(new Subject("user"), new ClientID("test-client"),
+				URI.create("http://example.com/callback"),
+				new com.nimbusds.oauth2.sdk.Scope(OIDCScopeValue.OPENID, OIDCScopeValue.PROFILE), Instant.now(),
+				new ACR("1"), AMR.PWD, new SessionID("session"),
+				CodeChallenge.compute(CodeChallengeMethod.S256, new CodeVerifier()), CodeChallengeMethod.S256,
+				new Nonce());
+		this.data = this.serializationService.toData(this.context);
+	}
+
+	@Benchmark
+	public Data serialize() {
+		return this.serializationService.toData(this.context);
+	}
+
+	@Benchmark
+	public AuthorizationCodeContext deserialize() {
+		return this.serializationService.toObject(this.data);
+	}
+
+}
@@ -0,0 +1,80 @@
+package io.github.vpavic.oauth2.benchmark;
+
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.Authentication;
+
+import io.github.vpavic.oauth2.authentication.JwtBearerAccessTokenAuthenticationResolver;
+import io.github.vpavic.oauth2.grant.refresh.InMemoryRefreshTokenStore;
+import io.github.vpavic.oauth2.token.AccessTokenRequest;
+import io.github.vpavic.oauth2.token.DefaultTokenService;
+
+/**
+ * Benchmarks for bearer access token verification using {@link JwtBearerAccessTokenAuthenticationResolver}.
+ *
+ * @author Vedran Pavic
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BearerTokenAuthenticationBenchmarks {
+
+	private static final Issuer issuer = new Issuer("http://example.com");
+
+	/**
+	 * JWS algorithm, along with the key size in bits for RSA based algorithms. HMAC based algorithms use a secret of
+	 * 256 bits, while EC based algorithms use the curve mandated by the algorithm.
+	 */
+	@Param({ "HS256", "RS256:2048", "RS256:3072", "RS256:4096", "PS256:2048", "PS256:3072", "PS256:4096", "ES256" })
+	private String signing;
+
+	private JwtBearerAccessTokenAuthenticationResolver authenticationResolver;
+
+	private String bearerToken;
+
+	@Setup
+	public void setUp() {
+		// default JCA providers on Java 8 don't support RSASSA-PSS, which is required to verify PS256 tokens
+		if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+			Security.addProvider(new BouncyCastleProvider());
+		}
+
+		JWSAlgorithm jwsAlgorithm = BenchmarkUtils.parseAlgorithm(this.signing);
+		int keySize = BenchmarkUtils.parseKeySize(this.signing);
+		OIDCClientInformation client = BenchmarkUtils.createClient(jwsAlgorithm, keySize / 8);
+		JWK key = BenchmarkUtils.createKey(jwsAlgorithm, keySize);
+		JWKSet jwkSet = new JWKSet((key != null) ? key : BenchmarkUtils.createSecretKey(client.getSecret()));
+
+		DefaultTokenService tokenService = new DefaultTokenService(issuer, () -> jwkSet,
+				BenchmarkUtils.createClaimSource(0), new InMemoryRefreshTokenStore());
+		tokenService.setAccessTokenJwsAlgorithm(jwsAlgorithm);
+		this.bearerToken = tokenService.createAccessToken(new AccessTokenRequest(new Subject("user"), client,
+				new com.nimbusds.oauth2.sdk.Scope(OIDCScopeValue.OPENID))).getValue();
+
+		this.authenticationResolver = new JwtBearerAccessTokenAuthenticationResolver(issuer, () -> jwkSet);
+		this.authenticationResolver.setAccessTokenJwsAlgorithm(jwsAlgorithm);
+	}
+
+	@Benchmark
+	public Authentication resolveAuthentication() throws Exception {
+		return this.authenticationResolver.resolveAuthentication(this.bearerToken);
+	}
+
+}
@@ -0,0 +1,151 @@
+package io.github.vpavic.oauth2.benchmark;
+
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Date;
+import java.util.UUID;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.oauth2.sdk.auth.Secret;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.openid.connect.sdk.claims.UserInfo;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientMetadata;
+
+import io.github.vpavic.oauth2.claim.ClaimSource;
+
+/**
+ * Collection of utils for setting up benchmark state.
+ *
+ * @author Vedran Pavic
+ */
+final class BenchmarkUtils {
+
+	private BenchmarkUtils() {
+	}
+
+	/**
+	 * Parse the JWS algorithm from a signing parameter in form of {@code <algorithm>[:<key size>]}, for example
+	 * {@code RS256:2048} or {@code ES256}.
+	 * @param signing the signing parameter
+	 * @return the JWS algorithm
+	 */
+	static JWSAlgorithm parseAlgorithm(String signing) {
+		int separator = signing.indexOf(':');
+		return JWSAlgorithm.parse((separator != -1) ? signing.substring(0, separator) : signing);
+	}
+
+	/**
+	 * Parse the key size in bits from a signing parameter in form of {@code <algorithm>[:<key size>]}. If the key size
+	 * is omitted, {@code 256} is used, which matches the HMAC secret size of HS256 and is ignored by EC based
+	 * algorithms.
+	 * @param signing the signing parameter
+	 * @return the key size
+	 */
+	static int parseKeySize(String signing) {
+		int separator = signing.indexOf(':');
+		return (separator != -1) ? Integer.parseInt(signing.substring(separator + 1)) : 256;
+	}
+
+	/**
+	 * Create a signing key for the given algorithm. RSA keys are created using the given key size, while EC keys always
+	 * use the curve mandated by the algorithm. For HMAC based algorithms {@code null} is returned, as those are signed
+	 * using the client secret.
+	 * @param algorithm the JWS algorithm
+	 * @param keySize the RSA key size
+	 * @return the signing key
+	 */
+	static JWK createKey(JWSAlgorithm algorithm, int keySize) {
+		try {
+			if (JWSAlgorithm.Family.RSA.contains(algorithm)) {
+				KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+				generator.initialize(keySize);
+				KeyPair keyPair = generator.generateKeyPair();
+
+				// @formatter:off
+				return new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+						.privateKey((RSAPrivateKey) keyPair.getPrivate())
+						.keyUse(KeyUse.SIGNATURE)
+						.keyID(UUID.randomUUID().toString())
+						.build();
+				// @formatter:on
+			}
+			else if (JWSAlgorithm.Family.EC.contains(algorithm)) {
+				Curve curve = Curve.forJWSAlgorithm(algorithm).iterator().next();
+				KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+				generator.initialize(new ECGenParameterSpec(curve.getStdName()));
+				KeyPair keyPair = generator.generateKeyPair();
+
+				// @formatter:off
+				return new ECKey.Builder(curve, (ECPublicKey) keyPair.getPublic())
+						.privateKey((ECPrivateKey) keyPair.getPrivate())
+						.keyUse(KeyUse.SIGNATURE)
+						.keyID(UUID.randomUUID().toString())
+						.build();
+				// @formatter:on
+			}
+			return null;
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Create a verification key for HMAC based algorithms from the given client secret.
+	 * @param secret the client secret
+	 * @return the verification key
+	 */
+	static JWK createSecretKey(Secret secret) {
+		// @formatter:off
+		return new OctetSequenceKey.Builder(secret.getValueBytes())
+				.keyUse(KeyUse.SIGNATURE)
+				.build();
+		// @formatter:on
+	}
+
+	static OIDCClientInformation createClient(JWSAlgorithm idTokenJwsAlgorithm, int secretSize) {
+		OIDCClientMetadata metadata = new OIDCClientMetadata();
+		metadata.setRedirectionURI(URI.create("http://example.com"));
+		metadata.setIDTokenJWSAlg(idTokenJwsAlgorithm);
+		metadata.applyDefaults();
+		return new OIDCClientInformation(new ClientID(), new Date(), metadata, new Secret(secretSize));
+	}
+
+	/**
+	 * Create a {@link ClaimSource} which returns the given number of custom claims for every subject.
+	 * @param claimCount the number of claims
+	 * @return the claim source
+	 */
+	static ClaimSource createClaimSource(int claimCount) {
+		return (subject, claims) -> {
+			UserInfo userInfo = new UserInfo(subject);
+			for (int i = 0; i < claimCount; i++) {
+				userInfo.setClaim("claim_" + i, "value_" + i);
+			}
+			return userInfo;
+		};
+	}
+
+	static String[] createClaimNames(int claimCount) {
+		String[] claimNames = new String[claimCount];
+		for (int i = 0; i < claimCount; i++) {
+			claimNames[i] = "claim_" + i;
+		}
+		return claimNames;
+	}
+
+}
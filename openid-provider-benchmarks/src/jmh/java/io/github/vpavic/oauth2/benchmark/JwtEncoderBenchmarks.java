@@ -0,0 +1,101 @@
+package io.github.vpavic.oauth2.benchmark;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.oauth2.sdk.assertions.jwt.JWTAssertionDetails;
+import com.nimbusds.oauth2.sdk.id.Audience;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.id.JWTID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import com.nimbusds.openid.connect.sdk.claims.UserInfo;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.vpavic.oauth2.token.JwsSignerRegistry;
+import io.github.vpavic.oauth2.token.JwtEncoder;
+
+/**
+ * Benchmarks comparing access token serialization using {@link JwtEncoder} with the equivalent Nimbus
+ * {@link SignedJWT} based serialization.
+ *
+ * @author Vedran Pavic
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtEncoderBenchmarks {
+
+	private static final Issuer issuer = new Issuer("http://example.com");
+
+	@Param({ "HS256", "RS256" })
+	private String algorithm;
+
+	@Param({ "0", "5", "20" })
+	private int subjectClaims;
+
+	private JwsSignerRegistry.Signer signer;
+
+	private JwtEncoder encoder;
+
+	private UserInfo userInfo;
+
+	private List<Audience> audience;
+
+	@Setup
+	public void setUp() throws JOSEException {
+		JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(this.algorithm);
+		OIDCClientInformation client = BenchmarkUtils.createClient(jwsAlgorithm, 32);
+		JWK key = BenchmarkUtils.createKey(jwsAlgorithm, 2048);
+		JWKSet jwkSet = (key != null) ? new JWKSet(key) : new JWKSet();
+
+		this.signer = new JwsSignerRegistry(() -> jwkSet).resolve(jwsAlgorithm, client);
+		this.encoder = new JwtEncoder();
+		this.userInfo = BenchmarkUtils.createClaimSource(this.subjectClaims).load(new Subject("user"), null);
+		this.userInfo.setClaim("scp", new com.nimbusds.oauth2.sdk.Scope(OIDCScopeValue.OPENID));
+		this.userInfo.setClaim("cid", client.getID());
+		this.audience = Audience.create(issuer.getValue());
+	}
+
+	@Benchmark
+	public String nimbus() throws JOSEException {
+		Date now = new Date();
+		JWTAssertionDetails details = new JWTAssertionDetails(issuer, this.userInfo.getSubject(), this.audience, now,
+				now, now, new JWTID(), this.userInfo.toJSONObject());
+		SignedJWT jwt = new SignedJWT(this.signer.getHeader(), details.toJWTClaimsSet());
+		jwt.sign(this.signer.getSigner());
+		return jwt.serialize();
+	}
+
+	@Benchmark
+	public String encoder() throws JOSEException {
+		Date now = new Date();
+		Map<String, Object> claims = new LinkedHashMap<>();
+		claims.put("iss", issuer.getValue());
+		claims.put("sub", this.userInfo.getSubject().getValue());
+		claims.put("aud", Audience.toStringList(this.audience));
+		claims.put("exp", now);
+		claims.put("nbf", now);
+		claims.put("iat", now);
+		claims.put("jti", new JWTID().getValue());
+		claims.putAll(this.userInfo.toJSONObject());
+		return this.encoder.encode(this.signer, claims);
+	}
+
+}
@@ -0,0 +1,75 @@
+package io.github.vpavic.oauth2.benchmark;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.vpavic.oauth2.grant.refresh.InMemoryRefreshTokenStore;
+import io.github.vpavic.oauth2.grant.refresh.RefreshTokenContext;
+
+/**
+ * Benchmarks for {@link InMemoryRefreshTokenStore#findByClientIdAndSubject(ClientID, Subject)} with a varying number of
+ * stored tokens.
+ *
+ * @author Vedran Pavic
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RefreshTokenStoreLookupBenchmarks {
+
+	private static final int CLIENT_COUNT = 100;
+
+	@Param({ "1000", "100000", "1000000" })
+	private int tokenCount;
+
+	private InMemoryRefreshTokenStore refreshTokenStore;
+
+	private ClientID[] clientIds;
+
+	private Subject[] subjects;
+
+	@Setup
+	public void setUp() {
+		this.refreshTokenStore = new InMemoryRefreshTokenStore();
+		this.clientIds = new ClientID[CLIENT_COUNT];
+		this.subjects = new Subject[this.tokenCount / CLIENT_COUNT];
+
+		for (int i = 0; i < this.clientIds.length; i++) {
+			this.clientIds[i] = new ClientID("client-" + i);
+		}
+
+		for (int i = 0; i < this.subjects.length; i++) {
+			this.subjects[i] = new Subject("user-" + i);
+		}
+
+		Instant expiry = Instant.now().plusSeconds(3600);
+
+		for (ClientID clientId : this.clientIds) {
+			for (Subject subject : this.subjects) {
+				this.refreshTokenStore.save(new RefreshTokenContext(new RefreshToken(), clientId, subject,
+						new com.nimbusds.oauth2.sdk.Scope("openid"), expiry));
+			}
+		}
+	}
+
+	@Benchmark
+	public RefreshTokenContext findByClientIdAndSubject() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return this.refreshTokenStore.findByClientIdAndSubject(this.clientIds[random.nextInt(this.clientIds.length)],
+				this.subjects[random.nextInt(this.subjects.length)]);
+	}
+
+}
@@ -0,0 +1,108 @@
+package io.github.vpavic.oauth2.benchmark;
+
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.jwk.JwkTokenStore;
+
+import io.github.vpavic.oauth2.grant.refresh.InMemoryRefreshTokenStore;
+import io.github.vpavic.oauth2.resource.AccessTokenClaims;
+import io.github.vpavic.oauth2.resource.AccessTokenValidator;
+import io.github.vpavic.oauth2.resource.JwkSetCache;
+import io.github.vpavic.oauth2.token.AccessTokenRequest;
+import io.github.vpavic.oauth2.token.DefaultTokenService;
+
+/**
+ * Benchmarks for resource server side access token validation, comparing {@link AccessTokenValidator} against the
+ * {@link JwkTokenStore} previously used by the resource server sample. Both fetch the JWK set from a local HTTP server.
+ *
+ * @author Vedran Pavic
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ResourceServerTokenValidationBenchmarks {
+
+	private static final Issuer issuer = new Issuer("http://example.com");
+
+	@Param({ "2048", "4096" })
+	private int keySize;
+
+	private HttpServer jwkSetServer;
+
+	private JwkSetCache jwkSetCache;
+
+	private AccessTokenValidator accessTokenValidator;
+
+	private JwkTokenStore jwkTokenStore;
+
+	private String accessToken;
+
+	@Setup
+	public void setUp() throws Exception {
+		RSAKey key = new RSAKey.Builder((RSAKey) BenchmarkUtils.createKey(JWSAlgorithm.RS256, this.keySize))
+				.algorithm(JWSAlgorithm.RS256).build();
+		JWKSet jwkSet = new JWKSet(key);
+		byte[] publicJwkSet = jwkSet.toPublicJWKSet().toJSONObject().toJSONString().getBytes(StandardCharsets.UTF_8);
+
+		this.jwkSetServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.jwkSetServer.createContext("/oauth2/keys", exchange -> {
+			exchange.getResponseHeaders().add("Content-Type", JWKSet.MIME_TYPE);
+			exchange.sendResponseHeaders(200, publicJwkSet.length);
+			exchange.getResponseBody().write(publicJwkSet);
+			exchange.close();
+		});
+		this.jwkSetServer.start();
+		String jwkSetUrl = "http://127.0.0.1:" + this.jwkSetServer.getAddress().getPort() + "/oauth2/keys";
+
+		OIDCClientInformation client = BenchmarkUtils.createClient(JWSAlgorithm.RS256, 32);
+		DefaultTokenService tokenService = new DefaultTokenService(issuer, () -> jwkSet,
+				BenchmarkUtils.createClaimSource(0), new InMemoryRefreshTokenStore());
+		this.accessToken = tokenService.createAccessToken(new AccessTokenRequest(new Subject("user"), client,
+				new com.nimbusds.oauth2.sdk.Scope(OIDCScopeValue.OPENID))).getValue();
+
+		this.jwkSetCache = new JwkSetCache(new URL(jwkSetUrl));
+		this.jwkSetCache.init();
+		this.accessTokenValidator = new AccessTokenValidator(issuer.getValue(), this.jwkSetCache);
+		this.accessTokenValidator.setRequiredScopes(OIDCScopeValue.OPENID.getValue());
+
+		this.jwkTokenStore = new JwkTokenStore(jwkSetUrl);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.jwkSetCache.shutdown();
+		this.jwkSetServer.stop(0);
+	}
+
+	@Benchmark
+	public AccessTokenClaims accessTokenValidator() throws Exception {
+		return this.accessTokenValidator.validate(this.accessToken);
+	}
+
+	@Benchmark
+	public OAuth2Authentication jwkTokenStore() {
+		return this.jwkTokenStore.readAuthentication(this.accessToken);
+	}
+
+}
@@ -0,0 +1,94 @@
+package io.github.vpavic.oauth2.benchmark;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import com.nimbusds.openid.connect.sdk.claims.ACR;
+import com.nimbusds.openid.connect.sdk.claims.AMR;
+import com.nimbusds.openid.connect.sdk.claims.SessionID;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import com.nimbusds.openid.connect.sdk.token.OIDCTokens;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.vpavic.oauth2.grant.refresh.InMemoryRefreshTokenStore;
+import io.github.vpavic.oauth2.token.AccessTokenRequest;
+import io.github.vpavic.oauth2.token.DefaultTokenService;
+import io.github.vpavic.oauth2.token.IdTokenRequest;
+
+/**
+ * Latency benchmarks for issuing an access token together with an ID token, with and without concurrent signing.
+ *
+ * @author Vedran Pavic
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenIssuanceLatencyBenchmarks {
+
+	private static final Issuer issuer = new Issuer("http://example.com");
+
+	@Param({ "RS256", "PS256", "ES256" })
+	private String algorithm;
+
+	@Param({ "false", "true" })
+	private boolean concurrent;
+
+	private ExecutorService signingExecutor;
+
+	private DefaultTokenService tokenService;
+
+	private AccessTokenRequest accessTokenRequest;
+
+	private IdTokenRequest idTokenRequest;
+
+	@Setup
+	public void setUp() {
+		JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(this.algorithm);
+		JWK key = BenchmarkUtils.createKey(jwsAlgorithm, 2048);
+		JWKSet jwkSet = new JWKSet(key);
+
+		this.tokenService = new DefaultTokenService(issuer, () -> jwkSet, BenchmarkUtils.createClaimSource(5),
+				new InMemoryRefreshTokenStore());
+		this.tokenService.setAccessTokenJwsAlgorithm(jwsAlgorithm);
+		if (this.concurrent) {
+			this.signingExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+			this.tokenService.setSigningExecutor(this.signingExecutor);
+		}
+
+		OIDCClientInformation client = BenchmarkUtils.createClient(jwsAlgorithm, 32);
+		Subject subject = new Subject("user");
+		com.nimbusds.oauth2.sdk.Scope scope = new com.nimbusds.oauth2.sdk.Scope(OIDCScopeValue.OPENID);
+		this.accessTokenRequest = new AccessTokenRequest(subject, client, scope);
+		this.idTokenRequest = new IdTokenRequest(subject, client, scope, Instant.now(), new ACR("1"), AMR.PWD,
+				new SessionID("benchmark"), null, null, null);
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (this.signingExecutor != null) {
+			this.signingExecutor.shutdown();
+		}
+	}
+
+	@Benchmark
+	public OIDCTokens createTokens() {
+		return this.tokenService.createTokens(this.accessTokenRequest, this.idTokenRequest);
+	}
+
+}
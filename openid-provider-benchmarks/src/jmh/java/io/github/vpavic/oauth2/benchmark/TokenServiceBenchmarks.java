@@ -0,0 +1,106 @@
+package io.github.vpavic.oauth2.benchmark;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import com.nimbusds.openid.connect.sdk.claims.ACR;
+import com.nimbusds.openid.connect.sdk.claims.AMR;
+import com.nimbusds.openid.connect.sdk.claims.SessionID;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.vpavic.oauth2.grant.refresh.InMemoryRefreshTokenStore;
+import io.github.vpavic.oauth2.jwk.JwkSetLoader;
+import io.github.vpavic.oauth2.token.AccessTokenRequest;
+import io.github.vpavic.oauth2.token.DefaultTokenService;
+import io.github.vpavic.oauth2.token.IdTokenRequest;
+
+/**
+ * Benchmarks for access token and ID token issuance using {@link DefaultTokenService}.
+ *
+ * @author Vedran Pavic
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TokenServiceBenchmarks {
+
+	private static final Issuer issuer = new Issuer("http://example.com");
+
+	/**
+	 * JWS algorithm, along with the key size in bits for RSA based algorithms. HMAC based algorithms use a secret of
+	 * 256 bits, while EC based algorithms use the curve mandated by the algorithm.
+	 */
+	@Param({ "HS256", "RS256:2048", "RS256:3072", "RS256:4096", "PS256:2048", "PS256:3072", "PS256:4096", "ES256" })
+	private String signing;
+
+	@Param({ "0", "5", "20" })
+	private int subjectClaims;
+
+	@Param({ "1", "5", "20" })
+	private int scopeSize;
+
+	private DefaultTokenService tokenService;
+
+	private AccessTokenRequest accessTokenRequest;
+
+	private IdTokenRequest idTokenRequest;
+
+	@Setup
+	public void setUp() {
+		JWSAlgorithm jwsAlgorithm = BenchmarkUtils.parseAlgorithm(this.signing);
+		int keySize = BenchmarkUtils.parseKeySize(this.signing);
+		JWK key = BenchmarkUtils.createKey(jwsAlgorithm, keySize);
+		JWKSet jwkSet = (key != null) ? new JWKSet(key) : new JWKSet();
+		JwkSetLoader jwkSetLoader = () -> jwkSet;
+
+		this.tokenService = new DefaultTokenService(issuer, jwkSetLoader,
+				BenchmarkUtils.createClaimSource(this.subjectClaims), new InMemoryRefreshTokenStore());
+		this.tokenService.setAccessTokenJwsAlgorithm(jwsAlgorithm);
+		this.tokenService
+				.setAccessTokenSubjectClaims(Arrays.asList(BenchmarkUtils.createClaimNames(this.subjectClaims)));
+
+		OIDCClientInformation client = BenchmarkUtils.createClient(jwsAlgorithm, keySize / 8);
+		Subject subject = new Subject("user");
+		com.nimbusds.oauth2.sdk.Scope scope = createScope(this.scopeSize);
+		this.accessTokenRequest = new AccessTokenRequest(subject, client, scope);
+		AccessToken accessToken = this.tokenService.createAccessToken(this.accessTokenRequest);
+		this.idTokenRequest = new IdTokenRequest(subject, client, scope, Instant.now(), new ACR("1"), AMR.PWD,
+				new SessionID("benchmark"), null, accessToken, null);
+	}
+
+	@Benchmark
+	public AccessToken createAccessToken() {
+		return this.tokenService.createAccessToken(this.accessTokenRequest);
+	}
+
+	@Benchmark
+	public JWT createIdToken() {
+		return this.tokenService.createIdToken(this.idTokenRequest);
+	}
+
+	private static com.nimbusds.oauth2.sdk.Scope createScope(int size) {
+		com.nimbusds.oauth2.sdk.Scope scope = new com.nimbusds.oauth2.sdk.Scope(OIDCScopeValue.OPENID);
+		for (int i = 1; i < size; i++) {
+			scope.add("scope_" + i);
+		}
+		return scope;
+	}
+
+}
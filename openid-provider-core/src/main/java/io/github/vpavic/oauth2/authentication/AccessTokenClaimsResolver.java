@@ -0,0 +1,14 @@
+package io.github.vpavic.oauth2.authentication;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+
+/**
+ * A strategy for resolving the claims of a valid Access token, regardless of its scope.
+ *
+ * @author Vedran Pavic
+ */
+public interface AccessTokenClaimsResolver {
+
+	JWTClaimsSet resolveClaims(String accessToken) throws Exception;
+
+}
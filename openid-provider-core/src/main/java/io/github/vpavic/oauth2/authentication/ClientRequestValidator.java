@@ -52,13 +52,33 @@ public class ClientRequestValidator {
 				throw InvalidClientException.BAD_SECRET;
 			}
 
-			ClientAuthenticationVerifier<OIDCClientInformation> verifier = new ClientAuthenticationVerifier<>(
-					new ClientInformationCredentialsSelector(), null, Collections.singleton(new Audience(this.issuer)));
+			verify(client, clientAuthentication);
+		}
+	}
 
-			Context<OIDCClientInformation> context = new Context<>();
-			context.set(client);
-			verifier.verify(clientAuthentication, null, context);
+	public void validateClientAuthentication(ClientAuthentication clientAuthentication)
+			throws InvalidClientException, JOSEException {
+		if (clientAuthentication == null) {
+			throw InvalidClientException.BAD_SECRET;
 		}
+
+		OIDCClientInformation client = this.clientRepository.findById(clientAuthentication.getClientID());
+
+		if (client == null) {
+			throw InvalidClientException.BAD_ID;
+		}
+
+		verify(client, clientAuthentication);
+	}
+
+	private void verify(OIDCClientInformation client, ClientAuthentication clientAuthentication)
+			throws InvalidClientException, JOSEException {
+		ClientAuthenticationVerifier<OIDCClientInformation> verifier = new ClientAuthenticationVerifier<>(
+				new ClientInformationCredentialsSelector(), null, Collections.singleton(new Audience(this.issuer)));
+
+		Context<OIDCClientInformation> context = new Context<>();
+		context.set(client);
+		verifier.verify(clientAuthentication, null, context);
 	}
 
 	private static class ClientInformationCredentialsSelector
@@ -1,19 +1,42 @@
 package io.github.vpavic.oauth2.authentication;
 
+import java.security.Key;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
+import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.proc.JWSKeySelector;
-import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
 import com.nimbusds.jose.proc.SecurityContext;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
 import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import com.nimbusds.oauth2.sdk.id.Issuer;
 import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
 
@@ -23,42 +46,45 @@ import io.github.vpavic.oauth2.jwk.JwkSetLoader;
 /**
  * A JWT Access token based {@link BearerTokenAuthenticationResolver} implementation.
  *
+ * A single, thread-safe JWT processor is used for all tokens. Verification keys are indexed by key ID along with
+ * prebuilt {@link JWSVerifier} instances, which are rebuilt only when {@link JwkSetLoader} returns a different
+ * {@link JWKSet} instance. Optionally, claims of verified access tokens can be cached using
+ * {@link VerifiedAccessTokenCache}.
+ *
  * @author Vedran Pavic
  */
-public class JwtBearerAccessTokenAuthenticationResolver implements BearerTokenAuthenticationResolver {
+public class JwtBearerAccessTokenAuthenticationResolver
+		implements BearerTokenAuthenticationResolver, AccessTokenClaimsResolver {
+
+	private static final BouncyCastleProvider jcaProvider = new BouncyCastleProvider();
 
 	private final Issuer issuer;
 
 	private final JwkSetLoader jwkSetLoader;
 
+	private final ConfigurableJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+
 	private JWSAlgorithm accessTokenJwsAlgorithm = JWSAlgorithm.RS256;
 
+	private VerifiedAccessTokenCache tokenCache;
+
+	private volatile Verifiers verifiers = new Verifiers(null, null, null);
+
 	public JwtBearerAccessTokenAuthenticationResolver(Issuer issuer, JwkSetLoader jwkSetLoader) {
 		Objects.requireNonNull(issuer, "issuer must not be null");
 		Objects.requireNonNull(jwkSetLoader, "jwkSetLoader must not be null");
 		this.issuer = issuer;
 		this.jwkSetLoader = jwkSetLoader;
+		this.jwtProcessor.setJWSKeySelector((header, context) -> resolveVerifiers().selectKeys(header));
+		this.jwtProcessor.setJWSVerifierFactory(new VerifierFactory());
 	}
 
 	@Override
 	public Authentication resolveAuthentication(String bearerToken) throws Exception {
-		ConfigurableJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
-		JWSKeySelector<SecurityContext> keySelector = new JWSVerificationKeySelector<>(this.accessTokenJwsAlgorithm,
-				(jwkSelector, context) -> jwkSelector.select(this.jwkSetLoader.load()));
-		jwtProcessor.setJWSKeySelector(keySelector);
-		JWTClaimsSet claimsSet = jwtProcessor.process(bearerToken, null);
+		JWTClaimsSet claimsSet = resolveClaims(bearerToken);
 
-		if (!this.issuer.getValue().equals(claimsSet.getIssuer())) {
-			throw new Exception("Invalid issuer");
-		}
-		if (!claimsSet.getAudience().contains(this.issuer.getValue())) {
-			throw new Exception("Invalid audience");
-		}
-		if (Instant.now().isAfter(claimsSet.getExpirationTime().toInstant())) {
-			throw new Exception("Access token has expired");
-		}
 		List<String> scopes = claimsSet.getStringListClaim(UserInfoEndpoint.CLAIM_SCOPE);
-		if (scopes.isEmpty() || !scopes.contains(OIDCScopeValue.OPENID.getValue())) {
+		if (scopes == null || !scopes.contains(OIDCScopeValue.OPENID.getValue())) {
 			throw new Exception("Invalid scope");
 		}
 
@@ -69,8 +95,195 @@ public class JwtBearerAccessTokenAuthenticationResolver implements BearerTokenAu
 		return authentication;
 	}
 
+	@Override
+	public JWTClaimsSet resolveClaims(String accessToken) throws Exception {
+		JWTClaimsSet claimsSet = (this.tokenCache != null) ? this.tokenCache.get(accessToken) : null;
+
+		if (claimsSet == null) {
+			claimsSet = verify(accessToken);
+
+			if (this.tokenCache != null) {
+				this.tokenCache.put(accessToken, claimsSet);
+			}
+		}
+
+		return claimsSet;
+	}
+
 	public void setAccessTokenJwsAlgorithm(JWSAlgorithm accessTokenJwsAlgorithm) {
 		this.accessTokenJwsAlgorithm = accessTokenJwsAlgorithm;
 	}
 
+	/**
+	 * Set the cache of verified access tokens, which allows repeated requests with the same access token to skip
+	 * signature verification and parsing. Every access token is verified if the cache is not set.
+	 * @param tokenCache the token cache
+	 */
+	public void setTokenCache(VerifiedAccessTokenCache tokenCache) {
+		this.tokenCache = tokenCache;
+	}
+
+	private JWTClaimsSet verify(String bearerToken) throws Exception {
+		JWTClaimsSet claimsSet = this.jwtProcessor.process(bearerToken, null);
+
+		if (!this.issuer.getValue().equals(claimsSet.getIssuer())) {
+			throw new Exception("Invalid issuer");
+		}
+		if (!claimsSet.getAudience().contains(this.issuer.getValue())) {
+			throw new Exception("Invalid audience");
+		}
+		if (Instant.now().isAfter(claimsSet.getExpirationTime().toInstant())) {
+			throw new Exception("Access token has expired");
+		}
+
+		return claimsSet;
+	}
+
+	private Verifiers resolveVerifiers() {
+		JWKSet jwkSet = this.jwkSetLoader.load();
+		JWSAlgorithm algorithm = this.accessTokenJwsAlgorithm;
+		Verifiers verifiers = this.verifiers;
+
+		if (verifiers.jwkSet != jwkSet || !algorithm.equals(verifiers.algorithm)) {
+			verifiers = new Verifiers(jwkSet, algorithm, verifiers);
+			this.verifiers = verifiers;
+		}
+
+		return verifiers;
+	}
+
+	private static Key toVerificationKey(JWK jwk) throws JOSEException {
+		if (jwk instanceof RSAKey) {
+			return ((RSAKey) jwk).toRSAPublicKey();
+		}
+		else if (jwk instanceof ECKey) {
+			return ((ECKey) jwk).toECPublicKey();
+		}
+		else if (jwk instanceof OctetSequenceKey) {
+			return ((OctetSequenceKey) jwk).toSecretKey();
+		}
+
+		throw new JOSEException("Unsupported key type: " + jwk.getKeyType());
+	}
+
+	private static JWSVerifier createVerifier(JWK jwk, JWSAlgorithm algorithm) throws JOSEException {
+		if (jwk instanceof RSAKey) {
+			RSASSAVerifier verifier = new RSASSAVerifier((RSAKey) jwk);
+
+			// default JCA providers on Java 8 lack RSASSA-PSS, but are faster than Bouncy Castle at verifying RSA
+			if (JWSAlgorithm.PS256.equals(algorithm) || JWSAlgorithm.PS384.equals(algorithm)
+					|| JWSAlgorithm.PS512.equals(algorithm)) {
+				verifier.getJCAContext().setProvider(jcaProvider);
+			}
+
+			return verifier;
+		}
+		else if (jwk instanceof ECKey) {
+			ECDSAVerifier verifier = new ECDSAVerifier((ECKey) jwk);
+			verifier.getJCAContext().setProvider(jcaProvider);
+			return verifier;
+		}
+		else if (jwk instanceof OctetSequenceKey) {
+			return new MACVerifier((OctetSequenceKey) jwk);
+		}
+
+		throw new JOSEException("Unsupported key type: " + jwk.getKeyType());
+	}
+
+	/**
+	 * Verification keys of a single JWK set instance matching the access token JWS algorithm.
+	 */
+	private static final class Verifiers {
+
+		private final JWKSet jwkSet;
+
+		private final JWSAlgorithm algorithm;
+
+		private final List<Key> keys = new ArrayList<>();
+
+		private final Map<String, List<Key>> keysById = new HashMap<>();
+
+		private final Map<Key, JWSVerifier> verifiers = new IdentityHashMap<>();
+
+		private final Map<Key, JWSVerifier> previousVerifiers;
+
+		private Verifiers(JWKSet jwkSet, JWSAlgorithm algorithm, Verifiers previous) {
+			this.jwkSet = jwkSet;
+			this.algorithm = algorithm;
+			this.previousVerifiers = (previous != null) ? previous.verifiers : Collections.emptyMap();
+
+			if (jwkSet == null) {
+				return;
+			}
+
+			// @formatter:off
+			JWKMatcher jwkMatcher = new JWKMatcher.Builder()
+					.keyType(KeyType.forAlgorithm(algorithm))
+					.keyUses(KeyUse.SIGNATURE, null)
+					.build();
+			// @formatter:on
+
+			for (JWK jwk : new JWKSelector(jwkMatcher).select(jwkSet)) {
+				try {
+					Key key = toVerificationKey(jwk);
+					this.verifiers.put(key, createVerifier(jwk, algorithm));
+					this.keys.add(key);
+
+					if (jwk.getKeyID() != null) {
+						this.keysById.computeIfAbsent(jwk.getKeyID(), id -> new ArrayList<>()).add(key);
+					}
+				}
+				catch (JOSEException e) {
+					// key not usable for verification, e.g. HMAC secret too short
+				}
+			}
+		}
+
+		private List<Key> selectKeys(JWSHeader header) {
+			if (!this.algorithm.equals(header.getAlgorithm())) {
+				return Collections.emptyList();
+			}
+
+			String keyId = header.getKeyID();
+
+			return (keyId != null) ? this.keysById.getOrDefault(keyId, Collections.emptyList()) : this.keys;
+		}
+
+	}
+
+	private final class VerifierFactory implements JWSVerifierFactory {
+
+		private final JCAContext jcaContext = new JCAContext();
+
+		@Override
+		public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+			Verifiers verifiers = JwtBearerAccessTokenAuthenticationResolver.this.verifiers;
+			JWSVerifier verifier = verifiers.verifiers.get(key);
+
+			if (verifier == null) {
+				// the JWK set might have been reloaded after the key had been selected
+				verifier = verifiers.previousVerifiers.get(key);
+			}
+			if (verifier == null) {
+				throw new JOSEException("Unknown verification key");
+			}
+
+			return verifier;
+		}
+
+		@Override
+		public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+			Set<JWSAlgorithm> algorithms = new LinkedHashSet<>();
+			algorithms.addAll(JWSAlgorithm.Family.HMAC_SHA);
+			algorithms.addAll(JWSAlgorithm.Family.SIGNATURE);
+			return algorithms;
+		}
+
+		@Override
+		public JCAContext getJCAContext() {
+			return this.jcaContext;
+		}
+
+	}
+
 }
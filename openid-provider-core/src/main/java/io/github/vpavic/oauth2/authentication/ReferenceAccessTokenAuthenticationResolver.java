@@ -0,0 +1,78 @@
+package io.github.vpavic.oauth2.authentication;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Objects;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import io.github.vpavic.oauth2.endpoint.UserInfoEndpoint;
+import io.github.vpavic.oauth2.token.AccessTokenContext;
+import io.github.vpavic.oauth2.token.AccessTokenStore;
+
+/**
+ * A reference (opaque) Access token based {@link BearerTokenAuthenticationResolver} implementation.
+ *
+ * The access token context is looked up in the {@link AccessTokenStore} and exposed as {@link JWTClaimsSet}
+ * authentication details, the same way {@link JwtBearerAccessTokenAuthenticationResolver} does.
+ *
+ * @author Vedran Pavic
+ */
+public class ReferenceAccessTokenAuthenticationResolver
+		implements BearerTokenAuthenticationResolver, AccessTokenClaimsResolver {
+
+	private static final String CLAIM_CLIENT_ID = "cid";
+
+	private final Issuer issuer;
+
+	private final AccessTokenStore accessTokenStore;
+
+	public ReferenceAccessTokenAuthenticationResolver(Issuer issuer, AccessTokenStore accessTokenStore) {
+		Objects.requireNonNull(issuer, "issuer must not be null");
+		Objects.requireNonNull(accessTokenStore, "accessTokenStore must not be null");
+		this.issuer = issuer;
+		this.accessTokenStore = accessTokenStore;
+	}
+
+	@Override
+	public Authentication resolveAuthentication(String bearerToken) throws Exception {
+		JWTClaimsSet claimsSet = resolveClaims(bearerToken);
+
+		if (!claimsSet.getStringListClaim(UserInfoEndpoint.CLAIM_SCOPE).contains(OIDCScopeValue.OPENID.getValue())) {
+			throw new Exception("Invalid scope");
+		}
+
+		String username = claimsSet.getSubject();
+		PreAuthenticatedAuthenticationToken authentication = new PreAuthenticatedAuthenticationToken(username, "",
+				Collections.emptyList());
+		authentication.setDetails(claimsSet);
+		return authentication;
+	}
+
+	@Override
+	public JWTClaimsSet resolveClaims(String accessToken) throws Exception {
+		AccessTokenContext context = this.accessTokenStore.load(new BearerAccessToken(accessToken));
+
+		if (context == null) {
+			throw new Exception("Invalid access token");
+		}
+
+		// @formatter:off
+		return new JWTClaimsSet.Builder()
+				.issuer(this.issuer.getValue())
+				.subject(context.getSubject().getValue())
+				.audience(this.issuer.getValue())
+				.expirationTime(Date.from(context.getExpiry()))
+				.issueTime(Date.from(context.getIssueTime()))
+				.claim(UserInfoEndpoint.CLAIM_SCOPE, context.getScope().toStringList())
+				.claim(CLAIM_CLIENT_ID, context.getClientId().getValue())
+				.build();
+		// @formatter:on
+	}
+
+}
@@ -0,0 +1,138 @@
+package io.github.vpavic.oauth2.authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+
+/**
+ * A bounded cache of claims of already verified access tokens, keyed by SHA-256 hash of the token.
+ *
+ * An entry is never returned after the expiration time of its token, and is removed once found expired. When the cache
+ * is full, caching another access token removes the least recently used entry. Access tokens without an expiration
+ * time are not cached.
+ *
+ * @author Vedran Pavic
+ */
+public class VerifiedAccessTokenCache {
+
+	private final Map<String, CachedClaims> entries;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	public VerifiedAccessTokenCache(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be greater than zero");
+		}
+		this.entries = new LinkedHashMap<String, CachedClaims>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedClaims> eldest) {
+				return size() > maxSize;
+			}
+
+		};
+	}
+
+	/**
+	 * Get the claims of a previously verified access token.
+	 * @param accessToken the serialized access token
+	 * @return the claims, or {@code null} if the access token isn't cached or has expired
+	 */
+	public JWTClaimsSet get(String accessToken) {
+		Objects.requireNonNull(accessToken, "accessToken must not be null");
+		String key = hash(accessToken);
+		CachedClaims cachedClaims;
+
+		synchronized (this.entries) {
+			cachedClaims = this.entries.get(key);
+
+			if (cachedClaims != null && cachedClaims.isExpired(Instant.now())) {
+				this.entries.remove(key);
+				cachedClaims = null;
+			}
+		}
+
+		if (cachedClaims == null) {
+			this.missCount.increment();
+			return null;
+		}
+
+		this.hitCount.increment();
+		return cachedClaims.claimsSet;
+	}
+
+	/**
+	 * Cache the claims of a verified access token.
+	 * @param accessToken the serialized access token
+	 * @param claimsSet the verified claims
+	 */
+	public void put(String accessToken, JWTClaimsSet claimsSet) {
+		Objects.requireNonNull(accessToken, "accessToken must not be null");
+		Objects.requireNonNull(claimsSet, "claimsSet must not be null");
+		Date expirationTime = claimsSet.getExpirationTime();
+
+		if (expirationTime == null) {
+			return;
+		}
+
+		String key = hash(accessToken);
+		CachedClaims cachedClaims = new CachedClaims(claimsSet, expirationTime.toInstant());
+
+		synchronized (this.entries) {
+			this.entries.put(key, cachedClaims);
+		}
+	}
+
+	public int getSize() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	private static String hash(String accessToken) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			return Base64URL.encode(md.digest(accessToken.getBytes(StandardCharsets.US_ASCII))).toString();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static final class CachedClaims {
+
+		private final JWTClaimsSet claimsSet;
+
+		private final Instant expiry;
+
+		private CachedClaims(JWTClaimsSet claimsSet, Instant expiry) {
+			this.claimsSet = claimsSet;
+			this.expiry = expiry;
+		}
+
+		private boolean isExpired(Instant now) {
+			return !now.isBefore(this.expiry);
+		}
+
+	}
+
+}
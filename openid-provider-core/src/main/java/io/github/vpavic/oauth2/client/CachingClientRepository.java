@@ -0,0 +1,210 @@
+package io.github.vpavic.oauth2.client;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+/**
+ * A {@link ClientRepository} decorator which caches clients found by {@link #findById(ClientID)}, so that repeated
+ * lookups of the same client don't load and parse it each time.
+ *
+ * The cache holds up to 1000 clients for 5 minutes by default, which can be customized using
+ * {@link #setMaxSize(int)} and {@link #setTtl(Duration)}, respectively. Once full, the least recently used client is
+ * evicted. Clients which aren't found aren't cached.
+ *
+ * A client is evicted when it's saved or deleted using this repository, and once more after the current Spring
+ * transaction, if any, is committed, so that the previous state of the client loaded in the meantime isn't cached. If
+ * an {@link #setInvalidationPublisher(ClientInvalidationPublisher) invalidation publisher} is configured, evictions are
+ * also published to it, so that other nodes evict the client too.
+ *
+ * @author Vedran Pavic
+ */
+public class CachingClientRepository implements ClientRepository {
+
+	private static final int DEFAULT_MAX_SIZE = 1000;
+
+	private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+	private static final boolean TRANSACTION_SYNCHRONIZATION_PRESENT = ClassUtils.isPresent(
+			"org.springframework.transaction.support.TransactionSynchronizationManager",
+			CachingClientRepository.class.getClassLoader());
+
+	private final ClientRepository clientRepository;
+
+	private final Map<ClientID, CachedClient> clients = new LinkedHashMap<ClientID, CachedClient>(16, 0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ClientID, CachedClient> eldest) {
+			return size() > CachingClientRepository.this.maxSize;
+		}
+
+	};
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private int maxSize = DEFAULT_MAX_SIZE;
+
+	private Duration ttl = DEFAULT_TTL;
+
+	private ClientInvalidationPublisher invalidationPublisher;
+
+	public CachingClientRepository(ClientRepository clientRepository) {
+		Objects.requireNonNull(clientRepository, "clientRepository must not be null");
+		this.clientRepository = clientRepository;
+	}
+
+	@PostConstruct
+	public void init() {
+		if (this.invalidationPublisher != null) {
+			this.invalidationPublisher.addListener(this::evict);
+		}
+	}
+
+	@Override
+	public void save(OIDCClientInformation client) {
+		Objects.requireNonNull(client, "client must not be null");
+		this.clientRepository.save(client);
+		invalidate(client.getID());
+	}
+
+	@Override
+	public OIDCClientInformation findById(ClientID id) {
+		Objects.requireNonNull(id, "id must not be null");
+		CachedClient cachedClient;
+
+		synchronized (this.clients) {
+			cachedClient = this.clients.get(id);
+		}
+
+		if (cachedClient != null && !cachedClient.isExpired()) {
+			return cachedClient.client;
+		}
+
+		long evictionCount = this.evictionCount.get();
+		OIDCClientInformation client = this.clientRepository.findById(id);
+
+		if (client != null) {
+			cache(id, client, evictionCount);
+		}
+
+		return client;
+	}
+
+	@Override
+	public List<OIDCClientInformation> findAll() {
+		return this.clientRepository.findAll();
+	}
+
+	@Override
+	public void deleteById(ClientID id) {
+		Objects.requireNonNull(id, "id must not be null");
+		this.clientRepository.deleteById(id);
+		invalidate(id);
+	}
+
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be greater than zero");
+		}
+		this.maxSize = maxSize;
+	}
+
+	public void setTtl(Duration ttl) {
+		Objects.requireNonNull(ttl, "ttl must not be null");
+		if (ttl.isZero() || ttl.isNegative()) {
+			throw new IllegalArgumentException("ttl must be positive");
+		}
+		this.ttl = ttl;
+	}
+
+	public void setInvalidationPublisher(ClientInvalidationPublisher invalidationPublisher) {
+		Objects.requireNonNull(invalidationPublisher, "invalidationPublisher must not be null");
+		this.invalidationPublisher = invalidationPublisher;
+	}
+
+	private void cache(ClientID id, OIDCClientInformation client, long evictionCount) {
+		CachedClient cachedClient = new CachedClient(client, System.nanoTime() + this.ttl.toNanos());
+
+		synchronized (this.clients) {
+			// the client might have been loaded before a concurrent eviction, in which case it could be stale
+			if (this.evictionCount.get() == evictionCount) {
+				this.clients.put(id, cachedClient);
+			}
+		}
+	}
+
+	private void invalidate(ClientID id) {
+		evict(id);
+
+		boolean deferred = TRANSACTION_SYNCHRONIZATION_PRESENT && AfterCommitRegistrar.register(() -> {
+			evict(id);
+			publish(id);
+		});
+
+		if (!deferred) {
+			publish(id);
+		}
+	}
+
+	private void evict(ClientID id) {
+		synchronized (this.clients) {
+			this.evictionCount.incrementAndGet();
+			this.clients.remove(id);
+		}
+	}
+
+	private void publish(ClientID id) {
+		if (this.invalidationPublisher != null) {
+			this.invalidationPublisher.publish(id);
+		}
+	}
+
+	private static final class CachedClient {
+
+		private final OIDCClientInformation client;
+
+		private final long expiry;
+
+		private CachedClient(OIDCClientInformation client, long expiry) {
+			this.client = client;
+			this.expiry = expiry;
+		}
+
+		private boolean isExpired() {
+			return System.nanoTime() - this.expiry >= 0;
+		}
+
+	}
+
+	// loaded only when spring-tx is present on the classpath
+	private static final class AfterCommitRegistrar {
+
+		private static boolean register(Runnable afterCommit) {
+			if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+				return false;
+			}
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+				@Override
+				public void afterCommit() {
+					afterCommit.run();
+				}
+
+			});
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,20 @@
+package io.github.vpavic.oauth2.client;
+
+import com.nimbusds.oauth2.sdk.id.ClientID;
+
+/**
+ * Callback notified by {@link DefaultClientService} whenever a client is updated or deleted, used to evict state
+ * derived from the client, such as cached tokens or signers.
+ *
+ * @author Vedran Pavic
+ */
+@FunctionalInterface
+public interface ClientChangeListener {
+
+	/**
+	 * Handle the update or deletion of the client.
+	 * @param id the client ID
+	 */
+	void clientChanged(ClientID id);
+
+}
@@ -0,0 +1,24 @@
+package io.github.vpavic.oauth2.client;
+
+import com.nimbusds.oauth2.sdk.id.ClientID;
+
+/**
+ * Channel used by {@link CachingClientRepository} to propagate client evictions to other nodes.
+ *
+ * @author Vedran Pavic
+ */
+public interface ClientInvalidationPublisher {
+
+	/**
+	 * Publish the invalidation of the client to the other nodes.
+	 * @param id the client ID
+	 */
+	void publish(ClientID id);
+
+	/**
+	 * Register the listener to be notified of the invalidations published by the other nodes.
+	 * @param listener the listener
+	 */
+	void addListener(ClientChangeListener listener);
+
+}
@@ -11,4 +11,6 @@ public interface ClientService {
 
 	OIDCClientInformation update(ClientID id, OIDCClientMetadata metadata) throws InvalidClientException;
 
+	void delete(ClientID id);
+
 }
@@ -2,7 +2,9 @@ package io.github.vpavic.oauth2.client;
 
 import java.net.URI;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -25,6 +27,8 @@ public class DefaultClientService implements ClientService {
 
 	private boolean refreshAccessTokenOnUpdate;
 
+	private List<ClientChangeListener> changeListeners = Collections.emptyList();
+
 	public DefaultClientService(ClientRepository clientRepository, String registrationUriTemplate) {
 		Objects.requireNonNull(clientRepository, "clientRepository must not be null");
 		Objects.requireNonNull(registrationUriTemplate, "registrationUriTemplate must not be null");
@@ -40,6 +44,15 @@ public class DefaultClientService implements ClientService {
 		this.refreshAccessTokenOnUpdate = refreshAccessTokenOnUpdate;
 	}
 
+	/**
+	 * Set the listeners notified whenever a client is updated or deleted.
+	 * @param changeListeners the change listeners
+	 */
+	public void setChangeListeners(List<ClientChangeListener> changeListeners) {
+		Objects.requireNonNull(changeListeners, "changeListeners must not be null");
+		this.changeListeners = changeListeners;
+	}
+
 	@Override
 	@Transactional
 	public OIDCClientInformation create(OIDCClientMetadata metadata, boolean dynamicRegistration) {
@@ -79,10 +92,24 @@ public class DefaultClientService implements ClientService {
 		client = new OIDCClientInformation(id, client.getIDIssueDate(), metadata, secret, client.getRegistrationURI(),
 				accessToken);
 		this.clientRepository.save(client);
+		notifyChanged(id);
 
 		return client;
 	}
 
+	@Override
+	@Transactional
+	public void delete(ClientID id) {
+		this.clientRepository.deleteById(id);
+		notifyChanged(id);
+	}
+
+	private void notifyChanged(ClientID id) {
+		for (ClientChangeListener changeListener : this.changeListeners) {
+			changeListener.clientChanged(id);
+		}
+	}
+
 	private boolean isTokenEndpointAuthEnabled(OIDCClientMetadata metadata) {
 		return !ClientAuthenticationMethod.NONE.equals(metadata.getTokenEndpointAuthMethod());
 	}
@@ -0,0 +1,70 @@
+package io.github.vpavic.oauth2.client;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.PreDestroy;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Hazelcast implementation of {@link ClientInvalidationPublisher}.
+ *
+ * Invalidations are published to a topic named {@code op.clientInvalidations}, which can be customized using
+ * {@link #setTopicName(String)}.
+ *
+ * @author Vedran Pavic
+ */
+public class HazelcastClientInvalidationPublisher implements ClientInvalidationPublisher {
+
+	private static final String DEFAULT_TOPIC_NAME = "op.clientInvalidations";
+
+	private final HazelcastInstance hazelcastInstance;
+
+	private final List<String> listenerRegistrationIds = new CopyOnWriteArrayList<>();
+
+	private String topicName = DEFAULT_TOPIC_NAME;
+
+	public HazelcastClientInvalidationPublisher(HazelcastInstance hazelcastInstance) {
+		Objects.requireNonNull(hazelcastInstance, "hazelcastInstance must not be null");
+		this.hazelcastInstance = hazelcastInstance;
+	}
+
+	@PreDestroy
+	public void destroy() {
+		for (String listenerRegistrationId : this.listenerRegistrationIds) {
+			getTopic().removeMessageListener(listenerRegistrationId);
+		}
+		this.listenerRegistrationIds.clear();
+	}
+
+	@Override
+	public void publish(ClientID id) {
+		Objects.requireNonNull(id, "id must not be null");
+		getTopic().publish(id.getValue());
+	}
+
+	@Override
+	public void addListener(ClientChangeListener listener) {
+		Objects.requireNonNull(listener, "listener must not be null");
+		this.listenerRegistrationIds.add(getTopic()
+				.addMessageListener(message -> listener.clientChanged(new ClientID(message.getMessageObject()))));
+	}
+
+	public void setTopicName(String topicName) {
+		Objects.requireNonNull(topicName, "topicName must not be null");
+		if (StringUtils.isBlank(topicName)) {
+			throw new IllegalArgumentException("topicName must not be empty");
+		}
+		this.topicName = topicName;
+	}
+
+	private ITopic<String> getTopic() {
+		return this.hazelcastInstance.getTopic(this.topicName);
+	}
+
+}
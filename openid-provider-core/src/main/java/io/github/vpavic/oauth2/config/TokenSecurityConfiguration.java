@@ -8,6 +8,7 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.config.http.SessionCreationPolicy;
 
 import io.github.vpavic.oauth2.endpoint.TokenEndpoint;
+import io.github.vpavic.oauth2.endpoint.TokenIntrospectionEndpoint;
 import io.github.vpavic.oauth2.endpoint.TokenRevocationEndpoint;
 
 @Order(0)
@@ -19,7 +20,8 @@ public class TokenSecurityConfiguration extends WebSecurityConfigurerAdapter {
 		// @formatter:off
 		http
 			.requestMatchers()
-				.antMatchers(HttpMethod.POST, TokenEndpoint.PATH_MAPPING, TokenRevocationEndpoint.PATH_MAPPING)
+				.antMatchers(HttpMethod.POST, TokenEndpoint.PATH_MAPPING, TokenRevocationEndpoint.PATH_MAPPING,
+						TokenIntrospectionEndpoint.PATH_MAPPING, TokenIntrospectionEndpoint.BATCH_PATH_MAPPING)
 				.and()
 			.authorizeRequests()
 				.anyRequest().permitAll()
@@ -37,6 +37,7 @@ import com.nimbusds.openid.connect.sdk.claims.AMR;
 import com.nimbusds.openid.connect.sdk.claims.SessionID;
 import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
 import com.nimbusds.openid.connect.sdk.rp.OIDCClientMetadata;
+import com.nimbusds.openid.connect.sdk.token.OIDCTokens;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -51,10 +52,12 @@ import org.springframework.web.servlet.ModelAndView;
 
 import io.github.vpavic.oauth2.client.ClientRepository;
 import io.github.vpavic.oauth2.grant.code.AuthorizationCodeContext;
+import io.github.vpavic.oauth2.grant.code.AuthorizationCodeRejectedException;
 import io.github.vpavic.oauth2.grant.code.AuthorizationCodeService;
 import io.github.vpavic.oauth2.scope.ScopeResolver;
 import io.github.vpavic.oauth2.token.AccessTokenRequest;
 import io.github.vpavic.oauth2.token.IdTokenRequest;
+import io.github.vpavic.oauth2.token.SigningRejectedException;
 import io.github.vpavic.oauth2.token.TokenService;
 
 /**
@@ -140,22 +143,22 @@ public class AuthorizationEndpoint {
 		ResponseType responseType = authRequest.getResponseType();
 		AuthenticationSuccessResponse authResponse;
 
-		if (responseType.impliesCodeFlow()) {
-			authResponse = handleAuthorizationCodeFlow(authRequest, client, request, authentication);
-		}
-		else if (responseType.impliesImplicitFlow()) {
-			authResponse = handleImplicitFlow(authRequest, client, request, authentication);
-		}
-		else if (responseType.impliesHybridFlow()) {
-			authResponse = handleHybridFlow(authRequest, client, request, authentication);
+		try {
+			if (responseType.impliesCodeFlow()) {
+				authResponse = handleAuthorizationCodeFlow(authRequest, client, request, authentication);
+			}
+			else if (responseType.impliesImplicitFlow()) {
+				authResponse = handleImplicitFlow(authRequest, client, request, authentication);
+			}
+			else if (responseType.impliesHybridFlow()) {
+				authResponse = handleHybridFlow(authRequest, client, request, authentication);
+			}
+			else {
+				throw authError(OAuth2Error.UNSUPPORTED_RESPONSE_TYPE, authRequest);
+			}
 		}
-		else {
-			ErrorObject error = OAuth2Error.UNSUPPORTED_RESPONSE_TYPE;
-			URI redirectUri = authRequest.getRedirectionURI();
-			ResponseMode responseMode = authRequest.getResponseMode();
-			State state = authRequest.getState();
-
-			throw new GeneralException(error.getDescription(), error, clientId, redirectUri, responseMode, state);
+		catch (SigningRejectedException | AuthorizationCodeRejectedException e) {
+			throw authError(OAuth2Error.TEMPORARILY_UNAVAILABLE, authRequest);
 		}
 
 		return authResponse(authResponse);
@@ -315,16 +318,20 @@ public class AuthorizationEndpoint {
 		State sessionState = this.sessionManagementEnabled ? State.parse(sessionId.getValue()) : null;
 
 		Scope scope = this.scopeResolver.resolve(subject, requestedScope, client.getOIDCMetadata());
+		IdTokenRequest idTokenRequest = new IdTokenRequest(subject, client, scope, authenticationTime, acr, amr,
+				sessionId, nonce, null, null);
 		AccessToken accessToken = null;
+		JWT idToken;
 
 		if (responseType.contains(ResponseType.Value.TOKEN)) {
 			AccessTokenRequest accessTokenRequest = new AccessTokenRequest(subject, client, scope);
-			accessToken = this.tokenService.createAccessToken(accessTokenRequest);
+			OIDCTokens tokens = this.tokenService.createTokens(accessTokenRequest, idTokenRequest);
+			accessToken = tokens.getAccessToken();
+			idToken = tokens.getIDToken();
+		}
+		else {
+			idToken = this.tokenService.createIdToken(idTokenRequest);
 		}
-
-		IdTokenRequest idTokenRequest = new IdTokenRequest(subject, client, scope, authenticationTime, acr, amr,
-				sessionId, nonce, accessToken, null);
-		JWT idToken = this.tokenService.createIdToken(idTokenRequest);
 
 		return new AuthenticationSuccessResponse(redirectUri, null, idToken, accessToken, state, sessionState,
 				responseMode);
@@ -355,24 +362,52 @@ public class AuthorizationEndpoint {
 				authenticationTime, acr, amr, sessionId, codeChallenge, codeChallengeMethod, nonce);
 		AuthorizationCode code = this.authorizationCodeService.create(context);
 		AccessToken accessToken = null;
-
-		if (responseType.contains(ResponseType.Value.TOKEN)) {
-			AccessTokenRequest accessTokenRequest = new AccessTokenRequest(subject, client, scope);
-			accessToken = this.tokenService.createAccessToken(accessTokenRequest);
-		}
-
 		JWT idToken = null;
 
-		if (responseType.contains(OIDCResponseTypeValue.ID_TOKEN)) {
-			IdTokenRequest idTokenRequest = new IdTokenRequest(subject, client, scope, authenticationTime, acr, amr,
-					sessionId, nonce, accessToken, code);
-			idToken = this.tokenService.createIdToken(idTokenRequest);
+		// the code has to be created first as the ID token carries its hash, so consume it if signing is rejected
+		try {
+			if (responseType.contains(ResponseType.Value.TOKEN)
+					&& responseType.contains(OIDCResponseTypeValue.ID_TOKEN)) {
+				AccessTokenRequest accessTokenRequest = new AccessTokenRequest(subject, client, scope);
+				IdTokenRequest idTokenRequest = new IdTokenRequest(subject, client, scope, authenticationTime, acr,
+						amr, sessionId, nonce, null, code);
+				OIDCTokens tokens = this.tokenService.createTokens(accessTokenRequest, idTokenRequest);
+				accessToken = tokens.getAccessToken();
+				idToken = tokens.getIDToken();
+			}
+			else if (responseType.contains(ResponseType.Value.TOKEN)) {
+				AccessTokenRequest accessTokenRequest = new AccessTokenRequest(subject, client, scope);
+				accessToken = this.tokenService.createAccessToken(accessTokenRequest);
+			}
+			else if (responseType.contains(OIDCResponseTypeValue.ID_TOKEN)) {
+				IdTokenRequest idTokenRequest = new IdTokenRequest(subject, client, scope, authenticationTime, acr,
+						amr, sessionId, nonce, null, code);
+				idToken = this.tokenService.createIdToken(idTokenRequest);
+			}
+		}
+		catch (SigningRejectedException e) {
+			discard(code);
+			throw e;
 		}
 
 		return new AuthenticationSuccessResponse(redirectUri, code, idToken, accessToken, state, sessionState,
 				responseMode);
 	}
 
+	private void discard(AuthorizationCode code) {
+		try {
+			this.authorizationCodeService.consume(code);
+		}
+		catch (GeneralException e) {
+			// code is already unusable
+		}
+	}
+
+	private static GeneralException authError(ErrorObject error, AuthenticationRequest authRequest) {
+		return new GeneralException(error.getDescription(), error, authRequest.getClientID(),
+				authRequest.getRedirectionURI(), authRequest.getResponseMode(), authRequest.getState());
+	}
+
 	private ModelAndView authResponse(AuthorizationResponse authResponse) {
 		if (ResponseMode.FORM_POST.equals(authResponse.getResponseMode())) {
 			return new ModelAndView(FORM_POST_FORWARD_URI, Collections.singletonMap("authResponse", authResponse));
@@ -132,7 +132,7 @@ public class ClientRegistrationEndpoint {
 		ClientDeleteRequest clientDeleteRequest = ClientDeleteRequest.parse(httpRequest);
 		resolveAndValidateClient(id, clientDeleteRequest);
 
-		this.clientRepository.deleteById(id);
+		this.clientService.delete(id);
 
 		// @formatter:off
 		return ResponseEntity.noContent()
@@ -23,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import io.github.vpavic.oauth2.authentication.ClientRequestValidator;
 import io.github.vpavic.oauth2.client.ClientRepository;
 import io.github.vpavic.oauth2.grant.GrantHandler;
+import io.github.vpavic.oauth2.token.SigningRejectedException;
 
 /**
  * OAuth 2.0 and OpenID Connect 1.0 compatible Token Endpoint implementation.
@@ -73,6 +74,11 @@ public class TokenEndpoint {
 		// @formatter:on
 	}
 
+	@ExceptionHandler(SigningRejectedException.class)
+	public ResponseEntity<String> handleSigningRejectedException(SigningRejectedException e) {
+		return handleParseException(new GeneralException(OAuth2Error.TEMPORARILY_UNAVAILABLE));
+	}
+
 	@ExceptionHandler(GeneralException.class)
 	public ResponseEntity<String> handleParseException(GeneralException e) {
 		ErrorObject error = e.getErrorObject();
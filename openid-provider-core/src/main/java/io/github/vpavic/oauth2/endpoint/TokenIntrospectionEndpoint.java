@@ -0,0 +1,269 @@
+package io.github.vpavic.oauth2.endpoint;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.oauth2.sdk.ErrorObject;
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
+import com.nimbusds.oauth2.sdk.ParseException;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.TokenIntrospectionRequest;
+import com.nimbusds.oauth2.sdk.TokenIntrospectionSuccessResponse;
+import com.nimbusds.oauth2.sdk.auth.ClientAuthentication;
+import com.nimbusds.oauth2.sdk.http.CommonContentTypes;
+import com.nimbusds.oauth2.sdk.http.HTTPRequest;
+import com.nimbusds.oauth2.sdk.id.Audience;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.id.JWTID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.AccessTokenType;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import net.minidev.json.JSONArray;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import io.github.vpavic.oauth2.authentication.AccessTokenClaimsResolver;
+import io.github.vpavic.oauth2.authentication.ClientRequestValidator;
+import io.github.vpavic.oauth2.client.ClientRepository;
+import io.github.vpavic.oauth2.grant.refresh.RefreshTokenContext;
+import io.github.vpavic.oauth2.grant.refresh.RefreshTokenStore;
+
+/**
+ * OAuth 2.0 compatible Token Introspection Endpoint implementation.
+ *
+ * Besides the standard single token request, a batch variant is provided which accepts multiple {@code token}
+ * parameters and responds with a JSON array containing an introspection response for each token, in request order.
+ * Access tokens are reported active to any authenticated client, while refresh tokens are reported active only to the
+ * client they were issued to.
+ *
+ * @author Vedran Pavic
+ * @see <a href="https://tools.ietf.org/html/rfc6749">RFC 6749: The OAuth 2.0 Authorization Framework</a>
+ * @see <a href="https://tools.ietf.org/html/rfc7662">RFC 7662: OAuth 2.0 Token Introspection</a>
+ */
+@RequestMapping(path = TokenIntrospectionEndpoint.PATH_MAPPING)
+public class TokenIntrospectionEndpoint {
+
+	public static final String PATH_MAPPING = "/oauth2/introspect";
+
+	public static final String BATCH_PATH_MAPPING = PATH_MAPPING + "/batch";
+
+	private static final String PARAMETER_TOKEN = "token";
+
+	private static final String PARAMETER_TOKEN_TYPE_HINT = "token_type_hint";
+
+	private static final String TOKEN_TYPE_HINT_REFRESH_TOKEN = "refresh_token";
+
+	private static final String CLAIM_CLIENT_ID = "cid";
+
+	private static final TokenIntrospectionSuccessResponse inactiveResponse = new TokenIntrospectionSuccessResponse.Builder(
+			false).build();
+
+	private final AccessTokenClaimsResolver accessTokenClaimsResolver;
+
+	private final RefreshTokenStore refreshTokenStore;
+
+	private final ClientRequestValidator clientRequestValidator;
+
+	private int maxBatchSize = 100;
+
+	public TokenIntrospectionEndpoint(Issuer issuer, ClientRepository clientRepository,
+			AccessTokenClaimsResolver accessTokenClaimsResolver, RefreshTokenStore refreshTokenStore) {
+		Objects.requireNonNull(issuer, "issuer must not be null");
+		Objects.requireNonNull(clientRepository, "clientRepository must not be null");
+		Objects.requireNonNull(accessTokenClaimsResolver, "accessTokenClaimsResolver must not be null");
+		Objects.requireNonNull(refreshTokenStore, "refreshTokenStore must not be null");
+		this.accessTokenClaimsResolver = accessTokenClaimsResolver;
+		this.refreshTokenStore = refreshTokenStore;
+		this.clientRequestValidator = new ClientRequestValidator(issuer, clientRepository);
+	}
+
+	@PostMapping
+	public ResponseEntity<String> handleIntrospectionRequest(HTTPRequest httpRequest) throws Exception {
+		TokenIntrospectionRequest introspectionRequest = TokenIntrospectionRequest.parse(httpRequest);
+		ClientAuthentication clientAuthentication = introspectionRequest.getClientAuthentication();
+		this.clientRequestValidator.validateClientAuthentication(clientAuthentication);
+
+		TokenIntrospectionSuccessResponse introspectionResponse = introspect(clientAuthentication.getClientID(),
+				introspectionRequest.getToken().getValue(),
+				httpRequest.getQueryParameters().get(PARAMETER_TOKEN_TYPE_HINT));
+
+		// @formatter:off
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.body(introspectionResponse.toJSONObject().toJSONString());
+		// @formatter:on
+	}
+
+	@PostMapping(path = "/batch")
+	public ResponseEntity<String> handleBatchIntrospectionRequest(HTTPRequest httpRequest) throws Exception {
+		httpRequest.ensureContentType(CommonContentTypes.APPLICATION_URLENCODED);
+		ClientAuthentication clientAuthentication = ClientAuthentication.parse(httpRequest);
+		this.clientRequestValidator.validateClientAuthentication(clientAuthentication);
+
+		List<String> tokens = parseTokens(httpRequest.getQuery());
+
+		if (tokens.isEmpty()) {
+			throw new ParseException("Missing required token parameter");
+		}
+		if (tokens.size() > this.maxBatchSize) {
+			throw new ParseException("Too many tokens, at most " + this.maxBatchSize + " allowed");
+		}
+
+		String tokenTypeHint = httpRequest.getQueryParameters().get(PARAMETER_TOKEN_TYPE_HINT);
+		JSONArray introspectionResponses = new JSONArray();
+
+		for (String token : tokens) {
+			introspectionResponses
+					.add(introspect(clientAuthentication.getClientID(), token, tokenTypeHint).toJSONObject());
+		}
+
+		// @formatter:off
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.body(introspectionResponses.toJSONString());
+		// @formatter:on
+	}
+
+	@ExceptionHandler(GeneralException.class)
+	public ResponseEntity<String> handleGeneralException(GeneralException e) {
+		ErrorObject error = e.getErrorObject();
+
+		if (error == null) {
+			error = OAuth2Error.INVALID_REQUEST.setDescription(e.getMessage());
+		}
+
+		// @formatter:off
+		return ResponseEntity.status(error.getHTTPStatusCode())
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.body(error.toJSONObject().toJSONString());
+		// @formatter:on
+	}
+
+	public void setMaxBatchSize(int maxBatchSize) {
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("maxBatchSize must be greater than zero");
+		}
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	private TokenIntrospectionSuccessResponse introspect(ClientID clientId, String token, String tokenTypeHint) {
+		TokenIntrospectionSuccessResponse introspectionResponse;
+
+		if (TOKEN_TYPE_HINT_REFRESH_TOKEN.equals(tokenTypeHint)) {
+			introspectionResponse = introspectRefreshToken(clientId, token);
+
+			if (introspectionResponse == null) {
+				introspectionResponse = introspectAccessToken(token);
+			}
+		}
+		else {
+			introspectionResponse = introspectAccessToken(token);
+
+			if (introspectionResponse == null) {
+				introspectionResponse = introspectRefreshToken(clientId, token);
+			}
+		}
+
+		return (introspectionResponse != null) ? introspectionResponse : inactiveResponse;
+	}
+
+	private TokenIntrospectionSuccessResponse introspectAccessToken(String token) {
+		JWTClaimsSet claimsSet;
+		Scope scope;
+		ClientID clientId;
+
+		try {
+			claimsSet = this.accessTokenClaimsResolver.resolveClaims(token);
+			scope = Scope.parse(claimsSet.getStringListClaim(UserInfoEndpoint.CLAIM_SCOPE));
+			String clientIdValue = claimsSet.getStringClaim(CLAIM_CLIENT_ID);
+			clientId = (clientIdValue != null) ? new ClientID(clientIdValue) : null;
+		}
+		catch (Exception e) {
+			return null;
+		}
+
+		List<String> audience = claimsSet.getAudience();
+
+		// @formatter:off
+		return new TokenIntrospectionSuccessResponse.Builder(true)
+				.scope(scope)
+				.clientID(clientId)
+				.tokenType(AccessTokenType.BEARER)
+				.expirationTime(claimsSet.getExpirationTime())
+				.issueTime(claimsSet.getIssueTime())
+				.notBeforeTime(claimsSet.getNotBeforeTime())
+				.subject((claimsSet.getSubject() != null) ? new Subject(claimsSet.getSubject()) : null)
+				.audience(!audience.isEmpty() ? Audience.create(audience) : null)
+				.issuer((claimsSet.getIssuer() != null) ? new Issuer(claimsSet.getIssuer()) : null)
+				.jwtID((claimsSet.getJWTID() != null) ? new JWTID(claimsSet.getJWTID()) : null)
+				.build();
+		// @formatter:on
+	}
+
+	private TokenIntrospectionSuccessResponse introspectRefreshToken(ClientID clientId, String token) {
+		RefreshTokenContext context;
+
+		try {
+			context = this.refreshTokenStore.load(new RefreshToken(token));
+		}
+		catch (Exception e) {
+			return null;
+		}
+
+		if (context == null || !clientId.equals(context.getClientId())) {
+			return null;
+		}
+
+		// @formatter:off
+		return new TokenIntrospectionSuccessResponse.Builder(true)
+				.scope(context.getScope())
+				.clientID(context.getClientId())
+				.expirationTime((context.getExpiry() != null) ? Date.from(context.getExpiry()) : null)
+				.subject(context.getSubject())
+				.build();
+		// @formatter:on
+	}
+
+	private static List<String> parseTokens(String query) throws ParseException {
+		List<String> tokens = new ArrayList<>();
+
+		if (query == null) {
+			return tokens;
+		}
+
+		for (String parameter : query.split("&")) {
+			int separator = parameter.indexOf('=');
+
+			if (separator > 0 && PARAMETER_TOKEN.equals(decode(parameter.substring(0, separator)))) {
+				String token = decode(parameter.substring(separator + 1));
+
+				if (!token.isEmpty()) {
+					tokens.add(token);
+				}
+			}
+		}
+
+		return tokens;
+	}
+
+	private static String decode(String value) throws ParseException {
+		try {
+			return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+		}
+		catch (UnsupportedEncodingException | IllegalArgumentException e) {
+			throw new ParseException("Invalid request parameter encoding", e);
+		}
+	}
+
+}
@@ -27,6 +27,8 @@ public class ClientCredentialsGrantHandler implements GrantHandler {
 
 	private final TokenService tokenService;
 
+	private ClientCredentialsTokenCache tokenCache;
+
 	public ClientCredentialsGrantHandler(ClientRepository clientRepository, ScopeResolver scopeResolver,
 			TokenService tokenService) {
 		Objects.requireNonNull(clientRepository, "clientRepository must not be null");
@@ -48,10 +50,27 @@ public class ClientCredentialsGrantHandler implements GrantHandler {
 
 		OIDCClientInformation client = this.clientRepository.findById(clientId);
 		Scope scope = this.scopeResolver.resolve(subject, tokenRequest.getScope(), client.getOIDCMetadata());
-		AccessTokenRequest accessTokenRequest = new AccessTokenRequest(subject, client, scope);
-		AccessToken accessToken = this.tokenService.createAccessToken(accessTokenRequest);
+		AccessToken accessToken = (this.tokenCache != null) ? this.tokenCache.get(clientId, scope) : null;
+
+		if (accessToken == null) {
+			AccessTokenRequest accessTokenRequest = new AccessTokenRequest(subject, client, scope);
+			accessToken = this.tokenService.createAccessToken(accessTokenRequest);
+
+			if (this.tokenCache != null) {
+				this.tokenCache.put(clientId, scope, accessToken);
+			}
+		}
 
 		return new Tokens(accessToken, null);
 	}
 
+	/**
+	 * Set the cache used to reuse previously issued access tokens. Access tokens are not reused if the cache is not
+	 * set.
+	 * @param tokenCache the token cache
+	 */
+	public void setTokenCache(ClientCredentialsTokenCache tokenCache) {
+		this.tokenCache = tokenCache;
+	}
+
 }
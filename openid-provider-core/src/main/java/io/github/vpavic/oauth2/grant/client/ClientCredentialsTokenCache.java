@@ -0,0 +1,242 @@
+package io.github.vpavic.oauth2.grant.client;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+
+/**
+ * A cache of access tokens issued using Client Credentials Grant, keyed by client ID and resolved scope.
+ *
+ * A cached access token is reused as long as the remaining part of its lifetime is greater than the configured
+ * fraction of the total lifetime, which defaults to {@code 0.5}. Reused tokens report the remaining lifetime.
+ *
+ * The cache holds up to 10000 access tokens by default, which can be customized using {@link #setMaxSize(int)}, and
+ * evicts the least recently used one once full. Access tokens that can no longer be reused are removed by a background
+ * task once per minute by default, which can be customized using {@link #setCleanupInterval(Duration)}.
+ *
+ * The cache is local to the node. Cached tokens of a client should be evicted using {@link #evict(ClientID)} whenever
+ * the client is updated or deleted, which only affects the node the client was changed on.
+ *
+ * @author Vedran Pavic
+ */
+public class ClientCredentialsTokenCache {
+
+	private static final int DEFAULT_MAX_SIZE = 10_000;
+
+	private static final Duration DEFAULT_CLEANUP_INTERVAL = Duration.ofMinutes(1);
+
+	private final Map<Key, CachedToken> entries = new LinkedHashMap<Key, CachedToken>(16, 0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, CachedToken> eldest) {
+			return size() > ClientCredentialsTokenCache.this.maxSize;
+		}
+
+	};
+
+	private double minRemainingLifetime = 0.5;
+
+	private int maxSize = DEFAULT_MAX_SIZE;
+
+	private Duration cleanupInterval = DEFAULT_CLEANUP_INTERVAL;
+
+	private ScheduledExecutorService cleanupExecutor;
+
+	@PostConstruct
+	public void init() {
+		this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "client-credentials-token-cleanup");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = this.cleanupInterval.toNanos();
+		this.cleanupExecutor.scheduleAtFixedRate(this::cleanup, interval, interval, TimeUnit.NANOSECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (this.cleanupExecutor != null) {
+			this.cleanupExecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Get a cached access token.
+	 * @param clientId the client ID
+	 * @param scope the resolved scope
+	 * @return the access token, or {@code null} if there is no reusable access token
+	 */
+	public AccessToken get(ClientID clientId, Scope scope) {
+		Objects.requireNonNull(clientId, "clientId must not be null");
+		Objects.requireNonNull(scope, "scope must not be null");
+		Key key = new Key(clientId, scope);
+		CachedToken cachedToken;
+
+		synchronized (this.entries) {
+			cachedToken = this.entries.get(key);
+
+			if (cachedToken == null) {
+				return null;
+			}
+
+			if (!isReusable(cachedToken, Instant.now())) {
+				this.entries.remove(key);
+				return null;
+			}
+		}
+
+		long remaining = Duration.between(Instant.now(), cachedToken.expiry).getSeconds();
+		return new BearerAccessToken(cachedToken.accessToken.getValue(), remaining, cachedToken.accessToken.getScope());
+	}
+
+	/**
+	 * Cache the access token. Access tokens without lifetime are not cached.
+	 * @param clientId the client ID
+	 * @param scope the resolved scope
+	 * @param accessToken the access token
+	 */
+	public void put(ClientID clientId, Scope scope, AccessToken accessToken) {
+		Objects.requireNonNull(clientId, "clientId must not be null");
+		Objects.requireNonNull(scope, "scope must not be null");
+		Objects.requireNonNull(accessToken, "accessToken must not be null");
+
+		if (accessToken.getLifetime() <= 0) {
+			return;
+		}
+
+		Key key = new Key(clientId, scope);
+		CachedToken cachedToken = new CachedToken(accessToken);
+
+		synchronized (this.entries) {
+			this.entries.put(key, cachedToken);
+		}
+	}
+
+	/**
+	 * Evict all cached access tokens of the client.
+	 * @param clientId the client ID
+	 */
+	public void evict(ClientID clientId) {
+		Objects.requireNonNull(clientId, "clientId must not be null");
+
+		synchronized (this.entries) {
+			this.entries.keySet().removeIf(key -> key.clientId.equals(clientId));
+		}
+	}
+
+	/**
+	 * Set the minimum fraction of the lifetime an access token must have remaining to be reused.
+	 * @param minRemainingLifetime the fraction, between {@code 0} and {@code 1}
+	 */
+	public void setMinRemainingLifetime(double minRemainingLifetime) {
+		if (minRemainingLifetime < 0 || minRemainingLifetime > 1) {
+			throw new IllegalArgumentException("minRemainingLifetime must be between 0 and 1");
+		}
+		this.minRemainingLifetime = minRemainingLifetime;
+	}
+
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be greater than zero");
+		}
+		this.maxSize = maxSize;
+	}
+
+	public void setCleanupInterval(Duration cleanupInterval) {
+		Objects.requireNonNull(cleanupInterval, "cleanupInterval must not be null");
+		if (cleanupInterval.isZero() || cleanupInterval.isNegative()) {
+			throw new IllegalArgumentException("cleanupInterval must be positive");
+		}
+		this.cleanupInterval = cleanupInterval;
+	}
+
+	public int getSize() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	/**
+	 * Remove the access tokens that can no longer be reused.
+	 */
+	void cleanup() {
+		Instant now = Instant.now();
+
+		synchronized (this.entries) {
+			Iterator<CachedToken> iterator = this.entries.values().iterator();
+
+			while (iterator.hasNext()) {
+				if (!isReusable(iterator.next(), now)) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	private boolean isReusable(CachedToken cachedToken, Instant now) {
+		long remaining = Duration.between(now, cachedToken.expiry).getSeconds();
+		return remaining > cachedToken.lifetime * this.minRemainingLifetime;
+	}
+
+	private static final class Key {
+
+		private final ClientID clientId;
+
+		private final Scope scope;
+
+		private Key(ClientID clientId, Scope scope) {
+			this.clientId = clientId;
+			this.scope = new Scope();
+			this.scope.addAll(scope);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return this.clientId.equals(other.clientId) && this.scope.equals(other.scope);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.clientId, this.scope);
+		}
+
+	}
+
+	private static final class CachedToken {
+
+		private final AccessToken accessToken;
+
+		private final long lifetime;
+
+		private final Instant expiry;
+
+		private CachedToken(AccessToken accessToken) {
+			this.accessToken = accessToken;
+			this.lifetime = accessToken.getLifetime();
+			this.expiry = Instant.now().plusSeconds(this.lifetime);
+		}
+
+	}
+
+}
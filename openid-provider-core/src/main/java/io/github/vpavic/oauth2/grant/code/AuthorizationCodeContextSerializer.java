@@ -0,0 +1,109 @@
+package io.github.vpavic.oauth2.grant.code;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+import com.nimbusds.oauth2.sdk.ParseException;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.pkce.CodeChallenge;
+import com.nimbusds.oauth2.sdk.pkce.CodeChallengeMethod;
+import com.nimbusds.openid.connect.sdk.Nonce;
+import com.nimbusds.openid.connect.sdk.claims.ACR;
+import com.nimbusds.openid.connect.sdk.claims.AMR;
+import com.nimbusds.openid.connect.sdk.claims.SessionID;
+
+/**
+ * Hazelcast {@link StreamSerializer} for {@link AuthorizationCodeContext}.
+ *
+ * Writes each value as a length-prefixed string and the authentication time as epoch seconds, avoiding the class
+ * descriptors and per object overhead of Java serialization. Register it in the Hazelcast serialization configuration
+ * of every member and client that accesses the authorization codes map, for instance:
+ *
+ * <pre class="code">
+ * &lt;serialization&gt;
+ *     &lt;serializers&gt;
+ *         &lt;serializer type-class="io.github.vpavic.oauth2.grant.code.AuthorizationCodeContext"
+ *                 class-name="io.github.vpavic.oauth2.grant.code.AuthorizationCodeContextSerializer"/&gt;
+ *     &lt;/serializers&gt;
+ * &lt;/serialization&gt;
+ * </pre>
+ *
+ * @author Vedran Pavic
+ */
+public class AuthorizationCodeContextSerializer implements StreamSerializer<AuthorizationCodeContext> {
+
+	public static final int TYPE_ID = 1001;
+
+	private static final byte VERSION = 1;
+
+	@Override
+	public void write(ObjectDataOutput out, AuthorizationCodeContext context) throws IOException {
+		out.writeByte(VERSION);
+		out.writeUTF(context.getSubject().getValue());
+		out.writeUTF(context.getClientId().getValue());
+		out.writeUTF(context.getRedirectUri().toString());
+		out.writeUTF(context.getScope().toString());
+		out.writeLong(context.getAuthenticationTime().getEpochSecond());
+		out.writeUTF(context.getAcr().getValue());
+		out.writeUTF(context.getAmr().getValue());
+		out.writeUTF(context.getSessionId().getValue());
+		out.writeUTF((context.getCodeChallenge() != null) ? context.getCodeChallenge().getValue() : null);
+		out.writeUTF((context.getCodeChallengeMethod() != null) ? context.getCodeChallengeMethod().getValue() : null);
+		out.writeUTF((context.getNonce() != null) ? context.getNonce().getValue() : null);
+	}
+
+	@Override
+	public AuthorizationCodeContext read(ObjectDataInput in) throws IOException {
+		byte version = in.readByte();
+
+		if (version != VERSION) {
+			throw new IOException("Unsupported authorization code context version: " + version);
+		}
+
+		Subject subject = new Subject(in.readUTF());
+		ClientID clientId = new ClientID(in.readUTF());
+		URI redirectUri = URI.create(in.readUTF());
+		Scope scope = Scope.parse(in.readUTF());
+		Instant authenticationTime = Instant.ofEpochSecond(in.readLong());
+		ACR acr = new ACR(in.readUTF());
+		AMR amr = new AMR(in.readUTF());
+		SessionID sessionId = new SessionID(in.readUTF());
+		CodeChallenge codeChallenge = parseCodeChallenge(in.readUTF());
+		String codeChallengeMethod = in.readUTF();
+		String nonce = in.readUTF();
+
+		return new AuthorizationCodeContext(subject, clientId, redirectUri, (scope != null) ? scope : new Scope(),
+				authenticationTime, acr, amr, sessionId, codeChallenge,
+				(codeChallengeMethod != null) ? CodeChallengeMethod.parse(codeChallengeMethod) : null,
+				(nonce != null) ? new Nonce(nonce) : null);
+	}
+
+	@Override
+	public int getTypeId() {
+		return TYPE_ID;
+	}
+
+	@Override
+	public void destroy() {
+	}
+
+	private static CodeChallenge parseCodeChallenge(String value) throws IOException {
+		if (value == null) {
+			return null;
+		}
+
+		try {
+			return CodeChallenge.parse(value);
+		}
+		catch (ParseException e) {
+			throw new IOException(e);
+		}
+	}
+
+}
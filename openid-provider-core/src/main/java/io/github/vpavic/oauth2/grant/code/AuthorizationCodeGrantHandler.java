@@ -3,7 +3,6 @@ package io.github.vpavic.oauth2.grant.code;
 import java.time.Instant;
 import java.util.Objects;
 
-import com.nimbusds.jwt.JWT;
 import com.nimbusds.oauth2.sdk.AuthorizationCodeGrant;
 import com.nimbusds.oauth2.sdk.GeneralException;
 import com.nimbusds.oauth2.sdk.GrantType;
@@ -16,7 +15,6 @@ import com.nimbusds.oauth2.sdk.id.Subject;
 import com.nimbusds.oauth2.sdk.pkce.CodeChallenge;
 import com.nimbusds.oauth2.sdk.pkce.CodeChallengeMethod;
 import com.nimbusds.oauth2.sdk.pkce.CodeVerifier;
-import com.nimbusds.oauth2.sdk.token.AccessToken;
 import com.nimbusds.oauth2.sdk.token.RefreshToken;
 import com.nimbusds.oauth2.sdk.token.Tokens;
 import com.nimbusds.openid.connect.sdk.Nonce;
@@ -101,7 +99,9 @@ public class AuthorizationCodeGrantHandler implements GrantHandler {
 
 		OIDCClientInformation client = this.clientRepository.findById(clientId);
 		AccessTokenRequest accessTokenRequest = new AccessTokenRequest(subject, client, savedScope);
-		AccessToken accessToken = this.tokenService.createAccessToken(accessTokenRequest);
+		IdTokenRequest idTokenRequest = new IdTokenRequest(subject, client, savedScope, authenticationTime, acr, amr,
+				sessionId, nonce, null, null);
+		OIDCTokens tokens = this.tokenService.createTokens(accessTokenRequest, idTokenRequest);
 		RefreshToken refreshToken = null;
 
 		if (client.getOIDCMetadata().getGrantTypes().contains(GrantType.REFRESH_TOKEN)
@@ -110,11 +110,7 @@ public class AuthorizationCodeGrantHandler implements GrantHandler {
 			refreshToken = this.tokenService.createRefreshToken(refreshTokenRequest);
 		}
 
-		IdTokenRequest idTokenRequest = new IdTokenRequest(subject, client, savedScope, authenticationTime, acr, amr,
-				sessionId, nonce, accessToken, null);
-		JWT idToken = this.tokenService.createIdToken(idTokenRequest);
-
-		return new OIDCTokens(idToken.serialize(), accessToken, refreshToken);
+		return new OIDCTokens(tokens.getIDTokenString(), tokens.getAccessToken(), refreshToken);
 	}
 
 	private static ClientID resolveClientId(TokenRequest tokenRequest) {
@@ -0,0 +1,15 @@
+package io.github.vpavic.oauth2.grant.code;
+
+/**
+ * Thrown by {@link AuthorizationCodeService} implementations when a code cannot be created because the service is at
+ * capacity. Endpoints translate this exception into a {@code temporarily_unavailable} error.
+ *
+ * @author Vedran Pavic
+ */
+public class AuthorizationCodeRejectedException extends RuntimeException {
+
+	public AuthorizationCodeRejectedException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,21 @@
+package io.github.vpavic.oauth2.grant.code;
+
+import java.time.Instant;
+
+/**
+ * Records the IDs of consumed authorization codes, used to enforce single use of self-contained codes.
+ *
+ * @author Vedran Pavic
+ * @see EncryptedAuthorizationCodeService
+ */
+public interface AuthorizationCodeReplayGuard {
+
+	/**
+	 * Mark the code with the given ID as consumed. Implementations need to remember the ID only until the code expires.
+	 * @param codeId the code ID
+	 * @param expiry the code expiry
+	 * @return {@code true} if the code wasn't consumed before, {@code false} otherwise
+	 */
+	boolean markConsumed(String codeId, Instant expiry);
+
+}
@@ -0,0 +1,298 @@
+package io.github.vpavic.oauth2.grant.code;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.crypto.SecretKey;
+
+import com.nimbusds.jose.CompressionAlgorithm;
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.crypto.DirectDecrypter;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.oauth2.sdk.AuthorizationCode;
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.pkce.CodeChallenge;
+import com.nimbusds.oauth2.sdk.pkce.CodeChallengeMethod;
+import com.nimbusds.openid.connect.sdk.Nonce;
+import com.nimbusds.openid.connect.sdk.claims.ACR;
+import com.nimbusds.openid.connect.sdk.claims.AMR;
+import com.nimbusds.openid.connect.sdk.claims.SessionID;
+
+import io.github.vpavic.oauth2.jwk.JwkSetLoader;
+
+/**
+ * Stateless implementation of {@link AuthorizationCodeService} which encodes the {@link AuthorizationCodeContext} into
+ * the code itself, as a compressed JWE encrypted using AES GCM with a direct symmetric key.
+ *
+ * Codes are encrypted using the first {@code oct} key with {@code enc} use in the JWK set, and decrypted using the key
+ * identified by the {@code kid} header, which allows the key to be rotated. Symmetric keys are never published by the
+ * JWK set endpoint. Since no state is written on creation, single use is enforced by recording the code ID in the
+ * {@link AuthorizationCodeReplayGuard} on consumption. By default codes are valid for 5 minutes, which can be
+ * customized using {@link #setCodeLifetime(Duration)}.
+ *
+ * @author Vedran Pavic
+ */
+public class EncryptedAuthorizationCodeService implements AuthorizationCodeService {
+
+	private static final Duration DEFAULT_CODE_LIFETIME = Duration.ofMinutes(5);
+
+	private static final String CLAIM_CLIENT_ID = "cid";
+
+	private static final String CLAIM_REDIRECT_URI = "rdu";
+
+	private static final String CLAIM_SCOPE = "scp";
+
+	private static final String CLAIM_AUTH_TIME = "auth_time";
+
+	private static final String CLAIM_ACR = "acr";
+
+	private static final String CLAIM_AMR = "amr";
+
+	private static final String CLAIM_SESSION_ID = "sid";
+
+	private static final String CLAIM_CODE_CHALLENGE = "cch";
+
+	private static final String CLAIM_CODE_CHALLENGE_METHOD = "ccm";
+
+	private static final String CLAIM_NONCE = "nonce";
+
+	private final JwkSetLoader jwkSetLoader;
+
+	private final AuthorizationCodeReplayGuard replayGuard;
+
+	private Duration codeLifetime = DEFAULT_CODE_LIFETIME;
+
+	private volatile Keys keys = new Keys(null);
+
+	public EncryptedAuthorizationCodeService(JwkSetLoader jwkSetLoader, AuthorizationCodeReplayGuard replayGuard) {
+		Objects.requireNonNull(jwkSetLoader, "jwkSetLoader must not be null");
+		Objects.requireNonNull(replayGuard, "replayGuard must not be null");
+		this.jwkSetLoader = jwkSetLoader;
+		this.replayGuard = replayGuard;
+	}
+
+	@Override
+	public AuthorizationCode create(AuthorizationCodeContext context) {
+		Objects.requireNonNull(context, "context must not be null");
+		Keys keys = resolveKeys();
+
+		if (keys.encryptionKey == null) {
+			throw new IllegalStateException("No authorization code encryption key found");
+		}
+
+		Instant expiry = Instant.now().plus(this.codeLifetime);
+		EncryptedJWT jwt = new EncryptedJWT(keys.header, toClaimsSet(context, expiry));
+
+		try {
+			jwt.encrypt(new DirectEncrypter(keys.encryptionKey));
+		}
+		catch (JOSEException e) {
+			throw new IllegalStateException("Failed to encrypt authorization code", e);
+		}
+
+		return new AuthorizationCode(jwt.serialize());
+	}
+
+	@Override
+	public AuthorizationCodeContext consume(AuthorizationCode code) throws GeneralException {
+		Objects.requireNonNull(code, "code must not be null");
+		JWTClaimsSet claimsSet;
+
+		try {
+			EncryptedJWT jwt = EncryptedJWT.parse(code.getValue());
+			SecretKey key = resolveKeys().decryptionKeys.get(jwt.getHeader().getKeyID());
+
+			if (key == null) {
+				throw new GeneralException(OAuth2Error.INVALID_GRANT);
+			}
+
+			jwt.decrypt(new DirectDecrypter(key));
+			claimsSet = jwt.getJWTClaimsSet();
+		}
+		catch (GeneralException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+
+		Date expirationTime = claimsSet.getExpirationTime();
+
+		if (expirationTime == null || claimsSet.getJWTID() == null || !expirationTime.after(new Date())
+				|| !this.replayGuard.markConsumed(claimsSet.getJWTID(), expirationTime.toInstant())) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+
+		try {
+			return toContext(claimsSet);
+		}
+		catch (Exception e) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+	}
+
+	public void setCodeLifetime(Duration codeLifetime) {
+		Objects.requireNonNull(codeLifetime, "codeLifetime must not be null");
+		if (codeLifetime.isZero() || codeLifetime.isNegative()) {
+			throw new IllegalArgumentException("codeLifetime must be positive");
+		}
+		this.codeLifetime = codeLifetime;
+	}
+
+	private Keys resolveKeys() {
+		JWKSet jwkSet = this.jwkSetLoader.load();
+		Keys keys = this.keys;
+
+		if (keys.jwkSet != jwkSet) {
+			keys = new Keys(jwkSet);
+			this.keys = keys;
+		}
+
+		return keys;
+	}
+
+	private static JWTClaimsSet toClaimsSet(AuthorizationCodeContext context, Instant expiry) {
+		// @formatter:off
+		JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder()
+				.jwtID(UUID.randomUUID().toString())
+				.expirationTime(Date.from(expiry))
+				.subject(context.getSubject().getValue())
+				.claim(CLAIM_CLIENT_ID, context.getClientId().getValue())
+				.claim(CLAIM_REDIRECT_URI, context.getRedirectUri().toString())
+				.claim(CLAIM_SCOPE, context.getScope().toString())
+				.claim(CLAIM_AUTH_TIME, context.getAuthenticationTime().getEpochSecond())
+				.claim(CLAIM_ACR, context.getAcr().getValue())
+				.claim(CLAIM_AMR, context.getAmr().getValue())
+				.claim(CLAIM_SESSION_ID, context.getSessionId().getValue());
+		// @formatter:on
+
+		if (context.getCodeChallenge() != null) {
+			builder.claim(CLAIM_CODE_CHALLENGE, context.getCodeChallenge().getValue());
+		}
+		if (context.getCodeChallengeMethod() != null) {
+			builder.claim(CLAIM_CODE_CHALLENGE_METHOD, context.getCodeChallengeMethod().getValue());
+		}
+		if (context.getNonce() != null) {
+			builder.claim(CLAIM_NONCE, context.getNonce().getValue());
+		}
+
+		return builder.build();
+	}
+
+	private static AuthorizationCodeContext toContext(JWTClaimsSet claimsSet) throws Exception {
+		Scope scope = Scope.parse(claimsSet.getStringClaim(CLAIM_SCOPE));
+		String codeChallenge = claimsSet.getStringClaim(CLAIM_CODE_CHALLENGE);
+		String codeChallengeMethod = claimsSet.getStringClaim(CLAIM_CODE_CHALLENGE_METHOD);
+		String nonce = claimsSet.getStringClaim(CLAIM_NONCE);
+
+		// @formatter:off
+		return new AuthorizationCodeContext(
+				new Subject(claimsSet.getSubject()),
+				new ClientID(claimsSet.getStringClaim(CLAIM_CLIENT_ID)),
+				URI.create(claimsSet.getStringClaim(CLAIM_REDIRECT_URI)),
+				(scope != null) ? scope : new Scope(),
+				Instant.ofEpochSecond(claimsSet.getLongClaim(CLAIM_AUTH_TIME)),
+				new ACR(claimsSet.getStringClaim(CLAIM_ACR)),
+				new AMR(claimsSet.getStringClaim(CLAIM_AMR)),
+				new SessionID(claimsSet.getStringClaim(CLAIM_SESSION_ID)),
+				(codeChallenge != null) ? CodeChallenge.parse(codeChallenge) : null,
+				(codeChallengeMethod != null) ? CodeChallengeMethod.parse(codeChallengeMethod) : null,
+				(nonce != null) ? new Nonce(nonce) : null);
+		// @formatter:on
+	}
+
+	private static EncryptionMethod resolveEncryptionMethod(SecretKey key) {
+		switch (key.getEncoded().length) {
+		case 16:
+			return EncryptionMethod.A128GCM;
+		case 24:
+			return EncryptionMethod.A192GCM;
+		default:
+			return EncryptionMethod.A256GCM;
+		}
+	}
+
+	/**
+	 * Encryption keys resolved from a single {@link JWKSet} instance.
+	 */
+	private static final class Keys {
+
+		private final JWKSet jwkSet;
+
+		private final SecretKey encryptionKey;
+
+		private final JWEHeader header;
+
+		private final Map<String, SecretKey> decryptionKeys;
+
+		private Keys(JWKSet jwkSet) {
+			this.jwkSet = jwkSet;
+
+			if (jwkSet == null) {
+				this.encryptionKey = null;
+				this.header = null;
+				this.decryptionKeys = Collections.emptyMap();
+				return;
+			}
+
+			// @formatter:off
+			JWKMatcher jwkMatcher = new JWKMatcher.Builder()
+					.keyType(KeyType.OCT)
+					.keyUse(KeyUse.ENCRYPTION)
+					.hasKeyID(true)
+					.build();
+			// @formatter:on
+
+			List<JWK> jwks = new JWKSelector(jwkMatcher).select(jwkSet);
+			Map<String, SecretKey> decryptionKeys = new HashMap<>();
+
+			for (JWK jwk : jwks) {
+				decryptionKeys.put(jwk.getKeyID(), ((OctetSequenceKey) jwk).toSecretKey("AES"));
+			}
+
+			if (jwks.isEmpty()) {
+				this.encryptionKey = null;
+				this.header = null;
+			}
+			else {
+				JWK jwk = jwks.get(0);
+				this.encryptionKey = decryptionKeys.get(jwk.getKeyID());
+
+				// @formatter:off
+				this.header = new JWEHeader.Builder(JWEAlgorithm.DIR, resolveEncryptionMethod(this.encryptionKey))
+						.keyID(jwk.getKeyID())
+						.compressionAlgorithm(CompressionAlgorithm.DEF)
+						.build();
+				// @formatter:on
+			}
+
+			this.decryptionKeys = decryptionKeys;
+		}
+
+	}
+
+}
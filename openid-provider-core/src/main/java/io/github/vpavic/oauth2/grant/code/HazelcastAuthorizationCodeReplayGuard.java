@@ -0,0 +1,59 @@
+package io.github.vpavic.oauth2.grant.code;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Hazelcast implementation of {@link AuthorizationCodeReplayGuard}.
+ *
+ * Each consumed code ID is stored as a tombstone that lives until the code expires. By default uses map named
+ * {@code op.consumedAuthorizationCodes}, which can be customized using {@link #setMapName(String)}.
+ *
+ * @author Vedran Pavic
+ */
+public class HazelcastAuthorizationCodeReplayGuard implements AuthorizationCodeReplayGuard {
+
+	private static final String DEFAULT_MAP_NAME = "op.consumedAuthorizationCodes";
+
+	private final HazelcastInstance hazelcastInstance;
+
+	private String mapName = DEFAULT_MAP_NAME;
+
+	private IMap<String, Boolean> consumedCodes;
+
+	public HazelcastAuthorizationCodeReplayGuard(HazelcastInstance hazelcastInstance) {
+		Objects.requireNonNull(hazelcastInstance, "hazelcastInstance must not be null");
+		this.hazelcastInstance = hazelcastInstance;
+	}
+
+	@PostConstruct
+	public void init() {
+		this.consumedCodes = this.hazelcastInstance.getMap(this.mapName);
+	}
+
+	@Override
+	public boolean markConsumed(String codeId, Instant expiry) {
+		Objects.requireNonNull(codeId, "codeId must not be null");
+		Objects.requireNonNull(expiry, "expiry must not be null");
+		// round up, as zero TTL would keep the tombstone forever
+		long ttl = Math.max(Duration.between(Instant.now(), expiry).getSeconds() + 1, 1);
+		return this.consumedCodes.putIfAbsent(codeId, Boolean.TRUE, ttl, TimeUnit.SECONDS) == null;
+	}
+
+	public void setMapName(String mapName) {
+		Objects.requireNonNull(mapName, "mapName must not be null");
+		if (StringUtils.isBlank(mapName)) {
+			throw new IllegalArgumentException("mapName must not be empty");
+		}
+		this.mapName = mapName;
+	}
+
+}
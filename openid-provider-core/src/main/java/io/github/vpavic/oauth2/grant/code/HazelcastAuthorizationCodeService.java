@@ -1,13 +1,22 @@
 package io.github.vpavic.oauth2.grant.code;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
+import com.hazelcast.core.Member;
+import com.hazelcast.core.MigrationEvent;
+import com.hazelcast.core.MigrationListener;
+import com.hazelcast.core.Partition;
+import com.hazelcast.core.PartitionAwareKey;
+import com.hazelcast.core.PartitionService;
 import com.nimbusds.oauth2.sdk.AuthorizationCode;
 import com.nimbusds.oauth2.sdk.GeneralException;
 import com.nimbusds.oauth2.sdk.OAuth2Error;
@@ -19,6 +28,11 @@ import org.apache.commons.lang3.StringUtils;
  * By default uses map named {@code op.authorizationCodes} and code lifetime of 5 minutes. These can be customize using
  * {@link #setMapName(String)} and {@link #setCodeLifetime(Duration)}, respectively.
  *
+ * With {@link #setPartitionAffinity(boolean) partition affinity} enabled, each code is prefixed with a partition key
+ * chosen from the partitions owned by the local member, and stored under a {@link PartitionAwareKey}, so that creating
+ * the code is a local operation, as is consuming it on the same member. Partition affinity requires a member
+ * {@link HazelcastInstance}, and changes the map key format, so it must be enabled on all members at once.
+ *
  * @author Vedran Pavic
  */
 public class HazelcastAuthorizationCodeService implements AuthorizationCodeService {
@@ -27,13 +41,27 @@ public class HazelcastAuthorizationCodeService implements AuthorizationCodeServi
 
 	private static final Duration DEFAULT_CODE_LIFETIME = Duration.ofMinutes(5);
 
+	private static final char PARTITION_KEY_SEPARATOR = '.';
+
 	private final HazelcastInstance hazelcastInstance;
 
 	private String mapName = DEFAULT_MAP_NAME;
 
 	private Duration codeLifetime = DEFAULT_CODE_LIFETIME;
 
-	private IMap<String, AuthorizationCodeContext> codes;
+	private boolean partitionAffinity;
+
+	private IMap<Object, AuthorizationCodeContext> codes;
+
+	private PartitionService partitionService;
+
+	private Member localMember;
+
+	private String[] partitionKeys;
+
+	private volatile int[] localPartitionIds = new int[0];
+
+	private String migrationListenerId;
 
 	public HazelcastAuthorizationCodeService(HazelcastInstance hazelcastInstance) {
 		Objects.requireNonNull(hazelcastInstance, "hazelcastInstance must not be null");
@@ -43,20 +71,59 @@ public class HazelcastAuthorizationCodeService implements AuthorizationCodeServi
 	@PostConstruct
 	public void init() {
 		this.codes = this.hazelcastInstance.getMap(this.mapName);
+
+		if (this.partitionAffinity) {
+			this.partitionService = this.hazelcastInstance.getPartitionService();
+			this.localMember = this.hazelcastInstance.getCluster().getLocalMember();
+			this.partitionKeys = createPartitionKeys(this.partitionService);
+			this.migrationListenerId = this.partitionService.addMigrationListener(new LocalPartitionsListener());
+			refreshLocalPartitions();
+		}
+	}
+
+	@PreDestroy
+	public void destroy() {
+		if (this.migrationListenerId != null) {
+			this.partitionService.removeMigrationListener(this.migrationListenerId);
+		}
 	}
 
 	@Override
 	public AuthorizationCode create(AuthorizationCodeContext context) {
 		Objects.requireNonNull(context, "context must not be null");
-		AuthorizationCode code = new AuthorizationCode();
-		this.codes.put(code.getValue(), context, this.codeLifetime.getSeconds(), TimeUnit.SECONDS);
+		AuthorizationCode code;
+		Object key;
+
+		if (this.partitionAffinity) {
+			String partitionKey = resolveLocalPartitionKey();
+			code = new AuthorizationCode(partitionKey + PARTITION_KEY_SEPARATOR + new AuthorizationCode().getValue());
+			key = new PartitionAwareKey<>(code.getValue(), partitionKey);
+		}
+		else {
+			code = new AuthorizationCode();
+			key = code.getValue();
+		}
+
+		this.codes.put(key, context, this.codeLifetime.getSeconds(), TimeUnit.SECONDS);
 		return code;
 	}
 
 	@Override
 	public AuthorizationCodeContext consume(AuthorizationCode code) throws GeneralException {
 		Objects.requireNonNull(code, "code must not be null");
-		AuthorizationCodeContext context = this.codes.remove(code.getValue());
+		Object key = code.getValue();
+
+		if (this.partitionAffinity) {
+			String partitionKey = extractPartitionKey(code);
+
+			if (partitionKey == null) {
+				throw new GeneralException(OAuth2Error.INVALID_GRANT);
+			}
+
+			key = new PartitionAwareKey<>(code.getValue(), partitionKey);
+		}
+
+		AuthorizationCodeContext context = this.codes.remove(key);
 		if (context == null) {
 			throw new GeneralException(OAuth2Error.INVALID_GRANT);
 		}
@@ -76,4 +143,81 @@ public class HazelcastAuthorizationCodeService implements AuthorizationCodeServi
 		this.codeLifetime = codeLifetime;
 	}
 
+	public void setPartitionAffinity(boolean partitionAffinity) {
+		this.partitionAffinity = partitionAffinity;
+	}
+
+	private String resolveLocalPartitionKey() {
+		int[] localPartitionIds = this.localPartitionIds;
+
+		if (localPartitionIds.length > 0) {
+			int partitionId = localPartitionIds[ThreadLocalRandom.current().nextInt(localPartitionIds.length)];
+			String partitionKey = this.partitionKeys[partitionId];
+
+			// the listener may lag behind ownership changes, so verify against the partition table
+			if (this.localMember.equals(this.partitionService.getPartition(partitionKey).getOwner())) {
+				return partitionKey;
+			}
+
+			refreshLocalPartitions();
+		}
+
+		return this.partitionKeys[ThreadLocalRandom.current().nextInt(this.partitionKeys.length)];
+	}
+
+	private void refreshLocalPartitions() {
+		int[] localPartitionIds = new int[this.partitionKeys.length];
+		int count = 0;
+
+		for (Partition partition : this.partitionService.getPartitions()) {
+			if (this.localMember.equals(partition.getOwner())) {
+				localPartitionIds[count++] = partition.getPartitionId();
+			}
+		}
+
+		this.localPartitionIds = Arrays.copyOf(localPartitionIds, count);
+	}
+
+	private static String extractPartitionKey(AuthorizationCode code) {
+		int separator = code.getValue().indexOf(PARTITION_KEY_SEPARATOR);
+		return (separator > 0) ? code.getValue().substring(0, separator) : null;
+	}
+
+	/**
+	 * Find a short partition key for each partition, by hashing candidate keys until all partitions are covered.
+	 */
+	private static String[] createPartitionKeys(PartitionService partitionService) {
+		String[] partitionKeys = new String[partitionService.getPartitions().size()];
+		int remaining = partitionKeys.length;
+
+		for (int i = 0; remaining > 0; i++) {
+			String candidate = Integer.toString(i, Character.MAX_RADIX);
+			int partitionId = partitionService.getPartition(candidate).getPartitionId();
+
+			if (partitionKeys[partitionId] == null) {
+				partitionKeys[partitionId] = candidate;
+				remaining--;
+			}
+		}
+
+		return partitionKeys;
+	}
+
+	private class LocalPartitionsListener implements MigrationListener {
+
+		@Override
+		public void migrationStarted(MigrationEvent migrationEvent) {
+		}
+
+		@Override
+		public void migrationCompleted(MigrationEvent migrationEvent) {
+			refreshLocalPartitions();
+		}
+
+		@Override
+		public void migrationFailed(MigrationEvent migrationEvent) {
+		}
+
+	}
+
 }
@@ -0,0 +1,41 @@
+package io.github.vpavic.oauth2.grant.code;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory implementation of {@link AuthorizationCodeReplayGuard} backed by a {@link ConcurrentMap}. Expired code IDs
+ * are purged at most once per second, as part of marking a code as consumed.
+ *
+ * @author Vedran Pavic
+ */
+public class InMemoryAuthorizationCodeReplayGuard implements AuthorizationCodeReplayGuard {
+
+	private static final long PURGE_INTERVAL = 1000;
+
+	private final ConcurrentMap<String, Instant> consumedCodes = new ConcurrentHashMap<>();
+
+	private volatile long nextPurge;
+
+	@Override
+	public boolean markConsumed(String codeId, Instant expiry) {
+		Objects.requireNonNull(codeId, "codeId must not be null");
+		Objects.requireNonNull(expiry, "expiry must not be null");
+		long now = System.currentTimeMillis();
+
+		if (now >= this.nextPurge) {
+			this.nextPurge = now + PURGE_INTERVAL;
+			Instant instant = Instant.ofEpochMilli(now);
+			this.consumedCodes.values().removeIf(consumedExpiry -> consumedExpiry.isBefore(instant));
+		}
+
+		return this.consumedCodes.putIfAbsent(codeId, expiry) == null;
+	}
+
+	public int getSize() {
+		return this.consumedCodes.size();
+	}
+
+}
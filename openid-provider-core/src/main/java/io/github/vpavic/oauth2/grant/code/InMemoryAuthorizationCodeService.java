@@ -1,8 +1,21 @@
 package io.github.vpavic.oauth2.grant.code;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import com.nimbusds.oauth2.sdk.AuthorizationCode;
 import com.nimbusds.oauth2.sdk.GeneralException;
@@ -11,28 +24,281 @@ import com.nimbusds.oauth2.sdk.OAuth2Error;
 /**
  * In-memory implementation of {@link AuthorizationCodeService} backed by a {@link ConcurrentMap}.
  *
+ * Codes expire after the configured lifetime, 5 minutes by default. Expiry is tracked using a timing wheel: each code
+ * is placed in the bucket of the tick its lifetime ends in, and a background task drains the due buckets once per
+ * tick, so that both scheduling and expiring a code take constant time. As all codes share the same lifetime, a single
+ * wheel spanning one code lifetime suffices. An expired code is never returned, even if it hasn't been drained yet.
+ *
+ * The number of codes held is limited by a hard capacity, 100000 by default. Once it is reached, the
+ * {@link RejectionPolicy} decides whether new codes are rejected with {@link AuthorizationCodeRejectedException} or
+ * the oldest codes are evicted to make room.
+ *
  * @author Vedran Pavic
  */
 public class InMemoryAuthorizationCodeService implements AuthorizationCodeService {
 
-	private final ConcurrentMap<AuthorizationCode, AuthorizationCodeContext> codes = new ConcurrentHashMap<>();
+	private static final Duration DEFAULT_CODE_LIFETIME = Duration.ofMinutes(5);
+
+	private static final Duration DEFAULT_TICK_DURATION = Duration.ofSeconds(1);
+
+	private static final int DEFAULT_CAPACITY = 100_000;
+
+	private final ConcurrentMap<AuthorizationCode, Entry> codes = new ConcurrentHashMap<>();
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final LongAdder expiredCount = new LongAdder();
+
+	private final LongAdder evictedCount = new LongAdder();
+
+	private final LongAdder rejectedCount = new LongAdder();
+
+	private Duration codeLifetime = DEFAULT_CODE_LIFETIME;
+
+	private Duration tickDuration = DEFAULT_TICK_DURATION;
+
+	private int capacity = DEFAULT_CAPACITY;
+
+	private RejectionPolicy rejectionPolicy = RejectionPolicy.REJECT;
+
+	private List<Set<AuthorizationCode>> wheel;
+
+	private long lastTick;
+
+	private ScheduledExecutorService expiryExecutor;
+
+	public InMemoryAuthorizationCodeService() {
+		resetWheel();
+	}
+
+	@PostConstruct
+	public void init() {
+		this.expiryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "authorization-code-expiry");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = this.tickDuration.toNanos();
+		this.expiryExecutor.scheduleAtFixedRate(this::expire, interval, interval, TimeUnit.NANOSECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (this.expiryExecutor != null) {
+			this.expiryExecutor.shutdownNow();
+		}
+	}
 
 	@Override
 	public AuthorizationCode create(AuthorizationCodeContext context) {
 		Objects.requireNonNull(context, "context must not be null");
+		reserve();
 		AuthorizationCode code = new AuthorizationCode();
-		this.codes.put(code, context);
+		long expiry = System.nanoTime() + this.codeLifetime.toNanos();
+		int bucket = bucket(Math.floorDiv(expiry, this.tickDuration.toNanos()) + 1);
+		this.codes.put(code, new Entry(context, expiry, bucket));
+		this.wheel.get(bucket).add(code);
 		return code;
 	}
 
 	@Override
 	public AuthorizationCodeContext consume(AuthorizationCode code) throws GeneralException {
 		Objects.requireNonNull(code, "code must not be null");
-		AuthorizationCodeContext context = this.codes.remove(code);
-		if (context == null) {
+		Entry entry = this.codes.remove(code);
+		if (entry == null) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		this.size.decrementAndGet();
+		this.wheel.get(entry.bucket).remove(code);
+		if (entry.isExpired(System.nanoTime())) {
+			this.expiredCount.increment();
 			throw new GeneralException(OAuth2Error.INVALID_GRANT);
 		}
-		return context;
+		return entry.context;
+	}
+
+	public void setCodeLifetime(Duration codeLifetime) {
+		Objects.requireNonNull(codeLifetime, "codeLifetime must not be null");
+		if (codeLifetime.isZero() || codeLifetime.isNegative()) {
+			throw new IllegalArgumentException("codeLifetime must be positive");
+		}
+		this.codeLifetime = codeLifetime;
+		resetWheel();
+	}
+
+	/**
+	 * Set the duration of a single timing wheel tick, which is the granularity at which expired codes are removed.
+	 * Defaults to 1 second.
+	 * @param tickDuration the tick duration
+	 */
+	public void setTickDuration(Duration tickDuration) {
+		Objects.requireNonNull(tickDuration, "tickDuration must not be null");
+		if (tickDuration.isZero() || tickDuration.isNegative()) {
+			throw new IllegalArgumentException("tickDuration must be positive");
+		}
+		this.tickDuration = tickDuration;
+		resetWheel();
+	}
+
+	public void setCapacity(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be greater than zero");
+		}
+		this.capacity = capacity;
+	}
+
+	public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+		Objects.requireNonNull(rejectionPolicy, "rejectionPolicy must not be null");
+		this.rejectionPolicy = rejectionPolicy;
+	}
+
+	public int getSize() {
+		return this.size.get();
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	public long getExpiredCount() {
+		return this.expiredCount.sum();
+	}
+
+	public long getEvictedCount() {
+		return this.evictedCount.sum();
+	}
+
+	public long getRejectedCount() {
+		return this.rejectedCount.sum();
+	}
+
+	/**
+	 * Remove the codes from all timing wheel buckets that have become due since the previous invocation.
+	 */
+	synchronized void expire() {
+		long now = System.nanoTime();
+		long currentTick = Math.floorDiv(now, this.tickDuration.toNanos());
+		long firstTick = Math.max(this.lastTick + 1, currentTick - this.wheel.size() + 1);
+
+		for (long tick = firstTick; tick <= currentTick; tick++) {
+			Iterator<AuthorizationCode> iterator = this.wheel.get(bucket(tick)).iterator();
+
+			while (iterator.hasNext()) {
+				AuthorizationCode code = iterator.next();
+				Entry entry = this.codes.get(code);
+
+				if (entry == null) {
+					iterator.remove();
+				}
+				else if (entry.isExpired(now) && this.codes.remove(code, entry)) {
+					iterator.remove();
+					this.size.decrementAndGet();
+					this.expiredCount.increment();
+				}
+			}
+		}
+
+		this.lastTick = Math.max(this.lastTick, currentTick);
+	}
+
+	private void reserve() {
+		boolean expired = false;
+
+		while (true) {
+			int current = this.size.get();
+
+			if (current < this.capacity) {
+				if (this.size.compareAndSet(current, current + 1)) {
+					return;
+				}
+			}
+			else if (!expired) {
+				expire();
+				expired = true;
+			}
+			else if (this.rejectionPolicy != RejectionPolicy.EVICT_OLDEST || !evictOldest()) {
+				this.rejectedCount.increment();
+				throw new AuthorizationCodeRejectedException("Authorization code capacity of " + this.capacity
+						+ " has been reached");
+			}
+		}
+	}
+
+	private synchronized boolean evictOldest() {
+		long tick = this.lastTick + 1;
+
+		for (int i = 0; i < this.wheel.size(); i++, tick++) {
+			Iterator<AuthorizationCode> iterator = this.wheel.get(bucket(tick)).iterator();
+
+			while (iterator.hasNext()) {
+				AuthorizationCode code = iterator.next();
+				iterator.remove();
+
+				if (this.codes.remove(code) != null) {
+					this.size.decrementAndGet();
+					this.evictedCount.increment();
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private synchronized void resetWheel() {
+		long tickNanos = this.tickDuration.toNanos();
+		// one extra bucket for rounding the expiry up, and one more so the bucket being drained is never reused
+		int ticksPerLifetime = (int) Math.min((this.codeLifetime.toNanos() + tickNanos - 1) / tickNanos,
+				Integer.MAX_VALUE - 2);
+		List<Set<AuthorizationCode>> buckets = new ArrayList<>(ticksPerLifetime + 2);
+		while (buckets.size() < ticksPerLifetime + 2) {
+			buckets.add(ConcurrentHashMap.newKeySet());
+		}
+		this.wheel = buckets;
+		this.lastTick = Math.floorDiv(System.nanoTime(), tickNanos);
+		this.codes.clear();
+		this.size.set(0);
+	}
+
+	private int bucket(long tick) {
+		return (int) Math.floorMod(tick, (long) this.wheel.size());
+	}
+
+	/**
+	 * Policy applied when a code is created while the service is at capacity.
+	 */
+	public enum RejectionPolicy {
+
+		/**
+		 * Reject the new code with {@link AuthorizationCodeRejectedException}.
+		 */
+		REJECT,
+
+		/**
+		 * Evict the code closest to expiry to make room for the new code.
+		 */
+		EVICT_OLDEST
+
+	}
+
+	private static final class Entry {
+
+		private final AuthorizationCodeContext context;
+
+		private final long expiry;
+
+		private final int bucket;
+
+		private Entry(AuthorizationCodeContext context, long expiry, int bucket) {
+			this.context = context;
+			this.expiry = expiry;
+			this.bucket = bucket;
+		}
+
+		private boolean isExpired(long now) {
+			return now - this.expiry >= 0;
+		}
+
 	}
 
 }
@@ -0,0 +1,187 @@
+package io.github.vpavic.oauth2.grant.refresh;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Hazelcast implementation of {@link RefreshTokenStore}.
+ *
+ * By default uses map named {@code op.refreshTokens}, which can be customized using {@link #setMapName(String)}.
+ * Entries are stored with time-to-live matching the refresh token expiry, and the map is indexed by client ID and
+ * subject, so that {@link #findByClientIdAndSubject(ClientID, Subject)} is an indexed query. Saving a token replaces
+ * any existing token of the same client and subject.
+ *
+ * For durability, the map can be backed by a map store, such as {@link JdbcRefreshTokenMapStore}, which must be
+ * registered in the Hazelcast configuration of each member before it starts. Queries only cover the entries held by
+ * the map, so tokens that were evicted or not yet loaded from the map store are not returned by
+ * {@link #findByClientIdAndSubject(ClientID, Subject)}. To cover such tokens, revocation of all tokens of a subject or
+ * client is also executed against the table of the map store set using {@link #setMapStore(JdbcRefreshTokenMapStore)}.
+ *
+ * @author Vedran Pavic
+ */
+public class HazelcastRefreshTokenStore implements RefreshTokenStore {
+
+	private static final String DEFAULT_MAP_NAME = "op.refreshTokens";
+
+	private static final String CLIENT_ID_ATTRIBUTE = "clientId.value";
+
+	private static final String SUBJECT_ATTRIBUTE = "subject.value";
+
+	private final HazelcastInstance hazelcastInstance;
+
+	private String mapName = DEFAULT_MAP_NAME;
+
+	private IMap<String, RefreshTokenContext> refreshTokens;
+
+	private JdbcRefreshTokenMapStore mapStore;
+
+	public HazelcastRefreshTokenStore(HazelcastInstance hazelcastInstance) {
+		Objects.requireNonNull(hazelcastInstance, "hazelcastInstance must not be null");
+		this.hazelcastInstance = hazelcastInstance;
+	}
+
+	@PostConstruct
+	public void init() {
+		this.refreshTokens = this.hazelcastInstance.getMap(this.mapName);
+		this.refreshTokens.addIndex(CLIENT_ID_ATTRIBUTE, false);
+		this.refreshTokens.addIndex(SUBJECT_ATTRIBUTE, false);
+	}
+
+	@Override
+	public void save(RefreshTokenContext context) {
+		Objects.requireNonNull(context, "context must not be null");
+		String key = context.getRefreshToken().getValue();
+		for (String existingKey : this.refreshTokens
+				.keySet(clientIdAndSubjectPredicate(context.getClientId(), context.getSubject()))) {
+			if (!existingKey.equals(key)) {
+				this.refreshTokens.delete(existingKey);
+			}
+		}
+		set(context);
+	}
+
+	@Override
+	public RefreshTokenContext load(RefreshToken refreshToken) throws GeneralException {
+		Objects.requireNonNull(refreshToken, "refreshToken must not be null");
+		RefreshTokenContext context = this.refreshTokens.get(refreshToken.getValue());
+		if (context == null) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		else if (context.isExpired()) {
+			this.refreshTokens.delete(refreshToken.getValue());
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		return context;
+	}
+
+	@Override
+	public RefreshTokenContext findByClientIdAndSubject(ClientID clientId, Subject subject) {
+		Objects.requireNonNull(clientId, "clientId must not be null");
+		Objects.requireNonNull(subject, "subject must not be null");
+		for (RefreshTokenContext context : this.refreshTokens.values(clientIdAndSubjectPredicate(clientId, subject))) {
+			if (!context.isExpired()) {
+				return context;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public RefreshTokenContext rotate(RefreshToken refreshToken, RefreshTokenContext context) throws GeneralException {
+		Objects.requireNonNull(refreshToken, "refreshToken must not be null");
+		Objects.requireNonNull(context, "context must not be null");
+		RefreshTokenContext current = this.refreshTokens.get(refreshToken.getValue());
+		if (current == null || !current.getClientId().equals(context.getClientId())
+				|| !current.getSubject().equals(context.getSubject())) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		if (current.isExpired()) {
+			this.refreshTokens.delete(refreshToken.getValue());
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		// only the first of concurrent rotations removes the entry
+		if (this.refreshTokens.remove(refreshToken.getValue()) == null) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		set(context);
+		return context;
+	}
+
+	@Override
+	public void revoke(RefreshToken refreshToken) {
+		Objects.requireNonNull(refreshToken, "refreshToken must not be null");
+		this.refreshTokens.delete(refreshToken.getValue());
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void revokeAllBySubject(Subject subject) {
+		Objects.requireNonNull(subject, "subject must not be null");
+		revokeAll(Predicates.equal(SUBJECT_ATTRIBUTE, subject.getValue()));
+		if (this.mapStore != null) {
+			this.mapStore.deleteAllBySubject(subject);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void revokeAllByClientId(ClientID clientId) {
+		Objects.requireNonNull(clientId, "clientId must not be null");
+		revokeAll(Predicates.equal(CLIENT_ID_ATTRIBUTE, clientId.getValue()));
+		if (this.mapStore != null) {
+			this.mapStore.deleteAllByClientId(clientId);
+		}
+	}
+
+	public void setMapName(String mapName) {
+		Objects.requireNonNull(mapName, "mapName must not be null");
+		if (StringUtils.isBlank(mapName)) {
+			throw new IllegalArgumentException("mapName must not be empty");
+		}
+		this.mapName = mapName;
+	}
+
+	/**
+	 * Set the map store backing the map, which is used to revoke tokens that aren't held by the map.
+	 * @param mapStore the map store
+	 */
+	public void setMapStore(JdbcRefreshTokenMapStore mapStore) {
+		Objects.requireNonNull(mapStore, "mapStore must not be null");
+		this.mapStore = mapStore;
+	}
+
+	private void revokeAll(Predicate<String, RefreshTokenContext> predicate) {
+		for (String key : this.refreshTokens.keySet(predicate)) {
+			this.refreshTokens.delete(key);
+		}
+	}
+
+	private void set(RefreshTokenContext context) {
+		Instant expiry = context.getExpiry();
+		long ttl = (expiry != null) ? Math.max(Duration.between(Instant.now(), expiry).getSeconds(), 1) : 0;
+		this.refreshTokens.set(context.getRefreshToken().getValue(), context, ttl, TimeUnit.SECONDS);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Predicate<String, RefreshTokenContext> clientIdAndSubjectPredicate(ClientID clientId,
+			Subject subject) {
+		return Predicates.and(Predicates.equal(CLIENT_ID_ATTRIBUTE, clientId.getValue()),
+				Predicates.equal(SUBJECT_ATTRIBUTE, subject.getValue()));
+	}
+
+}
@@ -1,9 +1,19 @@
 package io.github.vpavic.oauth2.grant.refresh;
 
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import com.nimbusds.oauth2.sdk.GeneralException;
 import com.nimbusds.oauth2.sdk.OAuth2Error;
@@ -14,27 +24,81 @@ import com.nimbusds.oauth2.sdk.token.RefreshToken;
 /**
  * In-memory implementation of {@link RefreshTokenStore} backed by a {@link ConcurrentMap}.
  *
+ * Tokens are additionally indexed by client ID and subject, so that
+ * {@link #findByClientIdAndSubject(ClientID, Subject)} takes constant time regardless of the number of stored tokens.
+ * The client ID and subject pairs are in turn indexed by subject and by client ID, so that revocation of all tokens of
+ * a subject or client only visits the tokens being revoked. The indexes are updated atomically per client ID and
+ * subject pair on save, rotate, revoke and expiry.
+ *
+ * Expired tokens are never returned, and are removed by a background sweeper running once per minute by default,
+ * which can be customized using {@link #setSweepInterval(Duration)}.
+ *
  * @author Vedran Pavic
  */
 public class InMemoryRefreshTokenStore implements RefreshTokenStore {
 
+	private static final Duration DEFAULT_SWEEP_INTERVAL = Duration.ofMinutes(1);
+
 	private final ConcurrentMap<RefreshToken, RefreshTokenContext> refreshTokens = new ConcurrentHashMap<>();
 
+	private final ConcurrentMap<IndexKey, Set<RefreshToken>> clientIdAndSubjectIndex = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<Subject, Set<IndexKey>> subjectIndex = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<ClientID, Set<IndexKey>> clientIdIndex = new ConcurrentHashMap<>();
+
+	private final LongAdder expiredCount = new LongAdder();
+
+	private Duration sweepInterval = DEFAULT_SWEEP_INTERVAL;
+
+	private ScheduledExecutorService sweepExecutor;
+
+	@PostConstruct
+	public void init() {
+		this.sweepExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "refresh-token-expiry");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = this.sweepInterval.toNanos();
+		this.sweepExecutor.scheduleAtFixedRate(this::expire, interval, interval, TimeUnit.NANOSECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (this.sweepExecutor != null) {
+			this.sweepExecutor.shutdownNow();
+		}
+	}
+
 	@Override
 	public void save(RefreshTokenContext context) {
 		Objects.requireNonNull(context, "context must not be null");
-		this.refreshTokens.put(context.getRefreshToken(), context);
+		RefreshToken refreshToken = context.getRefreshToken();
+		RefreshTokenContext[] previous = new RefreshTokenContext[1];
+		// store the token while holding the index entry, so that a concurrent revoke can't leave it dangling
+		this.clientIdAndSubjectIndex.compute(new IndexKey(context.getClientId(), context.getSubject()),
+				(key, refreshTokens) -> {
+					Set<RefreshToken> result = (refreshTokens != null) ? refreshTokens
+							: ConcurrentHashMap.newKeySet();
+					previous[0] = this.refreshTokens.put(refreshToken, context);
+					result.add(refreshToken);
+					return indexKey(key, result);
+				});
+		if (previous[0] != null) {
+			unindex(previous[0]);
+		}
 	}
 
 	@Override
 	public RefreshTokenContext load(RefreshToken refreshToken) throws GeneralException {
 		Objects.requireNonNull(refreshToken, "refreshToken must not be null");
-		RefreshTokenContext context = this.refreshTokens.remove(refreshToken);
+		RefreshTokenContext context = this.refreshTokens.get(refreshToken);
 		if (context == null) {
 			throw new GeneralException(OAuth2Error.INVALID_GRANT);
 		}
 		else if (context.isExpired()) {
-			this.refreshTokens.remove(refreshToken);
+			removeExpired(context);
 			throw new GeneralException(OAuth2Error.INVALID_GRANT);
 		}
 		return context;
@@ -44,25 +108,205 @@ public class InMemoryRefreshTokenStore implements RefreshTokenStore {
 	public RefreshTokenContext findByClientIdAndSubject(ClientID clientId, Subject subject) {
 		Objects.requireNonNull(clientId, "clientId must not be null");
 		Objects.requireNonNull(subject, "subject must not be null");
+		Set<RefreshToken> refreshTokens = this.clientIdAndSubjectIndex.get(new IndexKey(clientId, subject));
+		if (refreshTokens == null) {
+			return null;
+		}
 		RefreshTokenContext result = null;
-		for (Map.Entry<RefreshToken, RefreshTokenContext> entry : this.refreshTokens.entrySet()) {
-			RefreshTokenContext context = entry.getValue();
-			if (clientId.equals(context.getClientId()) && subject.equals(context.getSubject())) {
-				if (context.isExpired()) {
-					this.refreshTokens.remove(context.getRefreshToken());
-				}
-				else {
-					result = context;
-				}
+		for (RefreshToken refreshToken : refreshTokens) {
+			RefreshTokenContext context = this.refreshTokens.get(refreshToken);
+			if (context == null) {
+				continue;
+			}
+			if (context.isExpired()) {
+				removeExpired(context);
+			}
+			else {
+				result = context;
 			}
 		}
 		return result;
 	}
 
+	@Override
+	public RefreshTokenContext rotate(RefreshToken refreshToken, RefreshTokenContext context) throws GeneralException {
+		Objects.requireNonNull(refreshToken, "refreshToken must not be null");
+		Objects.requireNonNull(context, "context must not be null");
+		RefreshTokenContext current = this.refreshTokens.get(refreshToken);
+		if (current == null || !current.getClientId().equals(context.getClientId())
+				|| !current.getSubject().equals(context.getSubject())) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		if (current.isExpired()) {
+			removeExpired(current);
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		boolean[] rotated = new boolean[1];
+		this.clientIdAndSubjectIndex.compute(new IndexKey(context.getClientId(), context.getSubject()),
+				(key, refreshTokens) -> {
+					Set<RefreshToken> result = (refreshTokens != null) ? refreshTokens
+							: ConcurrentHashMap.newKeySet();
+					// only the first of concurrent rotations finds the current context still in place
+					if (this.refreshTokens.remove(refreshToken, current)) {
+						result.remove(refreshToken);
+						this.refreshTokens.put(context.getRefreshToken(), context);
+						result.add(context.getRefreshToken());
+						rotated[0] = true;
+					}
+					return indexKey(key, result);
+				});
+		if (!rotated[0]) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		return context;
+	}
+
 	@Override
 	public void revoke(RefreshToken refreshToken) {
 		Objects.requireNonNull(refreshToken, "refreshToken must not be null");
-		this.refreshTokens.remove(refreshToken);
+		RefreshTokenContext context = this.refreshTokens.remove(refreshToken);
+		if (context != null) {
+			unindex(context);
+		}
+	}
+
+	@Override
+	public void revokeAllBySubject(Subject subject) {
+		Objects.requireNonNull(subject, "subject must not be null");
+		revokeAll(this.subjectIndex.get(subject));
+	}
+
+	@Override
+	public void revokeAllByClientId(ClientID clientId) {
+		Objects.requireNonNull(clientId, "clientId must not be null");
+		revokeAll(this.clientIdIndex.get(clientId));
+	}
+
+	public void setSweepInterval(Duration sweepInterval) {
+		Objects.requireNonNull(sweepInterval, "sweepInterval must not be null");
+		if (sweepInterval.isZero() || sweepInterval.isNegative()) {
+			throw new IllegalArgumentException("sweepInterval must be positive");
+		}
+		this.sweepInterval = sweepInterval;
+	}
+
+	public int getSize() {
+		return this.refreshTokens.size();
+	}
+
+	public long getExpiredCount() {
+		return this.expiredCount.sum();
+	}
+
+	/**
+	 * Remove all expired tokens.
+	 */
+	void expire() {
+		Iterator<Map.Entry<RefreshToken, RefreshTokenContext>> iterator = this.refreshTokens.entrySet().iterator();
+
+		while (iterator.hasNext()) {
+			RefreshTokenContext context = iterator.next().getValue();
+
+			if (context.isExpired()) {
+				removeExpired(context);
+			}
+		}
+	}
+
+	private void revokeAll(Set<IndexKey> keys) {
+		if (keys == null) {
+			return;
+		}
+		for (IndexKey key : keys) {
+			Set<RefreshToken> refreshTokens = this.clientIdAndSubjectIndex.get(key);
+			if (refreshTokens != null) {
+				refreshTokens.forEach(this::revoke);
+			}
+		}
+	}
+
+	private void removeExpired(RefreshTokenContext context) {
+		if (this.refreshTokens.remove(context.getRefreshToken(), context)) {
+			unindex(context);
+			this.expiredCount.increment();
+		}
+	}
+
+	private void unindex(RefreshTokenContext context) {
+		RefreshToken refreshToken = context.getRefreshToken();
+		this.clientIdAndSubjectIndex.computeIfPresent(new IndexKey(context.getClientId(), context.getSubject()),
+				(key, refreshTokens) -> {
+					// the token may have been saved again under the same pair, in which case it stays indexed
+					RefreshTokenContext current = this.refreshTokens.get(refreshToken);
+					if (current == null || !key.equals(new IndexKey(current.getClientId(), current.getSubject()))) {
+						refreshTokens.remove(refreshToken);
+					}
+					return indexKey(key, refreshTokens);
+				});
+	}
+
+	/**
+	 * Add the client ID and subject pair to, or remove it from, the subject and client ID indexes, depending on whether
+	 * it has any tokens. Must be called while holding the pair's entry, so that updates of a pair are serialized.
+	 * @param key the client ID and subject pair
+	 * @param refreshTokens the tokens of the pair
+	 * @return the tokens of the pair, or {@code null} if there are none
+	 */
+	private Set<RefreshToken> indexKey(IndexKey key, Set<RefreshToken> refreshTokens) {
+		if (refreshTokens.isEmpty()) {
+			removeKey(this.subjectIndex, key.subject, key);
+			removeKey(this.clientIdIndex, key.clientId, key);
+			return null;
+		}
+		addKey(this.subjectIndex, key.subject, key);
+		addKey(this.clientIdIndex, key.clientId, key);
+		return refreshTokens;
+	}
+
+	private static <T> void addKey(ConcurrentMap<T, Set<IndexKey>> index, T value, IndexKey key) {
+		index.compute(value, (v, keys) -> {
+			Set<IndexKey> result = (keys != null) ? keys : ConcurrentHashMap.newKeySet();
+			result.add(key);
+			return result;
+		});
+	}
+
+	private static <T> void removeKey(ConcurrentMap<T, Set<IndexKey>> index, T value, IndexKey key) {
+		index.computeIfPresent(value, (v, keys) -> {
+			keys.remove(key);
+			return keys.isEmpty() ? null : keys;
+		});
+	}
+
+	private static final class IndexKey {
+
+		private final ClientID clientId;
+
+		private final Subject subject;
+
+		private IndexKey(ClientID clientId, Subject subject) {
+			this.clientId = clientId;
+			this.subject = subject;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			IndexKey other = (IndexKey) obj;
+			return this.clientId.equals(other.clientId) && this.subject.equals(other.subject);
+		}
+
+		@Override
+		public int hashCode() {
+			// plain 31 * h1 + h2 collides heavily for similarly structured string values, so mix the client hash first
+			return (this.clientId.hashCode() * 0x9E3779B9) ^ this.subject.hashCode();
+		}
+
 	}
 
 }
@@ -0,0 +1,155 @@
+package io.github.vpavic.oauth2.grant.refresh;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.MapLoaderLifecycleSupport;
+import com.hazelcast.core.MapStore;
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+
+/**
+ * Hazelcast {@link MapStore} which persists refresh tokens using a {@link JdbcRefreshTokenStore}, for use with
+ * {@link HazelcastRefreshTokenStore}.
+ *
+ * The given store is initialized and shut down along with the map. As the store keeps only token digests, keys can't
+ * be enumerated, so the map is never loaded eagerly and tokens are loaded from the table on first access. Entries
+ * expiring in the map are evicted without being deleted from the table, so expired tokens are removed by invoking
+ * {@link JdbcRefreshTokenStore#cleanExpiredTokens()} once per hour by default, which can be customized using
+ * {@link #setCleanupInterval(Duration)}.
+ *
+ * The map store must be registered in the configuration of the map before the Hazelcast instance starts, for instance:
+ *
+ * <pre class="code">
+ * MapStoreConfig mapStoreConfig = new MapStoreConfig()
+ *         .setImplementation(new JdbcRefreshTokenMapStore(refreshTokenStore))
+ *         .setWriteDelaySeconds(1)
+ *         .setInitialLoadMode(MapStoreConfig.InitialLoadMode.LAZY);
+ * config.addMapConfig(new MapConfig("op.refreshTokens").setMapStoreConfig(mapStoreConfig));
+ * </pre>
+ *
+ * @author Vedran Pavic
+ */
+public class JdbcRefreshTokenMapStore implements MapStore<String, RefreshTokenContext>, MapLoaderLifecycleSupport {
+
+	private static final Duration DEFAULT_CLEANUP_INTERVAL = Duration.ofHours(1);
+
+	private final JdbcRefreshTokenStore refreshTokenStore;
+
+	private Duration cleanupInterval = DEFAULT_CLEANUP_INTERVAL;
+
+	private ScheduledExecutorService cleanupExecutor;
+
+	public JdbcRefreshTokenMapStore(JdbcRefreshTokenStore refreshTokenStore) {
+		Objects.requireNonNull(refreshTokenStore, "refreshTokenStore must not be null");
+		this.refreshTokenStore = refreshTokenStore;
+	}
+
+	@Override
+	public void init(HazelcastInstance hazelcastInstance, Properties properties, String mapName) {
+		this.refreshTokenStore.init();
+		this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "refresh-token-cleanup");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = this.cleanupInterval.toNanos();
+		this.cleanupExecutor.scheduleAtFixedRate(this.refreshTokenStore::cleanExpiredTokens, interval, interval,
+				TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void destroy() {
+		if (this.cleanupExecutor != null) {
+			this.cleanupExecutor.shutdownNow();
+		}
+		try {
+			this.refreshTokenStore.shutdown();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void store(String key, RefreshTokenContext context) {
+		this.refreshTokenStore.save(context);
+	}
+
+	@Override
+	public void storeAll(Map<String, RefreshTokenContext> contexts) {
+		contexts.values().forEach(this.refreshTokenStore::save);
+	}
+
+	@Override
+	public void delete(String key) {
+		this.refreshTokenStore.revoke(new RefreshToken(key));
+	}
+
+	@Override
+	public void deleteAll(Collection<String> keys) {
+		keys.forEach(this::delete);
+	}
+
+	@Override
+	public RefreshTokenContext load(String key) {
+		try {
+			return this.refreshTokenStore.load(new RefreshToken(key));
+		}
+		catch (GeneralException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public Map<String, RefreshTokenContext> loadAll(Collection<String> keys) {
+		Map<String, RefreshTokenContext> contexts = new HashMap<>();
+		for (String key : keys) {
+			RefreshTokenContext context = load(key);
+			if (context != null) {
+				contexts.put(key, context);
+			}
+		}
+		return contexts;
+	}
+
+	@Override
+	public Iterable<String> loadAllKeys() {
+		return null;
+	}
+
+	/**
+	 * Delete all tokens of the given subject from the table, including those not held by the map.
+	 * @param subject the subject
+	 */
+	public void deleteAllBySubject(Subject subject) {
+		this.refreshTokenStore.revokeAllBySubject(subject);
+	}
+
+	/**
+	 * Delete all tokens of the given client from the table, including those not held by the map.
+	 * @param clientId the client ID
+	 */
+	public void deleteAllByClientId(ClientID clientId) {
+		this.refreshTokenStore.revokeAllByClientId(clientId);
+	}
+
+	public void setCleanupInterval(Duration cleanupInterval) {
+		Objects.requireNonNull(cleanupInterval, "cleanupInterval must not be null");
+		if (cleanupInterval.isZero() || cleanupInterval.isNegative()) {
+			throw new IllegalArgumentException("cleanupInterval must be positive");
+		}
+		this.cleanupInterval = cleanupInterval;
+	}
+
+}
@@ -0,0 +1,320 @@
+package io.github.vpavic.oauth2.grant.refresh;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * The partitioned table layout of {@link JdbcRefreshTokenStore}, which stores expiring tokens in tables partitioned by
+ * the week of their expiry, while tokens that don't expire remain in the table.
+ *
+ * Known partitions are cached, so that saves don't query the partitions table. The cache is updated whenever this
+ * instance creates or drops partitions. As other nodes might have created partitions since, the cache is reloaded when
+ * a token that is loaded, rotated or revoked isn't found in the known partitions, and before revoking all tokens of a
+ * subject or client.
+ *
+ * Partitions are created using a definition supported by H2 and PostgreSQL, so other databases are rejected on
+ * {@link #init()}.
+ *
+ * @author Vedran Pavic
+ */
+final class JdbcRefreshTokenPartitions {
+
+	private static final String STATEMENT_TEMPLATE_CREATE_PARTITION = "CREATE TABLE IF NOT EXISTS %s (token_hash %s PRIMARY KEY, client_id VARCHAR(100) NOT NULL, subject VARCHAR(30) NOT NULL, scope VARCHAR(200) NOT NULL, expiry BIGINT NOT NULL)";
+
+	private static final String STATEMENT_TEMPLATE_DROP_PARTITION = "DROP TABLE IF EXISTS %s";
+
+	private static final String STATEMENT_TEMPLATE_INSERT_PARTITION = "INSERT INTO %s(week_start) VALUES (?)";
+
+	private static final String STATEMENT_TEMPLATE_SELECT_PARTITIONS = "SELECT week_start FROM %s WHERE week_start > ?";
+
+	private static final String STATEMENT_TEMPLATE_SELECT_ENDED_PARTITIONS = "SELECT week_start FROM %s WHERE week_start <= ?";
+
+	private static final String STATEMENT_TEMPLATE_DELETE_PARTITION = "DELETE FROM %s WHERE week_start = ?";
+
+	private static final String PARTITIONS_TABLE_NAME_SUFFIX = "_partitions";
+
+	private static final Duration PARTITION_PERIOD = Duration.ofDays(7);
+
+	private static final Duration PARTITION_DROP_DELAY = Duration.ofHours(1);
+
+	private static final DateTimeFormatter PARTITION_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd")
+			.withZone(ZoneOffset.UTC);
+
+	private final JdbcOperations jdbcOperations;
+
+	private final TransactionOperations transactionOperations;
+
+	private final String tableName;
+
+	private final String statementInsertPartition;
+
+	private final String statementSelectPartitions;
+
+	private final String statementSelectEndedPartitions;
+
+	private final String statementDeletePartition;
+
+	private String tokenHashType;
+
+	private volatile List<Long> partitions = Collections.emptyList();
+
+	JdbcRefreshTokenPartitions(JdbcOperations jdbcOperations, TransactionOperations transactionOperations,
+			String tableName) {
+		Objects.requireNonNull(jdbcOperations, "jdbcOperations must not be null");
+		Objects.requireNonNull(tableName, "tableName must not be null");
+		this.jdbcOperations = jdbcOperations;
+		this.transactionOperations = transactionOperations;
+		this.tableName = tableName;
+		String partitionsTableName = tableName + PARTITIONS_TABLE_NAME_SUFFIX;
+		this.statementInsertPartition = String.format(STATEMENT_TEMPLATE_INSERT_PARTITION, partitionsTableName);
+		this.statementSelectPartitions = String.format(STATEMENT_TEMPLATE_SELECT_PARTITIONS, partitionsTableName);
+		this.statementSelectEndedPartitions = String.format(STATEMENT_TEMPLATE_SELECT_ENDED_PARTITIONS,
+				partitionsTableName);
+		this.statementDeletePartition = String.format(STATEMENT_TEMPLATE_DELETE_PARTITION, partitionsTableName);
+	}
+
+	/**
+	 * Resolve the partition definition for the database and load the known partitions.
+	 * @throws IllegalStateException if the database doesn't support partitioning
+	 */
+	void init() {
+		String databaseProductName = this.jdbcOperations
+				.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+		this.tokenHashType = resolveTokenHashType(databaseProductName);
+		loadPartitions();
+	}
+
+	void save(RefreshTokenContext context) {
+		// partitions are created outside of the transaction, as DDL commits implicitly on some databases
+		String table = createPartition(context.getExpiry());
+		this.jdbcOperations.update(String.format(JdbcRefreshTokenStore.STATEMENT_TEMPLATE_INSERT, table),
+				JdbcRefreshTokenStore.insertArgs(context));
+	}
+
+	void saveAll(List<RefreshTokenContext> contexts) {
+		Map<String, List<Object[]>> insertArgs = new LinkedHashMap<>();
+
+		for (RefreshTokenContext context : contexts) {
+			insertArgs.computeIfAbsent(createPartition(context.getExpiry()), table -> new ArrayList<>())
+					.add(JdbcRefreshTokenStore.insertArgs(context));
+		}
+
+		inTransaction(() -> {
+			insertArgs.forEach((table, args) -> this.jdbcOperations
+					.batchUpdate(String.format(JdbcRefreshTokenStore.STATEMENT_TEMPLATE_INSERT, table), args));
+			return null;
+		});
+	}
+
+	RefreshTokenContext load(RefreshToken refreshToken) throws GeneralException {
+		List<String> tables = tables(this.partitions);
+		RefreshTokenContext context = find(refreshToken, tables);
+		if (context == null) {
+			List<String> currentTables = tables(loadPartitions());
+			if (!currentTables.equals(tables)) {
+				context = find(refreshToken, currentTables);
+			}
+		}
+		// expired tokens are deleted along with their partition
+		if (context == null || context.isExpired()) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		return context;
+	}
+
+	RefreshTokenContext rotate(RefreshToken refreshToken, RefreshTokenContext context) throws GeneralException {
+		String partition = createPartition(context.getExpiry());
+		List<String> tables = tables(this.partitions);
+		boolean rotated = replace(refreshToken, context, partition, tables);
+		if (!rotated) {
+			List<String> currentTables = tables(loadPartitions());
+			if (!currentTables.equals(tables)) {
+				rotated = replace(refreshToken, context, partition, currentTables);
+			}
+		}
+		if (!rotated) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		return context;
+	}
+
+	void revoke(RefreshToken refreshToken) {
+		byte[] tokenHash = JdbcRefreshTokenStore.hash(refreshToken);
+		List<String> tables = tables(this.partitions);
+		if (deleteFrom(tables, JdbcRefreshTokenStore.STATEMENT_TEMPLATE_DELETE_BY_TOKEN, tokenHash) == 0) {
+			List<String> currentTables = tables(loadPartitions());
+			if (!currentTables.equals(tables)) {
+				deleteFrom(currentTables, JdbcRefreshTokenStore.STATEMENT_TEMPLATE_DELETE_BY_TOKEN, tokenHash);
+			}
+		}
+	}
+
+	void revokeAllBySubject(Subject subject) {
+		deleteFrom(tables(loadPartitions()), JdbcRefreshTokenStore.STATEMENT_TEMPLATE_DELETE_BY_SUBJECT,
+				subject.getValue());
+	}
+
+	void revokeAllByClientId(ClientID clientId) {
+		deleteFrom(tables(loadPartitions()), JdbcRefreshTokenStore.STATEMENT_TEMPLATE_DELETE_BY_CLIENT_ID,
+				clientId.getValue());
+	}
+
+	/**
+	 * Drop the partitions whose week ended more than an hour ago.
+	 */
+	void dropEnded() {
+		long ended = Instant.now().minus(PARTITION_PERIOD).minus(PARTITION_DROP_DELAY).getEpochSecond();
+		List<Long> weekStarts = this.jdbcOperations.queryForList(this.statementSelectEndedPartitions, Long.class,
+				ended);
+		for (long weekStart : weekStarts) {
+			this.jdbcOperations.update(this.statementDeletePartition, weekStart);
+			this.jdbcOperations.execute(String.format(STATEMENT_TEMPLATE_DROP_PARTITION, partitionTableName(weekStart)));
+		}
+		if (!weekStarts.isEmpty()) {
+			loadPartitions();
+		}
+	}
+
+	private boolean replace(RefreshToken refreshToken, RefreshTokenContext context, String partition,
+			List<String> tables) {
+		// the replacement might belong to another partition, so the token is deleted, which only matches it if it
+		// hasn't expired or already been replaced, and the replacement inserted
+		byte[] tokenHash = JdbcRefreshTokenStore.hash(refreshToken);
+		long now = Instant.now().getEpochSecond();
+		Object[] args = JdbcRefreshTokenStore.insertArgs(context);
+		return inTransaction(() -> {
+			int deleted = 0;
+			for (String table : tables) {
+				deleted += this.jdbcOperations.update(
+						String.format(JdbcRefreshTokenStore.STATEMENT_TEMPLATE_DELETE_UNEXPIRED_TOKEN, table),
+						tokenHash, context.getClientId().getValue(), context.getSubject().getValue(), now);
+			}
+			if (deleted != 1) {
+				return false;
+			}
+			this.jdbcOperations.update(String.format(JdbcRefreshTokenStore.STATEMENT_TEMPLATE_INSERT, partition),
+					args);
+			return true;
+		});
+	}
+
+	private RefreshTokenContext find(RefreshToken refreshToken, List<String> tables) {
+		String statement = tables.stream()
+				.map(table -> String.format(JdbcRefreshTokenStore.STATEMENT_TEMPLATE_SELECT_BY_TOKEN, table))
+				.collect(Collectors.joining(" UNION ALL "));
+		Object[] args = Collections.nCopies(tables.size(), JdbcRefreshTokenStore.hash(refreshToken)).toArray();
+		try {
+			return this.jdbcOperations.queryForObject(statement, JdbcRefreshTokenStore.contextMapper(refreshToken),
+					args);
+		}
+		catch (EmptyResultDataAccessException e) {
+			return null;
+		}
+	}
+
+	private int deleteFrom(List<String> tables, String statementTemplate, Object arg) {
+		int deleted = 0;
+		for (String table : tables) {
+			deleted += this.jdbcOperations.update(String.format(statementTemplate, table), arg);
+		}
+		return deleted;
+	}
+
+	private <T> T inTransaction(Supplier<T> action) {
+		if (this.transactionOperations != null) {
+			return this.transactionOperations.execute(status -> action.get());
+		}
+		return action.get();
+	}
+
+	private List<Long> loadPartitions() {
+		long since = Instant.now().minus(PARTITION_PERIOD).getEpochSecond();
+		List<Long> partitions = this.jdbcOperations.queryForList(this.statementSelectPartitions, Long.class, since);
+		Collections.sort(partitions);
+		this.partitions = Collections.unmodifiableList(partitions);
+		return this.partitions;
+	}
+
+	private synchronized void addPartition(long weekStart) {
+		List<Long> partitions = new ArrayList<>(this.partitions);
+		if (!partitions.contains(weekStart)) {
+			partitions.add(weekStart);
+			Collections.sort(partitions);
+			this.partitions = Collections.unmodifiableList(partitions);
+		}
+	}
+
+	private List<String> tables(List<Long> partitions) {
+		long now = Instant.now().getEpochSecond();
+		List<String> tables = new ArrayList<>(partitions.size() + 1);
+		tables.add(this.tableName);
+		for (long weekStart : partitions) {
+			if (weekStart + PARTITION_PERIOD.getSeconds() > now) {
+				tables.add(partitionTableName(weekStart));
+			}
+		}
+		return tables;
+	}
+
+	private String createPartition(Instant expiry) {
+		if (expiry == null) {
+			return this.tableName;
+		}
+		long weekStart = expiry.atOffset(ZoneOffset.UTC).toLocalDate()
+				.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay(ZoneOffset.UTC)
+				.toEpochSecond();
+		String partitionTableName = partitionTableName(weekStart);
+		if (!this.partitions.contains(weekStart)) {
+			// the partition must exist before it's registered, as registered partitions are queried by other nodes
+			this.jdbcOperations.execute(
+					String.format(STATEMENT_TEMPLATE_CREATE_PARTITION, partitionTableName, this.tokenHashType));
+			try {
+				this.jdbcOperations.update(this.statementInsertPartition, weekStart);
+			}
+			catch (DuplicateKeyException e) {
+				// registered concurrently by another node
+			}
+			addPartition(weekStart);
+		}
+		return partitionTableName;
+	}
+
+	private String partitionTableName(long weekStart) {
+		return this.tableName + "_" + PARTITION_NAME_FORMATTER.format(Instant.ofEpochSecond(weekStart));
+	}
+
+	private static String resolveTokenHashType(String databaseProductName) {
+		if ("H2".equals(databaseProductName)) {
+			return "BINARY(32)";
+		}
+		if ("PostgreSQL".equals(databaseProductName)) {
+			return "BYTEA";
+		}
+		throw new IllegalStateException(
+				"Partitioning is only supported on H2 and PostgreSQL, not on " + databaseProductName);
+	}
+
+}
@@ -1,11 +1,32 @@
 package io.github.vpavic.oauth2.grant.refresh;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import com.nimbusds.oauth2.sdk.GeneralException;
 import com.nimbusds.oauth2.sdk.OAuth2Error;
@@ -19,6 +40,7 @@ import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 /**
  * A JDBC implementation of {@link RefreshTokenStore}.
@@ -27,47 +49,135 @@ import org.springframework.transaction.annotation.Transactional;
  *
  * <pre class="code">
  * CREATE TABLE refresh_tokens (
- *   token VARCHAR(43) PRIMARY KEY,
- *   subject VARCHAR(30) NOT NULL,
+ *   token_hash BINARY(32) PRIMARY KEY,
  *   client_id VARCHAR(100) NOT NULL,
+ *   subject VARCHAR(30) NOT NULL,
  *   scope VARCHAR(200) NOT NULL,
  *   expiry BIGINT NOT NULL
  * );
+ *
+ * CREATE INDEX refresh_tokens_expiry_idx ON refresh_tokens (expiry);
+ * CREATE INDEX refresh_tokens_subject_idx ON refresh_tokens (subject);
  * </pre>
  *
  * Table name can be customize using {@link #setTableName(String)}.
  *
+ * Tokens are never stored as is, but as their SHA-256 digest, which keeps the primary key narrow and ensures that the
+ * table contents can't be used to obtain tokens. As a consequence, an existing token can't be recovered from the
+ * table, so {@link #findByClientIdAndSubject(ClientID, Subject)} never returns one, and each authorization of a
+ * client by a subject, for instance from another device, is issued its own token, which is kept alongside the
+ * existing ones. Saves are executed using the configured {@link #setTransactionOperations(TransactionOperations)
+ * transaction operations}, if any, as they are not annotated with {@link Transactional}, so that they don't hold a
+ * connection while waiting for write-behind.
+ *
+ * Expired tokens are removed by {@link #cleanExpiredTokens()} in batches of 1000 rows by default, with a pause of 100
+ * milliseconds between batches, so that each delete holds locks on a bounded number of rows. These can be customized
+ * using {@link #setCleanupBatchSize(int)} and {@link #setCleanupBatchPause(Duration)}, respectively.
+ *
+ * With {@link #setWriteBehind(boolean) write-behind} enabled, saves from concurrent requests are queued and written by
+ * a background writer using JDBC batches, in a single transaction per batch, which requires transaction operations to
+ * be configured. A batch is written once it reaches 100 tokens or 5 milliseconds after its first token was queued,
+ * which can be customized using {@link #setWriteBehindBatchSize(int)} and {@link #setWriteBehindMaxDelay(Duration)},
+ * respectively. Each save still blocks until its batch is committed, and fails if the batch fails, so no acknowledged
+ * token is lost. Queued tokens are visible to {@link #load(RefreshToken)} and to revocations before they are
+ * written.
+ *
+ * With {@link #setPartitioned(boolean) partitioning} enabled, expiring tokens are stored in tables partitioned by the
+ * week of their expiry, starting on Monday UTC, and named after the table and the first day of the week, for instance
+ * {@code refresh_tokens_20180312}, while tokens that don't expire remain in the table. Partitions are created on first
+ * use and tracked in a table named after the table with a {@code _partitions} suffix, with the following definition:
+ *
+ * <pre class="code">
+ * CREATE TABLE refresh_tokens_partitions (
+ *   week_start BIGINT PRIMARY KEY
+ * );
+ * </pre>
+ *
+ * Lookups only query the table and the partitions whose week hasn't ended, and {@link #cleanExpiredTokens()} drops
+ * each partition an hour after its week has ended, instead of deleting expired tokens row by row. Known partitions are
+ * cached, and reloaded only when a token isn't found in them or when revoking all tokens of a subject or client.
+ * Partitioning is supported on H2 and PostgreSQL only, which is verified on {@link #init()}, and requires the database
+ * user to be allowed to create and drop tables.
+ *
  * @author Vedran Pavic
  */
 public class JdbcRefreshTokenStore implements RefreshTokenStore {
 
 	private static final String DEFAULT_TABLE_NAME = "refresh_tokens";
 
-	private static final String STATEMENT_TEMPLATE_INSERT = "INSERT INTO %s(token, client_id, subject, scope, expiry) VALUES (?, ?, ?, ?, ?)";
+	static final String STATEMENT_TEMPLATE_INSERT = "INSERT INTO %s(token_hash, client_id, subject, scope, expiry) VALUES (?, ?, ?, ?, ?)";
+
+	static final String STATEMENT_TEMPLATE_SELECT_BY_TOKEN = "SELECT client_id, subject, scope, expiry FROM %s WHERE token_hash = ?";
 
-	private static final String STATEMENT_TEMPLATE_SELECT_BY_TOKEN = "SELECT token, client_id, subject, scope, expiry FROM %s WHERE token = ?";
+	private static final String STATEMENT_TEMPLATE_UPDATE_TOKEN = "UPDATE %s SET token_hash = ?, scope = ?, expiry = ? WHERE token_hash = ? AND client_id = ? AND subject = ? AND (expiry = 0 OR expiry >= ?)";
 
-	private static final String STATEMENT_TEMPLATE_SELECT_BY_CLIENT_AND_SUBJECT = "SELECT token, client_id, subject, scope, expiry FROM %s WHERE client_id = ? AND subject = ?";
+	static final String STATEMENT_TEMPLATE_DELETE_BY_TOKEN = "DELETE FROM %s WHERE token_hash = ?";
 
-	private static final String STATEMENT_TEMPLATE_DELETE_BY_TOKEN = "DELETE FROM %s WHERE token = ?";
+	static final String STATEMENT_TEMPLATE_DELETE_BY_SUBJECT = "DELETE FROM %s WHERE subject = ?";
 
-	private static final String STATEMENT_TEMPLATE_DELETE_EXPIRED = "DELETE FROM %s WHERE expiry > 0 AND expiry < ?";
+	static final String STATEMENT_TEMPLATE_DELETE_BY_CLIENT_ID = "DELETE FROM %s WHERE client_id = ?";
 
-	private static final RefreshTokenContextMapper refreshTokenContextMapper = new RefreshTokenContextMapper();
+	private static final String STATEMENT_TEMPLATE_SELECT_EXPIRED = "SELECT token_hash FROM %s WHERE expiry > 0 AND expiry < ?";
+
+	static final String STATEMENT_TEMPLATE_DELETE_UNEXPIRED_TOKEN = "DELETE FROM %s WHERE token_hash = ? AND client_id = ? AND subject = ? AND (expiry = 0 OR expiry >= ?)";
+
+	private static final int DEFAULT_CLEANUP_BATCH_SIZE = 1000;
+
+	private static final Duration DEFAULT_CLEANUP_BATCH_PAUSE = Duration.ofMillis(100);
+
+	private static final int DEFAULT_WRITE_BEHIND_BATCH_SIZE = 100;
+
+	private static final Duration DEFAULT_WRITE_BEHIND_MAX_DELAY = Duration.ofMillis(5);
 
 	private final JdbcOperations jdbcOperations;
 
+	private final LongAdder cleanupCount = new LongAdder();
+
+	private final LongAdder cleanupTime = new LongAdder();
+
+	private final LongAdder cleanedTokenCount = new LongAdder();
+
+	private final BlockingQueue<PendingSave> pendingSaveQueue = new LinkedBlockingQueue<>();
+
+	private final ConcurrentMap<RefreshToken, PendingSave> pendingSaves = new ConcurrentHashMap<>();
+
+	private final ReadWriteLock writerLock = new ReentrantReadWriteLock();
+
 	private String tableName = DEFAULT_TABLE_NAME;
 
+	private int cleanupBatchSize = DEFAULT_CLEANUP_BATCH_SIZE;
+
+	private Duration cleanupBatchPause = DEFAULT_CLEANUP_BATCH_PAUSE;
+
+	private boolean writeBehind;
+
+	private TransactionOperations transactionOperations;
+
+	private int writeBehindBatchSize = DEFAULT_WRITE_BEHIND_BATCH_SIZE;
+
+	private Duration writeBehindMaxDelay = DEFAULT_WRITE_BEHIND_MAX_DELAY;
+
+	private ExecutorService writer;
+
+	private volatile boolean writerRunning;
+
+	private boolean partitioned;
+
+	private JdbcRefreshTokenPartitions partitions;
+
 	private String statementInsert;
 
 	private String statementSelectByToken;
 
-	private String statementSelectByClientIdAndSubject;
+	private String statementUpdateToken;
 
 	private String statementDeleteByToken;
 
-	private String statementDeleteExpired;
+	private String statementDeleteBySubject;
+
+	private String statementDeleteByClientId;
+
+	private String statementSelectExpired;
 
 	public JdbcRefreshTokenStore(JdbcOperations jdbcOperations) {
 		Objects.requireNonNull(jdbcOperations, "jdbcOperations must not be null");
@@ -77,31 +187,100 @@ public class JdbcRefreshTokenStore implements RefreshTokenStore {
 	@PostConstruct
 	public void init() {
 		prepareStatements();
+
+		if (this.partitioned) {
+			this.partitions = new JdbcRefreshTokenPartitions(this.jdbcOperations, this.transactionOperations,
+					this.tableName);
+			this.partitions.init();
+		}
+
+		if (this.writeBehind) {
+			if (this.transactionOperations == null) {
+				throw new IllegalStateException("transactionOperations must be set to enable write-behind");
+			}
+			this.writer = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "refresh-token-writer");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.writerRunning = true;
+			this.writer.execute(this::writePendingSaves);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		if (this.writer == null) {
+			return;
+		}
+		this.writerLock.writeLock().lock();
+		try {
+			this.writerRunning = false;
+		}
+		finally {
+			this.writerLock.writeLock().unlock();
+		}
+		// the writer drains the queue before exiting
+		this.writer.shutdown();
+		this.writer.awaitTermination(10, TimeUnit.SECONDS);
 	}
 
 	@Override
-	@Transactional
 	public void save(RefreshTokenContext context) {
 		Objects.requireNonNull(context, "context must not be null");
-		Instant expiry = context.getExpiry();
-		this.jdbcOperations.update(this.statementInsert, ps -> {
-			ps.setString(1, context.getRefreshToken().getValue());
-			ps.setString(2, context.getClientId().getValue());
-			ps.setString(3, context.getSubject().getValue());
-			ps.setString(4, context.getScope().toString());
-			ps.setLong(5, (expiry != null) ? expiry.getEpochSecond() : 0);
-		});
+		PendingSave pendingSave = null;
+
+		if (this.writer != null) {
+			this.writerLock.readLock().lock();
+			try {
+				if (this.writerRunning) {
+					pendingSave = new PendingSave(context);
+					this.pendingSaves.put(context.getRefreshToken(), pendingSave);
+					this.pendingSaveQueue.add(pendingSave);
+				}
+			}
+			finally {
+				this.writerLock.readLock().unlock();
+			}
+		}
+
+		if (pendingSave != null) {
+			awaitWritten(pendingSave);
+		}
+		else if (this.partitions != null) {
+			this.partitions.save(context);
+		}
+		else if (this.transactionOperations != null) {
+			this.transactionOperations.execute(status -> {
+				insert(context);
+				return null;
+			});
+		}
+		else {
+			insert(context);
+		}
 	}
 
 	@Override
 	@Transactional(readOnly = true)
 	public RefreshTokenContext load(RefreshToken refreshToken) throws GeneralException {
 		Objects.requireNonNull(refreshToken, "refreshToken must not be null");
+		PendingSave pendingSave = this.pendingSaves.get(refreshToken);
+		if (pendingSave != null) {
+			if (pendingSave.context.isExpired()) {
+				throw new GeneralException(OAuth2Error.INVALID_GRANT);
+			}
+			return pendingSave.context;
+		}
+		if (this.partitions != null) {
+			return this.partitions.load(refreshToken);
+		}
+		byte[] tokenHash = hash(refreshToken);
 		try {
 			RefreshTokenContext context = this.jdbcOperations.queryForObject(this.statementSelectByToken,
-					refreshTokenContextMapper, refreshToken.getValue());
+					contextMapper(refreshToken), tokenHash);
 			if (context.isExpired()) {
-				this.jdbcOperations.update(this.statementDeleteByToken, ps -> ps.setString(1, refreshToken.getValue()));
+				this.jdbcOperations.update(this.statementDeleteByToken, ps -> ps.setBytes(1, tokenHash));
 				throw new GeneralException(OAuth2Error.INVALID_GRANT);
 			}
 			return context;
@@ -111,36 +290,120 @@ public class JdbcRefreshTokenStore implements RefreshTokenStore {
 		}
 	}
 
+	/**
+	 * Always returns {@code null}, as only token digests are stored, which causes a new token to be issued. Saving it
+	 * keeps the existing tokens of the same client and subject, so that other sessions remain valid.
+	 */
 	@Override
-	@Transactional
 	public RefreshTokenContext findByClientIdAndSubject(ClientID clientId, Subject subject) {
 		Objects.requireNonNull(clientId, "clientId must not be null");
 		Objects.requireNonNull(subject, "subject must not be null");
-		try {
-			RefreshTokenContext context = this.jdbcOperations.queryForObject(this.statementSelectByClientIdAndSubject,
-					refreshTokenContextMapper, clientId.getValue(), subject.getValue());
-			if (context.isExpired()) {
-				this.jdbcOperations.update(this.statementDeleteByToken,
-						ps -> ps.setString(1, context.getRefreshToken().getValue()));
-				return null;
-			}
-			return context;
+		return null;
+	}
+
+	/**
+	 * Rotate the token using a single conditional update, which only matches the given token if it hasn't expired or
+	 * already been replaced.
+	 */
+	@Override
+	public RefreshTokenContext rotate(RefreshToken refreshToken, RefreshTokenContext context) throws GeneralException {
+		Objects.requireNonNull(refreshToken, "refreshToken must not be null");
+		Objects.requireNonNull(context, "context must not be null");
+		awaitPendingSave(refreshToken);
+		if (this.partitions != null) {
+			return this.partitions.rotate(refreshToken, context);
 		}
-		catch (EmptyResultDataAccessException e) {
-			return null;
+		Instant expiry = context.getExpiry();
+		int updated = this.jdbcOperations.update(this.statementUpdateToken, ps -> {
+			ps.setBytes(1, hash(context.getRefreshToken()));
+			ps.setString(2, context.getScope().toString());
+			ps.setLong(3, (expiry != null) ? expiry.getEpochSecond() : 0);
+			ps.setBytes(4, hash(refreshToken));
+			ps.setString(5, context.getClientId().getValue());
+			ps.setString(6, context.getSubject().getValue());
+			ps.setLong(7, Instant.now().getEpochSecond());
+		});
+		if (updated != 1) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
 		}
+		return context;
 	}
 
 	@Override
 	@Transactional
 	public void revoke(RefreshToken refreshToken) {
 		Objects.requireNonNull(refreshToken, "refreshToken must not be null");
-		this.jdbcOperations.update(this.statementDeleteByToken, ps -> ps.setString(1, refreshToken.getValue()));
+		// let the queued insert complete first, so that it can't resurrect the revoked token
+		awaitPendingSave(refreshToken);
+		if (this.partitions != null) {
+			this.partitions.revoke(refreshToken);
+			return;
+		}
+		this.jdbcOperations.update(this.statementDeleteByToken, ps -> ps.setBytes(1, hash(refreshToken)));
+	}
+
+	@Override
+	@Transactional
+	public void revokeAllBySubject(Subject subject) {
+		Objects.requireNonNull(subject, "subject must not be null");
+		awaitPendingSaves(context -> context.getSubject().equals(subject));
+		if (this.partitions != null) {
+			this.partitions.revokeAllBySubject(subject);
+			return;
+		}
+		this.jdbcOperations.update(this.statementDeleteBySubject, ps -> ps.setString(1, subject.getValue()));
+	}
+
+	@Override
+	@Transactional
+	public void revokeAllByClientId(ClientID clientId) {
+		Objects.requireNonNull(clientId, "clientId must not be null");
+		awaitPendingSaves(context -> context.getClientId().equals(clientId));
+		if (this.partitions != null) {
+			this.partitions.revokeAllByClientId(clientId);
+			return;
+		}
+		this.jdbcOperations.update(this.statementDeleteByClientId, ps -> ps.setString(1, clientId.getValue()));
 	}
 
 	@Scheduled(cron = "0 0 * * * *")
 	public void cleanExpiredTokens() {
-		this.jdbcOperations.update(this.statementDeleteExpired, ps -> ps.setLong(1, Instant.now().getEpochSecond()));
+		long start = System.nanoTime();
+		long now = Instant.now().getEpochSecond();
+
+		try {
+			while (true) {
+				List<byte[]> tokenHashes = this.jdbcOperations.query(connection -> {
+					PreparedStatement ps = connection.prepareStatement(this.statementSelectExpired);
+					ps.setMaxRows(this.cleanupBatchSize);
+					ps.setLong(1, now);
+					return ps;
+				}, (rs, rowNum) -> rs.getBytes("token_hash"));
+
+				int deleted = deleteBatch(tokenHashes);
+				this.cleanedTokenCount.add(deleted);
+
+				if (tokenHashes.size() < this.cleanupBatchSize || deleted == 0) {
+					break;
+				}
+
+				try {
+					Thread.sleep(this.cleanupBatchPause.toMillis());
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+
+			if (this.partitions != null) {
+				this.partitions.dropEnded();
+			}
+		}
+		finally {
+			this.cleanupTime.add(System.nanoTime() - start);
+			this.cleanupCount.increment();
+		}
 	}
 
 	public void setTableName(String tableName) {
@@ -151,27 +414,252 @@ public class JdbcRefreshTokenStore implements RefreshTokenStore {
 		this.tableName = tableName;
 	}
 
+	public void setCleanupBatchSize(int cleanupBatchSize) {
+		if (cleanupBatchSize < 1) {
+			throw new IllegalArgumentException("cleanupBatchSize must be greater than zero");
+		}
+		this.cleanupBatchSize = cleanupBatchSize;
+	}
+
+	public void setCleanupBatchPause(Duration cleanupBatchPause) {
+		Objects.requireNonNull(cleanupBatchPause, "cleanupBatchPause must not be null");
+		if (cleanupBatchPause.isNegative()) {
+			throw new IllegalArgumentException("cleanupBatchPause must not be negative");
+		}
+		this.cleanupBatchPause = cleanupBatchPause;
+	}
+
+	public void setWriteBehind(boolean writeBehind) {
+		this.writeBehind = writeBehind;
+	}
+
+	public void setPartitioned(boolean partitioned) {
+		this.partitioned = partitioned;
+	}
+
+	public void setTransactionOperations(TransactionOperations transactionOperations) {
+		Objects.requireNonNull(transactionOperations, "transactionOperations must not be null");
+		this.transactionOperations = transactionOperations;
+	}
+
+	public void setWriteBehindBatchSize(int writeBehindBatchSize) {
+		if (writeBehindBatchSize < 1) {
+			throw new IllegalArgumentException("writeBehindBatchSize must be greater than zero");
+		}
+		this.writeBehindBatchSize = writeBehindBatchSize;
+	}
+
+	public void setWriteBehindMaxDelay(Duration writeBehindMaxDelay) {
+		Objects.requireNonNull(writeBehindMaxDelay, "writeBehindMaxDelay must not be null");
+		if (writeBehindMaxDelay.isNegative()) {
+			throw new IllegalArgumentException("writeBehindMaxDelay must not be negative");
+		}
+		this.writeBehindMaxDelay = writeBehindMaxDelay;
+	}
+
+	/**
+	 * Get the number of completed expired token cleanups.
+	 * @return the cleanup count
+	 */
+	public long getCleanupCount() {
+		return this.cleanupCount.sum();
+	}
+
+	/**
+	 * Get the total time spent cleaning expired tokens, in nanoseconds.
+	 * @return the total cleanup time
+	 */
+	public long getCleanupTime() {
+		return this.cleanupTime.sum();
+	}
+
+	/**
+	 * Get the number of expired tokens deleted by cleanups, which doesn't include tokens of dropped partitions.
+	 * @return the cleaned token count
+	 */
+	public long getCleanedTokenCount() {
+		return this.cleanedTokenCount.sum();
+	}
+
 	private void prepareStatements() {
 		this.statementInsert = String.format(STATEMENT_TEMPLATE_INSERT, this.tableName);
 		this.statementSelectByToken = String.format(STATEMENT_TEMPLATE_SELECT_BY_TOKEN, this.tableName);
-		this.statementSelectByClientIdAndSubject = String.format(STATEMENT_TEMPLATE_SELECT_BY_CLIENT_AND_SUBJECT,
-				this.tableName);
+		this.statementUpdateToken = String.format(STATEMENT_TEMPLATE_UPDATE_TOKEN, this.tableName);
 		this.statementDeleteByToken = String.format(STATEMENT_TEMPLATE_DELETE_BY_TOKEN, this.tableName);
-		this.statementDeleteExpired = String.format(STATEMENT_TEMPLATE_DELETE_EXPIRED, this.tableName);
+		this.statementDeleteBySubject = String.format(STATEMENT_TEMPLATE_DELETE_BY_SUBJECT, this.tableName);
+		this.statementDeleteByClientId = String.format(STATEMENT_TEMPLATE_DELETE_BY_CLIENT_ID, this.tableName);
+		this.statementSelectExpired = String.format(STATEMENT_TEMPLATE_SELECT_EXPIRED, this.tableName);
 	}
 
-	private static class RefreshTokenContextMapper implements RowMapper<RefreshTokenContext> {
+	private void insert(RefreshTokenContext context) {
+		Instant expiry = context.getExpiry();
+		this.jdbcOperations.update(this.statementInsert, ps -> {
+			ps.setBytes(1, hash(context.getRefreshToken()));
+			ps.setString(2, context.getClientId().getValue());
+			ps.setString(3, context.getSubject().getValue());
+			ps.setString(4, context.getScope().toString());
+			ps.setLong(5, (expiry != null) ? expiry.getEpochSecond() : 0);
+		});
+	}
 
-		@Override
-		public RefreshTokenContext mapRow(ResultSet rs, int rowNum) throws SQLException {
-			String refreshToken = rs.getString("token");
+	private void writePendingSaves() {
+		List<PendingSave> batch = new ArrayList<>(this.writeBehindBatchSize);
+
+		while (this.writerRunning || !this.pendingSaveQueue.isEmpty()) {
+			try {
+				PendingSave first = this.pendingSaveQueue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				long deadline = System.nanoTime() + this.writeBehindMaxDelay.toNanos();
+				while (batch.size() < this.writeBehindBatchSize) {
+					PendingSave next = this.pendingSaveQueue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				this.pendingSaveQueue.drainTo(batch);
+				write(batch);
+				return;
+			}
+			write(batch);
+			batch.clear();
+		}
+	}
+
+	private void write(List<PendingSave> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		RuntimeException failure = null;
+
+		try {
+			writeBatch(batch);
+		}
+		catch (RuntimeException e) {
+			failure = e;
+		}
+
+		for (PendingSave pendingSave : batch) {
+			this.pendingSaves.remove(pendingSave.context.getRefreshToken(), pendingSave);
+			if (failure != null) {
+				pendingSave.written.completeExceptionally(failure);
+			}
+			else {
+				pendingSave.written.complete(null);
+			}
+		}
+	}
+
+	private void writeBatch(List<PendingSave> batch) {
+		if (this.partitions != null) {
+			this.partitions
+					.saveAll(batch.stream().map(pendingSave -> pendingSave.context).collect(Collectors.toList()));
+			return;
+		}
+
+		List<Object[]> insertArgs = new ArrayList<>(batch.size());
+
+		for (PendingSave pendingSave : batch) {
+			insertArgs.add(insertArgs(pendingSave.context));
+		}
+
+		this.transactionOperations.execute(status -> {
+			this.jdbcOperations.batchUpdate(this.statementInsert, insertArgs);
+			return null;
+		});
+	}
+
+	static Object[] insertArgs(RefreshTokenContext context) {
+		Instant expiry = context.getExpiry();
+		return new Object[] { hash(context.getRefreshToken()), context.getClientId().getValue(),
+				context.getSubject().getValue(), context.getScope().toString(),
+				(expiry != null) ? expiry.getEpochSecond() : 0 };
+	}
+
+	private void awaitPendingSave(RefreshToken refreshToken) {
+		PendingSave pendingSave = this.pendingSaves.get(refreshToken);
+		if (pendingSave != null) {
+			pendingSave.written.handle((result, ex) -> null).join();
+		}
+	}
+
+	private void awaitPendingSaves(Predicate<RefreshTokenContext> filter) {
+		for (PendingSave pendingSave : this.pendingSaves.values()) {
+			if (filter.test(pendingSave.context)) {
+				pendingSave.written.handle((result, ex) -> null).join();
+			}
+		}
+	}
+
+	private static void awaitWritten(PendingSave pendingSave) {
+		try {
+			pendingSave.written.join();
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	private int deleteBatch(List<byte[]> tokenHashes) {
+		if (tokenHashes.isEmpty()) {
+			return 0;
+		}
+
+		List<Object[]> batchArgs = new ArrayList<>(tokenHashes.size());
+
+		for (byte[] tokenHash : tokenHashes) {
+			batchArgs.add(new Object[] { tokenHash });
+		}
+
+		int deleted = 0;
+
+		for (int count : this.jdbcOperations.batchUpdate(this.statementDeleteByToken, batchArgs)) {
+			deleted += (count == Statement.SUCCESS_NO_INFO) ? 1 : Math.max(count, 0);
+		}
+
+		return deleted;
+	}
+
+	static RowMapper<RefreshTokenContext> contextMapper(RefreshToken refreshToken) {
+		return (rs, rowNum) -> {
 			String clientId = rs.getString("client_id");
 			String subject = rs.getString("subject");
 			String scope = rs.getString("scope");
 			long expiry = rs.getLong("expiry");
 
-			return new RefreshTokenContext(new RefreshToken(refreshToken), new ClientID(clientId), new Subject(subject),
+			return new RefreshTokenContext(refreshToken, new ClientID(clientId), new Subject(subject),
 					Scope.parse(scope), expiry > 0 ? Instant.ofEpochSecond(expiry) : null);
+		};
+	}
+
+	static byte[] hash(RefreshToken refreshToken) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			return md.digest(refreshToken.getValue().getBytes(StandardCharsets.US_ASCII));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static final class PendingSave {
+
+		private final RefreshTokenContext context;
+
+		private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+		private PendingSave(RefreshTokenContext context) {
+			this.context = context;
 		}
 
 	}
@@ -52,18 +52,18 @@ public class RefreshTokenGrantHandler implements GrantHandler {
 		Subject subject = context.getSubject();
 		ClientID clientId = context.getClientId();
 		Scope originalScope = context.getScope();
-
-		OIDCClientInformation client = this.clientRepository.findById(clientId);
-		AccessTokenRequest accessTokenRequest = new AccessTokenRequest(subject, client, originalScope);
-		AccessToken accessToken = this.tokenService.createAccessToken(accessTokenRequest);
 		RefreshToken updatedRefreshToken = null;
 
+		// rotate before issuing the access token, so that a token that has already been rotated yields no access token
 		if (this.updateRefreshToken) {
-			this.refreshTokenStore.revoke(refreshToken);
 			RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest(subject, clientId, originalScope);
-			updatedRefreshToken = this.tokenService.createRefreshToken(refreshTokenRequest);
+			updatedRefreshToken = this.tokenService.rotateRefreshToken(refreshToken, refreshTokenRequest);
 		}
 
+		OIDCClientInformation client = this.clientRepository.findById(clientId);
+		AccessTokenRequest accessTokenRequest = new AccessTokenRequest(subject, client, originalScope);
+		AccessToken accessToken = this.tokenService.createAccessToken(accessTokenRequest);
+
 		return new Tokens(accessToken, updatedRefreshToken);
 	}
 
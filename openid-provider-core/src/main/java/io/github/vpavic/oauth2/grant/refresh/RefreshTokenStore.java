@@ -1,6 +1,7 @@
 package io.github.vpavic.oauth2.grant.refresh;
 
 import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
 import com.nimbusds.oauth2.sdk.id.ClientID;
 import com.nimbusds.oauth2.sdk.id.Subject;
 import com.nimbusds.oauth2.sdk.token.RefreshToken;
@@ -13,6 +14,38 @@ public interface RefreshTokenStore {
 
 	RefreshTokenContext findByClientIdAndSubject(ClientID clientId, Subject subject);
 
+	/**
+	 * Atomically replace the given refresh token with a new one. Of concurrent rotations of the same token, only one
+	 * succeeds. The default implementation loads, revokes and saves the tokens, which isn't atomic, and should be
+	 * overridden by implementations that can replace the token in a single operation.
+	 * @param refreshToken the refresh token to replace
+	 * @param context the context of the new refresh token, with the same client ID and subject
+	 * @return the context of the new refresh token
+	 * @throws GeneralException if the refresh token is invalid, expired or has already been replaced
+	 */
+	default RefreshTokenContext rotate(RefreshToken refreshToken, RefreshTokenContext context) throws GeneralException {
+		RefreshTokenContext current = load(refreshToken);
+		if (!current.getClientId().equals(context.getClientId())
+				|| !current.getSubject().equals(context.getSubject())) {
+			throw new GeneralException(OAuth2Error.INVALID_GRANT);
+		}
+		revoke(refreshToken);
+		save(context);
+		return context;
+	}
+
 	void revoke(RefreshToken refreshToken);
 
+	/**
+	 * Revoke all refresh tokens issued to the given subject, regardless of client.
+	 * @param subject the subject
+	 */
+	void revokeAllBySubject(Subject subject);
+
+	/**
+	 * Revoke all refresh tokens issued to the given client, regardless of subject.
+	 * @param clientId the client ID
+	 */
+	void revokeAllByClientId(ClientID clientId);
+
 }
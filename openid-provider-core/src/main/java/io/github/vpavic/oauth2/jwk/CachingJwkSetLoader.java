@@ -0,0 +1,188 @@
+package io.github.vpavic.oauth2.jwk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * A {@link JwkSetLoader} that parses the JWK set from a {@link Resource} once and serves it from memory.
+ *
+ * If the resource resolves to a file on the filesystem, the directory containing the file is watched using a
+ * {@link WatchService} and the JWK set is reloaded in the background whenever the content of the file changes. Any
+ * change in the directory triggers a content check rather than only events for the file name, so that files mounted
+ * from a Kubernetes ConfigMap or Secret, which are updated by atomically swapping a {@code ..data} symlink, are picked
+ * up as well. Each successful (re)load increments the
+ * {@link #getVersion() version}, which consumers can use to invalidate state derived from the keys. A failed reload
+ * keeps the previously loaded JWK set in use.
+ *
+ * @author Vedran Pavic
+ */
+public class CachingJwkSetLoader implements JwkSetLoader {
+
+	private static final Logger logger = LoggerFactory.getLogger(CachingJwkSetLoader.class);
+
+	private final Resource resource;
+
+	private volatile Snapshot snapshot;
+
+	private WatchService watchService;
+
+	private Thread watchThread;
+
+	public CachingJwkSetLoader(Resource resource) {
+		Objects.requireNonNull(resource, "resource must not be null");
+		this.resource = resource;
+	}
+
+	@PostConstruct
+	public void init() throws IOException, ParseException {
+		byte[] content = read();
+		this.snapshot = new Snapshot(parse(content), content, 1);
+
+		if (this.resource.isFile()) {
+			startWatching(this.resource.getFile().toPath().toAbsolutePath());
+		}
+	}
+
+	@PreDestroy
+	public void destroy() throws IOException {
+		if (this.watchService != null) {
+			this.watchService.close();
+		}
+	}
+
+	@Override
+	public JWKSet load() {
+		Snapshot snapshot = this.snapshot;
+
+		if (snapshot == null) {
+			throw new IllegalStateException("JWK set has not been loaded");
+		}
+
+		return snapshot.jwkSet;
+	}
+
+	/**
+	 * Get the version of the currently loaded JWK set, incremented on each successful reload.
+	 * @return the version
+	 */
+	public long getVersion() {
+		Snapshot snapshot = this.snapshot;
+		return (snapshot != null) ? snapshot.version : 0;
+	}
+
+	/**
+	 * Reload the JWK set from the resource. If the resource cannot be read or parsed the current JWK set is retained.
+	 * @return {@code true} if the JWK set was reloaded
+	 */
+	public synchronized boolean reload() {
+		return reload(false);
+	}
+
+	/**
+	 * Reload the JWK set from the resource only if its content differs from the currently loaded one.
+	 * @return {@code true} if the JWK set was reloaded
+	 */
+	synchronized boolean reloadIfChanged() {
+		return reload(true);
+	}
+
+	private boolean reload(boolean onlyIfChanged) {
+		try {
+			byte[] content = read();
+			Snapshot snapshot = this.snapshot;
+
+			if (onlyIfChanged && snapshot != null && Arrays.equals(snapshot.content, content)) {
+				return false;
+			}
+
+			this.snapshot = new Snapshot(parse(content), content, getVersion() + 1);
+			logger.info("Reloaded JWK set from {}", this.resource);
+			return true;
+		}
+		catch (IOException | ParseException e) {
+			logger.warn("Failed to reload JWK set from {}: {}", this.resource, e.getMessage());
+			return false;
+		}
+	}
+
+	private byte[] read() throws IOException {
+		try (InputStream inputStream = this.resource.getInputStream()) {
+			return FileCopyUtils.copyToByteArray(inputStream);
+		}
+	}
+
+	private static JWKSet parse(byte[] content) throws ParseException {
+		return JWKSet.parse(new String(content, StandardCharsets.UTF_8));
+	}
+
+	private void startWatching(Path file) throws IOException {
+		Path directory = file.getParent();
+		this.watchService = FileSystems.getDefault().newWatchService();
+		directory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		this.watchThread = new Thread(this::watch, "jwk-set-watcher");
+		this.watchThread.setDaemon(true);
+		this.watchThread.start();
+	}
+
+	private void watch() {
+		try {
+			while (true) {
+				WatchKey key = this.watchService.take();
+				List<WatchEvent<?>> events = key.pollEvents();
+
+				if (!events.isEmpty()) {
+					reloadIfChanged();
+				}
+				if (!key.reset()) {
+					logger.warn("Stopped watching JWK set {}", this.resource);
+					return;
+				}
+			}
+		}
+		catch (ClosedWatchServiceException e) {
+			logger.debug("Stopped watching JWK set {}", this.resource);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static final class Snapshot {
+
+		private final JWKSet jwkSet;
+
+		private final byte[] content;
+
+		private final long version;
+
+		private Snapshot(JWKSet jwkSet, byte[] content, long version) {
+			this.jwkSet = jwkSet;
+			this.content = content;
+			this.version = version;
+		}
+
+	}
+
+}
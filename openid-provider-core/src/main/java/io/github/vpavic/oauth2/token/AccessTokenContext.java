@@ -0,0 +1,70 @@
+package io.github.vpavic.oauth2.token;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+
+public class AccessTokenContext implements Serializable {
+
+	private final AccessToken accessToken;
+
+	private final ClientID clientId;
+
+	private final Subject subject;
+
+	private final Scope scope;
+
+	private final Instant issueTime;
+
+	private final Instant expiry;
+
+	public AccessTokenContext(AccessToken accessToken, ClientID clientId, Subject subject, Scope scope,
+			Instant issueTime, Instant expiry) {
+		Objects.requireNonNull(accessToken, "accessToken must not be null");
+		Objects.requireNonNull(clientId, "clientId must not be null");
+		Objects.requireNonNull(subject, "subject must not be null");
+		Objects.requireNonNull(scope, "scope must not be null");
+		Objects.requireNonNull(issueTime, "issueTime must not be null");
+		Objects.requireNonNull(expiry, "expiry must not be null");
+		this.accessToken = accessToken;
+		this.clientId = clientId;
+		this.subject = subject;
+		this.scope = scope;
+		this.issueTime = issueTime;
+		this.expiry = expiry;
+	}
+
+	public AccessToken getAccessToken() {
+		return this.accessToken;
+	}
+
+	public ClientID getClientId() {
+		return this.clientId;
+	}
+
+	public Subject getSubject() {
+		return this.subject;
+	}
+
+	public Scope getScope() {
+		return this.scope;
+	}
+
+	public Instant getIssueTime() {
+		return this.issueTime;
+	}
+
+	public Instant getExpiry() {
+		return this.expiry;
+	}
+
+	public boolean isExpired() {
+		return Instant.now().isAfter(this.expiry);
+	}
+
+}
@@ -0,0 +1,23 @@
+package io.github.vpavic.oauth2.token;
+
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+
+/**
+ * A store of reference (opaque) access tokens, used by {@link ReferenceAccessTokenService}.
+ *
+ * @author Vedran Pavic
+ */
+public interface AccessTokenStore {
+
+	void save(AccessTokenContext context);
+
+	/**
+	 * Load the context of the given access token.
+	 * @param accessToken the access token
+	 * @return the context, or {@code null} if the access token is unknown or has expired
+	 */
+	AccessTokenContext load(AccessToken accessToken);
+
+	void revoke(AccessToken accessToken);
+
+}
@@ -7,31 +7,26 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.KeyException;
-import com.nimbusds.jose.jwk.ECKey;
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKMatcher;
-import com.nimbusds.jose.jwk.JWKSelector;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.KeyType;
-import com.nimbusds.jose.jwk.KeyUse;
-import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jwt.JWT;
 import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.oauth2.sdk.AuthorizationCode;
+import com.nimbusds.oauth2.sdk.GeneralException;
 import com.nimbusds.oauth2.sdk.ParseException;
 import com.nimbusds.oauth2.sdk.Scope;
 import com.nimbusds.oauth2.sdk.assertions.jwt.JWTAssertionDetails;
-import com.nimbusds.oauth2.sdk.assertions.jwt.JWTAssertionFactory;
-import com.nimbusds.oauth2.sdk.auth.Secret;
 import com.nimbusds.oauth2.sdk.id.Audience;
 import com.nimbusds.oauth2.sdk.id.ClientID;
 import com.nimbusds.oauth2.sdk.id.Issuer;
@@ -48,8 +43,8 @@ import com.nimbusds.openid.connect.sdk.claims.IDTokenClaimsSet;
 import com.nimbusds.openid.connect.sdk.claims.SessionID;
 import com.nimbusds.openid.connect.sdk.claims.UserInfo;
 import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import com.nimbusds.openid.connect.sdk.token.OIDCTokens;
 import org.apache.commons.collections4.SetUtils;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
 import io.github.vpavic.oauth2.claim.ClaimHelper;
 import io.github.vpavic.oauth2.claim.ClaimSource;
@@ -59,17 +54,31 @@ import io.github.vpavic.oauth2.jwk.JwkSetLoader;
 
 public class DefaultTokenService implements TokenService {
 
+	private static final String CLAIM_ISSUER = "iss";
+
+	private static final String CLAIM_SUBJECT = "sub";
+
+	private static final String CLAIM_AUDIENCE = "aud";
+
+	private static final String CLAIM_EXPIRATION_TIME = "exp";
+
+	private static final String CLAIM_NOT_BEFORE = "nbf";
+
+	private static final String CLAIM_ISSUED_AT = "iat";
+
+	private static final String CLAIM_JWT_ID = "jti";
+
 	private static final String CLAIM_SCOPE = "scp";
 
 	private static final String CLAIM_CLIENT_ID = "cid";
 
 	private static final Scope SCOPE_OPENID = new Scope(OIDCScopeValue.OPENID);
 
-	private static final BouncyCastleProvider jcaProvider = new BouncyCastleProvider();
-
 	private final Issuer issuer;
 
-	private final JwkSetLoader jwkSetLoader;
+	private final JwsSignerRegistry signerRegistry;
+
+	private final JwtEncoder jwtEncoder = new JwtEncoder();
 
 	private final ClaimSource claimSource;
 
@@ -91,20 +100,170 @@ public class DefaultTokenService implements TokenService {
 
 	private boolean frontChannelLogoutEnabled;
 
+	private Executor signingExecutor;
+
+	private boolean concurrentTokenSigning = true;
+
 	public DefaultTokenService(Issuer issuer, JwkSetLoader jwkSetLoader, ClaimSource claimSource,
 			RefreshTokenStore refreshTokenStore) {
+		this(issuer, new JwsSignerRegistry(jwkSetLoader), claimSource, refreshTokenStore);
+	}
+
+	/**
+	 * Create token service using the given signer registry, which allows the caller to evict cached client signers
+	 * using {@link JwsSignerRegistry#evict(com.nimbusds.oauth2.sdk.id.ClientID)}.
+	 * @param issuer the issuer
+	 * @param signerRegistry the signer registry
+	 * @param claimSource the claim source
+	 * @param refreshTokenStore the refresh token store
+	 */
+	public DefaultTokenService(Issuer issuer, JwsSignerRegistry signerRegistry, ClaimSource claimSource,
+			RefreshTokenStore refreshTokenStore) {
 		Objects.requireNonNull(issuer, "issuer must not be null");
-		Objects.requireNonNull(jwkSetLoader, "jwkSetLoader must not be null");
+		Objects.requireNonNull(signerRegistry, "signerRegistry must not be null");
 		Objects.requireNonNull(claimSource, "claimSource must not be null");
 		Objects.requireNonNull(refreshTokenStore, "refreshTokenStore must not be null");
 		this.issuer = issuer;
-		this.jwkSetLoader = jwkSetLoader;
+		this.signerRegistry = signerRegistry;
 		this.claimSource = claimSource;
 		this.refreshTokenStore = refreshTokenStore;
 	}
 
 	@Override
 	public AccessToken createAccessToken(AccessTokenRequest accessTokenRequest) {
+		return await(signAccessToken(accessTokenRequest.getClient(), accessTokenRequest.getScope(),
+				createAccessTokenClaims(accessTokenRequest)));
+	}
+
+	@Override
+	public RefreshToken createRefreshToken(RefreshTokenRequest refreshTokenRequest) {
+		Instant now = Instant.now();
+		ClientID clientId = refreshTokenRequest.getClientId();
+		Subject subject = refreshTokenRequest.getSubject();
+		Scope scope = refreshTokenRequest.getScope();
+
+		RefreshTokenContext context = this.refreshTokenStore.findByClientIdAndSubject(clientId, subject);
+
+		if (context == null || !SetUtils.isEqualSet(context.getScope(), scope)) {
+			context = new RefreshTokenContext(new RefreshToken(), clientId, subject, scope,
+					resolveRefreshTokenExpiry(now));
+			this.refreshTokenStore.save(context);
+		}
+
+		return context.getRefreshToken();
+	}
+
+	@Override
+	public RefreshToken rotateRefreshToken(RefreshToken refreshToken, RefreshTokenRequest refreshTokenRequest)
+			throws GeneralException {
+		Objects.requireNonNull(refreshToken, "refreshToken must not be null");
+		RefreshTokenContext context = new RefreshTokenContext(new RefreshToken(), refreshTokenRequest.getClientId(),
+				refreshTokenRequest.getSubject(), refreshTokenRequest.getScope(),
+				resolveRefreshTokenExpiry(Instant.now()));
+		return this.refreshTokenStore.rotate(refreshToken, context).getRefreshToken();
+	}
+
+	@Override
+	public JWT createIdToken(IdTokenRequest idTokenRequest) {
+		IDTokenClaimsSet claimsSet = createIdTokenClaimsSet(idTokenRequest, idTokenRequest.getAccessToken() != null);
+		AccessToken accessToken = idTokenRequest.getAccessToken();
+
+		if (accessToken != null) {
+			setAccessTokenHash(claimsSet, accessToken, idTokenRequest.getClient());
+		}
+
+		return await(signIdToken(claimsSet, idTokenRequest.getClient()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the signing executor is configured and concurrent token signing is enabled, the access token is signed on the
+	 * executor while the ID token claims are being resolved on the calling thread. The ID token is signed as soon as the
+	 * access token is serialized and its hash becomes available.
+	 */
+	@Override
+	public OIDCTokens createTokens(AccessTokenRequest accessTokenRequest, IdTokenRequest idTokenRequest) {
+		Objects.requireNonNull(accessTokenRequest, "accessTokenRequest must not be null");
+		Objects.requireNonNull(idTokenRequest, "idTokenRequest must not be null");
+		if (idTokenRequest.getAccessToken() != null) {
+			throw new IllegalArgumentException("ID token request must not contain access token");
+		}
+
+		if (this.signingExecutor == null || !this.concurrentTokenSigning) {
+			return TokenService.super.createTokens(accessTokenRequest, idTokenRequest);
+		}
+
+		CompletableFuture<AccessToken> accessTokenFuture = signAccessToken(accessTokenRequest.getClient(),
+				accessTokenRequest.getScope(), createAccessTokenClaims(accessTokenRequest));
+		IDTokenClaimsSet claimsSet = createIdTokenClaimsSet(idTokenRequest, true);
+		AccessToken accessToken = await(accessTokenFuture);
+		setAccessTokenHash(claimsSet, accessToken, idTokenRequest.getClient());
+		JWT idToken = await(signIdToken(claimsSet, idTokenRequest.getClient()));
+
+		return new OIDCTokens(idToken, accessToken, null);
+	}
+
+	public void setResourceScopes(Map<Scope.Value, String> resourceScopes) {
+		this.resourceScopes = resourceScopes;
+	}
+
+	public void setAccessTokenLifetime(Duration accessTokenLifetime) {
+		this.accessTokenLifetime = accessTokenLifetime;
+	}
+
+	public void setAccessTokenJwsAlgorithm(JWSAlgorithm accessTokenJwsAlgorithm) {
+		this.accessTokenJwsAlgorithm = accessTokenJwsAlgorithm;
+	}
+
+	public void setAccessTokenSubjectClaims(List<String> accessTokenSubjectClaims) {
+		this.accessTokenSubjectClaims = accessTokenSubjectClaims;
+	}
+
+	public void setRefreshTokenLifetime(Duration refreshTokenLifetime) {
+		this.refreshTokenLifetime = refreshTokenLifetime;
+	}
+
+	public void setIdTokenLifetime(Duration idTokenLifetime) {
+		this.idTokenLifetime = idTokenLifetime;
+	}
+
+	public void setScopeClaims(Map<Scope.Value, List<String>> scopeClaims) {
+		this.scopeClaims = scopeClaims;
+	}
+
+	public void setFrontChannelLogoutEnabled(boolean frontChannelLogoutEnabled) {
+		this.frontChannelLogoutEnabled = frontChannelLogoutEnabled;
+	}
+
+	/**
+	 * Set the executor used to sign tokens. Signing is done on the calling thread if the executor is not set. If the
+	 * executor rejects a signing task, {@link SigningRejectedException} is thrown.
+	 * @param signingExecutor the signing executor
+	 * @see SigningExecutor
+	 * @see #setConcurrentTokenSigning(boolean)
+	 */
+	public void setSigningExecutor(Executor signingExecutor) {
+		this.signingExecutor = signingExecutor;
+	}
+
+	/**
+	 * Set whether an access token and an ID token issued together are signed concurrently, as described in
+	 * {@link #createTokens(AccessTokenRequest, IdTokenRequest)}. Only applies if the signing executor is set, and
+	 * defaults to {@code true}. If disabled, the tokens are signed one after another, each still on the executor.
+	 * @param concurrentTokenSigning whether to sign tokens issued together concurrently
+	 */
+	public void setConcurrentTokenSigning(boolean concurrentTokenSigning) {
+		this.concurrentTokenSigning = concurrentTokenSigning;
+	}
+
+	private Instant resolveRefreshTokenExpiry(Instant now) {
+		return (!this.refreshTokenLifetime.isZero() && !this.refreshTokenLifetime.isNegative())
+				? now.plus(this.refreshTokenLifetime)
+				: null;
+	}
+
+	private Map<String, Object> createAccessTokenClaims(AccessTokenRequest accessTokenRequest) {
 		Instant now = Instant.now();
 
 		Subject subject = accessTokenRequest.getSubject();
@@ -129,67 +288,42 @@ public class DefaultTokenService implements TokenService {
 		userInfo.setClaim(CLAIM_SCOPE, scope);
 		userInfo.setClaim(CLAIM_CLIENT_ID, client.getID());
 
-		try {
-			JWTAssertionDetails details = new JWTAssertionDetails(this.issuer, userInfo.getSubject(), audience,
-					expirationTime, issueTime, issueTime, jwtId, userInfo.toJSONObject());
-			SignedJWT accessToken;
-
-			if (JWSAlgorithm.Family.HMAC_SHA.contains(this.accessTokenJwsAlgorithm)) {
-				Secret secret = client.getSecret();
+		Map<String, Object> claims = new LinkedHashMap<>();
+		claims.put(CLAIM_ISSUER, this.issuer.getValue());
+		claims.put(CLAIM_SUBJECT, userInfo.getSubject().getValue());
+		claims.put(CLAIM_AUDIENCE, Audience.toStringList(audience));
+		claims.put(CLAIM_EXPIRATION_TIME, expirationTime);
+		claims.put(CLAIM_NOT_BEFORE, issueTime);
+		claims.put(CLAIM_ISSUED_AT, issueTime);
+		claims.put(CLAIM_JWT_ID, jwtId.getValue());
+		claims.putAll(userInfo.toJSONObject());
+
+		return claims;
+	}
 
-				accessToken = JWTAssertionFactory.create(details, this.accessTokenJwsAlgorithm, secret);
-			}
-			else if (JWSAlgorithm.Family.RSA.contains(this.accessTokenJwsAlgorithm)) {
-				RSAKey rsaKey = (RSAKey) resolveJwk(this.accessTokenJwsAlgorithm);
+	private CompletableFuture<AccessToken> signAccessToken(OIDCClientInformation client, Scope scope,
+			Map<String, Object> claims) {
+		return sign(() -> {
+			try {
+				JwsSignerRegistry.Signer signer = this.signerRegistry.resolve(this.accessTokenJwsAlgorithm, client);
+				String accessToken = this.jwtEncoder.encode(signer, claims);
 
-				accessToken = JWTAssertionFactory.create(details, this.accessTokenJwsAlgorithm,
-						rsaKey.toRSAPrivateKey(), rsaKey.getKeyID(), jcaProvider);
+				return new BearerAccessToken(accessToken, this.accessTokenLifetime.getSeconds(), scope);
 			}
-			else if (JWSAlgorithm.Family.EC.contains(this.accessTokenJwsAlgorithm)) {
-				ECKey ecKey = (ECKey) resolveJwk(this.accessTokenJwsAlgorithm);
-
-				accessToken = JWTAssertionFactory.create(details, this.accessTokenJwsAlgorithm, ecKey.toECPrivateKey(),
-						ecKey.getKeyID(), jcaProvider);
+			catch (JOSEException e) {
+				throw new RuntimeException(e);
 			}
-			else {
-				throw new KeyException("Unsupported algorithm: " + this.accessTokenJwsAlgorithm);
-			}
-
-			return new BearerAccessToken(accessToken.serialize(), this.accessTokenLifetime.getSeconds(), scope);
-		}
-		catch (JOSEException e) {
-			throw new RuntimeException(e);
-		}
+		});
 	}
 
-	@Override
-	public RefreshToken createRefreshToken(RefreshTokenRequest refreshTokenRequest) {
-		Instant now = Instant.now();
-		ClientID clientId = refreshTokenRequest.getClientId();
-		Subject subject = refreshTokenRequest.getSubject();
-		Scope scope = refreshTokenRequest.getScope();
-
-		RefreshTokenContext context = this.refreshTokenStore.findByClientIdAndSubject(clientId, subject);
-
-		if (context == null || !SetUtils.isEqualSet(context.getScope(), scope)) {
-			Instant expiry = (!this.refreshTokenLifetime.isZero() && !this.refreshTokenLifetime.isNegative())
-					? now.plus(this.refreshTokenLifetime)
-					: null;
-			context = new RefreshTokenContext(new RefreshToken(), clientId, subject, scope, expiry);
-			this.refreshTokenStore.save(context);
-		}
-
-		return context.getRefreshToken();
-	}
-
-	@Override
-	public JWT createIdToken(IdTokenRequest idTokenRequest) {
+	private IDTokenClaimsSet createIdTokenClaimsSet(IdTokenRequest idTokenRequest, boolean accessTokenIssued) {
 		Instant now = Instant.now();
 		Subject subject = idTokenRequest.getSubject();
 		OIDCClientInformation client = idTokenRequest.getClient();
 		ClientID clientId = client.getID();
 		JWSAlgorithm algorithm = client.getOIDCMetadata().getIDTokenJWSAlg();
-		UserInfo userInfo = this.claimSource.load(subject, resolveClaims(idTokenRequest));
+		Scope scope = accessTokenIssued ? SCOPE_OPENID : idTokenRequest.getScope();
+		UserInfo userInfo = this.claimSource.load(subject, ClaimHelper.resolveClaims(scope, this.scopeClaims));
 		List<Audience> audience = Audience.create(clientId.getValue());
 		Date expirationTime = Date.from(now.plus(this.idTokenLifetime));
 		Date issueTime = Date.from(now);
@@ -208,13 +342,6 @@ public class DefaultTokenService implements TokenService {
 			claimsSet.setSessionID(sessionId);
 		}
 
-		AccessToken accessToken = idTokenRequest.getAccessToken();
-
-		if (accessToken != null) {
-			AccessTokenHash accessTokenHash = AccessTokenHash.compute(accessToken, algorithm);
-			claimsSet.setAccessTokenHash(accessTokenHash);
-		}
-
 		AuthorizationCode code = idTokenRequest.getCode();
 
 		if (code != null) {
@@ -222,85 +349,60 @@ public class DefaultTokenService implements TokenService {
 			claimsSet.setCodeHash(codeHash);
 		}
 
-		try {
-			JWTAssertionDetails details = JWTAssertionDetails.parse(claimsSet.toJWTClaimsSet());
-
-			if (JWSAlgorithm.Family.HMAC_SHA.contains(algorithm)) {
-				Secret secret = client.getSecret();
-
-				return JWTAssertionFactory.create(details, algorithm, secret);
-			}
-			else if (JWSAlgorithm.Family.RSA.contains(algorithm)) {
-				RSAKey rsaKey = (RSAKey) resolveJwk(algorithm);
-
-				return JWTAssertionFactory.create(details, algorithm, rsaKey.toRSAPrivateKey(), rsaKey.getKeyID(),
-						jcaProvider);
-			}
-			else if (JWSAlgorithm.Family.EC.contains(algorithm)) {
-				ECKey ecKey = (ECKey) resolveJwk(algorithm);
-
-				return JWTAssertionFactory.create(details, algorithm, ecKey.toECPrivateKey(), ecKey.getKeyID(),
-						jcaProvider);
-			}
-
-			throw new KeyException("Unsupported algorithm: " + algorithm);
-		}
-		catch (ParseException | JOSEException e) {
-			throw new RuntimeException(e);
-		}
+		return claimsSet;
 	}
 
-	public void setResourceScopes(Map<Scope.Value, String> resourceScopes) {
-		this.resourceScopes = resourceScopes;
-	}
-
-	public void setAccessTokenLifetime(Duration accessTokenLifetime) {
-		this.accessTokenLifetime = accessTokenLifetime;
-	}
-
-	public void setAccessTokenJwsAlgorithm(JWSAlgorithm accessTokenJwsAlgorithm) {
-		this.accessTokenJwsAlgorithm = accessTokenJwsAlgorithm;
-	}
-
-	public void setAccessTokenSubjectClaims(List<String> accessTokenSubjectClaims) {
-		this.accessTokenSubjectClaims = accessTokenSubjectClaims;
-	}
-
-	public void setRefreshTokenLifetime(Duration refreshTokenLifetime) {
-		this.refreshTokenLifetime = refreshTokenLifetime;
+	private static void setAccessTokenHash(IDTokenClaimsSet claimsSet, AccessToken accessToken,
+			OIDCClientInformation client) {
+		JWSAlgorithm algorithm = client.getOIDCMetadata().getIDTokenJWSAlg();
+		AccessTokenHash accessTokenHash = AccessTokenHash.compute(accessToken, algorithm);
+		claimsSet.setAccessTokenHash(accessTokenHash);
 	}
 
-	public void setIdTokenLifetime(Duration idTokenLifetime) {
-		this.idTokenLifetime = idTokenLifetime;
-	}
+	private CompletableFuture<JWT> signIdToken(IDTokenClaimsSet claimsSet, OIDCClientInformation client) {
+		JWSAlgorithm algorithm = client.getOIDCMetadata().getIDTokenJWSAlg();
 
-	public void setScopeClaims(Map<Scope.Value, List<String>> scopeClaims) {
-		this.scopeClaims = scopeClaims;
-	}
+		return sign(() -> {
+			try {
+				JWTAssertionDetails details = JWTAssertionDetails.parse(claimsSet.toJWTClaimsSet());
+				JwsSignerRegistry.Signer signer = this.signerRegistry.resolve(algorithm, client);
+				SignedJWT idToken = new SignedJWT(signer.getHeader(), details.toJWTClaimsSet());
+				idToken.sign(signer.getSigner());
 
-	public void setFrontChannelLogoutEnabled(boolean frontChannelLogoutEnabled) {
-		this.frontChannelLogoutEnabled = frontChannelLogoutEnabled;
+				return idToken;
+			}
+			catch (ParseException | JOSEException e) {
+				throw new RuntimeException(e);
+			}
+		});
 	}
 
-	private Set<String> resolveClaims(IdTokenRequest idTokenRequest) {
-		Scope scope = (idTokenRequest.getAccessToken() != null) ? SCOPE_OPENID : idTokenRequest.getScope();
+	private <T> CompletableFuture<T> sign(Supplier<T> signingTask) {
+		if (this.signingExecutor == null) {
+			return CompletableFuture.completedFuture(signingTask.get());
+		}
 
-		return ClaimHelper.resolveClaims(scope, this.scopeClaims);
+		try {
+			return CompletableFuture.supplyAsync(signingTask, this.signingExecutor);
+		}
+		catch (RejectedExecutionException e) {
+			throw new SigningRejectedException("Signing executor is saturated", e);
+		}
 	}
 
-	private JWK resolveJwk(JWSAlgorithm algorithm) {
-		// @formatter:off
-		JWKMatcher jwkMatcher = new JWKMatcher.Builder()
-				.keyType(KeyType.forAlgorithm(algorithm))
-				.keyUse(KeyUse.SIGNATURE)
-				.build();
-		// @formatter:on
+	private static <T> T await(CompletableFuture<T> signingFuture) {
+		try {
+			return signingFuture.join();
+		}
+		catch (CompletionException e) {
+			Throwable cause = e.getCause();
 
-		JWKSelector jwkSelector = new JWKSelector(jwkMatcher);
-		JWKSet jwkSet = this.jwkSetLoader.load();
-		List<JWK> keys = jwkSelector.select(jwkSet);
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
 
-		return keys.iterator().next();
+			throw e;
+		}
 	}
 
 }
@@ -0,0 +1,71 @@
+package io.github.vpavic.oauth2.token;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Hazelcast implementation of {@link AccessTokenStore}.
+ *
+ * By default uses map named {@code op.accessTokens}, which can be customized using {@link #setMapName(String)}.
+ * Entries are stored with time-to-live matching the access token expiry.
+ *
+ * @author Vedran Pavic
+ */
+public class HazelcastAccessTokenStore implements AccessTokenStore {
+
+	private static final String DEFAULT_MAP_NAME = "op.accessTokens";
+
+	private final HazelcastInstance hazelcastInstance;
+
+	private String mapName = DEFAULT_MAP_NAME;
+
+	private IMap<String, AccessTokenContext> accessTokens;
+
+	public HazelcastAccessTokenStore(HazelcastInstance hazelcastInstance) {
+		Objects.requireNonNull(hazelcastInstance, "hazelcastInstance must not be null");
+		this.hazelcastInstance = hazelcastInstance;
+	}
+
+	@PostConstruct
+	public void init() {
+		this.accessTokens = this.hazelcastInstance.getMap(this.mapName);
+	}
+
+	@Override
+	public void save(AccessTokenContext context) {
+		Objects.requireNonNull(context, "context must not be null");
+		long ttl = Math.max(Duration.between(Instant.now(), context.getExpiry()).getSeconds(), 1);
+		this.accessTokens.set(context.getAccessToken().getValue(), context, ttl, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public AccessTokenContext load(AccessToken accessToken) {
+		Objects.requireNonNull(accessToken, "accessToken must not be null");
+		AccessTokenContext context = this.accessTokens.get(accessToken.getValue());
+		return (context != null && !context.isExpired()) ? context : null;
+	}
+
+	@Override
+	public void revoke(AccessToken accessToken) {
+		Objects.requireNonNull(accessToken, "accessToken must not be null");
+		this.accessTokens.delete(accessToken.getValue());
+	}
+
+	public void setMapName(String mapName) {
+		Objects.requireNonNull(mapName, "mapName must not be null");
+		if (StringUtils.isBlank(mapName)) {
+			throw new IllegalArgumentException("mapName must not be empty");
+		}
+		this.mapName = mapName;
+	}
+
+}
@@ -0,0 +1,50 @@
+package io.github.vpavic.oauth2.token;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * In-memory implementation of {@link AccessTokenStore} backed by a {@link ConcurrentMap}.
+ *
+ * Expired access tokens are removed when loaded and by {@link #cleanExpiredTokens()}, which runs every minute if
+ * scheduling is enabled.
+ *
+ * @author Vedran Pavic
+ */
+public class InMemoryAccessTokenStore implements AccessTokenStore {
+
+	private final ConcurrentMap<String, AccessTokenContext> accessTokens = new ConcurrentHashMap<>();
+
+	@Override
+	public void save(AccessTokenContext context) {
+		Objects.requireNonNull(context, "context must not be null");
+		this.accessTokens.put(context.getAccessToken().getValue(), context);
+	}
+
+	@Override
+	public AccessTokenContext load(AccessToken accessToken) {
+		Objects.requireNonNull(accessToken, "accessToken must not be null");
+		AccessTokenContext context = this.accessTokens.get(accessToken.getValue());
+		if (context != null && context.isExpired()) {
+			this.accessTokens.remove(accessToken.getValue(), context);
+			return null;
+		}
+		return context;
+	}
+
+	@Override
+	public void revoke(AccessToken accessToken) {
+		Objects.requireNonNull(accessToken, "accessToken must not be null");
+		this.accessTokens.remove(accessToken.getValue());
+	}
+
+	@Scheduled(cron = "0 * * * * *")
+	public void cleanExpiredTokens() {
+		this.accessTokens.values().removeIf(AccessTokenContext::isExpired);
+	}
+
+}
@@ -0,0 +1,230 @@
+package io.github.vpavic.oauth2.token;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.KeyException;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.oauth2.sdk.auth.Secret;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import io.github.vpavic.oauth2.jwk.JwkSetLoader;
+
+/**
+ * Registry of prebuilt {@link JWSSigner} instances used for signing tokens.
+ *
+ * Signers backed by server keys are resolved by JWS algorithm and are rebuilt only when {@link JwkSetLoader} returns a
+ * different {@link JWKSet} instance. HMAC signers are resolved per client and are rebuilt only when the client secret
+ * changes. Nimbus signers are stateless and therefore safe to share across request threads.
+ *
+ * @author Vedran Pavic
+ */
+public class JwsSignerRegistry {
+
+	private static final BouncyCastleProvider jcaProvider = new BouncyCastleProvider();
+
+	private final JwkSetLoader jwkSetLoader;
+
+	private final ConcurrentMap<ClientID, ClientSigner> clientSigners = new ConcurrentHashMap<>();
+
+	private volatile KeySigners keySigners = new KeySigners(null);
+
+	public JwsSignerRegistry(JwkSetLoader jwkSetLoader) {
+		Objects.requireNonNull(jwkSetLoader, "jwkSetLoader must not be null");
+		this.jwkSetLoader = jwkSetLoader;
+	}
+
+	/**
+	 * Resolve signer for the given algorithm. HMAC based algorithms use the secret of the given client, while other
+	 * algorithms use the first matching signing key from the JWK set.
+	 * @param algorithm the JWS algorithm
+	 * @param client the client the token is issued to
+	 * @return the signer
+	 * @throws JOSEException if no signer can be created for the given algorithm
+	 */
+	public Signer resolve(JWSAlgorithm algorithm, OIDCClientInformation client) throws JOSEException {
+		Objects.requireNonNull(algorithm, "algorithm must not be null");
+		Objects.requireNonNull(client, "client must not be null");
+		if (JWSAlgorithm.Family.HMAC_SHA.contains(algorithm)) {
+			return resolveClientSigner(algorithm, client);
+		}
+		return resolveKeySigner(algorithm);
+	}
+
+	/**
+	 * Drop cached HMAC signers of the given client.
+	 * @param clientId the client ID
+	 */
+	public void evict(ClientID clientId) {
+		Objects.requireNonNull(clientId, "clientId must not be null");
+		this.clientSigners.remove(clientId);
+	}
+
+	private Signer resolveKeySigner(JWSAlgorithm algorithm) throws JOSEException {
+		JWKSet jwkSet = this.jwkSetLoader.load();
+		KeySigners keySigners = this.keySigners;
+
+		if (keySigners.jwkSet != jwkSet) {
+			keySigners = new KeySigners(jwkSet);
+			this.keySigners = keySigners;
+		}
+
+		Signer signer = keySigners.signers.get(algorithm);
+
+		if (signer == null) {
+			signer = createKeySigner(jwkSet, algorithm);
+			Signer existing = keySigners.signers.putIfAbsent(algorithm, signer);
+
+			if (existing != null) {
+				signer = existing;
+			}
+		}
+
+		return signer;
+	}
+
+	private Signer resolveClientSigner(JWSAlgorithm algorithm, OIDCClientInformation client) throws JOSEException {
+		Secret secret = client.getSecret();
+
+		if (secret == null) {
+			throw new KeyException("Client has no secret: " + client.getID());
+		}
+
+		ClientSigner clientSigner = this.clientSigners.get(client.getID());
+
+		if (clientSigner == null || !clientSigner.matches(secret)) {
+			clientSigner = new ClientSigner(secret);
+			this.clientSigners.put(client.getID(), clientSigner);
+		}
+
+		Signer signer = clientSigner.signers.get(algorithm);
+
+		if (signer == null) {
+			signer = new Signer(new JWSHeader(algorithm), new MACSigner(secret.getValueBytes()));
+			Signer existing = clientSigner.signers.putIfAbsent(algorithm, signer);
+
+			if (existing != null) {
+				signer = existing;
+			}
+		}
+
+		return signer;
+	}
+
+	private static Signer createKeySigner(JWKSet jwkSet, JWSAlgorithm algorithm) throws JOSEException {
+		if (JWSAlgorithm.Family.RSA.contains(algorithm)) {
+			RSAKey rsaKey = (RSAKey) resolveJwk(jwkSet, algorithm);
+			RSASSASigner signer = new RSASSASigner(rsaKey.toRSAPrivateKey());
+			signer.getJCAContext().setProvider(jcaProvider);
+
+			return new Signer(new JWSHeader.Builder(algorithm).keyID(rsaKey.getKeyID()).build(), signer);
+		}
+		else if (JWSAlgorithm.Family.EC.contains(algorithm)) {
+			ECKey ecKey = (ECKey) resolveJwk(jwkSet, algorithm);
+			ECDSASigner signer = new ECDSASigner(ecKey.toECPrivateKey());
+			signer.getJCAContext().setProvider(jcaProvider);
+
+			return new Signer(new JWSHeader.Builder(algorithm).keyID(ecKey.getKeyID()).build(), signer);
+		}
+
+		throw new KeyException("Unsupported algorithm: " + algorithm);
+	}
+
+	private static JWK resolveJwk(JWKSet jwkSet, JWSAlgorithm algorithm) throws KeyException {
+		// @formatter:off
+		JWKMatcher jwkMatcher = new JWKMatcher.Builder()
+				.keyType(KeyType.forAlgorithm(algorithm))
+				.keyUse(KeyUse.SIGNATURE)
+				.build();
+		// @formatter:on
+
+		JWKSelector jwkSelector = new JWKSelector(jwkMatcher);
+		List<JWK> keys = (jwkSet != null) ? jwkSelector.select(jwkSet) : null;
+
+		if (keys == null || keys.isEmpty()) {
+			throw new KeyException("No signing key found for algorithm: " + algorithm);
+		}
+
+		return keys.iterator().next();
+	}
+
+	/**
+	 * A prebuilt {@link JWSHeader} and {@link JWSSigner} pair, along with the Base64URL encoded header.
+	 */
+	public static final class Signer {
+
+		private final JWSHeader header;
+
+		private final JWSSigner signer;
+
+		private final byte[] encodedHeader;
+
+		private Signer(JWSHeader header, JWSSigner signer) {
+			this.header = header;
+			this.signer = signer;
+			this.encodedHeader = header.toBase64URL().toString().getBytes(StandardCharsets.US_ASCII);
+		}
+
+		public JWSHeader getHeader() {
+			return this.header;
+		}
+
+		public JWSSigner getSigner() {
+			return this.signer;
+		}
+
+		byte[] getEncodedHeader() {
+			return this.encodedHeader;
+		}
+
+	}
+
+	private static final class KeySigners {
+
+		private final JWKSet jwkSet;
+
+		private final ConcurrentMap<JWSAlgorithm, Signer> signers = new ConcurrentHashMap<>();
+
+		private KeySigners(JWKSet jwkSet) {
+			this.jwkSet = jwkSet;
+		}
+
+	}
+
+	private static final class ClientSigner {
+
+		private final byte[] secret;
+
+		private final ConcurrentMap<JWSAlgorithm, Signer> signers = new ConcurrentHashMap<>();
+
+		private ClientSigner(Secret secret) {
+			this.secret = secret.getValueBytes();
+		}
+
+		private boolean matches(Secret secret) {
+			return Arrays.equals(this.secret, secret.getValueBytes());
+		}
+
+	}
+
+}
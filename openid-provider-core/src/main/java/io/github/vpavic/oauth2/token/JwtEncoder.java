@@ -0,0 +1,264 @@
+package io.github.vpavic.oauth2.token;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+
+/**
+ * Encodes and signs JWTs without building intermediate {@link JWTClaimsSet} and {@link SignedJWT} instances.
+ *
+ * The claims are written as UTF-8 directly into a reusable per-thread buffer, which is then Base64URL encoded in
+ * place behind the precomputed encoded header of the {@link JwsSignerRegistry.Signer}. The output is identical to
+ * {@link SignedJWT#serialize()} of a JWT created from the same claims using {@link JWTClaimsSet.Builder}.
+ *
+ * @author Vedran Pavic
+ */
+public class JwtEncoder {
+
+	private static final byte[] BASE64URL_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+			.getBytes(StandardCharsets.US_ASCII);
+
+	private static final String CLAIM_AUDIENCE = "aud";
+
+	private static final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+	/**
+	 * Encode and sign a JWT.
+	 * @param signer the signer
+	 * @param claims the claims, in the order they would be added to {@link JWTClaimsSet.Builder}; {@link Date} values
+	 * are converted to seconds since epoch, single valued {@code aud} to a string and {@code null} values are omitted
+	 * @return the serialized JWT
+	 * @throws JOSEException if signing fails
+	 */
+	public String encode(JwsSignerRegistry.Signer signer, Map<String, Object> claims) throws JOSEException {
+		Objects.requireNonNull(signer, "signer must not be null");
+		Objects.requireNonNull(claims, "claims must not be null");
+		Buffers buffers = JwtEncoder.buffers.get();
+		Utf8Buffer json = buffers.json;
+		ByteArrayBuffer out = buffers.out;
+
+		json.reset();
+		try {
+			// JSONObject is a HashMap, so HashMap iteration order is used to match the claim order of JWTClaimsSet
+			JSONObject.writeJSON(toJsonClaims(claims), json, JSONValue.COMPRESSION);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		json.finish();
+
+		out.reset();
+		out.write(signer.getEncodedHeader());
+		out.write('.');
+		out.writeBase64Url(json.bytes, json.length);
+		byte[] signingInput = Arrays.copyOf(out.bytes, out.length);
+		Base64URL signature = signer.getSigner().sign(signer.getHeader(), signingInput);
+		out.write('.');
+		out.writeAscii(signature.toString());
+
+		return new String(out.bytes, 0, out.length, StandardCharsets.US_ASCII);
+	}
+
+	private static Map<String, Object> toJsonClaims(Map<String, Object> claims) {
+		Map<String, Object> jsonClaims = new HashMap<>();
+
+		for (Map.Entry<String, Object> claim : claims.entrySet()) {
+			Object value = claim.getValue();
+
+			if (value instanceof Date) {
+				jsonClaims.put(claim.getKey(), ((Date) value).getTime() / 1000);
+			}
+			else if (CLAIM_AUDIENCE.equals(claim.getKey()) && value instanceof List) {
+				List<?> audience = (List<?>) value;
+
+				if (audience.size() == 1) {
+					jsonClaims.put(CLAIM_AUDIENCE, audience.get(0));
+				}
+				else if (!audience.isEmpty()) {
+					JSONArray array = new JSONArray();
+					array.addAll(audience);
+					jsonClaims.put(CLAIM_AUDIENCE, array);
+				}
+			}
+			else if (value != null) {
+				jsonClaims.put(claim.getKey(), value);
+			}
+		}
+
+		return jsonClaims;
+	}
+
+	private static class ByteArrayBuffer {
+
+		byte[] bytes = new byte[1024];
+
+		int length;
+
+		void reset() {
+			this.length = 0;
+		}
+
+		void ensureCapacity(int additional) {
+			if (this.length + additional > this.bytes.length) {
+				this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.length + additional));
+			}
+		}
+
+		void write(int b) {
+			ensureCapacity(1);
+			this.bytes[this.length++] = (byte) b;
+		}
+
+		void write(byte[] src) {
+			ensureCapacity(src.length);
+			System.arraycopy(src, 0, this.bytes, this.length, src.length);
+			this.length += src.length;
+		}
+
+		void writeAscii(String src) {
+			ensureCapacity(src.length());
+			for (int i = 0; i < src.length(); i++) {
+				this.bytes[this.length++] = (byte) src.charAt(i);
+			}
+		}
+
+		void writeBase64Url(byte[] src, int srcLength) {
+			ensureCapacity((srcLength * 4 + 2) / 3);
+			byte[] dst = this.bytes;
+			int i = 0;
+			int j = this.length;
+
+			for (int end = srcLength - srcLength % 3; i < end; i += 3) {
+				int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+				dst[j++] = BASE64URL_ALPHABET[bits >>> 18];
+				dst[j++] = BASE64URL_ALPHABET[bits >>> 12 & 0x3f];
+				dst[j++] = BASE64URL_ALPHABET[bits >>> 6 & 0x3f];
+				dst[j++] = BASE64URL_ALPHABET[bits & 0x3f];
+			}
+
+			int remaining = srcLength - i;
+
+			if (remaining == 1) {
+				int bits = (src[i] & 0xff) << 16;
+				dst[j++] = BASE64URL_ALPHABET[bits >>> 18];
+				dst[j++] = BASE64URL_ALPHABET[bits >>> 12 & 0x3f];
+			}
+			else if (remaining == 2) {
+				int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+				dst[j++] = BASE64URL_ALPHABET[bits >>> 18];
+				dst[j++] = BASE64URL_ALPHABET[bits >>> 12 & 0x3f];
+				dst[j++] = BASE64URL_ALPHABET[bits >>> 6 & 0x3f];
+			}
+
+			this.length = j;
+		}
+
+	}
+
+	/**
+	 * Byte buffer that UTF-8 encodes appended characters the same way {@link String#getBytes} does, including the
+	 * replacement of unpaired surrogates with {@code '?'}.
+	 */
+	private static final class Utf8Buffer extends ByteArrayBuffer implements Appendable {
+
+		private char highSurrogate;
+
+		@Override
+		void reset() {
+			super.reset();
+			this.highSurrogate = 0;
+		}
+
+		void finish() {
+			if (this.highSurrogate != 0) {
+				write('?');
+				this.highSurrogate = 0;
+			}
+		}
+
+		@Override
+		public Appendable append(CharSequence csq) {
+			return append(csq, 0, csq.length());
+		}
+
+		@Override
+		public Appendable append(CharSequence csq, int start, int end) {
+			ensureCapacity(end - start);
+			for (int i = start; i < end; i++) {
+				append(csq.charAt(i));
+			}
+			return this;
+		}
+
+		@Override
+		public Appendable append(char c) {
+			if (this.highSurrogate != 0) {
+				char high = this.highSurrogate;
+				this.highSurrogate = 0;
+
+				if (Character.isLowSurrogate(c)) {
+					writeCodePoint(Character.toCodePoint(high, c));
+					return this;
+				}
+
+				write('?');
+			}
+
+			if (c < 0x80) {
+				write(c);
+			}
+			else if (Character.isHighSurrogate(c)) {
+				this.highSurrogate = c;
+			}
+			else if (Character.isLowSurrogate(c)) {
+				write('?');
+			}
+			else {
+				writeCodePoint(c);
+			}
+			return this;
+		}
+
+		private void writeCodePoint(int codePoint) {
+			ensureCapacity(4);
+			if (codePoint < 0x800) {
+				this.bytes[this.length++] = (byte) (0xc0 | codePoint >> 6);
+				this.bytes[this.length++] = (byte) (0x80 | codePoint & 0x3f);
+			}
+			else if (codePoint < 0x10000) {
+				this.bytes[this.length++] = (byte) (0xe0 | codePoint >> 12);
+				this.bytes[this.length++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+				this.bytes[this.length++] = (byte) (0x80 | codePoint & 0x3f);
+			}
+			else {
+				this.bytes[this.length++] = (byte) (0xf0 | codePoint >> 18);
+				this.bytes[this.length++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+				this.bytes[this.length++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+				this.bytes[this.length++] = (byte) (0x80 | codePoint & 0x3f);
+			}
+		}
+
+	}
+
+	private static final class Buffers {
+
+		private final Utf8Buffer json = new Utf8Buffer();
+
+		private final ByteArrayBuffer out = new ByteArrayBuffer();
+
+	}
+
+}
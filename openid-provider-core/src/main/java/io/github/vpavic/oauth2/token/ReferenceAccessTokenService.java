@@ -0,0 +1,69 @@
+package io.github.vpavic.oauth2.token;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+
+/**
+ * A {@link TokenService} that issues random reference (opaque) access tokens and keeps their context in an
+ * {@link AccessTokenStore}, instead of issuing signed JWT access tokens.
+ *
+ * Creation and rotation of refresh tokens and ID tokens is delegated to the given {@link TokenService}.
+ *
+ * @author Vedran Pavic
+ */
+public class ReferenceAccessTokenService implements TokenService {
+
+	private final TokenService delegate;
+
+	private final AccessTokenStore accessTokenStore;
+
+	private Duration accessTokenLifetime = Duration.ofMinutes(10);
+
+	public ReferenceAccessTokenService(TokenService delegate, AccessTokenStore accessTokenStore) {
+		Objects.requireNonNull(delegate, "delegate must not be null");
+		Objects.requireNonNull(accessTokenStore, "accessTokenStore must not be null");
+		this.delegate = delegate;
+		this.accessTokenStore = accessTokenStore;
+	}
+
+	@Override
+	public AccessToken createAccessToken(AccessTokenRequest accessTokenRequest) {
+		Instant now = Instant.now();
+		Scope scope = accessTokenRequest.getScope();
+		BearerAccessToken accessToken = new BearerAccessToken(this.accessTokenLifetime.getSeconds(), scope);
+		AccessTokenContext context = new AccessTokenContext(accessToken, accessTokenRequest.getClient().getID(),
+				accessTokenRequest.getSubject(), scope, now, now.plus(this.accessTokenLifetime));
+		this.accessTokenStore.save(context);
+		return accessToken;
+	}
+
+	@Override
+	public RefreshToken createRefreshToken(RefreshTokenRequest refreshTokenRequest) {
+		return this.delegate.createRefreshToken(refreshTokenRequest);
+	}
+
+	@Override
+	public RefreshToken rotateRefreshToken(RefreshToken refreshToken, RefreshTokenRequest refreshTokenRequest)
+			throws GeneralException {
+		return this.delegate.rotateRefreshToken(refreshToken, refreshTokenRequest);
+	}
+
+	@Override
+	public JWT createIdToken(IdTokenRequest idTokenRequest) {
+		return this.delegate.createIdToken(idTokenRequest);
+	}
+
+	public void setAccessTokenLifetime(Duration accessTokenLifetime) {
+		Objects.requireNonNull(accessTokenLifetime, "accessTokenLifetime must not be null");
+		this.accessTokenLifetime = accessTokenLifetime;
+	}
+
+}
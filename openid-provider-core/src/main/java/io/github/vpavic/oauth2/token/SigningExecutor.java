@@ -0,0 +1,127 @@
+package io.github.vpavic.oauth2.token;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * A fixed size {@link Executor} with a bounded queue, dedicated to token signing.
+ *
+ * Tasks submitted while all the workers are busy and the queue is full are rejected immediately with
+ * {@link RejectedExecutionException} rather than run on the calling thread, so that signing load cannot spill over to
+ * the servlet container threads. Queue depth, signing time and number of rejected tasks are exposed for monitoring.
+ *
+ * @author Vedran Pavic
+ */
+public class SigningExecutor implements Executor {
+
+	private final ThreadPoolExecutor executor;
+
+	private final LongAdder signingCount = new LongAdder();
+
+	private final LongAdder signingTime = new LongAdder();
+
+	private final LongAdder rejectedCount = new LongAdder();
+
+	public SigningExecutor(int poolSize, int queueCapacity) {
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("poolSize must be greater than zero");
+		}
+		if (queueCapacity < 0) {
+			throw new IllegalArgumentException("queueCapacity must not be negative");
+		}
+		BlockingQueue<Runnable> queue = (queueCapacity > 0) ? new ArrayBlockingQueue<>(queueCapacity)
+				: new SynchronousQueue<>();
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, queue,
+				new SigningThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		try {
+			this.executor.execute(() -> {
+				long start = System.nanoTime();
+				try {
+					command.run();
+				}
+				finally {
+					this.signingTime.add(System.nanoTime() - start);
+					this.signingCount.increment();
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			this.rejectedCount.increment();
+			throw e;
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		this.executor.shutdown();
+	}
+
+	/**
+	 * Get the number of signing tasks waiting in the queue.
+	 * @return the queue depth
+	 */
+	public int getQueueSize() {
+		return this.executor.getQueue().size();
+	}
+
+	/**
+	 * Get the number of workers currently signing.
+	 * @return the number of active workers
+	 */
+	public int getActiveCount() {
+		return this.executor.getActiveCount();
+	}
+
+	/**
+	 * Get the number of completed signing tasks.
+	 * @return the signing count
+	 */
+	public long getSigningCount() {
+		return this.signingCount.sum();
+	}
+
+	/**
+	 * Get the total time spent signing, in nanoseconds.
+	 * @return the total signing time
+	 */
+	public long getSigningTime() {
+		return this.signingTime.sum();
+	}
+
+	/**
+	 * Get the number of signing tasks rejected due to saturation.
+	 * @return the rejected count
+	 */
+	public long getRejectedCount() {
+		return this.rejectedCount.sum();
+	}
+
+	private static final class SigningThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "signing-executor-" + this.threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
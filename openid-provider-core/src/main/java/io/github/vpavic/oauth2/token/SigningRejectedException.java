@@ -0,0 +1,15 @@
+package io.github.vpavic.oauth2.token;
+
+/**
+ * Thrown by {@link TokenService} implementations when a token cannot be signed because the signing executor is
+ * saturated. Endpoints translate this exception into a {@code temporarily_unavailable} error.
+ *
+ * @author Vedran Pavic
+ */
+public class SigningRejectedException extends RuntimeException {
+
+	public SigningRejectedException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
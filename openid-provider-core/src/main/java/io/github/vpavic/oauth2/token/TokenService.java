@@ -1,8 +1,10 @@
 package io.github.vpavic.oauth2.token;
 
 import com.nimbusds.jwt.JWT;
+import com.nimbusds.oauth2.sdk.GeneralException;
 import com.nimbusds.oauth2.sdk.token.AccessToken;
 import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import com.nimbusds.openid.connect.sdk.token.OIDCTokens;
 
 public interface TokenService {
 
@@ -10,6 +12,35 @@ public interface TokenService {
 
 	RefreshToken createRefreshToken(RefreshTokenRequest refreshTokenRequest);
 
+	/**
+	 * Replace the given refresh token with a newly created one. The default implementation only creates a refresh
+	 * token, and should be overridden by implementations that can invalidate the given one.
+	 * @param refreshToken the refresh token to replace
+	 * @param refreshTokenRequest the refresh token request
+	 * @return the new refresh token
+	 * @throws GeneralException if the refresh token can't be replaced
+	 */
+	default RefreshToken rotateRefreshToken(RefreshToken refreshToken, RefreshTokenRequest refreshTokenRequest)
+			throws GeneralException {
+		return createRefreshToken(refreshTokenRequest);
+	}
+
 	JWT createIdToken(IdTokenRequest idTokenRequest);
 
+	/**
+	 * Create an access token and an ID token containing the hash of that access token.
+	 * @param accessTokenRequest the access token request
+	 * @param idTokenRequest the ID token request, which must not contain an access token
+	 * @return the tokens, without a refresh token
+	 */
+	default OIDCTokens createTokens(AccessTokenRequest accessTokenRequest, IdTokenRequest idTokenRequest) {
+		AccessToken accessToken = createAccessToken(accessTokenRequest);
+		JWT idToken = createIdToken(new IdTokenRequest(idTokenRequest.getSubject(), idTokenRequest.getClient(),
+				idTokenRequest.getScope(), idTokenRequest.getAuthenticationTime(), idTokenRequest.getAcr(),
+				idTokenRequest.getAmr(), idTokenRequest.getSessionId(), idTokenRequest.getNonce(), accessToken,
+				idTokenRequest.getCode()));
+
+		return new OIDCTokens(idToken, accessToken, null);
+	}
+
 }
@@ -1,5 +1,33 @@
 package io.github.vpavic.oauth2.authentication;
 
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.oauth2.sdk.auth.Secret;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.security.core.Authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
  * Tests for {@link JwtBearerAccessTokenAuthenticationResolver}.
  *
@@ -7,6 +35,126 @@ package io.github.vpavic.oauth2.authentication;
  */
 public class JwtBearerAccessTokenAuthenticationResolverTests {
 
-	// TODO
+	private static final Issuer issuer = new Issuer("http://example.com");
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private RSAKey rsaKey = createRsaKey("key-1");
+
+	private AtomicReference<JWKSet> jwkSet = new AtomicReference<>(new JWKSet(this.rsaKey));
+
+	private JwtBearerAccessTokenAuthenticationResolver authenticationResolver = new JwtBearerAccessTokenAuthenticationResolver(
+			issuer, this.jwkSet::get);
+
+	@Test
+	public void resolveAuthentication_Rs256_ShouldReturnAuthentication() throws Exception {
+		Authentication authentication = this.authenticationResolver.resolveAuthentication(createToken(this.rsaKey));
+
+		assertThat(authentication.getName()).isEqualTo("user");
+		assertThat(authentication.getDetails()).isInstanceOf(JWTClaimsSet.class);
+	}
+
+	@Test
+	public void resolveAuthentication_UnknownKeyId_ShouldThrowException() throws Exception {
+		this.thrown.expect(Exception.class);
+
+		this.authenticationResolver.resolveAuthentication(createToken(createRsaKey("key-2")));
+	}
+
+	@Test
+	public void resolveAuthentication_RotatedKey_ShouldUseNewKey() throws Exception {
+		this.authenticationResolver.resolveAuthentication(createToken(this.rsaKey));
+		RSAKey newKey = createRsaKey("key-2");
+		this.jwkSet.set(new JWKSet(newKey));
+
+		Authentication authentication = this.authenticationResolver.resolveAuthentication(createToken(newKey));
+
+		assertThat(authentication.getName()).isEqualTo("user");
+	}
+
+	@Test
+	public void resolveAuthentication_RemovedKey_ShouldThrowException() throws Exception {
+		this.authenticationResolver.resolveAuthentication(createToken(this.rsaKey));
+		this.jwkSet.set(new JWKSet(createRsaKey("key-2")));
+
+		this.thrown.expect(Exception.class);
+
+		this.authenticationResolver.resolveAuthentication(createToken(this.rsaKey));
+	}
+
+	@Test
+	public void resolveAuthentication_Hs256WithoutKeyId_ShouldReturnAuthentication() throws Exception {
+		Secret secret = new Secret(32);
+		this.jwkSet.set(new JWKSet(new OctetSequenceKey.Builder(secret.getValueBytes()).build()));
+		this.authenticationResolver.setAccessTokenJwsAlgorithm(JWSAlgorithm.HS256);
+		SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), createClaimsSet());
+		jwt.sign(new MACSigner(secret.getValueBytes()));
+
+		Authentication authentication = this.authenticationResolver.resolveAuthentication(jwt.serialize());
+
+		assertThat(authentication.getName()).isEqualTo("user");
+	}
+
+	@Test
+	public void resolveAuthentication_UnexpectedAlgorithm_ShouldThrowException() throws Exception {
+		this.authenticationResolver.setAccessTokenJwsAlgorithm(JWSAlgorithm.RS512);
+
+		this.thrown.expect(Exception.class);
+
+		this.authenticationResolver.resolveAuthentication(createToken(this.rsaKey));
+	}
+
+	@Test
+	public void resolveAuthentication_WithTokenCache_ShouldReuseVerifiedClaims() throws Exception {
+		VerifiedAccessTokenCache tokenCache = new VerifiedAccessTokenCache(10);
+		this.authenticationResolver.setTokenCache(tokenCache);
+		String token = createToken(this.rsaKey);
+
+		Authentication first = this.authenticationResolver.resolveAuthentication(token);
+		Authentication second = this.authenticationResolver.resolveAuthentication(token);
+
+		assertThat(second.getDetails()).isSameAs(first.getDetails());
+		assertThat(tokenCache.getHitCount()).isEqualTo(1);
+		assertThat(tokenCache.getMissCount()).isEqualTo(1);
+	}
+
+	private static String createToken(RSAKey rsaKey) throws Exception {
+		SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(),
+				createClaimsSet());
+		jwt.sign(new RSASSASigner(rsaKey));
+		return jwt.serialize();
+	}
+
+	private static JWTClaimsSet createClaimsSet() {
+		// @formatter:off
+		return new JWTClaimsSet.Builder()
+				.issuer(issuer.getValue())
+				.subject("user")
+				.audience(issuer.getValue())
+				.expirationTime(Date.from(Instant.now().plusSeconds(60)))
+				.claim("scp", Collections.singletonList("openid"))
+				.build();
+		// @formatter:on
+	}
+
+	private static RSAKey createRsaKey(String keyId) {
+		try {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+			generator.initialize(2048);
+			KeyPair keyPair = generator.generateKeyPair();
+
+			// @formatter:off
+			return new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+					.privateKey((RSAPrivateKey) keyPair.getPrivate())
+					.keyUse(KeyUse.SIGNATURE)
+					.keyID(keyId)
+					.build();
+			// @formatter:on
+		}
+		catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
 
 }
@@ -0,0 +1,85 @@
+package io.github.vpavic.oauth2.authentication;
+
+import java.time.Instant;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.security.core.Authentication;
+
+import io.github.vpavic.oauth2.token.AccessTokenContext;
+import io.github.vpavic.oauth2.token.InMemoryAccessTokenStore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ReferenceAccessTokenAuthenticationResolver}.
+ *
+ * @author Vedran Pavic
+ */
+public class ReferenceAccessTokenAuthenticationResolverTests {
+
+	private static final Issuer issuer = new Issuer("http://example.com");
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private InMemoryAccessTokenStore accessTokenStore = new InMemoryAccessTokenStore();
+
+	private ReferenceAccessTokenAuthenticationResolver authenticationResolver = new ReferenceAccessTokenAuthenticationResolver(
+			issuer, this.accessTokenStore);
+
+	@Test
+	public void resolveAuthentication_Valid_ShouldReturnAuthentication() throws Exception {
+		BearerAccessToken accessToken = new BearerAccessToken();
+		this.accessTokenStore.save(new AccessTokenContext(accessToken, new ClientID("test-client"),
+				new Subject("user"), new Scope("openid", "profile"), Instant.now(), Instant.now().plusSeconds(60)));
+
+		Authentication authentication = this.authenticationResolver.resolveAuthentication(accessToken.getValue());
+
+		assertThat(authentication.getName()).isEqualTo("user");
+		JWTClaimsSet claimsSet = (JWTClaimsSet) authentication.getDetails();
+		assertThat(claimsSet.getIssuer()).isEqualTo(issuer.getValue());
+		assertThat(claimsSet.getStringListClaim("scp")).containsExactly("openid", "profile");
+		assertThat(claimsSet.getStringClaim("cid")).isEqualTo("test-client");
+	}
+
+	@Test
+	public void resolveAuthentication_Unknown_ShouldThrowException() throws Exception {
+		this.thrown.expect(Exception.class);
+		this.thrown.expectMessage("Invalid access token");
+
+		this.authenticationResolver.resolveAuthentication(new BearerAccessToken().getValue());
+	}
+
+	@Test
+	public void resolveAuthentication_NonOpenIdScope_ShouldThrowException() throws Exception {
+		BearerAccessToken accessToken = new BearerAccessToken();
+		this.accessTokenStore.save(new AccessTokenContext(accessToken, new ClientID("test-client"),
+				new Subject("user"), new Scope("api"), Instant.now(), Instant.now().plusSeconds(60)));
+
+		this.thrown.expect(Exception.class);
+		this.thrown.expectMessage("Invalid scope");
+
+		this.authenticationResolver.resolveAuthentication(accessToken.getValue());
+	}
+
+	@Test
+	public void resolveClaims_NonOpenIdScope_ShouldReturnClaims() throws Exception {
+		BearerAccessToken accessToken = new BearerAccessToken();
+		this.accessTokenStore.save(new AccessTokenContext(accessToken, new ClientID("test-client"),
+				new Subject("user"), new Scope("api"), Instant.now(), Instant.now().plusSeconds(60)));
+
+		JWTClaimsSet claimsSet = this.authenticationResolver.resolveClaims(accessToken.getValue());
+
+		assertThat(claimsSet.getSubject()).isEqualTo("user");
+		assertThat(claimsSet.getStringListClaim("scp")).containsExactly("api");
+	}
+
+}
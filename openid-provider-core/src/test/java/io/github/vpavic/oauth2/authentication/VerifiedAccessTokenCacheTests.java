@@ -0,0 +1,89 @@
+package io.github.vpavic.oauth2.authentication;
+
+import java.time.Instant;
+import java.util.Date;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link VerifiedAccessTokenCache}.
+ *
+ * @author Vedran Pavic
+ */
+public class VerifiedAccessTokenCacheTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private VerifiedAccessTokenCache tokenCache = new VerifiedAccessTokenCache(2);
+
+	@Test
+	public void construct_ZeroMaxSize_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("maxSize must be greater than zero");
+
+		new VerifiedAccessTokenCache(0);
+	}
+
+	@Test
+	public void get_Cached_ShouldReturnClaimsSet() {
+		JWTClaimsSet claimsSet = createClaimsSet(Instant.now().plusSeconds(60));
+		this.tokenCache.put("token", claimsSet);
+
+		assertThat(this.tokenCache.get("token")).isSameAs(claimsSet);
+		assertThat(this.tokenCache.getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void get_NotCached_ShouldReturnNull() {
+		assertThat(this.tokenCache.get("token")).isNull();
+		assertThat(this.tokenCache.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void get_Expired_ShouldReturnNull() {
+		this.tokenCache.put("token", createClaimsSet(Instant.now().minusSeconds(1)));
+
+		assertThat(this.tokenCache.get("token")).isNull();
+		assertThat(this.tokenCache.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void put_NoExpirationTime_ShouldNotCache() {
+		this.tokenCache.put("token", new JWTClaimsSet.Builder().build());
+
+		assertThat(this.tokenCache.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void put_MaxSizeExceeded_ShouldEvictLeastRecentlyUsed() {
+		this.tokenCache.put("token1", createClaimsSet(Instant.now().plusSeconds(60)));
+		this.tokenCache.put("token2", createClaimsSet(Instant.now().plusSeconds(60)));
+		this.tokenCache.get("token1");
+		this.tokenCache.put("token3", createClaimsSet(Instant.now().plusSeconds(60)));
+
+		assertThat(this.tokenCache.getSize()).isEqualTo(2);
+		assertThat(this.tokenCache.get("token1")).isNotNull();
+		assertThat(this.tokenCache.get("token2")).isNull();
+		assertThat(this.tokenCache.get("token3")).isNotNull();
+	}
+
+	@Test
+	public void put_MaxSizeExceeded_ShouldStayBounded() {
+		for (int i = 0; i < 10; i++) {
+			this.tokenCache.put("token" + i, createClaimsSet(Instant.now().plusSeconds(60)));
+		}
+
+		assertThat(this.tokenCache.getSize()).isEqualTo(2);
+	}
+
+	private static JWTClaimsSet createClaimsSet(Instant expirationTime) {
+		return new JWTClaimsSet.Builder().subject("user").expirationTime(Date.from(expirationTime)).build();
+	}
+
+}
@@ -0,0 +1,240 @@
+package io.github.vpavic.oauth2.client;
+
+import java.time.Duration;
+
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link CachingClientRepository}.
+ *
+ * @author Vedran Pavic
+ */
+public class CachingClientRepositoryTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private ClientRepository delegate = mock(ClientRepository.class);
+
+	private CachingClientRepository clientRepository = new CachingClientRepository(this.delegate);
+
+	@Test
+	public void construct_NullClientRepository_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("clientRepository must not be null");
+
+		new CachingClientRepository(null);
+	}
+
+	@Test
+	public void findById_Repeated_ShouldLoadOnce() {
+		OIDCClientInformation client = ClientTestUtils.createClient();
+		given(this.delegate.findById(client.getID())).willReturn(client);
+
+		assertThat(this.clientRepository.findById(client.getID())).isEqualTo(client);
+		assertThat(this.clientRepository.findById(client.getID())).isEqualTo(client);
+		verify(this.delegate, times(1)).findById(client.getID());
+	}
+
+	@Test
+	public void findById_Missing_ShouldNotCache() {
+		ClientID id = new ClientID();
+
+		assertThat(this.clientRepository.findById(id)).isNull();
+		assertThat(this.clientRepository.findById(id)).isNull();
+		verify(this.delegate, times(2)).findById(id);
+	}
+
+	@Test
+	public void findById_Expired_ShouldReload() throws InterruptedException {
+		OIDCClientInformation client = ClientTestUtils.createClient();
+		given(this.delegate.findById(client.getID())).willReturn(client);
+		this.clientRepository.setTtl(Duration.ofMillis(1));
+
+		this.clientRepository.findById(client.getID());
+		Thread.sleep(5);
+		this.clientRepository.findById(client.getID());
+
+		verify(this.delegate, times(2)).findById(client.getID());
+	}
+
+	@Test
+	public void findById_MaxSizeReached_ShouldEvict() {
+		OIDCClientInformation client1 = ClientTestUtils.createClient();
+		OIDCClientInformation client2 = ClientTestUtils.createClient();
+		given(this.delegate.findById(client1.getID())).willReturn(client1);
+		given(this.delegate.findById(client2.getID())).willReturn(client2);
+		this.clientRepository.setMaxSize(1);
+
+		this.clientRepository.findById(client1.getID());
+		this.clientRepository.findById(client2.getID());
+		this.clientRepository.findById(client2.getID());
+		this.clientRepository.findById(client1.getID());
+
+		verify(this.delegate, times(2)).findById(client1.getID());
+		verify(this.delegate, times(1)).findById(client2.getID());
+	}
+
+	@Test
+	public void findById_MaxSizeReached_ShouldEvictLeastRecentlyUsed() {
+		OIDCClientInformation client1 = ClientTestUtils.createClient();
+		OIDCClientInformation client2 = ClientTestUtils.createClient();
+		OIDCClientInformation client3 = ClientTestUtils.createClient();
+		given(this.delegate.findById(client1.getID())).willReturn(client1);
+		given(this.delegate.findById(client2.getID())).willReturn(client2);
+		given(this.delegate.findById(client3.getID())).willReturn(client3);
+		this.clientRepository.setMaxSize(2);
+
+		this.clientRepository.findById(client1.getID());
+		this.clientRepository.findById(client2.getID());
+		this.clientRepository.findById(client1.getID());
+		this.clientRepository.findById(client3.getID());
+		this.clientRepository.findById(client1.getID());
+		this.clientRepository.findById(client2.getID());
+
+		verify(this.delegate, times(1)).findById(client1.getID());
+		verify(this.delegate, times(2)).findById(client2.getID());
+		verify(this.delegate, times(1)).findById(client3.getID());
+	}
+
+	@Test
+	public void save_Cached_ShouldEvict() {
+		OIDCClientInformation client = ClientTestUtils.createClient();
+		given(this.delegate.findById(client.getID())).willReturn(client);
+		this.clientRepository.findById(client.getID());
+
+		this.clientRepository.save(client);
+		this.clientRepository.findById(client.getID());
+
+		verify(this.delegate).save(client);
+		verify(this.delegate, times(2)).findById(client.getID());
+	}
+
+	@Test
+	public void deleteById_Cached_ShouldEvict() {
+		OIDCClientInformation client = ClientTestUtils.createClient();
+		given(this.delegate.findById(client.getID())).willReturn(client);
+		this.clientRepository.findById(client.getID());
+
+		this.clientRepository.deleteById(client.getID());
+		this.clientRepository.findById(client.getID());
+
+		verify(this.delegate).deleteById(client.getID());
+		verify(this.delegate, times(2)).findById(client.getID());
+	}
+
+	@Test
+	public void save_InTransaction_ShouldEvictAgainAfterCommit() {
+		OIDCClientInformation client = ClientTestUtils.createClient();
+		given(this.delegate.findById(client.getID())).willReturn(client);
+		TransactionSynchronizationManager.initSynchronization();
+
+		try {
+			this.clientRepository.save(client);
+			this.clientRepository.findById(client.getID());
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager
+					.getSynchronizations()) {
+				synchronization.afterCommit();
+			}
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		this.clientRepository.findById(client.getID());
+
+		verify(this.delegate, times(2)).findById(client.getID());
+	}
+
+	@Test
+	public void save_WithInvalidationPublisher_ShouldPublishEviction() {
+		ClientInvalidationPublisher invalidationPublisher = mock(ClientInvalidationPublisher.class);
+		this.clientRepository.setInvalidationPublisher(invalidationPublisher);
+		this.clientRepository.init();
+		OIDCClientInformation client = ClientTestUtils.createClient();
+
+		this.clientRepository.save(client);
+
+		verify(invalidationPublisher).publish(client.getID());
+	}
+
+	@Test
+	public void save_InTransactionWithInvalidationPublisher_ShouldPublishEvictionAfterCommit() {
+		ClientInvalidationPublisher invalidationPublisher = mock(ClientInvalidationPublisher.class);
+		this.clientRepository.setInvalidationPublisher(invalidationPublisher);
+		this.clientRepository.init();
+		OIDCClientInformation client = ClientTestUtils.createClient();
+		TransactionSynchronizationManager.initSynchronization();
+
+		try {
+			this.clientRepository.save(client);
+			verify(invalidationPublisher, never()).publish(any(ClientID.class));
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager
+					.getSynchronizations()) {
+				synchronization.afterCommit();
+			}
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		verify(invalidationPublisher).publish(client.getID());
+	}
+
+	@Test
+	public void findById_EvictionPublished_ShouldReload() {
+		ClientInvalidationPublisher invalidationPublisher = mock(ClientInvalidationPublisher.class);
+		this.clientRepository.setInvalidationPublisher(invalidationPublisher);
+		this.clientRepository.init();
+		ArgumentCaptor<ClientChangeListener> listener = ArgumentCaptor.forClass(ClientChangeListener.class);
+		verify(invalidationPublisher).addListener(listener.capture());
+		OIDCClientInformation client = ClientTestUtils.createClient();
+		given(this.delegate.findById(client.getID())).willReturn(client);
+		this.clientRepository.findById(client.getID());
+
+		listener.getValue().clientChanged(client.getID());
+		this.clientRepository.findById(client.getID());
+
+		verify(this.delegate, times(2)).findById(client.getID());
+		verify(invalidationPublisher, never()).publish(any(ClientID.class));
+	}
+
+	@Test
+	public void setMaxSize_Zero_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("maxSize must be greater than zero");
+
+		this.clientRepository.setMaxSize(0);
+	}
+
+	@Test
+	public void setTtl_Zero_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("ttl must be positive");
+
+		this.clientRepository.setTtl(Duration.ZERO);
+	}
+
+	@Test
+	public void setInvalidationPublisher_Null_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("invalidationPublisher must not be null");
+
+		this.clientRepository.setInvalidationPublisher(null);
+	}
+
+}
@@ -1,5 +1,23 @@
 package io.github.vpavic.oauth2.client;
 
+import java.util.Arrays;
+
+import com.nimbusds.oauth2.sdk.auth.verifier.InvalidClientException;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientMetadata;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
 /**
  * Tests for {@link DefaultClientService}.
  *
@@ -7,6 +25,84 @@ package io.github.vpavic.oauth2.client;
  */
 public class DefaultClientServiceTests {
 
-	// TODO
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private ClientRepository clientRepository = mock(ClientRepository.class);
+
+	private ClientChangeListener changeListener = mock(ClientChangeListener.class);
+
+	private DefaultClientService clientService = new DefaultClientService(this.clientRepository,
+			"http://example.com/register/{id}");
+
+	@Test
+	public void construct_NullClientRepository_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("clientRepository must not be null");
+
+		new DefaultClientService(null, "http://example.com/register/{id}");
+	}
+
+	@Test
+	public void create_DynamicRegistration_ShouldSaveClient() {
+		this.clientService.setChangeListeners(Arrays.asList(this.changeListener));
+
+		OIDCClientInformation client = this.clientService.create(new OIDCClientMetadata(), true);
+
+		assertThat(client.getSecret()).isNotNull();
+		assertThat(client.getRegistrationURI())
+				.hasToString("http://example.com/register/" + client.getID().getValue());
+		assertThat(client.getRegistrationAccessToken()).isNotNull();
+		verify(this.clientRepository).save(client);
+		verifyZeroInteractions(this.changeListener);
+	}
+
+	@Test
+	public void update_Existing_ShouldNotifyChangeListeners() throws InvalidClientException {
+		OIDCClientInformation client = ClientTestUtils.createClient();
+		given(this.clientRepository.findById(client.getID())).willReturn(client);
+		this.clientService.setChangeListeners(Arrays.asList(this.changeListener));
+
+		OIDCClientInformation updated = this.clientService.update(client.getID(), new OIDCClientMetadata());
+
+		assertThat(updated.getSecret()).isEqualTo(client.getSecret());
+		verify(this.clientRepository).save(updated);
+		verify(this.changeListener).clientChanged(client.getID());
+	}
+
+	@Test
+	public void update_Missing_ShouldThrowException() throws InvalidClientException {
+		ClientID id = new ClientID();
+		this.clientService.setChangeListeners(Arrays.asList(this.changeListener));
+
+		this.thrown.expect(InvalidClientException.class);
+
+		try {
+			this.clientService.update(id, new OIDCClientMetadata());
+		}
+		finally {
+			verify(this.clientRepository, never()).save(any(OIDCClientInformation.class));
+			verifyZeroInteractions(this.changeListener);
+		}
+	}
+
+	@Test
+	public void delete_Existing_ShouldNotifyChangeListeners() {
+		ClientID id = new ClientID();
+		this.clientService.setChangeListeners(Arrays.asList(this.changeListener));
+
+		this.clientService.delete(id);
+
+		verify(this.clientRepository).deleteById(id);
+		verify(this.changeListener).clientChanged(id);
+	}
+
+	@Test
+	public void setChangeListeners_Null_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("changeListeners must not be null");
+
+		this.clientService.setChangeListeners(null);
+	}
 
 }
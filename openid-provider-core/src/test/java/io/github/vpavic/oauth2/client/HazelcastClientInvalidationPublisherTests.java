@@ -0,0 +1,97 @@
+package io.github.vpavic.oauth2.client;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Message;
+import com.hazelcast.core.MessageListener;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link HazelcastClientInvalidationPublisher}.
+ *
+ * @author Vedran Pavic
+ */
+public class HazelcastClientInvalidationPublisherTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+
+	@SuppressWarnings("unchecked")
+	private ITopic<String> topic = mock(ITopic.class);
+
+	private HazelcastClientInvalidationPublisher invalidationPublisher;
+
+	@Before
+	public void setUp() {
+		given(this.hazelcastInstance.<String>getTopic(anyString())).willReturn(this.topic);
+		this.invalidationPublisher = new HazelcastClientInvalidationPublisher(this.hazelcastInstance);
+	}
+
+	@Test
+	public void construct_NullHazelcastInstance_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("hazelcastInstance must not be null");
+
+		new HazelcastClientInvalidationPublisher(null);
+	}
+
+	@Test
+	public void publish_Valid_ShouldPublishToTopic() {
+		ClientID id = new ClientID();
+
+		this.invalidationPublisher.publish(id);
+
+		verify(this.hazelcastInstance).getTopic("op.clientInvalidations");
+		verify(this.topic).publish(id.getValue());
+	}
+
+	@Test
+	public void publish_CustomTopicName_ShouldPublishToCustomTopic() {
+		ClientID id = new ClientID();
+		this.invalidationPublisher.setTopicName("test");
+
+		this.invalidationPublisher.publish(id);
+
+		verify(this.hazelcastInstance).getTopic("test");
+		verify(this.topic).publish(id.getValue());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void addListener_MessageReceived_ShouldNotifyListener() {
+		given(this.topic.addMessageListener(any())).willReturn("registration");
+		ClientChangeListener listener = mock(ClientChangeListener.class);
+		ClientID id = new ClientID();
+
+		this.invalidationPublisher.addListener(listener);
+		ArgumentCaptor<MessageListener<String>> messageListener = ArgumentCaptor.forClass(MessageListener.class);
+		verify(this.topic).addMessageListener(messageListener.capture());
+		messageListener.getValue().onMessage(new Message<>("op.clientInvalidations", id.getValue(), 0, null));
+		this.invalidationPublisher.destroy();
+
+		verify(listener).clientChanged(id);
+		verify(this.topic).removeMessageListener("registration");
+	}
+
+	@Test
+	public void setTopicName_Empty_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("topicName must not be empty");
+
+		this.invalidationPublisher.setTopicName(" ");
+	}
+
+}
@@ -51,12 +51,15 @@ import io.github.vpavic.oauth2.grant.code.AuthorizationCodeService;
 import io.github.vpavic.oauth2.scope.ScopeResolver;
 import io.github.vpavic.oauth2.token.AccessTokenRequest;
 import io.github.vpavic.oauth2.token.IdTokenRequest;
+import io.github.vpavic.oauth2.token.SigningRejectedException;
 import io.github.vpavic.oauth2.token.TokenService;
 
 import static org.mockito.AdditionalAnswers.returnsSecondArg;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
@@ -469,6 +472,25 @@ public class AuthorizationEndpointTests {
 				accessToken.getValue(), authorizationCode.getValue(), idToken.serialize(), state.getValue()));
 	}
 
+	@Test
+	@WithMockUser
+	public void hybridWithIdToken_withSigningRejected_isErrorAndConsumesCode() throws Exception {
+		ErrorObject error = OAuth2Error.TEMPORARILY_UNAVAILABLE;
+		AuthorizationCode authorizationCode = new AuthorizationCode();
+
+		given(this.clientRepository.findById(any(ClientID.class))).willReturn(hybridWithIdTokenClient());
+		given(this.tokenService.createIdToken(any(IdTokenRequest.class)))
+				.willThrow(new SigningRejectedException("Signing executor saturated", null));
+		given(this.authorizationCodeService.create(any(AuthorizationCodeContext.class))).willReturn(authorizationCode);
+
+		MockHttpServletRequestBuilder request = get(
+				"/oauth2/authorize?scope=openid&response_type=code id_token&client_id=test-client&redirect_uri=http://example.com&nonce=test")
+						.session(this.session);
+		this.mvc.perform(request).andExpect(status().isFound())
+				.andExpect(redirectedUrlPattern("http://example.com?error_description=*&error=" + error.getCode()));
+		verify(this.authorizationCodeService).consume(authorizationCode);
+	}
+
 	@Test
 	@WithMockUser
 	public void hybridWithIdTokenAndToken_withoutClientId_isError() throws Exception {
@@ -563,7 +585,7 @@ public class AuthorizationEndpointTests {
 
 		@Bean
 		public TokenService tokenService() {
-			return mock(TokenService.class);
+			return mock(TokenService.class, CALLS_REAL_METHODS);
 		}
 
 		@Bean
@@ -72,15 +72,18 @@ import io.github.vpavic.oauth2.grant.refresh.RefreshTokenStore;
 import io.github.vpavic.oauth2.scope.ScopeResolver;
 import io.github.vpavic.oauth2.token.AccessTokenRequest;
 import io.github.vpavic.oauth2.token.IdTokenRequest;
+import io.github.vpavic.oauth2.token.SigningRejectedException;
 import io.github.vpavic.oauth2.token.TokenService;
 
 import static org.mockito.AdditionalAnswers.returnsSecondArg;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -373,6 +376,26 @@ public class TokenEndpointTests {
 		this.mvc.perform(request).andExpect(status().isOk());
 	}
 
+	@Test
+	public void clientCredentials_signingRejected_isServiceUnavailable() throws Exception {
+		ClientSecretBasic clientAuth = new ClientSecretBasic(new ClientID("test-client"), new Secret("test-secret"));
+		TokenRequest tokenRequest = new TokenRequest(URI.create("http://op.example.com"), clientAuth,
+				new ClientCredentialsGrant(), new Scope("test"));
+
+		given(this.clientRepository.findById(any(ClientID.class)))
+				.willReturn(client(ClientAuthenticationMethod.CLIENT_SECRET_BASIC));
+		given(this.scopeResolver.resolve(any(Subject.class), any(Scope.class), any(OIDCClientMetadata.class)))
+				.willAnswer(returnsSecondArg());
+		given(this.tokenService.createAccessToken(any(AccessTokenRequest.class)))
+				.willThrow(new SigningRejectedException("Signing executor is saturated", null));
+
+		MockHttpServletRequestBuilder request = post("/oauth2/token").content(tokenRequest.toHTTPRequest().getQuery())
+				.contentType(MediaType.APPLICATION_FORM_URLENCODED)
+				.header("Authorization", clientAuth.toHTTPAuthorizationHeader());
+		this.mvc.perform(request).andExpect(status().isServiceUnavailable())
+				.andExpect(jsonPath("$.error").value("temporarily_unavailable"));
+	}
+
 	@Test
 	public void refreshToken_basicAuth_isOk() throws Exception {
 		ClientID clientId = new ClientID("test-client");
@@ -452,7 +475,7 @@ public class TokenEndpointTests {
 
 		@Bean
 		public TokenService tokenService() {
-			return mock(TokenService.class);
+			return mock(TokenService.class, CALLS_REAL_METHODS);
 		}
 
 		@Bean
@@ -0,0 +1,241 @@
+package io.github.vpavic.oauth2.endpoint;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.oauth2.sdk.ResponseType;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.TokenIntrospectionRequest;
+import com.nimbusds.oauth2.sdk.auth.ClientAuthenticationMethod;
+import com.nimbusds.oauth2.sdk.auth.ClientSecretBasic;
+import com.nimbusds.oauth2.sdk.auth.Secret;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientMetadata;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import io.github.vpavic.oauth2.authentication.AccessTokenClaimsResolver;
+import io.github.vpavic.oauth2.client.ClientRepository;
+import io.github.vpavic.oauth2.config.OpenIdProviderWebMvcConfiguration;
+import io.github.vpavic.oauth2.config.TokenSecurityConfiguration;
+import io.github.vpavic.oauth2.grant.refresh.RefreshTokenContext;
+import io.github.vpavic.oauth2.grant.refresh.RefreshTokenStore;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for {@link TokenIntrospectionEndpoint}.
+ *
+ * @author Vedran Pavic
+ */
+@RunWith(SpringRunner.class)
+@WebAppConfiguration
+@ContextConfiguration
+public class TokenIntrospectionEndpointTests {
+
+	private static final ClientSecretBasic clientAuth = new ClientSecretBasic(new ClientID("test-client"),
+			new Secret("test-secret"));
+
+	@Autowired
+	private WebApplicationContext wac;
+
+	private MockMvc mvc;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private AccessTokenClaimsResolver accessTokenClaimsResolver;
+
+	@Autowired
+	private RefreshTokenStore refreshTokenStore;
+
+	@Before
+	public void setUp() {
+		this.mvc = MockMvcBuilders.webAppContextSetup(this.wac).apply(springSecurity()).build();
+		given(this.clientRepository.findById(any(ClientID.class))).willReturn(client());
+	}
+
+	@Test
+	public void introspect_validAccessToken_isActive() throws Exception {
+		BearerAccessToken accessToken = new BearerAccessToken();
+		given(this.accessTokenClaimsResolver.resolveClaims(eq(accessToken.getValue())))
+				.willReturn(accessTokenClaims("test-client"));
+
+		this.mvc.perform(introspectionRequest(accessToken.getValue())).andExpect(status().isOk())
+				.andExpect(jsonPath("$.active").value(true)).andExpect(jsonPath("$.token_type").value("Bearer"))
+				.andExpect(jsonPath("$.client_id").value("test-client"))
+				.andExpect(jsonPath("$.scope").value("openid"))
+				.andExpect(jsonPath("$.sub").value("user"));
+	}
+
+	@Test
+	public void introspect_validRefreshToken_isActive() throws Exception {
+		RefreshToken refreshToken = new RefreshToken();
+		given(this.refreshTokenStore.load(eq(refreshToken))).willReturn(new RefreshTokenContext(refreshToken,
+				new ClientID("test-client"), new Subject("user"), new Scope(OIDCScopeValue.OPENID), null));
+
+		this.mvc.perform(introspectionRequest(refreshToken.getValue())).andExpect(status().isOk())
+				.andExpect(jsonPath("$.active").value(true)).andExpect(jsonPath("$.client_id").value("test-client"));
+	}
+
+	@Test
+	public void introspect_refreshTokenOfOtherClient_isInactive() throws Exception {
+		RefreshToken refreshToken = new RefreshToken();
+		given(this.refreshTokenStore.load(eq(refreshToken))).willReturn(new RefreshTokenContext(refreshToken,
+				new ClientID("other-client"), new Subject("user"), new Scope(OIDCScopeValue.OPENID), null));
+
+		this.mvc.perform(introspectionRequest(refreshToken.getValue())).andExpect(status().isOk())
+				.andExpect(jsonPath("$.active").value(false)).andExpect(jsonPath("$.client_id").doesNotExist());
+	}
+
+	@Test
+	public void introspect_unknownToken_isInactive() throws Exception {
+		this.mvc.perform(introspectionRequest("unknown")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.active").value(false));
+	}
+
+	@Test
+	public void introspect_noClientAuthentication_isUnauthorized() throws Exception {
+		TokenIntrospectionRequest introspectionRequest = new TokenIntrospectionRequest(
+				URI.create("http://op.example.com"), new BearerAccessToken());
+
+		MockHttpServletRequestBuilder request = post("/oauth2/introspect")
+				.content(introspectionRequest.toHTTPRequest().getQuery())
+				.contentType(MediaType.APPLICATION_FORM_URLENCODED);
+		this.mvc.perform(request).andExpect(status().isUnauthorized())
+				.andExpect(jsonPath("$.error").value("invalid_client"));
+	}
+
+	@Test
+	public void batch_multipleTokens_isOkWithResultPerToken() throws Exception {
+		BearerAccessToken accessToken = new BearerAccessToken();
+		given(this.accessTokenClaimsResolver.resolveClaims(eq(accessToken.getValue())))
+				.willReturn(accessTokenClaims("test-client"));
+
+		MockHttpServletRequestBuilder request = post("/oauth2/introspect/batch")
+				.content("token=" + accessToken.getValue() + "&token=unknown")
+				.contentType(MediaType.APPLICATION_FORM_URLENCODED)
+				.header("Authorization", clientAuth.toHTTPAuthorizationHeader());
+		this.mvc.perform(request).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].active").value(true)).andExpect(jsonPath("$[1].active").value(false));
+	}
+
+	@Test
+	public void batch_tooManyTokens_isBadRequest() throws Exception {
+		MockHttpServletRequestBuilder request = post("/oauth2/introspect/batch")
+				.content("token=first&token=second&token=third").contentType(MediaType.APPLICATION_FORM_URLENCODED)
+				.header("Authorization", clientAuth.toHTTPAuthorizationHeader());
+		this.mvc.perform(request).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("invalid_request"));
+	}
+
+	@Test
+	public void batch_noClientAuthentication_isUnauthorized() throws Exception {
+		MockHttpServletRequestBuilder request = post("/oauth2/introspect/batch").content("token=first")
+				.contentType(MediaType.APPLICATION_FORM_URLENCODED);
+		this.mvc.perform(request).andExpect(status().isUnauthorized())
+				.andExpect(jsonPath("$.error").value("invalid_client"));
+	}
+
+	private static MockHttpServletRequestBuilder introspectionRequest(String token) {
+		TokenIntrospectionRequest introspectionRequest = new TokenIntrospectionRequest(
+				URI.create("http://op.example.com"), clientAuth, new BearerAccessToken(token));
+
+		return post("/oauth2/introspect").content(introspectionRequest.toHTTPRequest().getQuery())
+				.contentType(MediaType.APPLICATION_FORM_URLENCODED)
+				.header("Authorization", clientAuth.toHTTPAuthorizationHeader());
+	}
+
+	private static JWTClaimsSet accessTokenClaims(String clientId) {
+		Instant now = Instant.now();
+
+		// @formatter:off
+		return new JWTClaimsSet.Builder()
+				.issuer("http://example.com")
+				.subject("user")
+				.audience("http://example.com")
+				.expirationTime(Date.from(now.plusSeconds(60)))
+				.issueTime(Date.from(now))
+				.claim("scp", Collections.singletonList("openid"))
+				.claim("cid", clientId)
+				.build();
+		// @formatter:on
+	}
+
+	private static OIDCClientInformation client() {
+		OIDCClientMetadata clientMetadata = new OIDCClientMetadata();
+		clientMetadata.applyDefaults();
+		clientMetadata.setRedirectionURI(URI.create("http://example.com"));
+		clientMetadata.setScope(new Scope(OIDCScopeValue.OPENID));
+		clientMetadata.setResponseTypes(Collections.singleton(new ResponseType(ResponseType.Value.CODE)));
+		clientMetadata.setTokenEndpointAuthMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC);
+
+		return new OIDCClientInformation(new ClientID("test-client"), new Date(), clientMetadata,
+				new Secret("test-secret"));
+	}
+
+	@Configuration
+	@EnableWebMvc
+	@EnableWebSecurity
+	@Import({ OpenIdProviderWebMvcConfiguration.class, TokenSecurityConfiguration.class })
+	static class Config {
+
+		@Bean
+		public ClientRepository clientRepository() {
+			return mock(ClientRepository.class);
+		}
+
+		@Bean
+		public AccessTokenClaimsResolver accessTokenClaimsResolver() {
+			return mock(AccessTokenClaimsResolver.class);
+		}
+
+		@Bean
+		public RefreshTokenStore refreshTokenStore() {
+			return mock(RefreshTokenStore.class);
+		}
+
+		@Bean
+		public TokenIntrospectionEndpoint tokenIntrospectionEndpoint() {
+			TokenIntrospectionEndpoint endpoint = new TokenIntrospectionEndpoint(new Issuer("http://example.com"),
+					clientRepository(), accessTokenClaimsResolver(), refreshTokenStore());
+			endpoint.setMaxBatchSize(2);
+			return endpoint;
+		}
+
+	}
+
+}
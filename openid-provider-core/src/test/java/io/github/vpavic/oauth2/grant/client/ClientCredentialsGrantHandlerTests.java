@@ -1,5 +1,35 @@
 package io.github.vpavic.oauth2.grant.client;
 
+import java.net.URI;
+import java.util.Date;
+
+import com.nimbusds.oauth2.sdk.ClientCredentialsGrant;
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.TokenRequest;
+import com.nimbusds.oauth2.sdk.auth.ClientSecretBasic;
+import com.nimbusds.oauth2.sdk.auth.Secret;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import com.nimbusds.oauth2.sdk.token.Tokens;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.github.vpavic.oauth2.client.ClientRepository;
+import io.github.vpavic.oauth2.scope.ScopeResolver;
+import io.github.vpavic.oauth2.token.AccessTokenRequest;
+import io.github.vpavic.oauth2.token.TokenService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
 /**
  * Tests for {@link ClientCredentialsGrantHandler}.
  *
@@ -7,6 +37,78 @@ package io.github.vpavic.oauth2.grant.client;
  */
 public class ClientCredentialsGrantHandlerTests {
 
-	// TODO
+	private static final ClientID clientId = new ClientID("test-client");
+
+	private static final Scope scope = new Scope("test");
+
+	private ClientRepository clientRepository = mock(ClientRepository.class);
+
+	private ScopeResolver scopeResolver = mock(ScopeResolver.class);
+
+	private TokenService tokenService = mock(TokenService.class);
+
+	private ClientCredentialsGrantHandler grantHandler;
+
+	@Before
+	public void setUp() throws GeneralException {
+		this.grantHandler = new ClientCredentialsGrantHandler(this.clientRepository, this.scopeResolver,
+				this.tokenService);
+		given(this.clientRepository.findById(clientId))
+				.willReturn(new OIDCClientInformation(clientId, new Date(), new OIDCClientMetadata(), new Secret()));
+		given(this.scopeResolver.resolve(any(Subject.class), any(Scope.class), any(OIDCClientMetadata.class)))
+				.willReturn(scope);
+		given(this.tokenService.createAccessToken(any(AccessTokenRequest.class)))
+				.willAnswer(invocation -> new BearerAccessToken(600, scope));
+	}
+
+	@Test
+	public void grant_NoTokenCache_ShouldAlwaysCreateAccessToken() throws GeneralException {
+		Tokens first = this.grantHandler.grant(createTokenRequest());
+		Tokens second = this.grantHandler.grant(createTokenRequest());
+
+		assertThat(first.getAccessToken()).isNotEqualTo(second.getAccessToken());
+		assertThat(first.getRefreshToken()).isNull();
+		verify(this.tokenService, times(2)).createAccessToken(any(AccessTokenRequest.class));
+	}
+
+	@Test
+	public void grant_TokenCacheMiss_ShouldCreateAndCacheAccessToken() throws GeneralException {
+		ClientCredentialsTokenCache tokenCache = new ClientCredentialsTokenCache();
+		this.grantHandler.setTokenCache(tokenCache);
+
+		Tokens tokens = this.grantHandler.grant(createTokenRequest());
+
+		assertThat(tokenCache.get(clientId, scope)).isEqualTo(tokens.getAccessToken());
+		verify(this.tokenService, times(1)).createAccessToken(any(AccessTokenRequest.class));
+	}
+
+	@Test
+	public void grant_TokenCacheHit_ShouldReuseAccessToken() throws GeneralException {
+		this.grantHandler.setTokenCache(new ClientCredentialsTokenCache());
+
+		Tokens first = this.grantHandler.grant(createTokenRequest());
+		Tokens second = this.grantHandler.grant(createTokenRequest());
+
+		assertThat(second.getAccessToken()).isEqualTo(first.getAccessToken());
+		verify(this.tokenService, times(1)).createAccessToken(any(AccessTokenRequest.class));
+	}
+
+	@Test
+	public void grant_TokenCacheEvicted_ShouldCreateAccessToken() throws GeneralException {
+		ClientCredentialsTokenCache tokenCache = new ClientCredentialsTokenCache();
+		this.grantHandler.setTokenCache(tokenCache);
+
+		Tokens first = this.grantHandler.grant(createTokenRequest());
+		tokenCache.evict(clientId);
+		Tokens second = this.grantHandler.grant(createTokenRequest());
+
+		assertThat(second.getAccessToken()).isNotEqualTo(first.getAccessToken());
+		verify(this.tokenService, times(2)).createAccessToken(any(AccessTokenRequest.class));
+	}
+
+	private static TokenRequest createTokenRequest() {
+		return new TokenRequest(URI.create("http://example.com/token"), new ClientSecretBasic(clientId, new Secret()),
+				new ClientCredentialsGrant(), scope);
+	}
 
 }
@@ -0,0 +1,131 @@
+package io.github.vpavic.oauth2.grant.client;
+
+import java.time.Duration;
+
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ClientCredentialsTokenCache}.
+ *
+ * @author Vedran Pavic
+ */
+public class ClientCredentialsTokenCacheTests {
+
+	private static final ClientID clientId = new ClientID("test-client");
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private ClientCredentialsTokenCache tokenCache = new ClientCredentialsTokenCache();
+
+	@Test
+	public void get_Cached_ShouldReturnAccessToken() {
+		BearerAccessToken accessToken = new BearerAccessToken(600, new Scope("a", "b"));
+		this.tokenCache.put(clientId, new Scope("a", "b"), accessToken);
+
+		AccessToken cached = this.tokenCache.get(clientId, new Scope("b", "a"));
+
+		assertThat(cached).isNotNull();
+		assertThat(cached.getValue()).isEqualTo(accessToken.getValue());
+		assertThat(cached.getLifetime()).isBetween(598L, 600L);
+	}
+
+	@Test
+	public void get_DifferentScope_ShouldReturnNull() {
+		this.tokenCache.put(clientId, new Scope("a"), new BearerAccessToken(600, new Scope("a")));
+
+		assertThat(this.tokenCache.get(clientId, new Scope("a", "b"))).isNull();
+	}
+
+	@Test
+	public void get_BelowMinRemainingLifetime_ShouldReturnNull() {
+		this.tokenCache.setMinRemainingLifetime(1);
+		this.tokenCache.put(clientId, new Scope("a"), new BearerAccessToken(600, new Scope("a")));
+
+		assertThat(this.tokenCache.get(clientId, new Scope("a"))).isNull();
+	}
+
+	@Test
+	public void put_NoLifetime_ShouldNotCache() {
+		this.tokenCache.put(clientId, new Scope("a"), new BearerAccessToken());
+
+		assertThat(this.tokenCache.get(clientId, new Scope("a"))).isNull();
+	}
+
+	@Test
+	public void evict_Cached_ShouldRemoveClientTokens() {
+		this.tokenCache.put(clientId, new Scope("a"), new BearerAccessToken(600, new Scope("a")));
+
+		this.tokenCache.evict(clientId);
+
+		assertThat(this.tokenCache.get(clientId, new Scope("a"))).isNull();
+	}
+
+	@Test
+	public void put_MaxSizeReached_ShouldEvictLeastRecentlyUsed() {
+		this.tokenCache.setMaxSize(2);
+		this.tokenCache.put(clientId, new Scope("a"), new BearerAccessToken(600, new Scope("a")));
+		this.tokenCache.put(clientId, new Scope("b"), new BearerAccessToken(600, new Scope("b")));
+		this.tokenCache.get(clientId, new Scope("a"));
+
+		this.tokenCache.put(clientId, new Scope("c"), new BearerAccessToken(600, new Scope("c")));
+
+		assertThat(this.tokenCache.getSize()).isEqualTo(2);
+		assertThat(this.tokenCache.get(clientId, new Scope("a"))).isNotNull();
+		assertThat(this.tokenCache.get(clientId, new Scope("b"))).isNull();
+		assertThat(this.tokenCache.get(clientId, new Scope("c"))).isNotNull();
+	}
+
+	@Test
+	public void cleanup_NotReusable_ShouldRemoveAccessTokens() {
+		this.tokenCache.put(clientId, new Scope("a"), new BearerAccessToken(600, new Scope("a")));
+		this.tokenCache.put(clientId, new Scope("b"), new BearerAccessToken(600, new Scope("b")));
+		this.tokenCache.setMinRemainingLifetime(1);
+
+		this.tokenCache.cleanup();
+
+		assertThat(this.tokenCache.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void cleanup_Reusable_ShouldKeepAccessTokens() {
+		this.tokenCache.put(clientId, new Scope("a"), new BearerAccessToken(600, new Scope("a")));
+
+		this.tokenCache.cleanup();
+
+		assertThat(this.tokenCache.getSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void setMaxSize_Zero_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("maxSize must be greater than zero");
+
+		this.tokenCache.setMaxSize(0);
+	}
+
+	@Test
+	public void setCleanupInterval_Zero_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("cleanupInterval must be positive");
+
+		this.tokenCache.setCleanupInterval(Duration.ZERO);
+	}
+
+	@Test
+	public void setMinRemainingLifetime_OutOfRange_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("minRemainingLifetime must be between 0 and 1");
+
+		this.tokenCache.setMinRemainingLifetime(1.5);
+	}
+
+}
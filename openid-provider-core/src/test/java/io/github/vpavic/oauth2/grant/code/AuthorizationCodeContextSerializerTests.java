@@ -0,0 +1,102 @@
+package io.github.vpavic.oauth2.grant.code;
+
+import java.net.URI;
+import java.time.Instant;
+
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.pkce.CodeChallenge;
+import com.nimbusds.oauth2.sdk.pkce.CodeChallengeMethod;
+import com.nimbusds.oauth2.sdk.pkce.CodeVerifier;
+import com.nimbusds.openid.connect.sdk.Nonce;
+import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import com.nimbusds.openid.connect.sdk.claims.ACR;
+import com.nimbusds.openid.connect.sdk.claims.AMR;
+import com.nimbusds.openid.connect.sdk.claims.SessionID;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AuthorizationCodeContextSerializer}.
+ *
+ * @author Vedran Pavic
+ */
+public class AuthorizationCodeContextSerializerTests {
+
+	private final InternalSerializationService serializationService = createSerializationService(true);
+
+	@Test
+	public void roundTrip_AllValues_ShouldRestoreContext() {
+		AuthorizationCodeContext context = createContext();
+
+		AuthorizationCodeContext restored = this.serializationService
+				.toObject(this.serializationService.toData(context));
+
+		assertThat(restored).isNotSameAs(context);
+		assertThat(restored.getSubject()).isEqualTo(context.getSubject());
+		assertThat(restored.getClientId()).isEqualTo(context.getClientId());
+		assertThat(restored.getRedirectUri()).isEqualTo(context.getRedirectUri());
+		assertThat(restored.getScope()).isEqualTo(context.getScope());
+		assertThat(restored.getAuthenticationTime()).isEqualTo(context.getAuthenticationTime());
+		assertThat(restored.getAcr()).isEqualTo(context.getAcr());
+		assertThat(restored.getAmr()).isEqualTo(context.getAmr());
+		assertThat(restored.getSessionId()).isEqualTo(context.getSessionId());
+		assertThat(restored.getCodeChallenge()).isEqualTo(context.getCodeChallenge());
+		assertThat(restored.getCodeChallengeMethod()).isEqualTo(context.getCodeChallengeMethod());
+		assertThat(restored.getNonce()).isEqualTo(context.getNonce());
+	}
+
+	@Test
+	public void roundTrip_OptionalValuesMissing_ShouldRestoreContext() {
+		AuthorizationCodeContext context = new AuthorizationCodeContext(new Subject("user"),
+				new ClientID("test-client"), URI.create("http://example.com"), new Scope(),
+				Instant.ofEpochSecond(1514764800L), new ACR("1"), AMR.PWD, new SessionID("session"), null, null, null);
+
+		AuthorizationCodeContext restored = this.serializationService
+				.toObject(this.serializationService.toData(context));
+
+		assertThat(restored.getScope()).isEmpty();
+		assertThat(restored.getCodeChallenge()).isNull();
+		assertThat(restored.getCodeChallengeMethod()).isNull();
+		assertThat(restored.getNonce()).isNull();
+	}
+
+	@Test
+	public void toData_ComparedToJavaSerialization_ShouldBeSmaller() {
+		AuthorizationCodeContext context = createContext();
+
+		Data compact = this.serializationService.toData(context);
+		Data java = createSerializationService(false).toData(context);
+
+		assertThat(compact.getType()).isEqualTo(AuthorizationCodeContextSerializer.TYPE_ID);
+		assertThat(compact.totalSize()).isLessThan(java.totalSize() / 4);
+	}
+
+	private static AuthorizationCodeContext createContext() {
+		CodeVerifier codeVerifier = new CodeVerifier();
+
+		return new AuthorizationCodeContext(new Subject("user"), new ClientID("test-client"),
+				URI.create("http://example.com/callback"), new Scope(OIDCScopeValue.OPENID, OIDCScopeValue.PROFILE),
+				Instant.ofEpochSecond(1514764800L), new ACR("1"), AMR.PWD, new SessionID("session"),
+				CodeChallenge.compute(CodeChallengeMethod.S256, codeVerifier), CodeChallengeMethod.S256, new Nonce());
+	}
+
+	private static InternalSerializationService createSerializationService(boolean compact) {
+		SerializationConfig config = new SerializationConfig();
+
+		if (compact) {
+			config.addSerializerConfig(new SerializerConfig().setTypeClass(AuthorizationCodeContext.class)
+					.setImplementation(new AuthorizationCodeContextSerializer()));
+		}
+
+		return new DefaultSerializationServiceBuilder().setConfig(config).build();
+	}
+
+}
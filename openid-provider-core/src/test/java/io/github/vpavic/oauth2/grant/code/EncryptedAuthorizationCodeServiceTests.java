@@ -0,0 +1,195 @@
+package io.github.vpavic.oauth2.grant.code;
+
+import java.net.URI;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.oauth2.sdk.AuthorizationCode;
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.pkce.CodeChallenge;
+import com.nimbusds.oauth2.sdk.pkce.CodeChallengeMethod;
+import com.nimbusds.oauth2.sdk.pkce.CodeVerifier;
+import com.nimbusds.openid.connect.sdk.Nonce;
+import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import com.nimbusds.openid.connect.sdk.claims.ACR;
+import com.nimbusds.openid.connect.sdk.claims.AMR;
+import com.nimbusds.openid.connect.sdk.claims.SessionID;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link EncryptedAuthorizationCodeService}.
+ *
+ * @author Vedran Pavic
+ */
+public class EncryptedAuthorizationCodeServiceTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private JWKSet jwkSet = new JWKSet(createKey("key-1"));
+
+	private EncryptedAuthorizationCodeService authorizationCodeService;
+
+	@Before
+	public void setUp() {
+		this.authorizationCodeService = new EncryptedAuthorizationCodeService(() -> this.jwkSet,
+				new InMemoryAuthorizationCodeReplayGuard());
+	}
+
+	@Test
+	public void construct_NullJwkSetLoader_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("jwkSetLoader must not be null");
+
+		new EncryptedAuthorizationCodeService(null, new InMemoryAuthorizationCodeReplayGuard());
+	}
+
+	@Test
+	public void construct_NullReplayGuard_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("replayGuard must not be null");
+
+		new EncryptedAuthorizationCodeService(() -> this.jwkSet, null);
+	}
+
+	@Test
+	public void consume_Valid_ShouldReturnContext() throws GeneralException {
+		AuthorizationCodeContext context = new AuthorizationCodeContext(new Subject("user"),
+				new ClientID("test-client"), URI.create("http://example.com/callback"),
+				new Scope(OIDCScopeValue.OPENID, OIDCScopeValue.PROFILE), Instant.ofEpochSecond(1514764800L),
+				new ACR("1"), AMR.PWD, new SessionID("session"),
+				CodeChallenge.compute(CodeChallengeMethod.S256, new CodeVerifier()), CodeChallengeMethod.S256,
+				new Nonce());
+		AuthorizationCode code = this.authorizationCodeService.create(context);
+
+		AuthorizationCodeContext consumed = this.authorizationCodeService.consume(code);
+
+		assertThat(consumed.getSubject()).isEqualTo(context.getSubject());
+		assertThat(consumed.getClientId()).isEqualTo(context.getClientId());
+		assertThat(consumed.getRedirectUri()).isEqualTo(context.getRedirectUri());
+		assertThat(consumed.getScope()).isEqualTo(context.getScope());
+		assertThat(consumed.getAuthenticationTime()).isEqualTo(context.getAuthenticationTime());
+		assertThat(consumed.getAcr()).isEqualTo(context.getAcr());
+		assertThat(consumed.getAmr()).isEqualTo(context.getAmr());
+		assertThat(consumed.getSessionId()).isEqualTo(context.getSessionId());
+		assertThat(consumed.getCodeChallenge()).isEqualTo(context.getCodeChallenge());
+		assertThat(consumed.getCodeChallengeMethod()).isEqualTo(context.getCodeChallengeMethod());
+		assertThat(consumed.getNonce()).isEqualTo(context.getNonce());
+	}
+
+	@Test
+	public void consume_Consumed_ShouldThrowException() throws GeneralException {
+		AuthorizationCode code = this.authorizationCodeService
+				.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		this.authorizationCodeService.consume(code);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage("Invalid grant");
+
+		this.authorizationCodeService.consume(code);
+	}
+
+	@Test
+	public void consume_Expired_ShouldThrowException() throws Exception {
+		this.authorizationCodeService.setCodeLifetime(Duration.ofMillis(1));
+		AuthorizationCode code = this.authorizationCodeService
+				.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		Thread.sleep(10);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage("Invalid grant");
+
+		this.authorizationCodeService.consume(code);
+	}
+
+	@Test
+	public void setCodeLifetime_Zero_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("codeLifetime must be positive");
+
+		this.authorizationCodeService.setCodeLifetime(Duration.ZERO);
+	}
+
+	@Test
+	public void setCodeLifetime_Negative_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("codeLifetime must be positive");
+
+		this.authorizationCodeService.setCodeLifetime(Duration.ofSeconds(-1));
+	}
+
+	@Test
+	public void consume_Tampered_ShouldThrowException() throws GeneralException {
+		String code = this.authorizationCodeService
+				.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext()).getValue();
+		// the first ciphertext character carries no padding bits, so changing it always changes the decoded bytes
+		int index = code.lastIndexOf('.', code.lastIndexOf('.') - 1) + 1;
+		char tampered = (code.charAt(index) == 'A') ? 'B' : 'A';
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage("Invalid grant");
+
+		this.authorizationCodeService
+				.consume(new AuthorizationCode(code.substring(0, index) + tampered + code.substring(index + 1)));
+	}
+
+	@Test
+	public void consume_Malformed_ShouldThrowException() throws GeneralException {
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage("Invalid grant");
+
+		this.authorizationCodeService.consume(new AuthorizationCode());
+	}
+
+	@Test
+	public void consume_RotatedKey_ShouldDecryptUsingPreviousKey() throws GeneralException {
+		OctetSequenceKey previousKey = (OctetSequenceKey) this.jwkSet.getKeys().get(0);
+		AuthorizationCode code = this.authorizationCodeService
+				.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		this.jwkSet = new JWKSet(Arrays.asList(createKey("key-2"), previousKey));
+
+		assertThat(this.authorizationCodeService.consume(code)).isNotNull();
+	}
+
+	@Test
+	public void consume_UnknownKey_ShouldThrowException() throws GeneralException {
+		AuthorizationCode code = this.authorizationCodeService
+				.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		this.jwkSet = new JWKSet(createKey("key-2"));
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage("Invalid grant");
+
+		this.authorizationCodeService.consume(code);
+	}
+
+	@Test
+	public void create_NoEncryptionKey_ShouldThrowException() {
+		this.jwkSet = new JWKSet();
+
+		this.thrown.expect(IllegalStateException.class);
+		this.thrown.expectMessage("No authorization code encryption key found");
+
+		this.authorizationCodeService.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+	}
+
+	private static OctetSequenceKey createKey(String keyId) {
+		byte[] secret = new byte[32];
+		new SecureRandom().nextBytes(secret);
+		return new OctetSequenceKey.Builder(secret).keyUse(KeyUse.ENCRYPTION).keyID(keyId).build();
+	}
+
+}
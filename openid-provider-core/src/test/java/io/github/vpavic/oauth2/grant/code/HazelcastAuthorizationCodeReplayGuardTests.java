@@ -0,0 +1,79 @@
+package io.github.vpavic.oauth2.grant.code;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link HazelcastAuthorizationCodeReplayGuard}.
+ *
+ * @author Vedran Pavic
+ */
+public class HazelcastAuthorizationCodeReplayGuardTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+
+	private IMap consumedCodesMap = mock(IMap.class);
+
+	private HazelcastAuthorizationCodeReplayGuard replayGuard;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		given(this.hazelcastInstance.getMap(anyString())).willReturn(this.consumedCodesMap);
+
+		this.replayGuard = new HazelcastAuthorizationCodeReplayGuard(this.hazelcastInstance);
+		this.replayGuard.init();
+	}
+
+	@Test
+	public void construct_NullHazelcastInstance_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("hazelcastInstance must not be null");
+
+		new HazelcastAuthorizationCodeReplayGuard(null);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void markConsumed_New_ShouldPutTombstoneWithTtl() {
+		assertThat(this.replayGuard.markConsumed("code", Instant.now().plusSeconds(60))).isTrue();
+
+		verify(this.consumedCodesMap).putIfAbsent(eq("code"), eq(Boolean.TRUE), anyLong(), eq(TimeUnit.SECONDS));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void markConsumed_Consumed_ShouldReturnFalse() {
+		given(this.consumedCodesMap.putIfAbsent(anyString(), eq(Boolean.TRUE), anyLong(), eq(TimeUnit.SECONDS)))
+				.willReturn(Boolean.TRUE);
+
+		assertThat(this.replayGuard.markConsumed("code", Instant.now().plusSeconds(60))).isFalse();
+	}
+
+	@Test
+	public void setMapName_Empty_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("mapName must not be empty");
+
+		this.replayGuard.setMapName(" ");
+	}
+
+}
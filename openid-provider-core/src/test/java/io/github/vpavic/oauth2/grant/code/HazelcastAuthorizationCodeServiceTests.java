@@ -1,10 +1,17 @@
 package io.github.vpavic.oauth2.grant.code;
 
 import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import com.hazelcast.core.Cluster;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
+import com.hazelcast.core.Member;
+import com.hazelcast.core.Partition;
+import com.hazelcast.core.PartitionAwareKey;
+import com.hazelcast.core.PartitionService;
 import com.nimbusds.oauth2.sdk.AuthorizationCode;
 import com.nimbusds.oauth2.sdk.GeneralException;
 import com.nimbusds.oauth2.sdk.OAuth2Error;
@@ -18,6 +25,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -38,6 +46,10 @@ public class HazelcastAuthorizationCodeServiceTests {
 
 	private IMap codesMap = mock(IMap.class);
 
+	private PartitionService partitionService = mock(PartitionService.class);
+
+	private Member localMember = mock(Member.class);
+
 	private HazelcastAuthorizationCodeService authorizationCodeService;
 
 	@Before
@@ -160,4 +172,68 @@ public class HazelcastAuthorizationCodeServiceTests {
 		this.authorizationCodeService.consume(null);
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void create_PartitionAffinity_ShouldPutWithLocalPartitionKey() {
+		HazelcastAuthorizationCodeService authorizationCodeService = createPartitionAffineService();
+
+		for (int i = 0; i < 20; i++) {
+			AuthorizationCode code = authorizationCodeService
+					.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+			String partitionKey = code.getValue().substring(0, code.getValue().indexOf('.'));
+
+			assertThat(this.partitionService.getPartition(partitionKey).getOwner()).isEqualTo(this.localMember);
+			verify(this.codesMap).put(eq(new PartitionAwareKey<>(code.getValue(), partitionKey)),
+					any(AuthorizationCodeContext.class), anyLong(), any(TimeUnit.class));
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void consume_PartitionAffinity_ShouldRemoveUsingPartitionAwareKey() throws GeneralException {
+		HazelcastAuthorizationCodeService authorizationCodeService = createPartitionAffineService();
+		AuthorizationCode code = new AuthorizationCode("1.code");
+		given(this.codesMap.remove(eq(new PartitionAwareKey<>("1.code", "1"))))
+				.willReturn(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+
+		assertThat(authorizationCodeService.consume(code)).isNotNull();
+	}
+
+	@Test
+	public void consume_PartitionAffinityWithoutPartitionKey_ShouldThrowException() throws GeneralException {
+		HazelcastAuthorizationCodeService authorizationCodeService = createPartitionAffineService();
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		authorizationCodeService.consume(new AuthorizationCode("code"));
+	}
+
+	private HazelcastAuthorizationCodeService createPartitionAffineService() {
+		Member remoteMember = mock(Member.class);
+		Set<Partition> partitions = new HashSet<>();
+		for (int i = 0; i < 4; i++) {
+			Partition partition = mock(Partition.class);
+			given(partition.getPartitionId()).willReturn(i);
+			given(partition.getOwner()).willReturn((i % 2 == 0) ? this.localMember : remoteMember);
+			partitions.add(partition);
+		}
+		given(this.partitionService.getPartitions()).willReturn(partitions);
+		given(this.partitionService.getPartition(any())).willAnswer(invocation -> {
+			int partitionId = Math.floorMod(invocation.getArgument(0).hashCode(), 4);
+			return partitions.stream().filter(partition -> partition.getPartitionId() == partitionId).findFirst()
+					.orElse(null);
+		});
+		Cluster cluster = mock(Cluster.class);
+		given(cluster.getLocalMember()).willReturn(this.localMember);
+		given(this.hazelcastInstance.getCluster()).willReturn(cluster);
+		given(this.hazelcastInstance.getPartitionService()).willReturn(this.partitionService);
+
+		HazelcastAuthorizationCodeService authorizationCodeService = new HazelcastAuthorizationCodeService(
+				this.hazelcastInstance);
+		authorizationCodeService.setPartitionAffinity(true);
+		authorizationCodeService.init();
+		return authorizationCodeService;
+	}
+
 }
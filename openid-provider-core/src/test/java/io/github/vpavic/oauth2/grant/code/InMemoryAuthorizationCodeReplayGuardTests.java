@@ -0,0 +1,57 @@
+package io.github.vpavic.oauth2.grant.code;
+
+import java.time.Instant;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.beans.DirectFieldAccessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link InMemoryAuthorizationCodeReplayGuard}.
+ *
+ * @author Vedran Pavic
+ */
+public class InMemoryAuthorizationCodeReplayGuardTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private InMemoryAuthorizationCodeReplayGuard replayGuard = new InMemoryAuthorizationCodeReplayGuard();
+
+	@Test
+	public void markConsumed_New_ShouldReturnTrue() {
+		assertThat(this.replayGuard.markConsumed("code", Instant.now().plusSeconds(60))).isTrue();
+	}
+
+	@Test
+	public void markConsumed_Consumed_ShouldReturnFalse() {
+		this.replayGuard.markConsumed("code", Instant.now().plusSeconds(60));
+
+		assertThat(this.replayGuard.markConsumed("code", Instant.now().plusSeconds(60))).isFalse();
+	}
+
+	@Test
+	public void markConsumed_ExpiredEntries_ShouldPurge() {
+		this.replayGuard.markConsumed("expired", Instant.now().minusSeconds(60));
+		this.replayGuard.markConsumed("valid", Instant.now().plusSeconds(60));
+
+		assertThat(this.replayGuard.getSize()).isEqualTo(2);
+
+		new DirectFieldAccessor(this.replayGuard).setPropertyValue("nextPurge", 0L);
+		this.replayGuard.markConsumed("other", Instant.now().plusSeconds(60));
+
+		assertThat(this.replayGuard.getSize()).isEqualTo(2);
+	}
+
+	@Test
+	public void markConsumed_NullCodeId_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("codeId must not be null");
+
+		this.replayGuard.markConsumed(null, Instant.now());
+	}
+
+}
@@ -1,5 +1,16 @@
 package io.github.vpavic.oauth2.grant.code;
 
+import java.time.Duration;
+
+import com.nimbusds.oauth2.sdk.AuthorizationCode;
+import com.nimbusds.oauth2.sdk.GeneralException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
  * Tests for {@link InMemoryAuthorizationCodeService}.
  *
@@ -7,6 +18,175 @@ package io.github.vpavic.oauth2.grant.code;
  */
 public class InMemoryAuthorizationCodeServiceTests {
 
-	// TODO
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private InMemoryAuthorizationCodeService authorizationCodeService;
+
+	@Before
+	public void setUp() {
+		this.authorizationCodeService = new InMemoryAuthorizationCodeService();
+	}
+
+	@Test
+	public void create_Valid_ShouldReturnCode() {
+		AuthorizationCode code = this.authorizationCodeService
+				.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+
+		assertThat(code).isNotNull();
+		assertThat(this.authorizationCodeService.getSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void create_NullContext_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("context must not be null");
+
+		this.authorizationCodeService.create(null);
+	}
+
+	@Test
+	public void consume_Valid_ShouldReturnContext() throws GeneralException {
+		AuthorizationCodeContext context = AuthorizationCodeTestUtils.createAuthorizationCodeContext();
+		AuthorizationCode code = this.authorizationCodeService.create(context);
+
+		assertThat(this.authorizationCodeService.consume(code)).isEqualTo(context);
+		assertThat(this.authorizationCodeService.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void consume_Consumed_ShouldThrowException() throws GeneralException {
+		AuthorizationCode code = this.authorizationCodeService
+				.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		this.authorizationCodeService.consume(code);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage("Invalid grant");
+
+		this.authorizationCodeService.consume(code);
+	}
+
+	@Test
+	public void consume_Expired_ShouldThrowException() throws Exception {
+		this.authorizationCodeService.setCodeLifetime(Duration.ofMillis(10));
+		AuthorizationCode code = this.authorizationCodeService
+				.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		Thread.sleep(20);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage("Invalid grant");
+
+		try {
+			this.authorizationCodeService.consume(code);
+		}
+		finally {
+			assertThat(this.authorizationCodeService.getExpiredCount()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void expire_ExpiredCodes_ShouldRemoveCodes() throws Exception {
+		this.authorizationCodeService.setTickDuration(Duration.ofMillis(10));
+		this.authorizationCodeService.setCodeLifetime(Duration.ofMillis(50));
+		for (int i = 0; i < 10; i++) {
+			this.authorizationCodeService.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		}
+		Thread.sleep(100);
+
+		this.authorizationCodeService.expire();
+
+		assertThat(this.authorizationCodeService.getSize()).isEqualTo(0);
+		assertThat(this.authorizationCodeService.getExpiredCount()).isEqualTo(10);
+	}
+
+	@Test
+	public void expire_ValidCodes_ShouldRetainCodes() {
+		for (int i = 0; i < 10; i++) {
+			this.authorizationCodeService.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		}
+
+		this.authorizationCodeService.expire();
+
+		assertThat(this.authorizationCodeService.getSize()).isEqualTo(10);
+		assertThat(this.authorizationCodeService.getExpiredCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void init_ShouldExpireCodesInBackground() throws Exception {
+		this.authorizationCodeService.setTickDuration(Duration.ofMillis(10));
+		this.authorizationCodeService.setCodeLifetime(Duration.ofMillis(20));
+		this.authorizationCodeService.init();
+
+		try {
+			this.authorizationCodeService.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+			Thread.sleep(200);
+
+			assertThat(this.authorizationCodeService.getSize()).isEqualTo(0);
+		}
+		finally {
+			this.authorizationCodeService.shutdown();
+		}
+	}
+
+	@Test
+	public void create_CapacityReachedWithRejectPolicy_ShouldThrowException() {
+		this.authorizationCodeService.setCapacity(2);
+		this.authorizationCodeService.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		this.authorizationCodeService.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+
+		this.thrown.expect(AuthorizationCodeRejectedException.class);
+		this.thrown.expectMessage("Authorization code capacity of 2 has been reached");
+
+		try {
+			this.authorizationCodeService.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		}
+		finally {
+			assertThat(this.authorizationCodeService.getRejectedCount()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void create_CapacityReachedWithEvictOldestPolicy_ShouldEvictOldestCode() throws Exception {
+		this.authorizationCodeService.setTickDuration(Duration.ofMillis(10));
+		this.authorizationCodeService.setCapacity(2);
+		this.authorizationCodeService.setRejectionPolicy(InMemoryAuthorizationCodeService.RejectionPolicy.EVICT_OLDEST);
+		AuthorizationCode oldest = this.authorizationCodeService
+				.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		Thread.sleep(20);
+		AuthorizationCode newer = this.authorizationCodeService
+				.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		AuthorizationCode newest = this.authorizationCodeService
+				.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+
+		assertThat(this.authorizationCodeService.getSize()).isEqualTo(2);
+		assertThat(this.authorizationCodeService.getEvictedCount()).isEqualTo(1);
+		assertThat(this.authorizationCodeService.consume(newer)).isNotNull();
+		assertThat(this.authorizationCodeService.consume(newest)).isNotNull();
+
+		this.thrown.expect(GeneralException.class);
+
+		this.authorizationCodeService.consume(oldest);
+	}
+
+	@Test
+	public void create_CapacityReachedWithExpiredCodes_ShouldReclaimCapacity() throws Exception {
+		this.authorizationCodeService.setTickDuration(Duration.ofMillis(10));
+		this.authorizationCodeService.setCodeLifetime(Duration.ofMillis(20));
+		this.authorizationCodeService.setCapacity(1);
+		this.authorizationCodeService.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext());
+		Thread.sleep(50);
+
+		assertThat(this.authorizationCodeService.create(AuthorizationCodeTestUtils.createAuthorizationCodeContext()))
+				.isNotNull();
+		assertThat(this.authorizationCodeService.getExpiredCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void setCapacity_Zero_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("capacity must be greater than zero");
+
+		this.authorizationCodeService.setCapacity(0);
+	}
 
 }
@@ -0,0 +1,207 @@
+package io.github.vpavic.oauth2.grant.refresh;
+
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.jdbc.JdbcTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link HazelcastRefreshTokenStore} with {@link JdbcRefreshTokenMapStore}.
+ *
+ * @author Vedran Pavic
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration
+public class HazelcastRefreshTokenStoreIntegrationTests {
+
+	private static final String MAP_NAME = "op.refreshTokens";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private HazelcastInstance hazelcastInstance;
+
+	@Autowired
+	private HazelcastRefreshTokenStore refreshTokenStore;
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@After
+	public void tearDown() {
+		this.hazelcastInstance.getMap(MAP_NAME).clear();
+		JdbcTestUtils.deleteFromTables(this.jdbcTemplate, "refresh_tokens");
+	}
+
+	@Test
+	public void save_Valid_ShouldInsert() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(1);
+		assertThat(this.refreshTokenStore.load(context.getRefreshToken()).getClientId())
+				.isEqualTo(context.getClientId());
+	}
+
+	@Test
+	public void save_ExistingClientIdAndSubject_ShouldReplaceToken() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+		RefreshTokenContext replacement = new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				context.getSubject(), context.getScope(), null);
+		this.refreshTokenStore.save(replacement);
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(1);
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(context.getClientId(), context.getSubject())
+				.getRefreshToken()).isEqualTo(replacement.getRefreshToken());
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.load(context.getRefreshToken());
+	}
+
+	@Test
+	public void load_Evicted_ShouldLoadFromTable() throws GeneralException {
+		RefreshTokenContext context = new RefreshTokenContext(new RefreshToken(), new ClientID(),
+				new Subject("test"), new Scope("openid"), Instant.now().plusSeconds(60));
+		this.refreshTokenStore.save(context);
+		this.hazelcastInstance.getMap(MAP_NAME).evictAll();
+
+		RefreshTokenContext loaded = this.refreshTokenStore.load(context.getRefreshToken());
+
+		assertThat(loaded.getRefreshToken()).isEqualTo(context.getRefreshToken());
+		assertThat(loaded.getScope()).isEqualTo(context.getScope());
+		assertThat(loaded.getExpiry().getEpochSecond()).isEqualTo(context.getExpiry().getEpochSecond());
+	}
+
+	@Test
+	public void findByClientIdAndSubject_Existing_ShouldReturnContext() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null));
+
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(context.getClientId(), context.getSubject())
+				.getRefreshToken()).isEqualTo(context.getRefreshToken());
+	}
+
+	@Test
+	public void rotate_Valid_ShouldReplaceToken() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+		RefreshTokenContext rotated = new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				context.getSubject(), context.getScope(), null);
+
+		this.refreshTokenStore.rotate(context.getRefreshToken(), rotated);
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(1);
+		this.hazelcastInstance.getMap(MAP_NAME).evictAll();
+		assertThat(this.refreshTokenStore.load(rotated.getRefreshToken()).getRefreshToken())
+				.isEqualTo(rotated.getRefreshToken());
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.rotate(context.getRefreshToken(), rotated);
+	}
+
+	@Test
+	public void revoke_Valid_ShouldDelete() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+
+		this.refreshTokenStore.revoke(context.getRefreshToken());
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(0);
+	}
+
+	@Test
+	public void revokeAllBySubject_Evicted_ShouldDeleteFromTable() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null));
+		this.hazelcastInstance.getMap(MAP_NAME).evict(context.getRefreshToken().getValue());
+
+		this.refreshTokenStore.revokeAllBySubject(context.getSubject());
+
+		assertThat(this.hazelcastInstance.getMap(MAP_NAME).size()).isEqualTo(0);
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(0);
+	}
+
+	@Configuration
+	static class Config {
+
+		@Bean
+		DataSource dataSource() {
+			// @formatter:off
+			return new EmbeddedDatabaseBuilder()
+					.generateUniqueName(true)
+					.setType(EmbeddedDatabaseType.H2)
+					.addScript("schema-refresh-tokens.sql")
+					.build();
+			// @formatter:on
+		}
+
+		@Bean
+		JdbcTemplate jdbcTemplate() {
+			return new JdbcTemplate(dataSource());
+		}
+
+		@Bean(destroyMethod = "shutdown")
+		HazelcastInstance hazelcastInstance() {
+			com.hazelcast.config.Config config = new com.hazelcast.config.Config();
+			config.setProperty("hazelcast.logging.type", "none");
+			JoinConfig joinConfig = config.getNetworkConfig().getJoin();
+			joinConfig.getMulticastConfig().setEnabled(false);
+			joinConfig.getTcpIpConfig().setEnabled(false);
+			// @formatter:off
+			MapStoreConfig mapStoreConfig = new MapStoreConfig()
+					.setImplementation(refreshTokenMapStore())
+					.setWriteDelaySeconds(0)
+					.setInitialLoadMode(MapStoreConfig.InitialLoadMode.LAZY);
+			// @formatter:on
+			config.addMapConfig(new MapConfig(MAP_NAME).setMapStoreConfig(mapStoreConfig));
+			return Hazelcast.newHazelcastInstance(config);
+		}
+
+		@Bean
+		JdbcRefreshTokenMapStore refreshTokenMapStore() {
+			return new JdbcRefreshTokenMapStore(new JdbcRefreshTokenStore(jdbcTemplate()));
+		}
+
+		@Bean
+		HazelcastRefreshTokenStore refreshTokenStore() {
+			HazelcastRefreshTokenStore refreshTokenStore = new HazelcastRefreshTokenStore(hazelcastInstance());
+			refreshTokenStore.setMapStore(refreshTokenMapStore());
+			return refreshTokenStore;
+		}
+
+	}
+
+}
@@ -0,0 +1,280 @@
+package io.github.vpavic.oauth2.grant.refresh;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.Predicate;
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.beans.DirectFieldAccessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link HazelcastRefreshTokenStore}.
+ *
+ * @author Vedran Pavic
+ */
+public class HazelcastRefreshTokenStoreTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+
+	private IMap refreshTokensMap = mock(IMap.class);
+
+	private HazelcastRefreshTokenStore refreshTokenStore;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		given(this.hazelcastInstance.getMap(anyString())).willReturn(this.refreshTokensMap);
+		given(this.refreshTokensMap.keySet(any(Predicate.class))).willReturn(Collections.emptySet());
+
+		this.refreshTokenStore = new HazelcastRefreshTokenStore(this.hazelcastInstance);
+		this.refreshTokenStore.init();
+	}
+
+	@Test
+	public void construct_NullHazelcastInstance_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("hazelcastInstance must not be null");
+
+		new HazelcastRefreshTokenStore(null);
+	}
+
+	@Test
+	public void init_ShouldIndexClientIdAndSubject() {
+		verify(this.refreshTokensMap).addIndex("clientId.value", false);
+		verify(this.refreshTokensMap).addIndex("subject.value", false);
+	}
+
+	@Test
+	public void setMapName_Valid_ShouldSetMapName() {
+		String mapName = "myMap";
+		HazelcastRefreshTokenStore refreshTokenStore = new HazelcastRefreshTokenStore(this.hazelcastInstance);
+		refreshTokenStore.setMapName(mapName);
+		refreshTokenStore.init();
+
+		assertThat((String) new DirectFieldAccessor(refreshTokenStore).getPropertyValue("mapName"))
+				.isEqualTo(mapName);
+		verify(this.hazelcastInstance).getMap(mapName);
+	}
+
+	@Test
+	public void setMapName_Empty_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("mapName must not be empty");
+
+		this.refreshTokenStore.setMapName(" ");
+	}
+
+	@Test
+	public void setMapStore_Null_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("mapStore must not be null");
+
+		this.refreshTokenStore.setMapStore(null);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void save_WithExpiry_ShouldSetWithTtl() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().plusSeconds(60));
+
+		this.refreshTokenStore.save(context);
+
+		verify(this.refreshTokensMap).set(eq(context.getRefreshToken().getValue()), eq(context), anyLong(),
+				eq(TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void save_WithoutExpiry_ShouldSetWithoutTtl() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+
+		this.refreshTokenStore.save(context);
+
+		verify(this.refreshTokensMap).set(context.getRefreshToken().getValue(), context, 0, TimeUnit.SECONDS);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void save_ExistingClientIdAndSubject_ShouldDeleteExistingToken() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		given(this.refreshTokensMap.keySet(any(Predicate.class))).willReturn(Collections.singleton("existing"));
+
+		this.refreshTokenStore.save(context);
+
+		verify(this.refreshTokensMap).delete("existing");
+	}
+
+	@Test
+	public void save_NullContext_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("context must not be null");
+
+		this.refreshTokenStore.save(null);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void load_Valid_ShouldReturnContext() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		given(this.refreshTokensMap.get(context.getRefreshToken().getValue())).willReturn(context);
+
+		assertThat(this.refreshTokenStore.load(context.getRefreshToken())).isEqualTo(context);
+	}
+
+	@Test
+	public void load_Missing_ShouldThrowException() throws GeneralException {
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.load(new RefreshToken());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void load_Expired_ShouldThrowException() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1));
+		given(this.refreshTokensMap.get(context.getRefreshToken().getValue())).willReturn(context);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		try {
+			this.refreshTokenStore.load(context.getRefreshToken());
+		}
+		finally {
+			verify(this.refreshTokensMap).delete(context.getRefreshToken().getValue());
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void findByClientIdAndSubject_Existing_ShouldReturnContext() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		given(this.refreshTokensMap.values(any(Predicate.class))).willReturn(Collections.singleton(context));
+
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(context.getClientId(), context.getSubject()))
+				.isEqualTo(context);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void findByClientIdAndSubject_Expired_ShouldReturnNull() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1));
+		given(this.refreshTokensMap.values(any(Predicate.class))).willReturn(Collections.singleton(context));
+
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(context.getClientId(), context.getSubject()))
+				.isNull();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void rotate_Valid_ShouldReplaceToken() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		RefreshTokenContext rotated = new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				context.getSubject(), context.getScope(), null);
+		given(this.refreshTokensMap.get(context.getRefreshToken().getValue())).willReturn(context);
+		given(this.refreshTokensMap.remove(context.getRefreshToken().getValue())).willReturn(context);
+
+		assertThat(this.refreshTokenStore.rotate(context.getRefreshToken(), rotated)).isEqualTo(rotated);
+		verify(this.refreshTokensMap).set(rotated.getRefreshToken().getValue(), rotated, 0, TimeUnit.SECONDS);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void rotate_ConcurrentlyRotated_ShouldThrowException() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		RefreshTokenContext rotated = new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				context.getSubject(), context.getScope(), null);
+		given(this.refreshTokensMap.get(context.getRefreshToken().getValue())).willReturn(context);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		try {
+			this.refreshTokenStore.rotate(context.getRefreshToken(), rotated);
+		}
+		finally {
+			verify(this.refreshTokensMap, never()).set(any(), any(), anyLong(), any(TimeUnit.class));
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void rotate_OtherSubject_ShouldThrowException() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		given(this.refreshTokensMap.get(context.getRefreshToken().getValue())).willReturn(context);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.rotate(context.getRefreshToken(), new RefreshTokenContext(new RefreshToken(),
+				context.getClientId(), new Subject("other"), context.getScope(), null));
+	}
+
+	@Test
+	public void revoke_Valid_ShouldDelete() {
+		RefreshToken refreshToken = new RefreshToken();
+
+		this.refreshTokenStore.revoke(refreshToken);
+
+		verify(this.refreshTokensMap).delete(refreshToken.getValue());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void revokeAllBySubject_Existing_ShouldDeleteTokens() {
+		given(this.refreshTokensMap.keySet(any(Predicate.class))).willReturn(new HashSet<>(Arrays.asList("a", "b")));
+
+		this.refreshTokenStore.revokeAllBySubject(new Subject("user"));
+
+		verify(this.refreshTokensMap).delete("a");
+		verify(this.refreshTokensMap).delete("b");
+	}
+
+	@Test
+	public void revokeAllByClientId_WithMapStore_ShouldDeleteFromMapStore() {
+		JdbcRefreshTokenMapStore mapStore = mock(JdbcRefreshTokenMapStore.class);
+		HazelcastRefreshTokenStore refreshTokenStore = new HazelcastRefreshTokenStore(this.hazelcastInstance);
+		refreshTokenStore.setMapStore(mapStore);
+		refreshTokenStore.init();
+		ClientID clientId = new ClientID("test");
+
+		refreshTokenStore.revokeAllByClientId(clientId);
+
+		verify(mapStore).deleteAllByClientId(clientId);
+	}
+
+	@Test
+	public void revoke_Null_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("refreshToken must not be null");
+
+		this.refreshTokenStore.revoke(null);
+	}
+
+}
@@ -1,5 +1,23 @@
 package io.github.vpavic.oauth2.grant.refresh;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.beans.DirectFieldAccessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
  * Tests for {@link InMemoryRefreshTokenStore}.
  *
@@ -7,6 +25,297 @@ package io.github.vpavic.oauth2.grant.refresh;
  */
 public class InMemoryRefreshTokenStoreTests {
 
-	// TODO
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private InMemoryRefreshTokenStore refreshTokenStore;
+
+	@Before
+	public void setUp() {
+		this.refreshTokenStore = new InMemoryRefreshTokenStore();
+	}
+
+	@Test
+	public void save_Valid_ShouldStoreToken() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+
+		this.refreshTokenStore.save(context);
+
+		assertThat(this.refreshTokenStore.load(context.getRefreshToken())).isEqualTo(context);
+		assertThat(this.refreshTokenStore.getSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void save_NullContext_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("context must not be null");
+
+		this.refreshTokenStore.save(null);
+	}
+
+	@Test
+	public void save_ExistingTokenForOtherSubject_ShouldReindexToken() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		RefreshTokenContext updated = new RefreshTokenContext(context.getRefreshToken(), context.getClientId(),
+				new Subject("other"), new Scope(), null);
+		this.refreshTokenStore.save(context);
+
+		this.refreshTokenStore.save(updated);
+
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(context.getClientId(), context.getSubject()))
+				.isNull();
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(updated.getClientId(), updated.getSubject()))
+				.isEqualTo(updated);
+	}
+
+	@Test
+	public void load_Missing_ShouldThrowException() throws GeneralException {
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.load(new RefreshToken());
+	}
+
+	@Test
+	public void load_Expired_ShouldThrowException() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1));
+		this.refreshTokenStore.save(context);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		try {
+			this.refreshTokenStore.load(context.getRefreshToken());
+		}
+		finally {
+			assertThat(this.refreshTokenStore.getSize()).isEqualTo(0);
+			assertThat(this.refreshTokenStore.getExpiredCount()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void load_Null_ShouldThrowException() throws GeneralException {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("refreshToken must not be null");
+
+		this.refreshTokenStore.load(null);
+	}
+
+	@Test
+	public void findByClientIdAndSubject_Existing_ShouldReturnContext() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null));
+
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(context.getClientId(), context.getSubject()))
+				.isEqualTo(context);
+	}
+
+	@Test
+	public void findByClientIdAndSubject_Missing_ShouldReturnNull() {
+		this.refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null));
+
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(new ClientID(), new Subject("test"))).isNull();
+	}
+
+	@Test
+	public void findByClientIdAndSubject_Expired_ShouldReturnNull() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1));
+		this.refreshTokenStore.save(context);
+
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(context.getClientId(), context.getSubject()))
+				.isNull();
+		assertThat(this.refreshTokenStore.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void findByClientIdAndSubject_Revoked_ShouldReturnNull() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+
+		this.refreshTokenStore.revoke(context.getRefreshToken());
+
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(context.getClientId(), context.getSubject()))
+				.isNull();
+		assertThat(this.refreshTokenStore.getSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void findByClientIdAndSubject_NullClientId_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("clientId must not be null");
+
+		this.refreshTokenStore.findByClientIdAndSubject(null, new Subject("test"));
+	}
+
+	@Test
+	public void findByClientIdAndSubject_NullSubject_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("subject must not be null");
+
+		this.refreshTokenStore.findByClientIdAndSubject(new ClientID(), null);
+	}
+
+	@Test
+	public void revoke_Null_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("refreshToken must not be null");
+
+		this.refreshTokenStore.revoke(null);
+	}
+
+	@Test
+	public void revokeAllBySubject_Existing_ShouldRemoveSubjectTokens() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		RefreshTokenContext otherClient = new RefreshTokenContext(new RefreshToken(), new ClientID(),
+				context.getSubject(), context.getScope(), null);
+		RefreshTokenContext otherSubject = new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				new Subject("other"), context.getScope(), null);
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.save(otherClient);
+		this.refreshTokenStore.save(otherSubject);
+
+		this.refreshTokenStore.revokeAllBySubject(context.getSubject());
+
+		assertThat(this.refreshTokenStore.getSize()).isEqualTo(1);
+		assertThat(this.refreshTokenStore.load(otherSubject.getRefreshToken())).isEqualTo(otherSubject);
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(otherClient.getClientId(), otherClient.getSubject()))
+				.isNull();
+	}
+
+	@Test
+	public void revokeAllByClientId_Existing_ShouldRemoveClientTokens() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		RefreshTokenContext otherSubject = new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				new Subject("other"), context.getScope(), null);
+		RefreshTokenContext otherClient = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.save(otherSubject);
+		this.refreshTokenStore.save(otherClient);
+
+		this.refreshTokenStore.revokeAllByClientId(context.getClientId());
+
+		assertThat(this.refreshTokenStore.getSize()).isEqualTo(1);
+		assertThat(this.refreshTokenStore.load(otherClient.getRefreshToken())).isEqualTo(otherClient);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void revokeAllBySubject_Rotated_ShouldRemoveFromSubjectAndClientIdIndexes() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		RefreshTokenContext rotated = new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				context.getSubject(), context.getScope(), null);
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.rotate(context.getRefreshToken(), rotated);
+
+		this.refreshTokenStore.revokeAllBySubject(context.getSubject());
+
+		assertThat(this.refreshTokenStore.getSize()).isEqualTo(0);
+		assertThat((Map<Subject, ?>) new DirectFieldAccessor(this.refreshTokenStore).getPropertyValue("subjectIndex"))
+				.isEmpty();
+		assertThat((Map<ClientID, ?>) new DirectFieldAccessor(this.refreshTokenStore).getPropertyValue("clientIdIndex"))
+				.isEmpty();
+	}
+
+	@Test
+	public void revokeAllBySubject_Null_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("subject must not be null");
+
+		this.refreshTokenStore.revokeAllBySubject(null);
+	}
+
+	@Test
+	public void expire_ExpiredTokens_ShouldRemoveTokens() {
+		RefreshTokenContext valid = RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().plusSeconds(60));
+		this.refreshTokenStore.save(valid);
+		for (int i = 0; i < 10; i++) {
+			this.refreshTokenStore
+					.save(RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1)));
+		}
+
+		this.refreshTokenStore.expire();
+
+		assertThat(this.refreshTokenStore.getSize()).isEqualTo(1);
+		assertThat(this.refreshTokenStore.getExpiredCount()).isEqualTo(10);
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(valid.getClientId(), valid.getSubject()))
+				.isEqualTo(valid);
+	}
+
+	@Test
+	public void init_ShouldExpireTokensInBackground() throws Exception {
+		this.refreshTokenStore.setSweepInterval(Duration.ofMillis(10));
+		this.refreshTokenStore.init();
+
+		try {
+			this.refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1)));
+			Thread.sleep(200);
+
+			assertThat(this.refreshTokenStore.getSize()).isEqualTo(0);
+		}
+		finally {
+			this.refreshTokenStore.shutdown();
+		}
+	}
+
+	@Test
+	public void setSweepInterval_Zero_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("sweepInterval must be positive");
+
+		this.refreshTokenStore.setSweepInterval(Duration.ZERO);
+	}
+
+	@Test
+	public void rotate_Valid_ShouldReplaceToken() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		RefreshTokenContext rotated = new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				context.getSubject(), context.getScope(), null);
+		this.refreshTokenStore.save(context);
+
+		assertThat(this.refreshTokenStore.rotate(context.getRefreshToken(), rotated)).isEqualTo(rotated);
+		assertThat(this.refreshTokenStore.load(rotated.getRefreshToken())).isEqualTo(rotated);
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(context.getClientId(), context.getSubject()))
+				.isEqualTo(rotated);
+		assertThat(this.refreshTokenStore.getSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void rotate_Rotated_ShouldThrowException() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.rotate(context.getRefreshToken(), new RefreshTokenContext(new RefreshToken(),
+				context.getClientId(), context.getSubject(), context.getScope(), null));
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.rotate(context.getRefreshToken(), new RefreshTokenContext(new RefreshToken(),
+				context.getClientId(), context.getSubject(), context.getScope(), null));
+	}
+
+	@Test
+	public void rotate_Expired_ShouldThrowException() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1));
+		this.refreshTokenStore.save(context);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.rotate(context.getRefreshToken(), new RefreshTokenContext(new RefreshToken(),
+				context.getClientId(), context.getSubject(), context.getScope(), null));
+	}
+
+	@Test
+	public void rotate_OtherSubject_ShouldThrowException() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.rotate(context.getRefreshToken(), new RefreshTokenContext(new RefreshToken(),
+				context.getClientId(), new Subject("other"), context.getScope(), null));
+	}
 
 }
@@ -0,0 +1,110 @@
+package io.github.vpavic.oauth2.grant.refresh;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link JdbcRefreshTokenMapStore}.
+ *
+ * @author Vedran Pavic
+ */
+public class JdbcRefreshTokenMapStoreTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private JdbcRefreshTokenStore refreshTokenStore = mock(JdbcRefreshTokenStore.class);
+
+	private JdbcRefreshTokenMapStore mapStore = new JdbcRefreshTokenMapStore(this.refreshTokenStore);
+
+	@Test
+	public void construct_NullRefreshTokenStore_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("refreshTokenStore must not be null");
+
+		new JdbcRefreshTokenMapStore(null);
+	}
+
+	@Test
+	public void init_ShouldInitRefreshTokenStore() throws Exception {
+		this.mapStore.init(null, null, "op.refreshTokens");
+		this.mapStore.destroy();
+
+		verify(this.refreshTokenStore).init();
+		verify(this.refreshTokenStore).shutdown();
+	}
+
+	@Test
+	public void store_Valid_ShouldSave() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+
+		this.mapStore.store(context.getRefreshToken().getValue(), context);
+
+		verify(this.refreshTokenStore).save(context);
+	}
+
+	@Test
+	public void delete_Valid_ShouldRevoke() {
+		RefreshToken refreshToken = new RefreshToken();
+
+		this.mapStore.deleteAll(Collections.singleton(refreshToken.getValue()));
+
+		verify(this.refreshTokenStore).revoke(refreshToken);
+	}
+
+	@Test
+	public void load_Existing_ShouldReturnContext() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		given(this.refreshTokenStore.load(context.getRefreshToken())).willReturn(context);
+
+		assertThat(this.mapStore.load(context.getRefreshToken().getValue())).isEqualTo(context);
+	}
+
+	@Test
+	public void loadAll_SomeMissing_ShouldReturnExisting() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		given(this.refreshTokenStore.load(context.getRefreshToken())).willReturn(context);
+		given(this.refreshTokenStore.load(new RefreshToken("missing")))
+				.willThrow(new GeneralException(OAuth2Error.INVALID_GRANT));
+
+		assertThat(this.mapStore.loadAll(Arrays.asList(context.getRefreshToken().getValue(), "missing")))
+				.containsOnlyKeys(context.getRefreshToken().getValue());
+	}
+
+	@Test
+	public void deleteAllBySubject_Valid_ShouldRevokeAllBySubject() {
+		Subject subject = new Subject("user");
+
+		this.mapStore.deleteAllBySubject(subject);
+
+		verify(this.refreshTokenStore).revokeAllBySubject(subject);
+	}
+
+	@Test
+	public void loadAllKeys_ShouldReturnNull() {
+		assertThat(this.mapStore.loadAllKeys()).isNull();
+	}
+
+	@Test
+	public void setCleanupInterval_Zero_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("cleanupInterval must be positive");
+
+		this.mapStore.setCleanupInterval(Duration.ZERO);
+	}
+
+}
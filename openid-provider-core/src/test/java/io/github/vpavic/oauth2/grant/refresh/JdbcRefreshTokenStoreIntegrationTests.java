@@ -1,5 +1,8 @@
 package io.github.vpavic.oauth2.grant.refresh;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.Instant;
 
 import javax.sql.DataSource;
@@ -16,7 +19,6 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
@@ -56,12 +58,26 @@ public class JdbcRefreshTokenStoreIntegrationTests {
 	}
 
 	@Test
-	public void save_Existing_ShouldThrowException() {
-		this.thrown.expect(DuplicateKeyException.class);
-
+	public void save_Valid_ShouldStoreTokenHash() throws Exception {
 		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
 		this.refreshTokenStore.save(context);
+
+		assertThat(this.jdbcTemplate.queryForObject("SELECT token_hash FROM refresh_tokens", byte[].class))
+				.isEqualTo(MessageDigest.getInstance("SHA-256")
+						.digest(context.getRefreshToken().getValue().getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	@Test
+	public void save_ExistingClientIdAndSubject_ShouldKeepBothTokens() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		RefreshTokenContext otherSession = new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				context.getSubject(), context.getScope(), null);
 		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.save(otherSession);
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(2);
+		assertThat(this.refreshTokenStore.load(context.getRefreshToken())).isNotNull();
+		assertThat(this.refreshTokenStore.load(otherSession.getRefreshToken())).isNotNull();
 	}
 
 	@Test
@@ -92,12 +108,12 @@ public class JdbcRefreshTokenStoreIntegrationTests {
 	}
 
 	@Test
-	public void findByClientIdAndSubject_Existing_ShouldReturnClient() {
+	public void findByClientIdAndSubject_Existing_ShouldReturnNull() {
 		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
 		this.refreshTokenStore.save(context);
 
 		assertThat(this.refreshTokenStore.findByClientIdAndSubject(context.getClientId(), context.getSubject()))
-				.isNotNull();
+				.isNull();
 		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(1);
 	}
 
@@ -106,15 +122,6 @@ public class JdbcRefreshTokenStoreIntegrationTests {
 		assertThat(this.refreshTokenStore.findByClientIdAndSubject(new ClientID(), new Subject())).isNull();
 	}
 
-	@Test
-	public void findByClientIdAndSubject_Expired_ShouldReturnNull() {
-		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1));
-		this.refreshTokenStore.save(context);
-
-		assertThat(this.refreshTokenStore.findByClientIdAndSubject(context.getClientId(), context.getSubject()))
-				.isNull();
-	}
-
 	@Test
 	public void revoke_Existing_ShouldReturnNull() {
 		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
@@ -131,6 +138,35 @@ public class JdbcRefreshTokenStoreIntegrationTests {
 		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(0);
 	}
 
+	@Test
+	public void revokeAllBySubject_Existing_ShouldDeleteSubjectTokens() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.save(new RefreshTokenContext(new RefreshToken(), new ClientID(), context.getSubject(),
+				context.getScope(), null));
+		this.refreshTokenStore.save(new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				new Subject("other"), context.getScope(), null));
+
+		this.refreshTokenStore.revokeAllBySubject(context.getSubject());
+
+		assertThat(JdbcTestUtils.countRowsInTableWhere(this.jdbcTemplate, "refresh_tokens", "subject = 'other'"))
+				.isEqualTo(1);
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(1);
+	}
+
+	@Test
+	public void revokeAllByClientId_Existing_ShouldDeleteClientTokens() {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.save(new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				new Subject("other"), context.getScope(), null));
+		this.refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null));
+
+		this.refreshTokenStore.revokeAllByClientId(context.getClientId());
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(1);
+	}
+
 	@Test
 	public void cleanExpiredTokens_Valid_ShouldReturnNull() {
 		this.refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null));
@@ -147,6 +183,66 @@ public class JdbcRefreshTokenStoreIntegrationTests {
 		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(0);
 	}
 
+	@Test
+	public void cleanExpiredTokens_ExpiredInMultipleBatches_ShouldDeleteExpired() {
+		this.refreshTokenStore.setCleanupBatchSize(2);
+		this.refreshTokenStore.setCleanupBatchPause(Duration.ZERO);
+		long cleanedTokenCount = this.refreshTokenStore.getCleanedTokenCount();
+		this.refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null));
+		for (int i = 0; i < 5; i++) {
+			this.refreshTokenStore
+					.save(RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1)));
+		}
+		this.refreshTokenStore.cleanExpiredTokens();
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(1);
+		assertThat(this.refreshTokenStore.getCleanedTokenCount() - cleanedTokenCount).isEqualTo(5);
+	}
+
+	@Test
+	public void rotate_Valid_ShouldReplaceToken() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		RefreshTokenContext rotated = new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				context.getSubject(), context.getScope(), Instant.now().plusSeconds(60));
+		this.refreshTokenStore.save(context);
+
+		this.refreshTokenStore.rotate(context.getRefreshToken(), rotated);
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(1);
+		assertThat(this.refreshTokenStore.load(rotated.getRefreshToken()).getExpiry().getEpochSecond())
+				.isEqualTo(rotated.getExpiry().getEpochSecond());
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.load(context.getRefreshToken());
+	}
+
+	@Test
+	public void rotate_Rotated_ShouldThrowException() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.rotate(context.getRefreshToken(), new RefreshTokenContext(new RefreshToken(),
+				context.getClientId(), context.getSubject(), context.getScope(), null));
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.rotate(context.getRefreshToken(), new RefreshTokenContext(new RefreshToken(),
+				context.getClientId(), context.getSubject(), context.getScope(), null));
+	}
+
+	@Test
+	public void rotate_Expired_ShouldThrowException() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1));
+		this.refreshTokenStore.save(context);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.rotate(context.getRefreshToken(), new RefreshTokenContext(new RefreshToken(),
+				context.getClientId(), context.getSubject(), context.getScope(), null));
+	}
+
 	@Configuration
 	static class Config {
 
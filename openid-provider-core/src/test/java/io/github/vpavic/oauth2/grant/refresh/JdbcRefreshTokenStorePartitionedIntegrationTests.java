@@ -0,0 +1,223 @@
+package io.github.vpavic.oauth2.grant.refresh;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+import javax.sql.DataSource;
+
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link JdbcRefreshTokenStore} with partitioning enabled.
+ *
+ * @author Vedran Pavic
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class JdbcRefreshTokenStorePartitionedIntegrationTests {
+
+	private static final DateTimeFormatter PARTITION_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd")
+			.withZone(ZoneOffset.UTC);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private JdbcRefreshTokenStore refreshTokenStore;
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void save_Expiring_ShouldInsertIntoPartition() {
+		Instant expiry = Instant.now().plus(Duration.ofDays(1));
+		this.refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(expiry));
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, partitionTableName(expiry))).isEqualTo(1);
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(0);
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens_partitions")).isEqualTo(1);
+	}
+
+	@Test
+	public void save_NonExpiring_ShouldInsertIntoTable() {
+		this.refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null));
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(1);
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens_partitions")).isEqualTo(0);
+	}
+
+	@Test
+	public void save_ExistingClientIdAndSubjectInOtherPartition_ShouldKeepBothTokens() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils
+				.createRefreshTokenContext(Instant.now().plus(Duration.ofDays(1)));
+		RefreshTokenContext otherSession = new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				context.getSubject(), context.getScope(), Instant.now().plus(Duration.ofDays(30)));
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.save(otherSession);
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, partitionTableName(context.getExpiry())))
+				.isEqualTo(1);
+		assertThat(this.refreshTokenStore.load(context.getRefreshToken())).isNotNull();
+		assertThat(this.refreshTokenStore.load(otherSession.getRefreshToken())).isNotNull();
+	}
+
+	@Test
+	public void load_SavedByOtherStore_ShouldReturnContext() throws GeneralException {
+		JdbcRefreshTokenStore otherRefreshTokenStore = new JdbcRefreshTokenStore(this.jdbcTemplate);
+		otherRefreshTokenStore.setPartitioned(true);
+		otherRefreshTokenStore.init();
+		RefreshTokenContext context = RefreshTokenTestUtils
+				.createRefreshTokenContext(Instant.now().plus(Duration.ofDays(10)));
+		otherRefreshTokenStore.save(context);
+
+		assertThat(this.refreshTokenStore.load(context.getRefreshToken())).isNotNull();
+	}
+
+	@Test
+	public void rotate_Rotated_ShouldThrowException() throws GeneralException {
+		RefreshTokenContext context = RefreshTokenTestUtils
+				.createRefreshTokenContext(Instant.now().plus(Duration.ofDays(1)));
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.rotate(context.getRefreshToken(), new RefreshTokenContext(new RefreshToken(),
+				context.getClientId(), context.getSubject(), context.getScope(), null));
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.rotate(context.getRefreshToken(), new RefreshTokenContext(new RefreshToken(),
+				context.getClientId(), context.getSubject(), context.getScope(), null));
+	}
+
+	@Test
+	public void revokeAllBySubject_MultiplePartitions_ShouldDeleteSubjectTokens() {
+		RefreshTokenContext context = RefreshTokenTestUtils
+				.createRefreshTokenContext(Instant.now().plus(Duration.ofDays(1)));
+		this.refreshTokenStore.save(context);
+		this.refreshTokenStore.save(new RefreshTokenContext(new RefreshToken(), new ClientID(), context.getSubject(),
+				context.getScope(), Instant.now().plus(Duration.ofDays(30))));
+		this.refreshTokenStore.save(new RefreshTokenContext(new RefreshToken(), new ClientID(), context.getSubject(),
+				context.getScope(), null));
+		this.refreshTokenStore.save(new RefreshTokenContext(new RefreshToken(), context.getClientId(),
+				new Subject("other"), context.getScope(), context.getExpiry()));
+
+		this.refreshTokenStore.revokeAllBySubject(context.getSubject());
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, partitionTableName(context.getExpiry())))
+				.isEqualTo(1);
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate,
+				partitionTableName(Instant.now().plus(Duration.ofDays(30))))).isEqualTo(0);
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens")).isEqualTo(0);
+	}
+
+	@Test
+	public void lifecycle_ShouldSaveLoadRotateAndDropPartitions() throws GeneralException {
+		Instant endedExpiry = Instant.now().minus(Duration.ofDays(30));
+		Instant liveExpiry = Instant.now().plus(Duration.ofDays(1));
+		Instant rotatedExpiry = Instant.now().plus(Duration.ofDays(60));
+		RefreshTokenContext ended = RefreshTokenTestUtils.createRefreshTokenContext(endedExpiry);
+		RefreshTokenContext live = RefreshTokenTestUtils.createRefreshTokenContext(liveExpiry);
+		RefreshTokenContext rotated = new RefreshTokenContext(new RefreshToken(), live.getClientId(),
+				live.getSubject(), live.getScope(), rotatedExpiry);
+
+		this.refreshTokenStore.save(ended);
+		this.refreshTokenStore.save(live);
+
+		assertThat(tableExists(partitionTableName(endedExpiry))).isTrue();
+		assertThat(this.refreshTokenStore.load(live.getRefreshToken())).isNotNull();
+
+		this.refreshTokenStore.rotate(live.getRefreshToken(), rotated);
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, partitionTableName(liveExpiry))).isEqualTo(0);
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, partitionTableName(rotatedExpiry)))
+				.isEqualTo(1);
+		assertThat(this.refreshTokenStore.load(rotated.getRefreshToken()).getExpiry().getEpochSecond())
+				.isEqualTo(rotatedExpiry.getEpochSecond());
+
+		this.refreshTokenStore.cleanExpiredTokens();
+
+		assertThat(tableExists(partitionTableName(endedExpiry))).isFalse();
+		assertThat(tableExists(partitionTableName(liveExpiry))).isTrue();
+		assertThat(tableExists(partitionTableName(rotatedExpiry))).isTrue();
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, "refresh_tokens_partitions")).isEqualTo(2);
+		assertThat(this.refreshTokenStore.load(rotated.getRefreshToken())).isNotNull();
+
+		this.refreshTokenStore.revoke(rotated.getRefreshToken());
+
+		assertThat(JdbcTestUtils.countRowsInTable(this.jdbcTemplate, partitionTableName(rotatedExpiry)))
+				.isEqualTo(0);
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.load(rotated.getRefreshToken());
+	}
+
+	private boolean tableExists(String tableName) {
+		return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?",
+				Integer.class, tableName.toUpperCase()) > 0;
+	}
+
+	private static String partitionTableName(Instant expiry) {
+		Instant weekStart = expiry.atOffset(ZoneOffset.UTC).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+				.truncatedTo(ChronoUnit.DAYS).toInstant();
+		return "refresh_tokens_" + PARTITION_NAME_FORMATTER.format(weekStart);
+	}
+
+	@Configuration
+	static class Config {
+
+		@Bean
+		DataSource dataSource() {
+			// @formatter:off
+			return new EmbeddedDatabaseBuilder()
+					.generateUniqueName(true)
+					.setType(EmbeddedDatabaseType.H2)
+					.addScript("schema-refresh-tokens.sql")
+					.build();
+			// @formatter:on
+		}
+
+		@Bean
+		JdbcTemplate jdbcTemplate() {
+			return new JdbcTemplate(dataSource());
+		}
+
+		@Bean
+		JdbcRefreshTokenStore refreshTokenStore() {
+			JdbcRefreshTokenStore refreshTokenStore = new JdbcRefreshTokenStore(jdbcTemplate());
+			refreshTokenStore.setPartitioned(true);
+			refreshTokenStore.setTransactionOperations(
+					new TransactionTemplate(new DataSourceTransactionManager(dataSource())));
+			return refreshTokenStore;
+		}
+
+	}
+
+}
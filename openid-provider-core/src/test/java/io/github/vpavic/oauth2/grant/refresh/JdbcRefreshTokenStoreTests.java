@@ -1,6 +1,18 @@
 package io.github.vpavic.oauth2.grant.refresh;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import com.nimbusds.oauth2.sdk.GeneralException;
 import com.nimbusds.oauth2.sdk.OAuth2Error;
@@ -12,20 +24,30 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.AdditionalMatchers.and;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.endsWith;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -69,11 +91,15 @@ public class JdbcRefreshTokenStoreTests {
 				.contains(tableName);
 		assertThat((String) new DirectFieldAccessor(refreshTokenStore).getPropertyValue("statementSelectByToken"))
 				.contains(tableName);
-		assertThat((String) new DirectFieldAccessor(refreshTokenStore)
-				.getPropertyValue("statementSelectByClientIdAndSubject")).contains(tableName);
+		assertThat((String) new DirectFieldAccessor(refreshTokenStore).getPropertyValue("statementUpdateToken"))
+				.contains(tableName);
 		assertThat((String) new DirectFieldAccessor(refreshTokenStore).getPropertyValue("statementDeleteByToken"))
 				.contains(tableName);
-		assertThat((String) new DirectFieldAccessor(refreshTokenStore).getPropertyValue("statementDeleteExpired"))
+		assertThat((String) new DirectFieldAccessor(refreshTokenStore).getPropertyValue("statementDeleteBySubject"))
+				.contains(tableName);
+		assertThat((String) new DirectFieldAccessor(refreshTokenStore).getPropertyValue("statementDeleteByClientId"))
+				.contains(tableName);
+		assertThat((String) new DirectFieldAccessor(refreshTokenStore).getPropertyValue("statementSelectExpired"))
 				.contains(tableName);
 	}
 
@@ -96,7 +122,7 @@ public class JdbcRefreshTokenStoreTests {
 	}
 
 	@Test
-	public void save_Valid_ShouldInsert() {
+	public void save_Valid_ShouldInsertWithoutDeletingExisting() {
 		given(this.jdbcOperations.update(anyString(), any(PreparedStatementSetter.class))).willReturn(0);
 
 		this.refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null));
@@ -117,13 +143,15 @@ public class JdbcRefreshTokenStoreTests {
 
 	@Test
 	@SuppressWarnings("unchecked")
-	public void load_Existing_ShouldReturnClient() throws GeneralException {
+	public void load_Existing_ShouldReturnClient() throws Exception {
 		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
-		given(this.jdbcOperations.queryForObject(anyString(), any(RowMapper.class), anyString())).willReturn(context);
+		given(this.jdbcOperations.queryForObject(anyString(), any(RowMapper.class), any(byte[].class)))
+				.willReturn(context);
 
 		assertThat(this.refreshTokenStore.load(context.getRefreshToken())).isNotNull();
 		verify(this.jdbcOperations, times(1)).queryForObject(startsWith("SELECT"), any(RowMapper.class),
-				eq(context.getRefreshToken().getValue()));
+				aryEq(MessageDigest.getInstance("SHA-256")
+						.digest(context.getRefreshToken().getValue().getBytes(StandardCharsets.US_ASCII))));
 		verifyZeroInteractions(this.jdbcOperations);
 	}
 
@@ -131,7 +159,7 @@ public class JdbcRefreshTokenStoreTests {
 	@SuppressWarnings("unchecked")
 	public void load_Missing_ShouldThrowException() throws GeneralException {
 		RefreshToken token = new RefreshToken();
-		given(this.jdbcOperations.queryForObject(anyString(), any(RowMapper.class), anyString()))
+		given(this.jdbcOperations.queryForObject(anyString(), any(RowMapper.class), any(byte[].class)))
 				.willThrow(EmptyResultDataAccessException.class);
 		this.thrown.expect(GeneralException.class);
 		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
@@ -139,7 +167,7 @@ public class JdbcRefreshTokenStoreTests {
 		this.refreshTokenStore.load(token);
 
 		verify(this.jdbcOperations, times(1)).queryForObject(startsWith("SELECT"), any(RowMapper.class),
-				eq(token.getValue()));
+				any(byte[].class));
 		verifyZeroInteractions(this.jdbcOperations);
 	}
 
@@ -147,14 +175,15 @@ public class JdbcRefreshTokenStoreTests {
 	@SuppressWarnings("unchecked")
 	public void load_Expired_ShouldThrowException() throws GeneralException {
 		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1));
-		given(this.jdbcOperations.queryForObject(anyString(), any(RowMapper.class), anyString())).willReturn(context);
+		given(this.jdbcOperations.queryForObject(anyString(), any(RowMapper.class), any(byte[].class)))
+				.willReturn(context);
 		this.thrown.expect(GeneralException.class);
 		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
 
 		this.refreshTokenStore.load(context.getRefreshToken());
 
 		verify(this.jdbcOperations, times(1)).queryForObject(startsWith("SELECT"), any(RowMapper.class),
-				eq(context.getRefreshToken().getValue()));
+				any(byte[].class));
 		verifyZeroInteractions(this.jdbcOperations);
 	}
 
@@ -167,46 +196,8 @@ public class JdbcRefreshTokenStoreTests {
 	}
 
 	@Test
-	@SuppressWarnings("unchecked")
-	public void findByClientIdAndSubject_Existing_ShouldReturnClient() {
-		ClientID clientId = new ClientID();
-		Subject subject = new Subject();
-		given(this.jdbcOperations.queryForObject(anyString(), any(RowMapper.class), anyString(), anyString()))
-				.willReturn(RefreshTokenTestUtils.createRefreshTokenContext(null));
-
-		assertThat(this.refreshTokenStore.findByClientIdAndSubject(clientId, subject)).isNotNull();
-		verify(this.jdbcOperations, times(1)).queryForObject(startsWith("SELECT"), any(RowMapper.class),
-				eq(clientId.getValue()), eq(subject.getValue()));
-		verifyZeroInteractions(this.jdbcOperations);
-	}
-
-	@Test
-	@SuppressWarnings("unchecked")
-	public void findByClientIdAndSubject_Missing_ShouldReturnNull() {
-		ClientID clientId = new ClientID();
-		Subject subject = new Subject();
-		given(this.jdbcOperations.queryForObject(anyString(), any(RowMapper.class), anyString(), anyString()))
-				.willThrow(EmptyResultDataAccessException.class);
-
-		assertThat(this.refreshTokenStore.findByClientIdAndSubject(clientId, subject)).isNull();
-		verify(this.jdbcOperations, times(1)).queryForObject(startsWith("SELECT"), any(RowMapper.class),
-				eq(clientId.getValue()), eq(subject.getValue()));
-		verifyZeroInteractions(this.jdbcOperations);
-	}
-
-	@Test
-	@SuppressWarnings("unchecked")
-	public void findByClientIdAndSubject_Expired_ShouldReturnNull() {
-		ClientID clientId = new ClientID();
-		Subject subject = new Subject();
-		given(this.jdbcOperations.queryForObject(anyString(), any(RowMapper.class), anyString(), anyString()))
-				.willReturn(RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().minusSeconds(1)));
-
-		assertThat(this.refreshTokenStore.findByClientIdAndSubject(clientId, subject)).isNull();
-		verify(this.jdbcOperations, times(1)).queryForObject(startsWith("SELECT"), any(RowMapper.class),
-				eq(clientId.getValue()), eq(subject.getValue()));
-		verify(this.jdbcOperations, times(1)).update(and(startsWith("DELETE"), endsWith("WHERE token = ?")),
-				any(PreparedStatementSetter.class));
+	public void findByClientIdAndSubject_Valid_ShouldReturnNull() {
+		assertThat(this.refreshTokenStore.findByClientIdAndSubject(new ClientID(), new Subject())).isNull();
 		verifyZeroInteractions(this.jdbcOperations);
 	}
 
@@ -230,7 +221,7 @@ public class JdbcRefreshTokenStoreTests {
 	public void revoke_Valid_ShouldReturnNull() {
 		this.refreshTokenStore.revoke(new RefreshToken());
 
-		verify(this.jdbcOperations, times(1)).update(and(startsWith("DELETE"), endsWith("WHERE token = ?")),
+		verify(this.jdbcOperations, times(1)).update(and(startsWith("DELETE"), endsWith("WHERE token_hash = ?")),
 				any(PreparedStatementSetter.class));
 		verifyZeroInteractions(this.jdbcOperations);
 	}
@@ -244,12 +235,319 @@ public class JdbcRefreshTokenStoreTests {
 	}
 
 	@Test
-	public void cleanExpiredTokens_Na_ShouldReturnNull() {
-		this.refreshTokenStore.cleanExpiredTokens();
+	public void revokeAllBySubject_Valid_ShouldDeleteBySubject() {
+		this.refreshTokenStore.revokeAllBySubject(new Subject("user"));
+
+		verify(this.jdbcOperations, times(1)).update(and(startsWith("DELETE"), endsWith("WHERE subject = ?")),
+				any(PreparedStatementSetter.class));
+		verifyZeroInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	public void revokeAllBySubject_Null_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("subject must not be null");
+
+		this.refreshTokenStore.revokeAllBySubject(null);
+	}
+
+	@Test
+	public void revokeAllByClientId_Valid_ShouldDeleteByClientId() {
+		this.refreshTokenStore.revokeAllByClientId(new ClientID("test"));
 
-		verify(this.jdbcOperations, times(1)).update(and(startsWith("DELETE"), endsWith("AND expiry < ?")),
+		verify(this.jdbcOperations, times(1)).update(and(startsWith("DELETE"), endsWith("WHERE client_id = ?")),
 				any(PreparedStatementSetter.class));
 		verifyZeroInteractions(this.jdbcOperations);
 	}
 
+	@Test
+	public void revokeAllByClientId_Null_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("clientId must not be null");
+
+		this.refreshTokenStore.revokeAllByClientId(null);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cleanExpiredTokens_NoExpiredTokens_ShouldNotDelete() {
+		given(this.jdbcOperations.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+				.willReturn(Collections.emptyList());
+
+		this.refreshTokenStore.cleanExpiredTokens();
+
+		verify(this.jdbcOperations, times(1)).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+		verifyZeroInteractions(this.jdbcOperations);
+		assertThat(this.refreshTokenStore.getCleanupCount()).isEqualTo(1);
+		assertThat(this.refreshTokenStore.getCleanedTokenCount()).isEqualTo(0);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cleanExpiredTokens_ExpiredTokens_ShouldDeleteInBatches() {
+		this.refreshTokenStore.setCleanupBatchSize(2);
+		this.refreshTokenStore.setCleanupBatchPause(Duration.ZERO);
+		given(this.jdbcOperations.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+				.willReturn(Arrays.asList(new byte[32], new byte[32]), Collections.singletonList(new byte[32]));
+		given(this.jdbcOperations.batchUpdate(anyString(), anyList())).willReturn(new int[] { 1, 1 },
+				new int[] { 1 });
+
+		this.refreshTokenStore.cleanExpiredTokens();
+
+		verify(this.jdbcOperations, times(2)).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+		verify(this.jdbcOperations, times(2)).batchUpdate(and(startsWith("DELETE"), endsWith("WHERE token_hash = ?")),
+				anyList());
+		verifyZeroInteractions(this.jdbcOperations);
+		assertThat(this.refreshTokenStore.getCleanupCount()).isEqualTo(1);
+		assertThat(this.refreshTokenStore.getCleanedTokenCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void setCleanupBatchSize_Zero_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("cleanupBatchSize must be greater than zero");
+
+		this.refreshTokenStore.setCleanupBatchSize(0);
+	}
+
+	@Test
+	public void setCleanupBatchPause_Negative_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("cleanupBatchPause must not be negative");
+
+		this.refreshTokenStore.setCleanupBatchPause(Duration.ofMillis(-1));
+	}
+
+	@Test
+	public void init_WriteBehindWithoutTransactionOperations_ShouldThrowException() {
+		JdbcRefreshTokenStore refreshTokenStore = new JdbcRefreshTokenStore(this.jdbcOperations);
+		refreshTokenStore.setWriteBehind(true);
+
+		this.thrown.expect(IllegalStateException.class);
+		this.thrown.expectMessage("transactionOperations must be set to enable write-behind");
+
+		refreshTokenStore.init();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void save_WriteBehind_ShouldInsertInBatches() throws Exception {
+		JdbcRefreshTokenStore refreshTokenStore = createWriteBehindRefreshTokenStore();
+		refreshTokenStore.setWriteBehindBatchSize(5);
+		refreshTokenStore.setWriteBehindMaxDelay(Duration.ofSeconds(1));
+		refreshTokenStore.init();
+		List<Object[]> inserted = Collections.synchronizedList(new ArrayList<>());
+		given(this.jdbcOperations.batchUpdate(startsWith("INSERT"), anyList())).willAnswer(invocation -> {
+			List<Object[]> batchArgs = invocation.getArgument(1);
+			inserted.addAll(batchArgs);
+			return new int[batchArgs.size()];
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(10);
+
+		try {
+			List<Future<?>> saves = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				saves.add(executor.submit(
+						() -> refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null))));
+			}
+			for (Future<?> save : saves) {
+				save.get(5, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+			refreshTokenStore.shutdown();
+		}
+
+		assertThat(inserted).hasSize(10);
+		verify(this.jdbcOperations, times(2)).batchUpdate(startsWith("INSERT"), anyList());
+		verify(this.jdbcOperations, never()).update(anyString(), any(PreparedStatementSetter.class));
+	}
+
+	@Test
+	public void save_WriteBehindBatchFails_ShouldThrowException() throws Exception {
+		JdbcRefreshTokenStore refreshTokenStore = createWriteBehindRefreshTokenStore();
+		refreshTokenStore.init();
+		given(this.jdbcOperations.batchUpdate(startsWith("INSERT"), anyList()))
+				.willThrow(new DuplicateKeyException("test"));
+
+		this.thrown.expect(DuplicateKeyException.class);
+
+		try {
+			refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null));
+		}
+		finally {
+			refreshTokenStore.shutdown();
+		}
+	}
+
+	@Test
+	public void load_WriteBehindPending_ShouldReturnContext() throws Exception {
+		JdbcRefreshTokenStore refreshTokenStore = createWriteBehindRefreshTokenStore();
+		refreshTokenStore.init();
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch written = new CountDownLatch(1);
+		given(this.jdbcOperations.batchUpdate(startsWith("INSERT"), anyList())).willAnswer(invocation -> {
+			writing.countDown();
+			written.await();
+			return new int[] { 1 };
+		});
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		try {
+			Future<?> save = executor.submit(() -> refreshTokenStore.save(context));
+			assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+			assertThat(refreshTokenStore.load(context.getRefreshToken())).isEqualTo(context);
+			assertThat(save.isDone()).isFalse();
+
+			written.countDown();
+			save.get(5, TimeUnit.SECONDS);
+		}
+		finally {
+			written.countDown();
+			executor.shutdownNow();
+			refreshTokenStore.shutdown();
+		}
+	}
+
+	@Test
+	public void setWriteBehindBatchSize_Zero_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("writeBehindBatchSize must be greater than zero");
+
+		this.refreshTokenStore.setWriteBehindBatchSize(0);
+	}
+
+	@SuppressWarnings("unchecked")
+	private JdbcRefreshTokenStore createWriteBehindRefreshTokenStore() {
+		TransactionOperations transactionOperations = mock(TransactionOperations.class);
+		given(transactionOperations.execute(any(TransactionCallback.class)))
+				.willAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0))
+						.doInTransaction(null));
+		JdbcRefreshTokenStore refreshTokenStore = new JdbcRefreshTokenStore(this.jdbcOperations);
+		refreshTokenStore.setWriteBehind(true);
+		refreshTokenStore.setTransactionOperations(transactionOperations);
+		return refreshTokenStore;
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void init_Partitioned_ShouldLoadPartitions() {
+		createPartitionedRefreshTokenStore("H2");
+
+		verify(this.jdbcOperations, times(1)).execute(any(ConnectionCallback.class));
+		verify(this.jdbcOperations, times(1)).queryForList(startsWith("SELECT week_start FROM refresh_tokens_partitions"),
+				eq(Long.class), anyLong());
+		verifyZeroInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	public void init_PartitionedMySql_ShouldThrowException() {
+		this.thrown.expect(IllegalStateException.class);
+		this.thrown.expectMessage("Partitioning is only supported on H2 and PostgreSQL, not on MySQL");
+
+		createPartitionedRefreshTokenStore("MySQL");
+	}
+
+	@Test
+	public void save_PartitionedExpiring_ShouldCreatePartitionAndInsert() {
+		JdbcRefreshTokenStore refreshTokenStore = createPartitionedRefreshTokenStore("H2");
+
+		refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().plusSeconds(60)));
+
+		verify(this.jdbcOperations, times(1)).execute(
+				and(startsWith("CREATE TABLE IF NOT EXISTS refresh_tokens_"), contains("token_hash BINARY(32)")));
+		verify(this.jdbcOperations, times(1)).update(startsWith("INSERT INTO refresh_tokens_partitions"), anyLong());
+		verify(this.jdbcOperations, never()).update(startsWith("DELETE"), anyString(), anyString());
+		verify(this.jdbcOperations, times(1)).update(startsWith("INSERT INTO refresh_tokens_2"), any(byte[].class),
+				anyString(), anyString(), anyString(), anyLong());
+	}
+
+	@Test
+	public void save_PartitionedExpiringPostgreSql_ShouldCreatePartitionWithByteaTokenHash() {
+		JdbcRefreshTokenStore refreshTokenStore = createPartitionedRefreshTokenStore("PostgreSQL");
+
+		refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(Instant.now().plusSeconds(60)));
+
+		verify(this.jdbcOperations, times(1)).execute(
+				and(startsWith("CREATE TABLE IF NOT EXISTS refresh_tokens_"), contains("token_hash BYTEA")));
+	}
+
+	@Test
+	public void save_PartitionedExpiringTwice_ShouldUseCachedPartition() {
+		JdbcRefreshTokenStore refreshTokenStore = createPartitionedRefreshTokenStore("H2");
+		Instant expiry = Instant.now().plusSeconds(60);
+
+		refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(expiry));
+		refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(expiry));
+
+		verify(this.jdbcOperations, times(1)).queryForList(startsWith("SELECT week_start"), eq(Long.class), anyLong());
+		verify(this.jdbcOperations, times(1)).execute(startsWith("CREATE TABLE IF NOT EXISTS refresh_tokens_"));
+		verify(this.jdbcOperations, times(2)).update(startsWith("INSERT INTO refresh_tokens_2"), any(byte[].class),
+				anyString(), anyString(), anyString(), anyLong());
+	}
+
+	@Test
+	public void save_PartitionedNonExpiring_ShouldInsertIntoTable() {
+		JdbcRefreshTokenStore refreshTokenStore = createPartitionedRefreshTokenStore("H2");
+
+		refreshTokenStore.save(RefreshTokenTestUtils.createRefreshTokenContext(null));
+
+		verify(this.jdbcOperations, never()).execute(anyString());
+		verify(this.jdbcOperations, times(1)).update(startsWith("INSERT INTO refresh_tokens("), any(byte[].class),
+				anyString(), anyString(), anyString(), anyLong());
+	}
+
+	@Test
+	public void revoke_PartitionedExisting_ShouldNotReloadPartitions() {
+		JdbcRefreshTokenStore refreshTokenStore = createPartitionedRefreshTokenStore("H2");
+		given(this.jdbcOperations.update(startsWith("DELETE FROM refresh_tokens"), any(byte[].class))).willReturn(1);
+
+		refreshTokenStore.revoke(new RefreshToken());
+
+		verify(this.jdbcOperations, times(1)).queryForList(startsWith("SELECT week_start"), eq(Long.class), anyLong());
+	}
+
+	@Test
+	public void revoke_PartitionedMissing_ShouldReloadPartitions() {
+		JdbcRefreshTokenStore refreshTokenStore = createPartitionedRefreshTokenStore("H2");
+		given(this.jdbcOperations.queryForList(startsWith("SELECT week_start"), eq(Long.class), anyLong()))
+				.willReturn(new ArrayList<>(Collections.singletonList(Instant.now().getEpochSecond())));
+
+		refreshTokenStore.revoke(new RefreshToken());
+
+		verify(this.jdbcOperations, times(2)).queryForList(startsWith("SELECT week_start"), eq(Long.class), anyLong());
+	}
+
+	@SuppressWarnings("unchecked")
+	private JdbcRefreshTokenStore createPartitionedRefreshTokenStore(String databaseProductName) {
+		given(this.jdbcOperations.execute(any(ConnectionCallback.class))).willReturn(databaseProductName);
+		JdbcRefreshTokenStore refreshTokenStore = new JdbcRefreshTokenStore(this.jdbcOperations);
+		refreshTokenStore.setPartitioned(true);
+		refreshTokenStore.init();
+		return refreshTokenStore;
+	}
+
+	@Test
+	public void rotate_Valid_ShouldUpdate() throws GeneralException {
+		given(this.jdbcOperations.update(anyString(), any(PreparedStatementSetter.class))).willReturn(1);
+		RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+
+		assertThat(this.refreshTokenStore.rotate(new RefreshToken(), context)).isEqualTo(context);
+		verify(this.jdbcOperations, times(1)).update(startsWith("UPDATE"), any(PreparedStatementSetter.class));
+		verifyZeroInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	public void rotate_NotUpdated_ShouldThrowException() throws GeneralException {
+		given(this.jdbcOperations.update(anyString(), any(PreparedStatementSetter.class))).willReturn(0);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		this.refreshTokenStore.rotate(new RefreshToken(), RefreshTokenTestUtils.createRefreshTokenContext(null));
+	}
+
 }
@@ -1,5 +1,39 @@
 package io.github.vpavic.oauth2.grant.refresh;
 
+import java.net.URI;
+import java.util.Date;
+
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
+import com.nimbusds.oauth2.sdk.RefreshTokenGrant;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.TokenRequest;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import com.nimbusds.oauth2.sdk.token.Tokens;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientMetadata;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.InOrder;
+
+import io.github.vpavic.oauth2.client.ClientRepository;
+import io.github.vpavic.oauth2.token.AccessTokenRequest;
+import io.github.vpavic.oauth2.token.RefreshTokenRequest;
+import io.github.vpavic.oauth2.token.TokenService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
 /**
  * Tests for {@link RefreshTokenGrantHandler}.
  *
@@ -7,6 +41,77 @@ package io.github.vpavic.oauth2.grant.refresh;
  */
 public class RefreshTokenGrantHandlerTests {
 
-	// TODO
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private ClientRepository clientRepository = mock(ClientRepository.class);
+
+	private TokenService tokenService = mock(TokenService.class);
+
+	private RefreshTokenStore refreshTokenStore = mock(RefreshTokenStore.class);
+
+	private RefreshTokenGrantHandler grantHandler;
+
+	private RefreshTokenContext context = RefreshTokenTestUtils.createRefreshTokenContext(null);
+
+	@Before
+	public void setUp() throws GeneralException {
+		this.grantHandler = new RefreshTokenGrantHandler(this.clientRepository, this.tokenService,
+				this.refreshTokenStore);
+		given(this.refreshTokenStore.load(this.context.getRefreshToken())).willReturn(this.context);
+		given(this.clientRepository.findById(this.context.getClientId()))
+				.willReturn(new OIDCClientInformation(this.context.getClientId(), new Date(), new OIDCClientMetadata(),
+						null));
+		given(this.tokenService.createAccessToken(any(AccessTokenRequest.class))).willReturn(new BearerAccessToken());
+	}
+
+	@Test
+	public void grant_Valid_ShouldReturnAccessToken() throws GeneralException {
+		Tokens tokens = this.grantHandler.grant(createTokenRequest(this.context.getRefreshToken()));
+
+		assertThat(tokens.getAccessToken()).isNotNull();
+		assertThat(tokens.getRefreshToken()).isNull();
+		verify(this.tokenService, never()).rotateRefreshToken(any(RefreshToken.class),
+				any(RefreshTokenRequest.class));
+	}
+
+	@Test
+	public void grant_UpdateRefreshToken_ShouldRotateRefreshToken() throws GeneralException {
+		RefreshToken rotated = new RefreshToken();
+		given(this.tokenService.rotateRefreshToken(eq(this.context.getRefreshToken()), any(RefreshTokenRequest.class)))
+				.willReturn(rotated);
+		this.grantHandler.setUpdateRefreshToken(true);
+
+		Tokens tokens = this.grantHandler.grant(createTokenRequest(this.context.getRefreshToken()));
+
+		assertThat(tokens.getRefreshToken()).isEqualTo(rotated);
+		InOrder inOrder = inOrder(this.tokenService);
+		inOrder.verify(this.tokenService).rotateRefreshToken(eq(this.context.getRefreshToken()),
+				any(RefreshTokenRequest.class));
+		inOrder.verify(this.tokenService).createAccessToken(any(AccessTokenRequest.class));
+		verify(this.refreshTokenStore, never()).revoke(any(RefreshToken.class));
+	}
+
+	@Test
+	public void grant_UpdateRefreshTokenAlreadyRotated_ShouldThrowException() throws GeneralException {
+		given(this.tokenService.rotateRefreshToken(eq(this.context.getRefreshToken()), any(RefreshTokenRequest.class)))
+				.willThrow(new GeneralException(OAuth2Error.INVALID_GRANT));
+		this.grantHandler.setUpdateRefreshToken(true);
+
+		this.thrown.expect(GeneralException.class);
+		this.thrown.expectMessage(OAuth2Error.INVALID_GRANT.getDescription());
+
+		try {
+			this.grantHandler.grant(createTokenRequest(this.context.getRefreshToken()));
+		}
+		finally {
+			verify(this.tokenService, never()).createAccessToken(any(AccessTokenRequest.class));
+		}
+	}
+
+	private static TokenRequest createTokenRequest(RefreshToken refreshToken) {
+		return new TokenRequest(URI.create("http://example.com/token"), new ClientID("test"),
+				new RefreshTokenGrant(refreshToken), new Scope());
+	}
 
 }
@@ -0,0 +1,176 @@
+package io.github.vpavic.oauth2.jwk;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CachingJwkSetLoader}.
+ *
+ * @author Vedran Pavic
+ */
+public class CachingJwkSetLoaderTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private CachingJwkSetLoader jwkSetLoader;
+
+	@After
+	public void tearDown() throws Exception {
+		if (this.jwkSetLoader != null) {
+			this.jwkSetLoader.destroy();
+		}
+	}
+
+	@Test
+	public void construct_NullResource_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("resource must not be null");
+
+		new CachingJwkSetLoader(null);
+	}
+
+	@Test
+	public void load_NotInitialized_ShouldThrowException() {
+		this.thrown.expect(IllegalStateException.class);
+		this.thrown.expectMessage("JWK set has not been loaded");
+
+		new CachingJwkSetLoader(new ByteArrayResource(createJwkSetJson("test").getBytes(StandardCharsets.UTF_8)))
+				.load();
+	}
+
+	@Test
+	public void load_Initialized_ShouldReturnCachedJwkSet() throws Exception {
+		this.jwkSetLoader = new CachingJwkSetLoader(
+				new ByteArrayResource(createJwkSetJson("test").getBytes(StandardCharsets.UTF_8)));
+		this.jwkSetLoader.init();
+
+		JWKSet jwkSet = this.jwkSetLoader.load();
+
+		assertThat(jwkSet.getKeyByKeyId("test")).isNotNull();
+		assertThat(this.jwkSetLoader.load()).isSameAs(jwkSet);
+		assertThat(this.jwkSetLoader.getVersion()).isEqualTo(1);
+	}
+
+	@Test
+	public void reload_Valid_ShouldIncrementVersion() throws Exception {
+		File file = this.temporaryFolder.newFile("jwks.json");
+		write(file, createJwkSetJson("first"));
+		this.jwkSetLoader = new CachingJwkSetLoader(new FileSystemResource(file));
+		this.jwkSetLoader.init();
+		write(file, createJwkSetJson("second"));
+
+		assertThat(this.jwkSetLoader.reload()).isTrue();
+		assertThat(this.jwkSetLoader.getVersion()).isGreaterThan(1);
+		assertThat(this.jwkSetLoader.load().getKeyByKeyId("second")).isNotNull();
+	}
+
+	@Test
+	public void reload_Invalid_ShouldRetainJwkSet() throws Exception {
+		File file = this.temporaryFolder.newFile("jwks.json");
+		write(file, createJwkSetJson("first"));
+		this.jwkSetLoader = new CachingJwkSetLoader(new FileSystemResource(file));
+		this.jwkSetLoader.init();
+		JWKSet jwkSet = this.jwkSetLoader.load();
+		long version = this.jwkSetLoader.getVersion();
+		write(file, "invalid");
+
+		assertThat(this.jwkSetLoader.reload()).isFalse();
+		assertThat(this.jwkSetLoader.load()).isSameAs(jwkSet);
+		assertThat(this.jwkSetLoader.getVersion()).isEqualTo(version);
+	}
+
+	@Test
+	public void watch_FileChanged_ShouldReload() throws Exception {
+		File file = this.temporaryFolder.newFile("jwks.json");
+		write(file, createJwkSetJson("first"));
+		this.jwkSetLoader = new CachingJwkSetLoader(new FileSystemResource(file));
+		this.jwkSetLoader.init();
+		write(file, createJwkSetJson("second"));
+
+		long deadline = System.currentTimeMillis() + 30000;
+		while (this.jwkSetLoader.load().getKeyByKeyId("second") == null && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+
+		assertThat(this.jwkSetLoader.load().getKeyByKeyId("second")).isNotNull();
+		assertThat(this.jwkSetLoader.getVersion()).isGreaterThan(1);
+	}
+
+	@Test
+	public void watch_SymlinkSwapped_ShouldReload() throws Exception {
+		Path directory = this.temporaryFolder.getRoot().toPath();
+		Path firstData = Files.createDirectory(directory.resolve("..2018_01_01"));
+		write(firstData.resolve("jwks.json").toFile(), createJwkSetJson("first"));
+		Files.createSymbolicLink(directory.resolve("..data"), firstData.getFileName());
+		Path file = Files.createSymbolicLink(directory.resolve("jwks.json"), Paths.get("..data", "jwks.json"));
+		this.jwkSetLoader = new CachingJwkSetLoader(new FileSystemResource(file.toFile()));
+		this.jwkSetLoader.init();
+		Path secondData = Files.createDirectory(directory.resolve("..2018_01_02"));
+		write(secondData.resolve("jwks.json").toFile(), createJwkSetJson("second"));
+		Path tempLink = Files.createSymbolicLink(directory.resolve("..data_tmp"), secondData.getFileName());
+		Files.move(tempLink, directory.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+
+		long deadline = System.currentTimeMillis() + 30000;
+		while (this.jwkSetLoader.load().getKeyByKeyId("second") == null && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+
+		assertThat(this.jwkSetLoader.load().getKeyByKeyId("second")).isNotNull();
+	}
+
+	@Test
+	public void reloadIfChanged_Unchanged_ShouldRetainJwkSet() throws Exception {
+		File file = this.temporaryFolder.newFile("jwks.json");
+		write(file, createJwkSetJson("first"));
+		this.jwkSetLoader = new CachingJwkSetLoader(new FileSystemResource(file));
+		this.jwkSetLoader.init();
+		JWKSet jwkSet = this.jwkSetLoader.load();
+		long version = this.jwkSetLoader.getVersion();
+
+		assertThat(this.jwkSetLoader.reloadIfChanged()).isFalse();
+		assertThat(this.jwkSetLoader.load()).isSameAs(jwkSet);
+		assertThat(this.jwkSetLoader.getVersion()).isEqualTo(version);
+	}
+
+	private static void write(File file, String content) throws Exception {
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String createJwkSetJson(String keyId) {
+		try {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+			generator.initialize(1024);
+			KeyPair keyPair = generator.generateKeyPair();
+			RSAKey rsaKey = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic()).keyID(keyId).build();
+			return new JWKSet(rsaKey).toJSONObject().toJSONString();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
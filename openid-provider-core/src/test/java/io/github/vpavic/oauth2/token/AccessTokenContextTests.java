@@ -0,0 +1,129 @@
+package io.github.vpavic.oauth2.token;
+
+import java.time.Instant;
+
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.util.SerializationUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AccessTokenContext}.
+ *
+ * @author Vedran Pavic
+ */
+public class AccessTokenContextTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void construct_Valid_ShouldReturnInstance() {
+		BearerAccessToken accessToken = new BearerAccessToken();
+		Instant issueTime = Instant.now();
+		Instant expiry = issueTime.plusSeconds(60);
+
+		AccessTokenContext context = new AccessTokenContext(accessToken, new ClientID("test-client"),
+				new Subject("user"), new Scope("openid"), issueTime, expiry);
+
+		assertThat(context.getAccessToken()).isEqualTo(accessToken);
+		assertThat(context.getClientId()).isEqualTo(new ClientID("test-client"));
+		assertThat(context.getSubject()).isEqualTo(new Subject("user"));
+		assertThat(context.getScope()).isEqualTo(new Scope("openid"));
+		assertThat(context.getIssueTime()).isEqualTo(issueTime);
+		assertThat(context.getExpiry()).isEqualTo(expiry);
+	}
+
+	@Test
+	public void construct_NullAccessToken_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("accessToken must not be null");
+
+		new AccessTokenContext(null, new ClientID("test-client"), new Subject("user"), new Scope("openid"),
+				Instant.now(), Instant.now());
+	}
+
+	@Test
+	public void construct_NullClientId_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("clientId must not be null");
+
+		new AccessTokenContext(new BearerAccessToken(), null, new Subject("user"), new Scope("openid"), Instant.now(),
+				Instant.now());
+	}
+
+	@Test
+	public void construct_NullSubject_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("subject must not be null");
+
+		new AccessTokenContext(new BearerAccessToken(), new ClientID("test-client"), null, new Scope("openid"),
+				Instant.now(), Instant.now());
+	}
+
+	@Test
+	public void construct_NullScope_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("scope must not be null");
+
+		new AccessTokenContext(new BearerAccessToken(), new ClientID("test-client"), new Subject("user"), null,
+				Instant.now(), Instant.now());
+	}
+
+	@Test
+	public void construct_NullIssueTime_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("issueTime must not be null");
+
+		new AccessTokenContext(new BearerAccessToken(), new ClientID("test-client"), new Subject("user"),
+				new Scope("openid"), null, Instant.now());
+	}
+
+	@Test
+	public void construct_NullExpiry_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("expiry must not be null");
+
+		new AccessTokenContext(new BearerAccessToken(), new ClientID("test-client"), new Subject("user"),
+				new Scope("openid"), Instant.now(), null);
+	}
+
+	@Test
+	public void isExpired_FutureExpiry_ShouldReturnFalse() {
+		AccessTokenContext context = new AccessTokenContext(new BearerAccessToken(), new ClientID("test-client"),
+				new Subject("user"), new Scope("openid"), Instant.now(), Instant.now().plusSeconds(60));
+
+		assertThat(context.isExpired()).isFalse();
+	}
+
+	@Test
+	public void isExpired_PastExpiry_ShouldReturnTrue() {
+		AccessTokenContext context = new AccessTokenContext(new BearerAccessToken(), new ClientID("test-client"),
+				new Subject("user"), new Scope("openid"), Instant.now().minusSeconds(120),
+				Instant.now().minusSeconds(60));
+
+		assertThat(context.isExpired()).isTrue();
+	}
+
+	@Test
+	public void serialize_Valid_ShouldPreserveState() {
+		AccessTokenContext context = new AccessTokenContext(new BearerAccessToken(), new ClientID("test-client"),
+				new Subject("user"), new Scope("openid"), Instant.now(), Instant.now().plusSeconds(60));
+
+		AccessTokenContext deserialized = (AccessTokenContext) SerializationUtils
+				.deserialize(SerializationUtils.serialize(context));
+
+		assertThat(deserialized.getAccessToken()).isEqualTo(context.getAccessToken());
+		assertThat(deserialized.getClientId()).isEqualTo(context.getClientId());
+		assertThat(deserialized.getSubject()).isEqualTo(context.getSubject());
+		assertThat(deserialized.getScope()).isEqualTo(context.getScope());
+		assertThat(deserialized.getExpiry()).isEqualTo(context.getExpiry());
+	}
+
+}
@@ -1,5 +1,57 @@
 package io.github.vpavic.oauth2.token;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeyException;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import com.nimbusds.openid.connect.sdk.OIDCScopeValue;
+import com.nimbusds.openid.connect.sdk.claims.ACR;
+import com.nimbusds.openid.connect.sdk.claims.AMR;
+import com.nimbusds.openid.connect.sdk.claims.AccessTokenHash;
+import com.nimbusds.openid.connect.sdk.claims.SessionID;
+import com.nimbusds.openid.connect.sdk.claims.UserInfo;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import com.nimbusds.openid.connect.sdk.token.OIDCTokens;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+
+import io.github.vpavic.oauth2.claim.ClaimSource;
+import io.github.vpavic.oauth2.grant.refresh.RefreshTokenContext;
+import io.github.vpavic.oauth2.grant.refresh.RefreshTokenStore;
+import io.github.vpavic.oauth2.jwk.JwkSetLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
 /**
  * Tests for {@link DefaultTokenService}.
  *
@@ -7,6 +59,247 @@ package io.github.vpavic.oauth2.token;
  */
 public class DefaultTokenServiceTests {
 
-	// TODO
+	private static final Issuer issuer = new Issuer("http://example.com");
+
+	private JwkSetLoader jwkSetLoader = mock(JwkSetLoader.class);
+
+	private ClaimSource claimSource = mock(ClaimSource.class);
+
+	private RefreshTokenStore refreshTokenStore = mock(RefreshTokenStore.class);
+
+	private RSAKey rsaKey = TokenTestUtils.createRsaKey();
+
+	private ECKey ecKey = TokenTestUtils.createEcKey();
+
+	private DefaultTokenService tokenService;
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Before
+	public void setUp() {
+		given(this.jwkSetLoader.load()).willReturn(new JWKSet(this.rsaKey));
+		given(this.claimSource.load(any(Subject.class), any()))
+				.willAnswer(invocation -> new UserInfo(invocation.<Subject>getArgument(0)));
+		this.tokenService = new DefaultTokenService(issuer, this.jwkSetLoader, this.claimSource,
+				this.refreshTokenStore);
+	}
+
+	@Test
+	public void construct_NullSignerRegistry_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("signerRegistry must not be null");
+
+		new DefaultTokenService(issuer, (JwsSignerRegistry) null, this.claimSource, this.refreshTokenStore);
+	}
+
+	@Test
+	public void createAccessToken_SharedSignerRegistryEvicted_ShouldReturnSignedToken() throws Exception {
+		JwsSignerRegistry signerRegistry = new JwsSignerRegistry(this.jwkSetLoader);
+		DefaultTokenService tokenService = new DefaultTokenService(issuer, signerRegistry, this.claimSource,
+				this.refreshTokenStore);
+		tokenService.setAccessTokenJwsAlgorithm(JWSAlgorithm.HS256);
+		OIDCClientInformation client = TokenTestUtils.createClient();
+		tokenService.createAccessToken(new AccessTokenRequest(new Subject("user"), client, new Scope("openid")));
+
+		signerRegistry.evict(client.getID());
+		AccessToken accessToken = tokenService
+				.createAccessToken(new AccessTokenRequest(new Subject("user"), client, new Scope("openid")));
+
+		SignedJWT jwt = SignedJWT.parse(accessToken.getValue());
+		assertThat(jwt.verify(new MACVerifier(client.getSecret().getValueBytes()))).isTrue();
+	}
+
+	@Test
+	public void createAccessToken_Rs256_ShouldReturnSignedToken() throws Exception {
+		AccessToken accessToken = this.tokenService.createAccessToken(
+				new AccessTokenRequest(new Subject("user"), TokenTestUtils.createClient(), new Scope("openid")));
+
+		SignedJWT jwt = SignedJWT.parse(accessToken.getValue());
+		assertThat(jwt.getHeader().getAlgorithm()).isEqualTo(JWSAlgorithm.RS256);
+		assertThat(jwt.getHeader().getKeyID()).isEqualTo(this.rsaKey.getKeyID());
+		assertThat(jwt.verify(new RSASSAVerifier(this.rsaKey))).isTrue();
+		assertThat(jwt.getJWTClaimsSet().getIssuer()).isEqualTo(issuer.getValue());
+		assertThat(jwt.getJWTClaimsSet().getSubject()).isEqualTo("user");
+	}
+
+	@Test
+	public void createAccessToken_Hs256_ShouldReturnSignedToken() throws Exception {
+		this.tokenService.setAccessTokenJwsAlgorithm(JWSAlgorithm.HS256);
+		OIDCClientInformation client = TokenTestUtils.createClient();
+
+		AccessToken accessToken = this.tokenService
+				.createAccessToken(new AccessTokenRequest(new Subject("user"), client, new Scope("openid")));
+
+		SignedJWT jwt = SignedJWT.parse(accessToken.getValue());
+		assertThat(jwt.getHeader().getAlgorithm()).isEqualTo(JWSAlgorithm.HS256);
+		assertThat(jwt.verify(new MACVerifier(client.getSecret().getValueBytes()))).isTrue();
+	}
+
+	@Test
+	public void createIdToken_Rs256_ShouldReturnSignedToken() throws Exception {
+		OIDCClientInformation client = TokenTestUtils.createClient();
+
+		JWT idToken = this.tokenService.createIdToken(createIdTokenRequest(client, null));
+
+		SignedJWT jwt = (SignedJWT) idToken;
+		assertThat(jwt.getHeader().getAlgorithm()).isEqualTo(JWSAlgorithm.RS256);
+		assertThat(jwt.verify(new RSASSAVerifier(this.rsaKey))).isTrue();
+		assertThat(jwt.getJWTClaimsSet().getAudience()).containsExactly(client.getID().getValue());
+	}
+
+	@Test
+	public void createIdToken_Es256_ShouldReturnSignedToken() throws Exception {
+		given(this.jwkSetLoader.load()).willReturn(new JWKSet(this.ecKey));
+		OIDCClientInformation client = TokenTestUtils.createClient();
+		client.getOIDCMetadata().setIDTokenJWSAlg(JWSAlgorithm.ES256);
+
+		JWT idToken = this.tokenService.createIdToken(createIdTokenRequest(client, null));
+
+		SignedJWT jwt = (SignedJWT) idToken;
+		assertThat(jwt.getHeader().getAlgorithm()).isEqualTo(JWSAlgorithm.ES256);
+		assertThat(jwt.verify(new ECDSAVerifier(this.ecKey))).isTrue();
+	}
+
+	@Test
+	public void createIdToken_WithAccessToken_ShouldIncludeAccessTokenHash() throws Exception {
+		OIDCClientInformation client = TokenTestUtils.createClient();
+		AccessToken accessToken = this.tokenService
+				.createAccessToken(new AccessTokenRequest(new Subject("user"), client, new Scope("openid")));
+
+		JWT idToken = this.tokenService.createIdToken(createIdTokenRequest(client, accessToken));
+
+		assertThat(idToken.getJWTClaimsSet().getStringClaim("at_hash")).isNotEmpty();
+	}
+
+	@Test
+	public void createTokens_WithoutSigningExecutor_ShouldIncludeAccessTokenHash() throws Exception {
+		OIDCClientInformation client = TokenTestUtils.createClient();
+
+		OIDCTokens tokens = this.tokenService.createTokens(
+				new AccessTokenRequest(new Subject("user"), client, new Scope("openid")),
+				createIdTokenRequest(client, null));
+
+		assertThat(tokens.getIDToken().getJWTClaimsSet().getStringClaim("at_hash")).isEqualTo(
+				AccessTokenHash.compute(tokens.getAccessToken(), JWSAlgorithm.RS256).getValue());
+	}
+
+	@Test
+	public void createTokens_WithSigningExecutor_ShouldSignOnExecutor() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		AtomicInteger signingCount = new AtomicInteger();
+		this.tokenService.setSigningExecutor(command -> {
+			signingCount.incrementAndGet();
+			executor.execute(command);
+		});
+		OIDCClientInformation client = TokenTestUtils.createClient();
+
+		try {
+			OIDCTokens tokens = this.tokenService.createTokens(
+					new AccessTokenRequest(new Subject("user"), client, new Scope("openid")),
+					createIdTokenRequest(client, null));
+
+			SignedJWT accessToken = SignedJWT.parse(tokens.getAccessToken().getValue());
+			SignedJWT idToken = (SignedJWT) tokens.getIDToken();
+			assertThat(signingCount.get()).isEqualTo(2);
+			assertThat(accessToken.verify(new RSASSAVerifier(this.rsaKey))).isTrue();
+			assertThat(idToken.verify(new RSASSAVerifier(this.rsaKey))).isTrue();
+			assertThat(idToken.getJWTClaimsSet().getStringClaim("at_hash")).isEqualTo(
+					AccessTokenHash.compute(tokens.getAccessToken(), JWSAlgorithm.RS256).getValue());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void createTokens_ConcurrentTokenSigningDisabled_ShouldSignOnExecutor() throws Exception {
+		AtomicInteger signingCount = new AtomicInteger();
+		this.tokenService.setSigningExecutor(command -> {
+			signingCount.incrementAndGet();
+			command.run();
+		});
+		this.tokenService.setConcurrentTokenSigning(false);
+		OIDCClientInformation client = TokenTestUtils.createClient();
+
+		OIDCTokens tokens = this.tokenService.createTokens(
+				new AccessTokenRequest(new Subject("user"), client, new Scope("openid")),
+				createIdTokenRequest(client, null));
+
+		SignedJWT idToken = (SignedJWT) tokens.getIDToken();
+		assertThat(signingCount.get()).isEqualTo(2);
+		assertThat(idToken.verify(new RSASSAVerifier(this.rsaKey))).isTrue();
+		assertThat(idToken.getJWTClaimsSet().getStringClaim("at_hash"))
+				.isEqualTo(AccessTokenHash.compute(tokens.getAccessToken(), JWSAlgorithm.RS256).getValue());
+	}
+
+	@Test
+	public void createAccessToken_SigningExecutorSaturated_ShouldThrowException() {
+		this.tokenService.setSigningExecutor(command -> {
+			throw new RejectedExecutionException();
+		});
+
+		this.thrown.expect(SigningRejectedException.class);
+
+		this.tokenService.createAccessToken(
+				new AccessTokenRequest(new Subject("user"), TokenTestUtils.createClient(), new Scope("openid")));
+	}
+
+	@Test
+	public void createTokens_SigningFailure_ShouldThrowException() {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		this.tokenService.setSigningExecutor(executor);
+		given(this.jwkSetLoader.load()).willReturn(new JWKSet());
+		OIDCClientInformation client = TokenTestUtils.createClient();
+
+		try {
+			this.thrown.expect(RuntimeException.class);
+			this.thrown.expectCause(instanceOf(KeyException.class));
+
+			this.tokenService.createTokens(new AccessTokenRequest(new Subject("user"), client, new Scope("openid")),
+					createIdTokenRequest(client, null));
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void createTokens_IdTokenRequestWithAccessToken_ShouldThrowException() {
+		OIDCClientInformation client = TokenTestUtils.createClient();
+
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("ID token request must not contain access token");
+
+		this.tokenService.createTokens(new AccessTokenRequest(new Subject("user"), client, new Scope("openid")),
+				createIdTokenRequest(client, new BearerAccessToken()));
+	}
+
+	@Test
+	public void rotateRefreshToken_Valid_ShouldRotateInStore() throws GeneralException {
+		RefreshToken refreshToken = new RefreshToken();
+		ClientID clientId = new ClientID();
+		Subject subject = new Subject("user");
+		Scope scope = new Scope("openid");
+		given(this.refreshTokenStore.rotate(eq(refreshToken), any(RefreshTokenContext.class)))
+				.willAnswer(invocation -> invocation.getArgument(1));
+		this.tokenService.setRefreshTokenLifetime(Duration.ofHours(1));
+
+		RefreshToken rotated = this.tokenService.rotateRefreshToken(refreshToken,
+				new RefreshTokenRequest(subject, clientId, scope));
+
+		ArgumentCaptor<RefreshTokenContext> context = ArgumentCaptor.forClass(RefreshTokenContext.class);
+		verify(this.refreshTokenStore).rotate(eq(refreshToken), context.capture());
+		assertThat(rotated).isNotEqualTo(refreshToken).isEqualTo(context.getValue().getRefreshToken());
+		assertThat(context.getValue().getClientId()).isEqualTo(clientId);
+		assertThat(context.getValue().getSubject()).isEqualTo(subject);
+		assertThat(context.getValue().getScope()).isEqualTo(scope);
+		assertThat(context.getValue().getExpiry()).isAfter(Instant.now().plus(Duration.ofMinutes(59)));
+	}
+
+	private static IdTokenRequest createIdTokenRequest(OIDCClientInformation client, AccessToken accessToken) {
+		return new IdTokenRequest(new Subject("user"), client, new Scope(OIDCScopeValue.OPENID), Instant.now(),
+				new ACR("1"), AMR.PWD, new SessionID("test"), null, accessToken, null);
+	}
 
 }
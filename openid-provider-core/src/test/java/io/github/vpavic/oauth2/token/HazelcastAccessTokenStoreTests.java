@@ -0,0 +1,109 @@
+package io.github.vpavic.oauth2.token;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link HazelcastAccessTokenStore}.
+ *
+ * @author Vedran Pavic
+ */
+public class HazelcastAccessTokenStoreTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+
+	private IMap accessTokensMap = mock(IMap.class);
+
+	private HazelcastAccessTokenStore accessTokenStore;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		given(this.hazelcastInstance.getMap(anyString())).willReturn(this.accessTokensMap);
+
+		this.accessTokenStore = new HazelcastAccessTokenStore(this.hazelcastInstance);
+		this.accessTokenStore.init();
+	}
+
+	@Test
+	public void construct_NullHazelcastInstance_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("hazelcastInstance must not be null");
+
+		new HazelcastAccessTokenStore(null);
+	}
+
+	@Test
+	public void setMapName_Empty_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("mapName must not be empty");
+
+		this.accessTokenStore.setMapName(" ");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void save_Valid_ShouldSetWithTtl() {
+		AccessTokenContext context = createContext(Instant.now().plusSeconds(600));
+
+		this.accessTokenStore.save(context);
+
+		verify(this.accessTokensMap).set(eq(context.getAccessToken().getValue()), eq(context), anyLong(),
+				eq(TimeUnit.SECONDS));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void load_Expired_ShouldReturnNull() {
+		AccessTokenContext context = createContext(Instant.now().minusSeconds(1));
+		given(this.accessTokensMap.get(context.getAccessToken().getValue())).willReturn(context);
+
+		assertThat(this.accessTokenStore.load(context.getAccessToken())).isNull();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void load_Valid_ShouldReturnContext() {
+		AccessTokenContext context = createContext(Instant.now().plusSeconds(600));
+		given(this.accessTokensMap.get(context.getAccessToken().getValue())).willReturn(context);
+
+		assertThat(this.accessTokenStore.load(context.getAccessToken())).isSameAs(context);
+	}
+
+	@Test
+	public void revoke_Valid_ShouldDelete() {
+		BearerAccessToken accessToken = new BearerAccessToken();
+
+		this.accessTokenStore.revoke(accessToken);
+
+		verify(this.accessTokensMap).delete(accessToken.getValue());
+	}
+
+	private static AccessTokenContext createContext(Instant expiry) {
+		return new AccessTokenContext(new BearerAccessToken(), new ClientID("test-client"), new Subject("user"),
+				new Scope("openid"), Instant.now(), expiry);
+	}
+
+}
@@ -0,0 +1,67 @@
+package io.github.vpavic.oauth2.token;
+
+import java.time.Instant;
+
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link InMemoryAccessTokenStore}.
+ *
+ * @author Vedran Pavic
+ */
+public class InMemoryAccessTokenStoreTests {
+
+	private InMemoryAccessTokenStore accessTokenStore = new InMemoryAccessTokenStore();
+
+	@Test
+	public void load_Saved_ShouldReturnContext() {
+		AccessTokenContext context = createContext(Instant.now().plusSeconds(60));
+		this.accessTokenStore.save(context);
+
+		assertThat(this.accessTokenStore.load(new BearerAccessToken(context.getAccessToken().getValue())))
+				.isSameAs(context);
+	}
+
+	@Test
+	public void load_Expired_ShouldReturnNull() {
+		AccessTokenContext context = createContext(Instant.now().minusSeconds(1));
+		this.accessTokenStore.save(context);
+
+		assertThat(this.accessTokenStore.load(context.getAccessToken())).isNull();
+	}
+
+	@Test
+	public void load_Revoked_ShouldReturnNull() {
+		AccessTokenContext context = createContext(Instant.now().plusSeconds(60));
+		this.accessTokenStore.save(context);
+		this.accessTokenStore.revoke(context.getAccessToken());
+
+		assertThat(this.accessTokenStore.load(context.getAccessToken())).isNull();
+	}
+
+	@Test
+	public void cleanExpiredTokens_ShouldRetainValid() {
+		AccessTokenContext valid = createContext(Instant.now().plusSeconds(60));
+		AccessTokenContext expired = createContext(Instant.now().minusSeconds(1));
+		this.accessTokenStore.save(valid);
+		this.accessTokenStore.save(expired);
+
+		this.accessTokenStore.cleanExpiredTokens();
+
+		assertThat(this.accessTokenStore.load(valid.getAccessToken())).isSameAs(valid);
+	}
+
+	private static AccessTokenContext createContext(Instant expiry) {
+		AccessToken accessToken = new BearerAccessToken();
+		return new AccessTokenContext(accessToken, new ClientID("test-client"), new Subject("user"),
+				new Scope("openid"), Instant.now(), expiry);
+	}
+
+}
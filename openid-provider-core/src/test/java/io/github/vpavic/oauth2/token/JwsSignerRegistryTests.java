@@ -0,0 +1,163 @@
+package io.github.vpavic.oauth2.token;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeyException;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.oauth2.sdk.auth.Secret;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import io.github.vpavic.oauth2.jwk.JwkSetLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link JwsSignerRegistry}.
+ *
+ * @author Vedran Pavic
+ */
+public class JwsSignerRegistryTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private JwkSetLoader jwkSetLoader = mock(JwkSetLoader.class);
+
+	private RSAKey rsaKey = TokenTestUtils.createRsaKey();
+
+	private ECKey ecKey = TokenTestUtils.createEcKey();
+
+	private JwsSignerRegistry signerRegistry;
+
+	@Before
+	public void setUp() {
+		given(this.jwkSetLoader.load()).willReturn(new JWKSet(this.rsaKey));
+		this.signerRegistry = new JwsSignerRegistry(this.jwkSetLoader);
+	}
+
+	@Test
+	public void construct_NullJwkSetLoader_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("jwkSetLoader must not be null");
+
+		new JwsSignerRegistry(null);
+	}
+
+	@Test
+	public void resolve_Rsa_ShouldReturnSigner() throws JOSEException {
+		JwsSignerRegistry.Signer signer = this.signerRegistry.resolve(JWSAlgorithm.RS256,
+				TokenTestUtils.createClient());
+
+		assertThat(signer.getHeader().getAlgorithm()).isEqualTo(JWSAlgorithm.RS256);
+		assertThat(signer.getHeader().getKeyID()).isEqualTo(this.rsaKey.getKeyID());
+		assertThat(signer.getSigner()).isInstanceOf(RSASSASigner.class);
+	}
+
+	@Test
+	public void resolve_Ec_ShouldReturnSigner() throws JOSEException {
+		given(this.jwkSetLoader.load()).willReturn(new JWKSet(this.ecKey));
+
+		JwsSignerRegistry.Signer signer = this.signerRegistry.resolve(JWSAlgorithm.ES256,
+				TokenTestUtils.createClient());
+
+		assertThat(signer.getHeader().getAlgorithm()).isEqualTo(JWSAlgorithm.ES256);
+		assertThat(signer.getHeader().getKeyID()).isEqualTo(this.ecKey.getKeyID());
+		assertThat(signer.getSigner()).isInstanceOf(ECDSASigner.class);
+	}
+
+	@Test
+	public void resolve_SameJwkSet_ShouldReuseSigner() throws JOSEException {
+		OIDCClientInformation client = TokenTestUtils.createClient();
+
+		assertThat(this.signerRegistry.resolve(JWSAlgorithm.RS256, client))
+				.isSameAs(this.signerRegistry.resolve(JWSAlgorithm.RS256, client));
+	}
+
+	@Test
+	public void resolve_ChangedJwkSet_ShouldRebuildSigner() throws JOSEException {
+		OIDCClientInformation client = TokenTestUtils.createClient();
+		JwsSignerRegistry.Signer signer = this.signerRegistry.resolve(JWSAlgorithm.RS256, client);
+		RSAKey rsaKey = TokenTestUtils.createRsaKey();
+		given(this.jwkSetLoader.load()).willReturn(new JWKSet(rsaKey));
+
+		JwsSignerRegistry.Signer rebuiltSigner = this.signerRegistry.resolve(JWSAlgorithm.RS256, client);
+
+		assertThat(rebuiltSigner).isNotSameAs(signer);
+		assertThat(rebuiltSigner.getHeader().getKeyID()).isEqualTo(rsaKey.getKeyID());
+	}
+
+	@Test
+	public void resolve_MissingKey_ShouldThrowException() throws JOSEException {
+		this.thrown.expect(KeyException.class);
+		this.thrown.expectMessage("No signing key found for algorithm: ES256");
+
+		this.signerRegistry.resolve(JWSAlgorithm.ES256, TokenTestUtils.createClient());
+	}
+
+	@Test
+	public void resolve_Hmac_ShouldReturnClientSigner() throws JOSEException {
+		OIDCClientInformation client = TokenTestUtils.createClient();
+
+		JwsSignerRegistry.Signer signer = this.signerRegistry.resolve(JWSAlgorithm.HS256, client);
+
+		assertThat(signer.getHeader().getAlgorithm()).isEqualTo(JWSAlgorithm.HS256);
+		assertThat(signer.getHeader().getKeyID()).isNull();
+		assertThat(signer.getSigner()).isInstanceOf(MACSigner.class);
+		assertThat(this.signerRegistry.resolve(JWSAlgorithm.HS256, client)).isSameAs(signer);
+	}
+
+	@Test
+	public void resolve_HmacChangedSecret_ShouldRebuildClientSigner() throws JOSEException {
+		ClientID clientId = new ClientID();
+		JwsSignerRegistry.Signer signer = this.signerRegistry.resolve(JWSAlgorithm.HS256,
+				TokenTestUtils.createClient(clientId, new Secret()));
+
+		assertThat(this.signerRegistry.resolve(JWSAlgorithm.HS256, TokenTestUtils.createClient(clientId, new Secret())))
+				.isNotSameAs(signer);
+	}
+
+	@Test
+	public void resolve_HmacEvicted_ShouldRebuildClientSigner() throws JOSEException {
+		OIDCClientInformation client = TokenTestUtils.createClient();
+		JwsSignerRegistry.Signer signer = this.signerRegistry.resolve(JWSAlgorithm.HS256, client);
+		this.signerRegistry.evict(client.getID());
+
+		assertThat(this.signerRegistry.resolve(JWSAlgorithm.HS256, client)).isNotSameAs(signer);
+	}
+
+	@Test
+	public void resolve_HmacMissingSecret_ShouldThrowException() throws JOSEException {
+		this.thrown.expect(KeyException.class);
+
+		this.signerRegistry.resolve(JWSAlgorithm.HS256, TokenTestUtils.createClient(new ClientID(), null));
+	}
+
+	@Test
+	public void resolve_NullAlgorithm_ShouldThrowException() throws JOSEException {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("algorithm must not be null");
+
+		this.signerRegistry.resolve(null, TokenTestUtils.createClient());
+	}
+
+	@Test
+	public void resolve_NullClient_ShouldThrowException() throws JOSEException {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("client must not be null");
+
+		this.signerRegistry.resolve(JWSAlgorithm.RS256, null);
+	}
+
+}
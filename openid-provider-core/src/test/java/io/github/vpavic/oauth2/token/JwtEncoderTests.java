@@ -0,0 +1,221 @@
+package io.github.vpavic.oauth2.token;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.assertions.jwt.JWTAssertionDetails;
+import com.nimbusds.oauth2.sdk.id.Audience;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.id.JWTID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.openid.connect.sdk.claims.UserInfo;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link JwtEncoder}.
+ *
+ * @author Vedran Pavic
+ */
+public class JwtEncoderTests {
+
+	private static final RSAKey rsaKey = TokenTestUtils.createRsaKey();
+
+	private static final ECKey ecKey = TokenTestUtils.createEcKey();
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private JwsSignerRegistry signerRegistry = new JwsSignerRegistry(() -> new JWKSet(Arrays.asList(rsaKey, ecKey)));
+
+	private OIDCClientInformation client = TokenTestUtils.createClient();
+
+	private JwtEncoder encoder;
+
+	@Before
+	public void setUp() {
+		this.encoder = new JwtEncoder();
+	}
+
+	@Test
+	public void encode_NullSigner_ShouldThrowException() throws Exception {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("signer must not be null");
+
+		this.encoder.encode(null, Collections.emptyMap());
+	}
+
+	@Test
+	public void encode_NullClaims_ShouldThrowException() throws Exception {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("claims must not be null");
+
+		this.encoder.encode(this.signerRegistry.resolve(JWSAlgorithm.RS256, this.client), null);
+	}
+
+	@Test
+	public void encode_Rs256_ShouldMatchNimbus() throws Exception {
+		assertEncodedMatchesNimbus(JWSAlgorithm.RS256, createClaims());
+	}
+
+	@Test
+	public void encode_Hs256_ShouldMatchNimbus() throws Exception {
+		assertEncodedMatchesNimbus(JWSAlgorithm.HS256, createClaims());
+	}
+
+	@Test
+	public void encode_Es256_ShouldMatchNimbusSigningInput() throws Exception {
+		JwsSignerRegistry.Signer signer = this.signerRegistry.resolve(JWSAlgorithm.ES256, this.client);
+		Map<String, Object> claims = createClaims();
+
+		String encoded = this.encoder.encode(signer, claims);
+
+		String expected = signWithNimbus(signer, claims);
+		assertThat(signingInput(encoded)).isEqualTo(signingInput(expected));
+		assertThat(SignedJWT.parse(encoded).verify(new ECDSAVerifier(ecKey))).isTrue();
+	}
+
+	@Test
+	public void encode_SpecialCharacters_ShouldMatchNimbus() throws Exception {
+		Map<String, Object> claims = createClaims();
+		claims.put("escaped", "quote \" backslash \\ slash / tab \t newline \n control \u0001 \u007f \u0085 \u2028");
+		claims.put("unicode", "\u017e\u00e9\u4e2d\uD83D\uDE00");
+		claims.put("unpaired", "high \uD83D low \uDE00 end \uD83D");
+		claims.put("key \"with\" quotes", "value");
+
+		assertEncodedMatchesNimbus(JWSAlgorithm.RS256, claims);
+	}
+
+	@Test
+	public void encode_ComplexValues_ShouldMatchNimbus() throws Exception {
+		Map<String, Object> address = new LinkedHashMap<>();
+		address.put("country", "HR");
+		address.put("locality", "Zagreb");
+		Map<String, Object> claims = createClaims();
+		claims.put("aud", Arrays.asList("http://example.com", "http://api.example.com"));
+		claims.put("address", address);
+		claims.put("roles", Arrays.asList("user", "admin"));
+		claims.put("verified", true);
+		claims.put("count", 42);
+		claims.put("scp", new Scope("openid", "profile"));
+		claims.put("cid", new ClientID("test-client"));
+		claims.put("removed", null);
+
+		assertEncodedMatchesNimbus(JWSAlgorithm.RS256, claims);
+	}
+
+	@Test
+	public void encode_ManyClaims_ShouldMatchNimbus() throws Exception {
+		Map<String, Object> claims = createClaims();
+		for (int i = 0; i < 100; i++) {
+			claims.put("claim_" + i, "value_" + i);
+		}
+
+		assertEncodedMatchesNimbus(JWSAlgorithm.RS256, claims);
+	}
+
+	@Test
+	public void encode_EmptyAudience_ShouldMatchNimbus() throws Exception {
+		Map<String, Object> claims = createClaims();
+		claims.put("aud", Collections.emptyList());
+
+		assertEncodedMatchesNimbus(JWSAlgorithm.RS256, claims);
+	}
+
+	@Test
+	public void encode_AccessTokenClaims_ShouldMatchJwtAssertionDetails() throws Exception {
+		JwsSignerRegistry.Signer signer = this.signerRegistry.resolve(JWSAlgorithm.RS256, this.client);
+		Issuer issuer = new Issuer("http://example.com");
+		List<Audience> audience = Audience.create("http://example.com", "http://api.example.com");
+		Date expirationTime = new Date(1514764800000L);
+		Date issueTime = new Date(1514764200000L);
+		JWTID jwtId = new JWTID();
+		UserInfo userInfo = new UserInfo(new Subject("user"));
+		userInfo.setName("John Doe");
+		userInfo.setEmailAddress("john.doe@example.com");
+		userInfo.setClaim("scp", new Scope("openid", "profile"));
+		userInfo.setClaim("cid", this.client.getID());
+
+		JWTAssertionDetails details = new JWTAssertionDetails(issuer, userInfo.getSubject(), audience,
+				expirationTime, issueTime, issueTime, jwtId, userInfo.toJSONObject());
+		SignedJWT expected = new SignedJWT(signer.getHeader(), details.toJWTClaimsSet());
+		expected.sign(signer.getSigner());
+
+		Map<String, Object> claims = new LinkedHashMap<>();
+		claims.put("iss", issuer.getValue());
+		claims.put("sub", userInfo.getSubject().getValue());
+		claims.put("aud", Audience.toStringList(audience));
+		claims.put("exp", expirationTime);
+		claims.put("nbf", issueTime);
+		claims.put("iat", issueTime);
+		claims.put("jti", jwtId.getValue());
+		claims.putAll(userInfo.toJSONObject());
+
+		assertThat(this.encoder.encode(signer, claims)).isEqualTo(expected.serialize());
+	}
+
+	@Test
+	public void encode_LargeClaimsAfterSmallClaims_ShouldMatchNimbus() throws Exception {
+		assertEncodedMatchesNimbus(JWSAlgorithm.RS256, createClaims());
+
+		Map<String, Object> claims = createClaims();
+		char[] chars = new char[10000];
+		Arrays.fill(chars, 'x');
+		claims.put("large", new String(chars));
+
+		assertEncodedMatchesNimbus(JWSAlgorithm.RS256, claims);
+	}
+
+	private void assertEncodedMatchesNimbus(JWSAlgorithm algorithm, Map<String, Object> claims) throws Exception {
+		JwsSignerRegistry.Signer signer = this.signerRegistry.resolve(algorithm, this.client);
+
+		assertThat(this.encoder.encode(signer, claims)).isEqualTo(signWithNimbus(signer, claims));
+	}
+
+	private static String signWithNimbus(JwsSignerRegistry.Signer signer, Map<String, Object> claims)
+			throws Exception {
+		JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+		for (Map.Entry<String, Object> claim : claims.entrySet()) {
+			builder.claim(claim.getKey(), claim.getValue());
+		}
+		SignedJWT jwt = new SignedJWT(signer.getHeader(), builder.build());
+		jwt.sign(signer.getSigner());
+		return jwt.serialize();
+	}
+
+	private static String signingInput(String jwt) {
+		return jwt.substring(0, jwt.lastIndexOf('.'));
+	}
+
+	private static Map<String, Object> createClaims() {
+		Map<String, Object> claims = new LinkedHashMap<>();
+		claims.put("iss", "http://example.com");
+		claims.put("sub", "user");
+		claims.put("aud", new ArrayList<>(Collections.singletonList("http://example.com")));
+		claims.put("exp", new Date(1514764800000L));
+		claims.put("nbf", new Date(1514764200000L));
+		claims.put("iat", new Date(1514764200000L));
+		claims.put("jti", "id");
+		return claims;
+	}
+
+}
@@ -0,0 +1,74 @@
+package io.github.vpavic.oauth2.token;
+
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.Scope;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * Tests for {@link ReferenceAccessTokenService}.
+ *
+ * @author Vedran Pavic
+ */
+public class ReferenceAccessTokenServiceTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private TokenService delegate = mock(TokenService.class);
+
+	private InMemoryAccessTokenStore accessTokenStore = new InMemoryAccessTokenStore();
+
+	private ReferenceAccessTokenService tokenService = new ReferenceAccessTokenService(this.delegate,
+			this.accessTokenStore);
+
+	@Test
+	public void construct_NullAccessTokenStore_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("accessTokenStore must not be null");
+
+		new ReferenceAccessTokenService(this.delegate, null);
+	}
+
+	@Test
+	public void createAccessToken_Valid_ShouldStoreContext() {
+		OIDCClientInformation client = TokenTestUtils.createClient();
+		Subject subject = new Subject("user");
+		Scope scope = new Scope("openid");
+
+		AccessToken accessToken = this.tokenService.createAccessToken(new AccessTokenRequest(subject, client, scope));
+
+		AccessTokenContext context = this.accessTokenStore.load(accessToken);
+		assertThat(context).isNotNull();
+		assertThat(context.getClientId()).isEqualTo(client.getID());
+		assertThat(context.getSubject()).isEqualTo(subject);
+		assertThat(context.getScope()).isEqualTo(scope);
+		assertThat(accessToken.getValue()).doesNotContain(".");
+		verifyZeroInteractions(this.delegate);
+	}
+
+	@Test
+	public void createRefreshToken_Valid_ShouldDelegate() {
+		this.tokenService.createRefreshToken(null);
+
+		verify(this.delegate).createRefreshToken(any());
+	}
+
+	@Test
+	public void rotateRefreshToken_Valid_ShouldDelegate() throws GeneralException {
+		this.tokenService.rotateRefreshToken(null, null);
+
+		verify(this.delegate).rotateRefreshToken(any(), any());
+	}
+
+}
@@ -0,0 +1,100 @@
+package io.github.vpavic.oauth2.token;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SigningExecutor}.
+ *
+ * @author Vedran Pavic
+ */
+public class SigningExecutorTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private SigningExecutor signingExecutor;
+
+	@After
+	public void tearDown() {
+		if (this.signingExecutor != null) {
+			this.signingExecutor.shutdown();
+		}
+	}
+
+	@Test
+	public void construct_ZeroPoolSize_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("poolSize must be greater than zero");
+
+		new SigningExecutor(0, 1);
+	}
+
+	@Test
+	public void construct_NegativeQueueCapacity_ShouldThrowException() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("queueCapacity must not be negative");
+
+		new SigningExecutor(1, -1);
+	}
+
+	@Test
+	public void execute_Valid_ShouldRecordSigningTime() throws Exception {
+		this.signingExecutor = new SigningExecutor(1, 1);
+		CountDownLatch latch = new CountDownLatch(1);
+
+		this.signingExecutor.execute(latch::countDown);
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (this.signingExecutor.getSigningCount() == 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(this.signingExecutor.getSigningCount()).isEqualTo(1);
+		assertThat(this.signingExecutor.getSigningTime()).isPositive();
+		assertThat(this.signingExecutor.getRejectedCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void execute_Saturated_ShouldRejectImmediately() throws Exception {
+		this.signingExecutor = new SigningExecutor(1, 1);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		this.signingExecutor.execute(() -> {
+			started.countDown();
+			awaitQuietly(release);
+		});
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		this.signingExecutor.execute(() -> awaitQuietly(release));
+		assertThat(this.signingExecutor.getQueueSize()).isEqualTo(1);
+
+		try {
+			this.thrown.expect(RejectedExecutionException.class);
+
+			this.signingExecutor.execute(() -> {
+			});
+		}
+		finally {
+			assertThat(this.signingExecutor.getRejectedCount()).isEqualTo(1);
+			release.countDown();
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+package io.github.vpavic.oauth2.token;
+
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.oauth2.sdk.auth.Secret;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientInformation;
+import com.nimbusds.openid.connect.sdk.rp.OIDCClientMetadata;
+
+/**
+ * Collection of utils for token related testing scenarios.
+ *
+ * @author Vedran Pavic
+ */
+final class TokenTestUtils {
+
+	private TokenTestUtils() {
+	}
+
+	static RSAKey createRsaKey() {
+		try {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+			generator.initialize(2048);
+			KeyPair keyPair = generator.generateKeyPair();
+
+			// @formatter:off
+			return new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+					.privateKey((RSAPrivateKey) keyPair.getPrivate())
+					.keyUse(KeyUse.SIGNATURE)
+					.keyID(UUID.randomUUID().toString())
+					.build();
+			// @formatter:on
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static ECKey createEcKey() {
+		try {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+			generator.initialize(new ECGenParameterSpec("secp256r1"));
+			KeyPair keyPair = generator.generateKeyPair();
+
+			// @formatter:off
+			return new ECKey.Builder(Curve.P_256, (ECPublicKey) keyPair.getPublic())
+					.privateKey((ECPrivateKey) keyPair.getPrivate())
+					.keyUse(KeyUse.SIGNATURE)
+					.keyID(UUID.randomUUID().toString())
+					.build();
+			// @formatter:on
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static OIDCClientInformation createClient() {
+		return createClient(new ClientID(), new Secret());
+	}
+
+	static OIDCClientInformation createClient(ClientID id, Secret secret) {
+		OIDCClientMetadata metadata = new OIDCClientMetadata();
+		metadata.setRedirectionURI(URI.create("http://example.com"));
+		metadata.setGrantTypes(Collections.emptySet());
+		metadata.applyDefaults();
+		return new OIDCClientInformation(id, new Date(), metadata, secret);
+	}
+
+}
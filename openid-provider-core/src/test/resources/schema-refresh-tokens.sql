@@ -1,8 +1,14 @@
 CREATE TABLE refresh_tokens (
-	token VARCHAR(43) PRIMARY KEY,
+	token_hash BINARY(32) PRIMARY KEY,
 	client_id VARCHAR(100) NOT NULL,
 	subject VARCHAR(30) NOT NULL,
 	scope VARCHAR(200) NOT NULL,
-	expiry BIGINT NOT NULL,
-	UNIQUE (client_id, subject)
+	expiry BIGINT NOT NULL
+);
+
+CREATE INDEX refresh_tokens_expiry_idx ON refresh_tokens (expiry);
+CREATE INDEX refresh_tokens_subject_idx ON refresh_tokens (subject);
+
+CREATE TABLE refresh_tokens_partitions (
+	week_start BIGINT PRIMARY KEY
 );
@@ -0,0 +1,126 @@
+package io.github.vpavic.oauth2.resource;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Claims of an access token validated by {@link AccessTokenValidator}.
+ *
+ * The claims are read directly from the parsed JWT payload, without converting them to intermediate objects. Scope
+ * checks iterate the {@code scp} claim in place.
+ *
+ * @author Vedran Pavic
+ */
+public final class AccessTokenClaims {
+
+	static final String CLAIM_ISSUER = "iss";
+
+	static final String CLAIM_SUBJECT = "sub";
+
+	static final String CLAIM_AUDIENCE = "aud";
+
+	static final String CLAIM_EXPIRATION_TIME = "exp";
+
+	static final String CLAIM_NOT_BEFORE = "nbf";
+
+	static final String CLAIM_SCOPE = "scp";
+
+	static final String CLAIM_CLIENT_ID = "cid";
+
+	private final Map<String, Object> claims;
+
+	AccessTokenClaims(Map<String, Object> claims) {
+		Objects.requireNonNull(claims, "claims must not be null");
+		this.claims = claims;
+	}
+
+	public String getIssuer() {
+		return getStringClaim(CLAIM_ISSUER);
+	}
+
+	public String getSubject() {
+		return getStringClaim(CLAIM_SUBJECT);
+	}
+
+	public String getClientId() {
+		return getStringClaim(CLAIM_CLIENT_ID);
+	}
+
+	public Instant getExpirationTime() {
+		Object value = this.claims.get(CLAIM_EXPIRATION_TIME);
+		return (value instanceof Number) ? Instant.ofEpochSecond(((Number) value).longValue()) : null;
+	}
+
+	/**
+	 * Get the scope values of the access token.
+	 * @return the scope values, or an empty list if the access token has no scope
+	 */
+	@SuppressWarnings("unchecked")
+	public List<String> getScope() {
+		Object value = this.claims.get(CLAIM_SCOPE);
+		return (value instanceof List) ? Collections.unmodifiableList((List<String>) value) : Collections.emptyList();
+	}
+
+	/**
+	 * Check whether the access token was issued with the given scope value.
+	 * @param scope the scope value
+	 * @return {@code true} if the access token has the given scope value
+	 */
+	public boolean hasScope(String scope) {
+		return containsValue(this.claims.get(CLAIM_SCOPE), scope);
+	}
+
+	/**
+	 * Check whether the access token was issued with all of the given scope values.
+	 * @param scopes the scope values
+	 * @return {@code true} if the access token has all of the given scope values
+	 */
+	public boolean hasScopes(String... scopes) {
+		Object value = this.claims.get(CLAIM_SCOPE);
+
+		for (String scope : scopes) {
+			if (!containsValue(value, scope)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public Object getClaim(String name) {
+		return this.claims.get(name);
+	}
+
+	public Map<String, Object> getClaims() {
+		return Collections.unmodifiableMap(this.claims);
+	}
+
+	private String getStringClaim(String name) {
+		Object value = this.claims.get(name);
+		return (value instanceof String) ? (String) value : null;
+	}
+
+	/**
+	 * Check whether the given single or multi valued claim contains the given value, without allocating an iterator.
+	 */
+	static boolean containsValue(Object claim, String value) {
+		if (claim instanceof String) {
+			return claim.equals(value);
+		}
+		else if (claim instanceof List) {
+			List<?> values = (List<?>) claim;
+
+			for (int i = 0; i < values.size(); i++) {
+				if (value.equals(values.get(i))) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+}
@@ -0,0 +1,196 @@
+package io.github.vpavic.oauth2.resource;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * Validates JWT access tokens issued by the OpenID Provider locally, using keys from {@link JwkSetCache}.
+ *
+ * Performs the same checks as the OpenID Provider does for its own protected resources: the token must be signed using
+ * one of the accepted JWS algorithms by a key identified by the {@code kid} header, and must have the expected issuer,
+ * audience and a valid expiration time. Optionally, the token is required to have certain {@code scp} scope values, and
+ * to be issued to one of the accepted clients identified by the {@code cid} claim. Claims are validated in place on the
+ * parsed JWT payload.
+ *
+ * @author Vedran Pavic
+ */
+public class AccessTokenValidator {
+
+	private final String issuer;
+
+	private final JwkSetCache jwkSetCache;
+
+	private String audience;
+
+	private Set<JWSAlgorithm> jwsAlgorithms = Collections.singleton(JWSAlgorithm.RS256);
+
+	private String[] requiredScopes = new String[0];
+
+	private String[] clientIds = new String[0];
+
+	private long clockSkew = 60;
+
+	public AccessTokenValidator(String issuer, JwkSetCache jwkSetCache) {
+		Objects.requireNonNull(issuer, "issuer must not be null");
+		Objects.requireNonNull(jwkSetCache, "jwkSetCache must not be null");
+		this.issuer = issuer;
+		this.jwkSetCache = jwkSetCache;
+		this.audience = issuer;
+	}
+
+	/**
+	 * Validate the given access token.
+	 * @param accessToken the serialized JWT access token
+	 * @return the claims of the access token
+	 * @throws InvalidAccessTokenException if the access token is not valid
+	 */
+	public AccessTokenClaims validate(String accessToken) throws InvalidAccessTokenException {
+		Objects.requireNonNull(accessToken, "accessToken must not be null");
+		SignedJWT jwt;
+
+		try {
+			jwt = SignedJWT.parse(accessToken);
+		}
+		catch (ParseException e) {
+			throw new InvalidAccessTokenException("Malformed access token", e);
+		}
+
+		verifySignature(jwt);
+
+		Map<String, Object> claims = jwt.getPayload().toJSONObject();
+
+		if (claims == null) {
+			throw new InvalidAccessTokenException("Malformed access token claims");
+		}
+
+		validateClaims(claims);
+
+		return new AccessTokenClaims(claims);
+	}
+
+	/**
+	 * Set the audience an access token must be issued for. Defaults to the issuer, which the OpenID Provider includes
+	 * in the audience of every access token.
+	 * @param audience the audience
+	 */
+	public void setAudience(String audience) {
+		Objects.requireNonNull(audience, "audience must not be null");
+		this.audience = audience;
+	}
+
+	public void setJwsAlgorithms(JWSAlgorithm... jwsAlgorithms) {
+		Objects.requireNonNull(jwsAlgorithms, "jwsAlgorithms must not be null");
+		if (jwsAlgorithms.length == 0) {
+			throw new IllegalArgumentException("jwsAlgorithms must not be empty");
+		}
+		this.jwsAlgorithms = new LinkedHashSet<>(Arrays.asList(jwsAlgorithms));
+	}
+
+	public void setRequiredScopes(String... requiredScopes) {
+		Objects.requireNonNull(requiredScopes, "requiredScopes must not be null");
+		this.requiredScopes = requiredScopes.clone();
+	}
+
+	/**
+	 * Set the clients whose access tokens are accepted. Access tokens of any client are accepted if not set.
+	 * @param clientIds the client IDs
+	 */
+	public void setClientIds(String... clientIds) {
+		Objects.requireNonNull(clientIds, "clientIds must not be null");
+		this.clientIds = clientIds.clone();
+	}
+
+	public void setClockSkew(Duration clockSkew) {
+		Objects.requireNonNull(clockSkew, "clockSkew must not be null");
+		if (clockSkew.isNegative()) {
+			throw new IllegalArgumentException("clockSkew must not be negative");
+		}
+		this.clockSkew = clockSkew.getSeconds();
+	}
+
+	private void verifySignature(SignedJWT jwt) throws InvalidAccessTokenException {
+		JWSHeader header = jwt.getHeader();
+
+		if (!this.jwsAlgorithms.contains(header.getAlgorithm())) {
+			throw new InvalidAccessTokenException("Unexpected JWS algorithm: " + header.getAlgorithm());
+		}
+		if (header.getKeyID() == null) {
+			throw new InvalidAccessTokenException("Missing key ID");
+		}
+
+		JwkSetCache.VerificationKey key = this.jwkSetCache.getKey(header.getKeyID());
+		JWSVerifier verifier = (key != null) ? key.getVerifier(header.getAlgorithm()) : null;
+
+		if (verifier == null) {
+			throw new InvalidAccessTokenException("Unknown key ID: " + header.getKeyID());
+		}
+
+		try {
+			if (!jwt.verify(verifier)) {
+				throw new InvalidAccessTokenException("Invalid signature");
+			}
+		}
+		catch (JOSEException e) {
+			throw new InvalidAccessTokenException("Invalid signature", e);
+		}
+	}
+
+	private void validateClaims(Map<String, Object> claims) throws InvalidAccessTokenException {
+		if (!this.issuer.equals(claims.get(AccessTokenClaims.CLAIM_ISSUER))) {
+			throw new InvalidAccessTokenException("Invalid issuer");
+		}
+		if (!AccessTokenClaims.containsValue(claims.get(AccessTokenClaims.CLAIM_AUDIENCE), this.audience)) {
+			throw new InvalidAccessTokenException("Invalid audience");
+		}
+
+		long now = System.currentTimeMillis() / 1000;
+		Object expirationTime = claims.get(AccessTokenClaims.CLAIM_EXPIRATION_TIME);
+
+		if (!(expirationTime instanceof Number) || now - this.clockSkew > ((Number) expirationTime).longValue()) {
+			throw new InvalidAccessTokenException("Access token has expired");
+		}
+
+		Object notBefore = claims.get(AccessTokenClaims.CLAIM_NOT_BEFORE);
+
+		if (notBefore instanceof Number && now + this.clockSkew < ((Number) notBefore).longValue()) {
+			throw new InvalidAccessTokenException("Access token is not yet valid");
+		}
+
+		Object scope = claims.get(AccessTokenClaims.CLAIM_SCOPE);
+
+		for (String requiredScope : this.requiredScopes) {
+			if (!AccessTokenClaims.containsValue(scope, requiredScope)) {
+				throw new InvalidAccessTokenException("Insufficient scope");
+			}
+		}
+
+		if (this.clientIds.length > 0) {
+			Object clientId = claims.get(AccessTokenClaims.CLAIM_CLIENT_ID);
+			boolean accepted = false;
+
+			for (String acceptedClientId : this.clientIds) {
+				if (acceptedClientId.equals(clientId)) {
+					accepted = true;
+					break;
+				}
+			}
+
+			if (!accepted) {
+				throw new InvalidAccessTokenException("Client not accepted");
+			}
+		}
+	}
+
+}
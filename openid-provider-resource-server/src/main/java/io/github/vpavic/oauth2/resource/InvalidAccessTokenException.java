@@ -0,0 +1,19 @@
+package io.github.vpavic.oauth2.resource;
+
+/**
+ * Thrown by {@link AccessTokenValidator} if an access token is malformed, not signed by the OpenID Provider, or its
+ * claims are not valid.
+ *
+ * @author Vedran Pavic
+ */
+public class InvalidAccessTokenException extends Exception {
+
+	public InvalidAccessTokenException(String message) {
+		super(message);
+	}
+
+	public InvalidAccessTokenException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
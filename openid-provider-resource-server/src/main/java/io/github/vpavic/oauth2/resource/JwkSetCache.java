@@ -0,0 +1,269 @@
+package io.github.vpavic.oauth2.resource;
+
+import java.io.IOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.ResourceRetriever;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache of the OpenID Provider's public signing keys, fetched from its JWK set URL and indexed by key ID along with
+ * prebuilt {@link JWSVerifier} instances.
+ *
+ * The JWK set is refreshed in the background on a fixed interval. A lookup of an unknown key ID triggers an immediate
+ * refetch, which is shared by all concurrent lookups and is rate limited by the {@link #setMinRefetchInterval minimum
+ * refetch interval}. A failed fetch keeps the previously fetched keys in use.
+ *
+ * @author Vedran Pavic
+ */
+public class JwkSetCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(JwkSetCache.class);
+
+	private static final BouncyCastleProvider jcaProvider = new BouncyCastleProvider();
+
+	private final URL jwkSetUrl;
+
+	private final AtomicReference<CompletableFuture<Keys>> refetch = new AtomicReference<>();
+
+	private ResourceRetriever resourceRetriever = new DefaultResourceRetriever(5000, 5000, 51200);
+
+	private Duration refreshInterval = Duration.ofMinutes(5);
+
+	private Duration minRefetchInterval = Duration.ofSeconds(10);
+
+	private volatile Keys keys = new Keys(Collections.emptyMap());
+
+	private volatile long lastFetchTime;
+
+	private ScheduledExecutorService refreshExecutor;
+
+	public JwkSetCache(URL jwkSetUrl) {
+		Objects.requireNonNull(jwkSetUrl, "jwkSetUrl must not be null");
+		this.jwkSetUrl = jwkSetUrl;
+	}
+
+	@PostConstruct
+	public void init() {
+		refresh();
+
+		this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "jwk-set-refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = this.refreshInterval.toMillis();
+		this.refreshExecutor.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (this.refreshExecutor != null) {
+			this.refreshExecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Get the verification key with the given key ID, refetching the JWK set if the key ID is unknown.
+	 * @param keyId the key ID
+	 * @return the verification key, or {@code null} if no key with the given key ID exists
+	 */
+	public VerificationKey getKey(String keyId) {
+		Objects.requireNonNull(keyId, "keyId must not be null");
+		Keys keys = this.keys;
+		VerificationKey key = keys.keysById.get(keyId);
+
+		if (key == null) {
+			key = refetch(keys).keysById.get(keyId);
+		}
+
+		return key;
+	}
+
+	/**
+	 * Fetch the JWK set. If the JWK set cannot be fetched or parsed the current keys are retained.
+	 * @return {@code true} if the JWK set was fetched
+	 */
+	public boolean refresh() {
+		try {
+			fetch();
+			return true;
+		}
+		catch (IOException | ParseException e) {
+			logger.warn("Failed to fetch JWK set from {}: {}", this.jwkSetUrl, e.getMessage());
+			return false;
+		}
+	}
+
+	public void setResourceRetriever(ResourceRetriever resourceRetriever) {
+		Objects.requireNonNull(resourceRetriever, "resourceRetriever must not be null");
+		this.resourceRetriever = resourceRetriever;
+	}
+
+	public void setRefreshInterval(Duration refreshInterval) {
+		Objects.requireNonNull(refreshInterval, "refreshInterval must not be null");
+		if (refreshInterval.isZero() || refreshInterval.isNegative()) {
+			throw new IllegalArgumentException("refreshInterval must be positive");
+		}
+		this.refreshInterval = refreshInterval;
+	}
+
+	/**
+	 * Set the minimum interval between two fetches of the JWK set triggered by unknown key IDs. Protects the OpenID
+	 * Provider from being flooded with JWK set requests by tokens carrying made up key IDs.
+	 * @param minRefetchInterval the minimum refetch interval
+	 */
+	public void setMinRefetchInterval(Duration minRefetchInterval) {
+		Objects.requireNonNull(minRefetchInterval, "minRefetchInterval must not be null");
+		if (minRefetchInterval.isNegative()) {
+			throw new IllegalArgumentException("minRefetchInterval must not be negative");
+		}
+		this.minRefetchInterval = minRefetchInterval;
+	}
+
+	private Keys refetch(Keys current) {
+		if (this.keys != current) {
+			return this.keys;
+		}
+
+		CompletableFuture<Keys> inFlight = this.refetch.get();
+
+		if (inFlight != null) {
+			return inFlight.join();
+		}
+
+		long lastFetchTime = this.lastFetchTime;
+
+		if (lastFetchTime != 0 && System.nanoTime() - lastFetchTime < this.minRefetchInterval.toNanos()) {
+			return current;
+		}
+
+		CompletableFuture<Keys> future = new CompletableFuture<>();
+
+		if (!this.refetch.compareAndSet(null, future)) {
+			inFlight = this.refetch.get();
+			return (inFlight != null) ? inFlight.join() : this.keys;
+		}
+
+		try {
+			refresh();
+		}
+		finally {
+			this.refetch.set(null);
+			future.complete(this.keys);
+		}
+
+		return future.join();
+	}
+
+	private synchronized void fetch() throws IOException, ParseException {
+		this.lastFetchTime = System.nanoTime();
+		JWKSet jwkSet = JWKSet.parse(this.resourceRetriever.retrieveResource(this.jwkSetUrl).getContent());
+		this.keys = new Keys(createKeys(jwkSet));
+		logger.debug("Fetched JWK set from {}", this.jwkSetUrl);
+	}
+
+	private static Map<String, VerificationKey> createKeys(JWKSet jwkSet) {
+		Map<String, VerificationKey> keys = new HashMap<>();
+
+		for (JWK jwk : jwkSet.getKeys()) {
+			if (jwk.getKeyID() == null || (jwk.getKeyUse() != null && jwk.getKeyUse() != KeyUse.SIGNATURE)) {
+				continue;
+			}
+
+			try {
+				if (jwk instanceof RSAKey) {
+					RSASSAVerifier verifier = new RSASSAVerifier((RSAKey) jwk);
+					// default JCA providers on Java 8 lack RSASSA-PSS, but are faster than Bouncy Castle at RSA
+					RSASSAVerifier pssVerifier = new RSASSAVerifier((RSAKey) jwk);
+					pssVerifier.getJCAContext().setProvider(jcaProvider);
+					keys.put(jwk.getKeyID(), new VerificationKey(jwk, verifier, pssVerifier));
+				}
+				else if (jwk instanceof ECKey) {
+					ECDSAVerifier verifier = new ECDSAVerifier((ECKey) jwk);
+					verifier.getJCAContext().setProvider(jcaProvider);
+					keys.put(jwk.getKeyID(), new VerificationKey(jwk, verifier, null));
+				}
+			}
+			catch (JOSEException e) {
+				logger.warn("Ignoring unusable key {}: {}", jwk.getKeyID(), e.getMessage());
+			}
+		}
+
+		return keys;
+	}
+
+	/**
+	 * A public signing key of the OpenID Provider along with the prebuilt verifiers.
+	 */
+	public static final class VerificationKey {
+
+		private final JWK jwk;
+
+		private final JWSVerifier verifier;
+
+		private final JWSVerifier pssVerifier;
+
+		private VerificationKey(JWK jwk, JWSVerifier verifier, JWSVerifier pssVerifier) {
+			this.jwk = jwk;
+			this.verifier = verifier;
+			this.pssVerifier = pssVerifier;
+		}
+
+		public JWK getJwk() {
+			return this.jwk;
+		}
+
+		/**
+		 * Get the verifier for the given algorithm.
+		 * @param algorithm the JWS algorithm
+		 * @return the verifier, or {@code null} if the key cannot be used with the given algorithm
+		 */
+		public JWSVerifier getVerifier(JWSAlgorithm algorithm) {
+			if (JWSAlgorithm.PS256.equals(algorithm) || JWSAlgorithm.PS384.equals(algorithm)
+					|| JWSAlgorithm.PS512.equals(algorithm)) {
+				return this.pssVerifier;
+			}
+			return this.verifier.supportedJWSAlgorithms().contains(algorithm) ? this.verifier : null;
+		}
+
+	}
+
+	private static final class Keys {
+
+		private final Map<String, VerificationKey> keysById;
+
+		private Keys(Map<String, VerificationKey> keysById) {
+			this.keysById = keysById;
+		}
+
+	}
+
+}
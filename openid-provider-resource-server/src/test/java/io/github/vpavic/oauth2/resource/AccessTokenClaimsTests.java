@@ -0,0 +1,53 @@
+package io.github.vpavic.oauth2.resource;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AccessTokenClaims}.
+ *
+ * @author Vedran Pavic
+ */
+public class AccessTokenClaimsTests {
+
+	@Test
+	public void hasScopes_AllPresent_ShouldReturnTrue() {
+		AccessTokenClaims claims = new AccessTokenClaims(createClaims());
+
+		assertThat(claims.hasScopes("openid", "api")).isTrue();
+		assertThat(claims.hasScopes("openid", "admin")).isFalse();
+	}
+
+	@Test
+	public void getScope_NoScope_ShouldReturnEmptyList() {
+		Map<String, Object> map = createClaims();
+		map.remove("scp");
+		AccessTokenClaims claims = new AccessTokenClaims(map);
+
+		assertThat(claims.getScope()).isEmpty();
+		assertThat(claims.hasScope("openid")).isFalse();
+	}
+
+	@Test
+	public void getExpirationTime_ShouldReturnInstant() {
+		AccessTokenClaims claims = new AccessTokenClaims(createClaims());
+
+		assertThat(claims.getExpirationTime()).isEqualTo(Instant.ofEpochSecond(1514764800L));
+	}
+
+	private static Map<String, Object> createClaims() {
+		Map<String, Object> claims = new HashMap<>();
+		claims.put("sub", "user");
+		claims.put("exp", 1514764800L);
+		claims.put("scp", Arrays.asList("openid", "api"));
+		claims.put("cid", "test-client");
+		return claims;
+	}
+
+}
@@ -0,0 +1,165 @@
+package io.github.vpavic.oauth2.resource;
+
+import java.net.URL;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AccessTokenValidator}.
+ *
+ * @author Vedran Pavic
+ */
+public class AccessTokenValidatorTests {
+
+	private static final String issuer = "http://example.com";
+
+	private static final RSAKey rsaKey = JwkSetCacheTests.createRsaKey("key-1");
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private AccessTokenValidator validator;
+
+	@Before
+	public void setUp() throws Exception {
+		JwkSetCache jwkSetCache = new JwkSetCache(new URL("http://example.com/oauth2/keys"));
+		jwkSetCache.setResourceRetriever(
+				url -> new Resource(new JWKSet(rsaKey).toPublicJWKSet().toJSONObject().toJSONString(), JWKSet.MIME_TYPE));
+		jwkSetCache.refresh();
+		this.validator = new AccessTokenValidator(issuer, jwkSetCache);
+	}
+
+	@Test
+	public void validate_Valid_ShouldReturnClaims() throws Exception {
+		AccessTokenClaims claims = this.validator.validate(createToken(rsaKey, claimsBuilder().build()));
+
+		assertThat(claims.getSubject()).isEqualTo("user");
+		assertThat(claims.getClientId()).isEqualTo("test-client");
+		assertThat(claims.getScope()).containsExactly("openid", "api");
+		assertThat(claims.hasScope("api")).isTrue();
+	}
+
+	@Test
+	public void validate_Malformed_ShouldThrowException() throws Exception {
+		this.thrown.expect(InvalidAccessTokenException.class);
+		this.thrown.expectMessage("Malformed access token");
+
+		this.validator.validate("malformed");
+	}
+
+	@Test
+	public void validate_UnknownKeyId_ShouldThrowException() throws Exception {
+		this.thrown.expect(InvalidAccessTokenException.class);
+		this.thrown.expectMessage("Unknown key ID: key-2");
+
+		this.validator.validate(createToken(JwkSetCacheTests.createRsaKey("key-2"), claimsBuilder().build()));
+	}
+
+	@Test
+	public void validate_InvalidSignature_ShouldThrowException() throws Exception {
+		this.thrown.expect(InvalidAccessTokenException.class);
+		this.thrown.expectMessage("Invalid signature");
+
+		this.validator.validate(createToken(JwkSetCacheTests.createRsaKey("key-1"), claimsBuilder().build()));
+	}
+
+	@Test
+	public void validate_UnexpectedAlgorithm_ShouldThrowException() throws Exception {
+		SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.HS256).keyID("key-1").build(),
+				claimsBuilder().build());
+		jwt.sign(new MACSigner(new byte[32]));
+
+		this.thrown.expect(InvalidAccessTokenException.class);
+		this.thrown.expectMessage("Unexpected JWS algorithm: HS256");
+
+		this.validator.validate(jwt.serialize());
+	}
+
+	@Test
+	public void validate_InvalidIssuer_ShouldThrowException() throws Exception {
+		this.thrown.expect(InvalidAccessTokenException.class);
+		this.thrown.expectMessage("Invalid issuer");
+
+		this.validator.validate(createToken(rsaKey, claimsBuilder().issuer("http://other.example.com").build()));
+	}
+
+	@Test
+	public void validate_InvalidAudience_ShouldThrowException() throws Exception {
+		this.validator.setAudience("http://api.example.com");
+
+		this.thrown.expect(InvalidAccessTokenException.class);
+		this.thrown.expectMessage("Invalid audience");
+
+		this.validator.validate(createToken(rsaKey, claimsBuilder().build()));
+	}
+
+	@Test
+	public void validate_Expired_ShouldThrowException() throws Exception {
+		this.thrown.expect(InvalidAccessTokenException.class);
+		this.thrown.expectMessage("Access token has expired");
+
+		this.validator.validate(createToken(rsaKey,
+				claimsBuilder().expirationTime(Date.from(Instant.now().minusSeconds(120))).build()));
+	}
+
+	@Test
+	public void validate_InsufficientScope_ShouldThrowException() throws Exception {
+		this.validator.setRequiredScopes("api", "admin");
+
+		this.thrown.expect(InvalidAccessTokenException.class);
+		this.thrown.expectMessage("Insufficient scope");
+
+		this.validator.validate(createToken(rsaKey, claimsBuilder().build()));
+	}
+
+	@Test
+	public void validate_ClientNotAccepted_ShouldThrowException() throws Exception {
+		this.validator.setClientIds("other-client");
+
+		this.thrown.expect(InvalidAccessTokenException.class);
+		this.thrown.expectMessage("Client not accepted");
+
+		this.validator.validate(createToken(rsaKey, claimsBuilder().build()));
+	}
+
+	private static String createToken(RSAKey rsaKey, JWTClaimsSet claimsSet) throws Exception {
+		SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(),
+				claimsSet);
+		jwt.sign(new RSASSASigner(rsaKey));
+		return jwt.serialize();
+	}
+
+	private static JWTClaimsSet.Builder claimsBuilder() {
+		Instant now = Instant.now();
+
+		// @formatter:off
+		return new JWTClaimsSet.Builder()
+				.issuer(issuer)
+				.subject("user")
+				.audience(Arrays.asList(issuer, "http://resource.example.com"))
+				.expirationTime(Date.from(now.plusSeconds(60)))
+				.notBeforeTime(Date.from(now))
+				.issueTime(Date.from(now))
+				.claim("scp", Arrays.asList("openid", "api"))
+				.claim("cid", "test-client");
+		// @formatter:on
+	}
+
+}
@@ -0,0 +1,176 @@
+package io.github.vpavic.oauth2.resource;
+
+import java.io.IOException;
+import java.net.URL;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Resource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link JwkSetCache}.
+ *
+ * @author Vedran Pavic
+ */
+public class JwkSetCacheTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private AtomicReference<JWKSet> jwkSet = new AtomicReference<>(new JWKSet(createRsaKey("key-1")));
+
+	private AtomicInteger fetchCount = new AtomicInteger();
+
+	private JwkSetCache jwkSetCache;
+
+	@Before
+	public void setUp() throws Exception {
+		this.jwkSetCache = new JwkSetCache(new URL("http://example.com/oauth2/keys"));
+		this.jwkSetCache.setResourceRetriever(url -> {
+			this.fetchCount.incrementAndGet();
+			return new Resource(this.jwkSet.get().toJSONObject().toJSONString(), JWKSet.MIME_TYPE);
+		});
+	}
+
+	@Test
+	public void construct_NullJwkSetUrl_ShouldThrowException() {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("jwkSetUrl must not be null");
+
+		new JwkSetCache(null);
+	}
+
+	@Test
+	public void getKey_KnownKeyId_ShouldReturnKey() {
+		this.jwkSetCache.refresh();
+
+		JwkSetCache.VerificationKey key = this.jwkSetCache.getKey("key-1");
+
+		assertThat(key).isNotNull();
+		assertThat(key.getVerifier(JWSAlgorithm.RS256)).isNotNull();
+		assertThat(key.getVerifier(JWSAlgorithm.ES256)).isNull();
+		assertThat(this.fetchCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void getKey_RotatedKey_ShouldRefetch() {
+		this.jwkSetCache.setMinRefetchInterval(Duration.ZERO);
+		this.jwkSetCache.refresh();
+		this.jwkSet.set(new JWKSet(createRsaKey("key-2")));
+
+		assertThat(this.jwkSetCache.getKey("key-2")).isNotNull();
+		assertThat(this.jwkSetCache.getKey("key-1")).isNull();
+		assertThat(this.fetchCount.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void getKey_UnknownKeyIdWithinMinRefetchInterval_ShouldNotRefetch() {
+		this.jwkSetCache.refresh();
+
+		assertThat(this.jwkSetCache.getKey("unknown")).isNull();
+		assertThat(this.jwkSetCache.getKey("unknown")).isNull();
+		assertThat(this.fetchCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void getKey_ConcurrentUnknownKeyId_ShouldRefetchOnce() throws Exception {
+		CountDownLatch fetchStarted = new CountDownLatch(1);
+		CountDownLatch fetchReleased = new CountDownLatch(1);
+		this.jwkSetCache.setResourceRetriever(url -> {
+			this.fetchCount.incrementAndGet();
+			fetchStarted.countDown();
+			try {
+				fetchReleased.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			return new Resource(this.jwkSet.get().toJSONObject().toJSONString(), JWKSet.MIME_TYPE);
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			List<Future<JwkSetCache.VerificationKey>> keys = new ArrayList<>();
+			keys.add(executor.submit(() -> this.jwkSetCache.getKey("key-1")));
+			fetchStarted.await(5, TimeUnit.SECONDS);
+			for (int i = 0; i < 7; i++) {
+				keys.add(executor.submit(() -> this.jwkSetCache.getKey("key-1")));
+			}
+			fetchReleased.countDown();
+
+			for (Future<JwkSetCache.VerificationKey> key : keys) {
+				assertThat(key.get(5, TimeUnit.SECONDS)).isNotNull();
+			}
+			assertThat(this.fetchCount.get()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void refresh_FetchFailure_ShouldRetainKeys() {
+		this.jwkSetCache.refresh();
+		this.jwkSetCache.setResourceRetriever(url -> {
+			throw new IOException("Connection refused");
+		});
+
+		assertThat(this.jwkSetCache.refresh()).isFalse();
+		assertThat(this.jwkSetCache.getKey("key-1")).isNotNull();
+	}
+
+	@Test
+	public void init_ShouldFetchKeys() {
+		this.jwkSetCache.init();
+
+		try {
+			assertThat(this.jwkSetCache.getKey("key-1")).isNotNull();
+			assertThat(this.fetchCount.get()).isEqualTo(1);
+		}
+		finally {
+			this.jwkSetCache.shutdown();
+		}
+	}
+
+	static RSAKey createRsaKey(String keyId) {
+		try {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+			generator.initialize(2048);
+			KeyPair keyPair = generator.generateKeyPair();
+
+			// @formatter:off
+			return new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+					.privateKey(keyPair.getPrivate())
+					.keyUse(KeyUse.SIGNATURE)
+					.keyID(keyId)
+					.build();
+			// @formatter:on
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package db.migration.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.flywaydb.core.api.migration.jdbc.JdbcMigration;
+
+public class V0_2__Hash_refresh_tokens implements JdbcMigration {
+
+	private static final int BATCH_SIZE = 1000;
+
+	@Override
+	public void migrate(Connection connection) throws Exception {
+		String productName = connection.getMetaData().getDatabaseProductName();
+		String tokenHashType = "PostgreSQL".equals(productName) ? "BYTEA" : "BINARY(32)";
+
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE refresh_tokens_hashed (token_hash " + tokenHashType
+					+ " PRIMARY KEY, client_id VARCHAR(100) NOT NULL, subject VARCHAR(30) NOT NULL, "
+					+ "scope VARCHAR(200) NOT NULL, expiry BIGINT NOT NULL)");
+		}
+
+		MessageDigest md = MessageDigest.getInstance("SHA-256");
+
+		try (Statement select = connection.createStatement();
+				ResultSet rs = select
+						.executeQuery("SELECT token, client_id, subject, scope, expiry FROM refresh_tokens");
+				PreparedStatement insert = connection.prepareStatement("INSERT INTO refresh_tokens_hashed "
+						+ "(token_hash, client_id, subject, scope, expiry) VALUES (?, ?, ?, ?, ?)")) {
+			int batched = 0;
+			while (rs.next()) {
+				insert.setBytes(1, md.digest(rs.getString("token").getBytes(StandardCharsets.US_ASCII)));
+				insert.setString(2, rs.getString("client_id"));
+				insert.setString(3, rs.getString("subject"));
+				insert.setString(4, rs.getString("scope"));
+				insert.setLong(5, rs.getLong("expiry"));
+				insert.addBatch();
+				if (++batched == BATCH_SIZE) {
+					insert.executeBatch();
+					batched = 0;
+				}
+			}
+			if (batched > 0) {
+				insert.executeBatch();
+			}
+		}
+
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE refresh_tokens");
+			statement.execute("ALTER TABLE refresh_tokens_hashed RENAME TO refresh_tokens");
+		}
+	}
+
+}
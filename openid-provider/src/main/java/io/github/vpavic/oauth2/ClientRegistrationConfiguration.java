@@ -1,16 +1,22 @@
 package io.github.vpavic.oauth2;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import io.github.vpavic.oauth2.client.ClientChangeListener;
 import io.github.vpavic.oauth2.client.ClientRepository;
 import io.github.vpavic.oauth2.client.ClientService;
 import io.github.vpavic.oauth2.client.DefaultClientService;
 import io.github.vpavic.oauth2.config.ClientRegistrationSecurityConfiguration;
 import io.github.vpavic.oauth2.endpoint.ClientRegistrationEndpoint;
+import io.github.vpavic.oauth2.grant.client.ClientCredentialsTokenCache;
+import io.github.vpavic.oauth2.token.JwsSignerRegistry;
 
 @Configuration
 @Import(ClientRegistrationSecurityConfiguration.class)
@@ -20,10 +26,17 @@ public class ClientRegistrationConfiguration {
 
 	private final ClientRepository clientRepository;
 
+	private final ClientCredentialsTokenCache tokenCache;
+
+	private final JwsSignerRegistry signerRegistry;
+
 	public ClientRegistrationConfiguration(OpenIdProviderProperties properties,
-			ObjectProvider<ClientRepository> clientRepository) {
+			ObjectProvider<ClientRepository> clientRepository, ObjectProvider<ClientCredentialsTokenCache> tokenCache,
+			ObjectProvider<JwsSignerRegistry> signerRegistry) {
 		this.properties = properties;
 		this.clientRepository = clientRepository.getObject();
+		this.tokenCache = tokenCache.getIfAvailable();
+		this.signerRegistry = signerRegistry.getIfAvailable();
 	}
 
 	@Bean
@@ -31,6 +44,7 @@ public class ClientRegistrationConfiguration {
 		DefaultClientService clientService = new DefaultClientService(this.clientRepository, registrationUriTemplate());
 		clientService.setRefreshSecretOnUpdate(this.properties.getRegistration().isUpdateSecret());
 		clientService.setRefreshAccessTokenOnUpdate(this.properties.getRegistration().isUpdateAccessToken());
+		clientService.setChangeListeners(changeListeners());
 		return clientService;
 	}
 
@@ -42,6 +56,17 @@ public class ClientRegistrationConfiguration {
 		return endpoint;
 	}
 
+	private List<ClientChangeListener> changeListeners() {
+		List<ClientChangeListener> changeListeners = new ArrayList<>();
+		if (this.signerRegistry != null) {
+			changeListeners.add(this.signerRegistry::evict);
+		}
+		if (this.tokenCache != null) {
+			changeListeners.add(this.tokenCache::evict);
+		}
+		return changeListeners;
+	}
+
 	private String registrationUriTemplate() {
 		// @formatter:off
 		return UriComponentsBuilder.fromHttpUrl(this.properties.getIssuer().getValue())
@@ -9,21 +9,29 @@ import com.nimbusds.oauth2.sdk.ClientCredentialsGrant;
 import com.nimbusds.oauth2.sdk.RefreshTokenGrant;
 import com.nimbusds.oauth2.sdk.ResourceOwnerPasswordCredentialsGrant;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
+import io.github.vpavic.oauth2.authentication.AccessTokenClaimsResolver;
+import io.github.vpavic.oauth2.authentication.BearerTokenAuthenticationResolver;
 import io.github.vpavic.oauth2.authentication.JwtBearerAccessTokenAuthenticationResolver;
+import io.github.vpavic.oauth2.authentication.ReferenceAccessTokenAuthenticationResolver;
+import io.github.vpavic.oauth2.authentication.VerifiedAccessTokenCache;
 import io.github.vpavic.oauth2.claim.ClaimSource;
 import io.github.vpavic.oauth2.client.ClientRepository;
 import io.github.vpavic.oauth2.config.TokenSecurityConfiguration;
 import io.github.vpavic.oauth2.config.UserInfoSecurityConfiguration;
 import io.github.vpavic.oauth2.endpoint.AuthorizationEndpoint;
 import io.github.vpavic.oauth2.endpoint.TokenEndpoint;
+import io.github.vpavic.oauth2.endpoint.TokenIntrospectionEndpoint;
 import io.github.vpavic.oauth2.endpoint.TokenRevocationEndpoint;
 import io.github.vpavic.oauth2.endpoint.UserInfoEndpoint;
 import io.github.vpavic.oauth2.grant.GrantHandler;
 import io.github.vpavic.oauth2.grant.client.ClientCredentialsGrantHandler;
+import io.github.vpavic.oauth2.grant.client.ClientCredentialsTokenCache;
 import io.github.vpavic.oauth2.grant.code.AuthorizationCodeGrantHandler;
 import io.github.vpavic.oauth2.grant.code.AuthorizationCodeService;
 import io.github.vpavic.oauth2.grant.password.PasswordAuthenticationHandler;
@@ -32,7 +40,11 @@ import io.github.vpavic.oauth2.grant.refresh.RefreshTokenGrantHandler;
 import io.github.vpavic.oauth2.grant.refresh.RefreshTokenStore;
 import io.github.vpavic.oauth2.jwk.JwkSetLoader;
 import io.github.vpavic.oauth2.scope.ScopeResolver;
+import io.github.vpavic.oauth2.token.AccessTokenStore;
 import io.github.vpavic.oauth2.token.DefaultTokenService;
+import io.github.vpavic.oauth2.token.JwsSignerRegistry;
+import io.github.vpavic.oauth2.token.ReferenceAccessTokenService;
+import io.github.vpavic.oauth2.token.SigningExecutor;
 import io.github.vpavic.oauth2.token.TokenService;
 
 @Configuration
@@ -49,6 +61,8 @@ public class CoreConfiguration {
 
 	private final RefreshTokenStore refreshTokenStore;
 
+	private final AccessTokenStore accessTokenStore;
+
 	private final ClaimSource claimSource;
 
 	private final ScopeResolver scopeResolver;
@@ -58,22 +72,28 @@ public class CoreConfiguration {
 	public CoreConfiguration(OpenIdProviderProperties properties, ObjectProvider<ClientRepository> clientRepository,
 			ObjectProvider<JwkSetLoader> jwkSetLoader,
 			ObjectProvider<AuthorizationCodeService> authorizationCodeService,
-			ObjectProvider<RefreshTokenStore> refreshTokenStore, ObjectProvider<ClaimSource> claimSource,
-			ObjectProvider<ScopeResolver> scopeResolver,
+			ObjectProvider<RefreshTokenStore> refreshTokenStore, ObjectProvider<AccessTokenStore> accessTokenStore,
+			ObjectProvider<ClaimSource> claimSource, ObjectProvider<ScopeResolver> scopeResolver,
 			ObjectProvider<PasswordAuthenticationHandler> passwordAuthenticationHandler) {
 		this.properties = properties;
 		this.clientRepository = clientRepository.getObject();
 		this.jwkSetLoader = jwkSetLoader.getObject();
 		this.authorizationCodeService = authorizationCodeService.getObject();
 		this.refreshTokenStore = refreshTokenStore.getObject();
+		this.accessTokenStore = accessTokenStore.getIfAvailable();
 		this.claimSource = claimSource.getObject();
 		this.scopeResolver = scopeResolver.getObject();
 		this.passwordAuthenticationHandler = passwordAuthenticationHandler.getObject();
 	}
 
+	@Bean
+	public JwsSignerRegistry jwsSignerRegistry() {
+		return new JwsSignerRegistry(this.jwkSetLoader);
+	}
+
 	@Bean
 	public TokenService tokenService() {
-		DefaultTokenService tokenService = new DefaultTokenService(this.properties.getIssuer(), this.jwkSetLoader,
+		DefaultTokenService tokenService = new DefaultTokenService(this.properties.getIssuer(), jwsSignerRegistry(),
 				this.claimSource, this.refreshTokenStore);
 		tokenService.setResourceScopes(this.properties.getAuthorization().getResourceScopes());
 		tokenService.setAccessTokenLifetime(Duration.ofSeconds(this.properties.getAccessToken().getLifetime()));
@@ -83,9 +103,36 @@ public class CoreConfiguration {
 		tokenService.setIdTokenLifetime(Duration.ofSeconds(this.properties.getIdToken().getLifetime()));
 		tokenService.setScopeClaims(this.properties.getClaim().getScopeClaims());
 		tokenService.setFrontChannelLogoutEnabled(this.properties.getFrontChannelLogout().isEnabled());
+		if (this.properties.getSigning().isPooled()) {
+			tokenService.setSigningExecutor(signingExecutor());
+			tokenService.setConcurrentTokenSigning(this.properties.getSigning().isConcurrentTokens());
+		}
+		if (isReferenceAccessTokenFormat()) {
+			ReferenceAccessTokenService referenceTokenService = new ReferenceAccessTokenService(tokenService,
+					this.accessTokenStore);
+			referenceTokenService
+					.setAccessTokenLifetime(Duration.ofSeconds(this.properties.getAccessToken().getLifetime()));
+			return referenceTokenService;
+		}
 		return tokenService;
 	}
 
+	@Bean
+	@ConditionalOnProperty(prefix = "op.signing", name = "pooled", havingValue = "true")
+	public SigningExecutor signingExecutor() {
+		return new SigningExecutor(this.properties.getSigning().getPoolSize(),
+				this.properties.getSigning().getQueueCapacity());
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "op.client-credentials", name = "reuse-tokens", havingValue = "true")
+	public ClientCredentialsTokenCache clientCredentialsTokenCache() {
+		ClientCredentialsTokenCache tokenCache = new ClientCredentialsTokenCache();
+		tokenCache.setMinRemainingLifetime(this.properties.getClientCredentials().getMinRemainingLifetime());
+		tokenCache.setMaxSize(this.properties.getClientCredentials().getCacheMaxSize());
+		return tokenCache;
+	}
+
 	@Bean
 	public AuthorizationEndpoint authorizationEndpoint() {
 		AuthorizationEndpoint authorizationEndpoint = new AuthorizationEndpoint(this.clientRepository,
@@ -103,6 +150,9 @@ public class CoreConfiguration {
 				this.clientRepository, tokenService(), this.scopeResolver, this.passwordAuthenticationHandler);
 		ClientCredentialsGrantHandler clientCredentialsGrantHandler = new ClientCredentialsGrantHandler(
 				this.clientRepository, this.scopeResolver, tokenService());
+		if (this.properties.getClientCredentials().isReuseTokens()) {
+			clientCredentialsGrantHandler.setTokenCache(clientCredentialsTokenCache());
+		}
 		RefreshTokenGrantHandler refreshTokenGrantHandler = new RefreshTokenGrantHandler(this.clientRepository,
 				tokenService(), this.refreshTokenStore);
 		refreshTokenGrantHandler.setUpdateRefreshToken(this.properties.getRefreshToken().isUpdate());
@@ -121,6 +171,14 @@ public class CoreConfiguration {
 		return new TokenRevocationEndpoint(this.properties.getIssuer(), this.clientRepository, this.refreshTokenStore);
 	}
 
+	@Bean
+	public TokenIntrospectionEndpoint tokenIntrospectionEndpoint() {
+		TokenIntrospectionEndpoint endpoint = new TokenIntrospectionEndpoint(this.properties.getIssuer(),
+				this.clientRepository, accessTokenClaimsResolver(), this.refreshTokenStore);
+		endpoint.setMaxBatchSize(this.properties.getIntrospection().getMaxBatchSize());
+		return endpoint;
+	}
+
 	@Bean
 	public UserInfoEndpoint userInfoEndpoint() {
 		UserInfoEndpoint endpoint = new UserInfoEndpoint(this.claimSource);
@@ -129,11 +187,38 @@ public class CoreConfiguration {
 	}
 
 	@Bean
-	public JwtBearerAccessTokenAuthenticationResolver authenticationResolver() {
+	public BearerTokenAuthenticationResolver authenticationResolver() {
+		if (isReferenceAccessTokenFormat()) {
+			return new ReferenceAccessTokenAuthenticationResolver(this.properties.getIssuer(), this.accessTokenStore);
+		}
 		JwtBearerAccessTokenAuthenticationResolver authenticationResolver = new JwtBearerAccessTokenAuthenticationResolver(
 				this.properties.getIssuer(), this.jwkSetLoader);
 		authenticationResolver.setAccessTokenJwsAlgorithm(this.properties.getAccessToken().getJwsAlgorithm());
+		if (this.properties.getAccessToken().getVerifiedCacheSize() > 0) {
+			authenticationResolver.setTokenCache(verifiedAccessTokenCache());
+		}
 		return authenticationResolver;
 	}
 
+	@Bean
+	@ConditionalOnExpression("${op.access-token.verified-cache-size:10000} > 0")
+	public VerifiedAccessTokenCache verifiedAccessTokenCache() {
+		return new VerifiedAccessTokenCache(this.properties.getAccessToken().getVerifiedCacheSize());
+	}
+
+	private AccessTokenClaimsResolver accessTokenClaimsResolver() {
+		// both JWT and reference access token authentication resolvers also resolve access token claims
+		return (AccessTokenClaimsResolver) authenticationResolver();
+	}
+
+	private boolean isReferenceAccessTokenFormat() {
+		if (this.properties.getAccessToken().getFormat() != OpenIdProviderProperties.AccessToken.Format.REFERENCE) {
+			return false;
+		}
+		if (this.accessTokenStore == null) {
+			throw new IllegalStateException("Reference access tokens require an AccessTokenStore bean");
+		}
+		return true;
+	}
+
 }
@@ -36,6 +36,7 @@ import io.github.vpavic.oauth2.endpoint.DiscoveryEndpoint;
 import io.github.vpavic.oauth2.endpoint.EndSessionEndpoint;
 import io.github.vpavic.oauth2.endpoint.JwkSetEndpoint;
 import io.github.vpavic.oauth2.endpoint.TokenEndpoint;
+import io.github.vpavic.oauth2.endpoint.TokenIntrospectionEndpoint;
 import io.github.vpavic.oauth2.endpoint.TokenRevocationEndpoint;
 import io.github.vpavic.oauth2.endpoint.UserInfoEndpoint;
 import io.github.vpavic.oauth2.jwk.JwkSetLoader;
@@ -61,6 +62,7 @@ public class DiscoveryConfiguration {
 		providerMetadata.setUserInfoEndpointURI(userInfoEndpoint());
 		providerMetadata.setRegistrationEndpointURI(registrationEndpoint());
 		providerMetadata.setRevocationEndpointURI(revocationEndpoint());
+		providerMetadata.setIntrospectionEndpointURI(introspectionEndpoint());
 		providerMetadata.setCheckSessionIframeURI(checkSessionIframe());
 		providerMetadata.setEndSessionEndpointURI(endSessionEndpoint());
 		providerMetadata.setScopes(scope());
@@ -128,6 +130,10 @@ public class DiscoveryConfiguration {
 		return createUri(TokenRevocationEndpoint.PATH_MAPPING);
 	}
 
+	private URI introspectionEndpoint() {
+		return createUri(TokenIntrospectionEndpoint.PATH_MAPPING);
+	}
+
 	private URI checkSessionIframe() {
 		return this.properties.getSessionManagement().isEnabled() ? createUri(CheckSessionIframe.PATH_MAPPING) : null;
 	}
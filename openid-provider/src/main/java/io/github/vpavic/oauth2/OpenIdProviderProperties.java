@@ -7,6 +7,8 @@ import java.util.List;
 import java.util.Map;
 
 import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotEmpty;
 
 import com.nimbusds.jose.JWSAlgorithm;
@@ -52,6 +54,9 @@ public class OpenIdProviderProperties {
 	@Valid
 	private final IdToken idToken = new IdToken();
 
+	@Valid
+	private final Introspection introspection = new Introspection();
+
 	@Valid
 	private final Claim claim = new Claim();
 
@@ -61,6 +66,12 @@ public class OpenIdProviderProperties {
 	@Valid
 	private final FrontChannelLogout frontChannelLogout = new FrontChannelLogout();
 
+	@Valid
+	private final Signing signing = new Signing();
+
+	@Valid
+	private final ClientCredentials clientCredentials = new ClientCredentials();
+
 	public Issuer getIssuer() {
 		return this.issuer;
 	}
@@ -93,6 +104,10 @@ public class OpenIdProviderProperties {
 		return this.idToken;
 	}
 
+	public Introspection getIntrospection() {
+		return this.introspection;
+	}
+
 	public Claim getClaim() {
 		return this.claim;
 	}
@@ -105,6 +120,14 @@ public class OpenIdProviderProperties {
 		return this.frontChannelLogout;
 	}
 
+	public Signing getSigning() {
+		return this.signing;
+	}
+
+	public ClientCredentials getClientCredentials() {
+		return this.clientCredentials;
+	}
+
 	@Validated
 	public static class Registration {
 
@@ -128,6 +151,18 @@ public class OpenIdProviderProperties {
 		 */
 		private boolean updateAccessToken;
 
+		/**
+		 * Maximum number of cached Clients.
+		 */
+		@Range(min = 1, max = Integer.MAX_VALUE)
+		private int clientCacheMaxSize = 1000;
+
+		/**
+		 * Time to live of cached Clients, in seconds.
+		 */
+		@Range(min = 1, max = Integer.MAX_VALUE)
+		private int clientCacheTtl = 300;
+
 		public boolean isOpenRegistrationEnabled() {
 			return this.openRegistrationEnabled;
 		}
@@ -160,6 +195,22 @@ public class OpenIdProviderProperties {
 			this.updateAccessToken = updateAccessToken;
 		}
 
+		public int getClientCacheMaxSize() {
+			return this.clientCacheMaxSize;
+		}
+
+		public void setClientCacheMaxSize(int clientCacheMaxSize) {
+			this.clientCacheMaxSize = clientCacheMaxSize;
+		}
+
+		public int getClientCacheTtl() {
+			return this.clientCacheTtl;
+		}
+
+		public void setClientCacheTtl(int clientCacheTtl) {
+			this.clientCacheTtl = clientCacheTtl;
+		}
+
 	}
 
 	@Validated
@@ -227,6 +278,22 @@ public class OpenIdProviderProperties {
 		@Range(min = 1, max = 600)
 		private int lifetime = 300;
 
+		/**
+		 * Authorization Code store.
+		 */
+		private Store store = Store.HAZELCAST;
+
+		/**
+		 * Maximum number of Authorization Codes held by the in-memory store.
+		 */
+		@Range(min = 1, max = Integer.MAX_VALUE)
+		private int capacity = 100000;
+
+		/**
+		 * Create Authorization Codes in partitions owned by the local member of the Hazelcast store.
+		 */
+		private boolean partitionAffinity;
+
 		public int getLifetime() {
 			return this.lifetime;
 		}
@@ -235,6 +302,49 @@ public class OpenIdProviderProperties {
 			this.lifetime = lifetime;
 		}
 
+		public Store getStore() {
+			return this.store;
+		}
+
+		public void setStore(Store store) {
+			this.store = store;
+		}
+
+		public int getCapacity() {
+			return this.capacity;
+		}
+
+		public void setCapacity(int capacity) {
+			this.capacity = capacity;
+		}
+
+		public boolean isPartitionAffinity() {
+			return this.partitionAffinity;
+		}
+
+		public void setPartitionAffinity(boolean partitionAffinity) {
+			this.partitionAffinity = partitionAffinity;
+		}
+
+		public enum Store {
+
+			/**
+			 * Hazelcast map shared across the cluster.
+			 */
+			HAZELCAST,
+
+			/**
+			 * Bounded in-memory store local to the node, suitable for single node deployments.
+			 */
+			IN_MEMORY,
+
+			/**
+			 * Self-contained encrypted codes, with consumed code IDs recorded in a Hazelcast map.
+			 */
+			ENCRYPTED
+
+		}
+
 	}
 
 	@Validated
@@ -256,6 +366,17 @@ public class OpenIdProviderProperties {
 		 */
 		private List<String> subjectClaims = new ArrayList<>();
 
+		/**
+		 * Access Token format.
+		 */
+		private Format format = Format.JWT;
+
+		/**
+		 * Maximum number of verified JWT Access Tokens cached by the UserInfo endpoint, zero disables caching.
+		 */
+		@Range(min = 0, max = 1000000)
+		private int verifiedCacheSize = 10000;
+
 		public int getLifetime() {
 			return this.lifetime;
 		}
@@ -280,6 +401,36 @@ public class OpenIdProviderProperties {
 			this.subjectClaims = subjectClaims;
 		}
 
+		public Format getFormat() {
+			return this.format;
+		}
+
+		public void setFormat(Format format) {
+			this.format = format;
+		}
+
+		public int getVerifiedCacheSize() {
+			return this.verifiedCacheSize;
+		}
+
+		public void setVerifiedCacheSize(int verifiedCacheSize) {
+			this.verifiedCacheSize = verifiedCacheSize;
+		}
+
+		public enum Format {
+
+			/**
+			 * Self-contained signed JWT.
+			 */
+			JWT,
+
+			/**
+			 * Random opaque value referencing the Access Token state stored by the OpenID Provider.
+			 */
+			REFERENCE
+
+		}
+
 	}
 
 	@Validated
@@ -296,6 +447,58 @@ public class OpenIdProviderProperties {
 		 */
 		private boolean update;
 
+		/**
+		 * Maximum number of expired Refresh Tokens deleted in a single cleanup batch.
+		 */
+		@Range(min = 1, max = Integer.MAX_VALUE)
+		private int cleanupBatchSize = 1000;
+
+		/**
+		 * Pause between expired Refresh Token cleanup batches, in milliseconds.
+		 */
+		@Range(min = 0, max = Integer.MAX_VALUE)
+		private int cleanupBatchPause = 100;
+
+		/**
+		 * Enable write-behind of Refresh Tokens, which groups concurrent saves into batches.
+		 */
+		private boolean writeBehind;
+
+		/**
+		 * Maximum number of Refresh Tokens written in a single write-behind batch.
+		 */
+		@Range(min = 1, max = Integer.MAX_VALUE)
+		private int writeBehindBatchSize = 100;
+
+		/**
+		 * Maximum delay of a write-behind batch, in milliseconds.
+		 */
+		@Range(min = 0, max = 1000)
+		private int writeBehindMaxDelay = 5;
+
+		/**
+		 * Store expiring Refresh Tokens in weekly partitions by expiry, which are dropped once ended. Supported on H2 and
+		 * PostgreSQL.
+		 */
+		private boolean partitioned;
+
+		/**
+		 * Refresh Token store.
+		 */
+		private Store store = Store.JDBC;
+
+		/**
+		 * Persist Refresh Tokens held by the Hazelcast store to the database.
+		 */
+		private boolean mapStore;
+
+		/**
+		 * Delay of writing Refresh Tokens held by the Hazelcast store to the database, in seconds, zero implies
+		 * write-through.
+		 */
+		@Range(min = 0, max = Integer.MAX_VALUE)
+		private int mapStoreWriteDelay = 1;
+
 		public int getLifetime() {
 			return this.lifetime;
 		}
@@ -312,6 +515,92 @@ public class OpenIdProviderProperties {
 			this.update = update;
 		}
 
+		public int getCleanupBatchSize() {
+			return this.cleanupBatchSize;
+		}
+
+		public void setCleanupBatchSize(int cleanupBatchSize) {
+			this.cleanupBatchSize = cleanupBatchSize;
+		}
+
+		public int getCleanupBatchPause() {
+			return this.cleanupBatchPause;
+		}
+
+		public void setCleanupBatchPause(int cleanupBatchPause) {
+			this.cleanupBatchPause = cleanupBatchPause;
+		}
+
+		public boolean isWriteBehind() {
+			return this.writeBehind;
+		}
+
+		public void setWriteBehind(boolean writeBehind) {
+			this.writeBehind = writeBehind;
+		}
+
+		public int getWriteBehindBatchSize() {
+			return this.writeBehindBatchSize;
+		}
+
+		public void setWriteBehindBatchSize(int writeBehindBatchSize) {
+			this.writeBehindBatchSize = writeBehindBatchSize;
+		}
+
+		public int getWriteBehindMaxDelay() {
+			return this.writeBehindMaxDelay;
+		}
+
+		public void setWriteBehindMaxDelay(int writeBehindMaxDelay) {
+			this.writeBehindMaxDelay = writeBehindMaxDelay;
+		}
+
+		public boolean isPartitioned() {
+			return this.partitioned;
+		}
+
+		public void setPartitioned(boolean partitioned) {
+			this.partitioned = partitioned;
+		}
+
+		public Store getStore() {
+			return this.store;
+		}
+
+		public void setStore(Store store) {
+			this.store = store;
+		}
+
+		public boolean isMapStore() {
+			return this.mapStore;
+		}
+
+		public void setMapStore(boolean mapStore) {
+			this.mapStore = mapStore;
+		}
+
+		public int getMapStoreWriteDelay() {
+			return this.mapStoreWriteDelay;
+		}
+
+		public void setMapStoreWriteDelay(int mapStoreWriteDelay) {
+			this.mapStoreWriteDelay = mapStoreWriteDelay;
+		}
+
+		public enum Store {
+
+			/**
+			 * Database table accessed on every request.
+			 */
+			JDBC,
+
+			/**
+			 * Hazelcast map shared across the cluster, optionally persisted to the database.
+			 */
+			HAZELCAST
+
+		}
+
 	}
 
 	@Validated
@@ -333,6 +622,25 @@ public class OpenIdProviderProperties {
 
 	}
 
+	@Validated
+	public static class Introspection {
+
+		/**
+		 * Maximum number of tokens accepted by a single batch Token Introspection request.
+		 */
+		@Range(min = 1, max = 1000)
+		private int maxBatchSize = 100;
+
+		public int getMaxBatchSize() {
+			return this.maxBatchSize;
+		}
+
+		public void setMaxBatchSize(int maxBatchSize) {
+			this.maxBatchSize = maxBatchSize;
+		}
+
+	}
+
 	@Validated
 	public static class Claim {
 
@@ -387,4 +695,112 @@ public class OpenIdProviderProperties {
 
 	}
 
+	@Validated
+	public static class Signing {
+
+		/**
+		 * Enable signing of tokens on a dedicated bounded worker pool. Requests that find the pool saturated fail with
+		 * temporarily_unavailable.
+		 */
+		private boolean pooled;
+
+		/**
+		 * Enable concurrent signing of Access Tokens and ID Tokens issued in the same response. Only applies if pooled
+		 * signing is enabled.
+		 */
+		private boolean concurrentTokens = true;
+
+		/**
+		 * Number of signing worker threads.
+		 */
+		@Range(min = 1, max = 256)
+		private int poolSize = Runtime.getRuntime().availableProcessors();
+
+		/**
+		 * Maximum number of signing tasks waiting for a worker, requests beyond it fail with temporarily_unavailable.
+		 */
+		@Range(min = 0, max = 10000)
+		private int queueCapacity = 100;
+
+		public boolean isPooled() {
+			return this.pooled;
+		}
+
+		public void setPooled(boolean pooled) {
+			this.pooled = pooled;
+		}
+
+		public boolean isConcurrentTokens() {
+			return this.concurrentTokens;
+		}
+
+		public void setConcurrentTokens(boolean concurrentTokens) {
+			this.concurrentTokens = concurrentTokens;
+		}
+
+		public int getPoolSize() {
+			return this.poolSize;
+		}
+
+		public void setPoolSize(int poolSize) {
+			this.poolSize = poolSize;
+		}
+
+		public int getQueueCapacity() {
+			return this.queueCapacity;
+		}
+
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+
+	}
+
+	@Validated
+	public static class ClientCredentials {
+
+		/**
+		 * Enable reuse of Access Tokens issued using Client Credentials Grant, per client and scope.
+		 */
+		private boolean reuseTokens;
+
+		/**
+		 * Minimum fraction of the lifetime an Access Token must have remaining to be reused.
+		 */
+		@DecimalMin("0.0")
+		@DecimalMax("1.0")
+		private double minRemainingLifetime = 0.5;
+
+		/**
+		 * Maximum number of reusable Access Tokens cached per node.
+		 */
+		@Range(min = 1, max = Integer.MAX_VALUE)
+		private int cacheMaxSize = 10000;
+
+		public boolean isReuseTokens() {
+			return this.reuseTokens;
+		}
+
+		public void setReuseTokens(boolean reuseTokens) {
+			this.reuseTokens = reuseTokens;
+		}
+
+		public double getMinRemainingLifetime() {
+			return this.minRemainingLifetime;
+		}
+
+		public void setMinRemainingLifetime(double minRemainingLifetime) {
+			this.minRemainingLifetime = minRemainingLifetime;
+		}
+
+		public int getCacheMaxSize() {
+			return this.cacheMaxSize;
+		}
+
+		public void setCacheMaxSize(int cacheMaxSize) {
+			this.cacheMaxSize = cacheMaxSize;
+		}
+
+	}
+
 }
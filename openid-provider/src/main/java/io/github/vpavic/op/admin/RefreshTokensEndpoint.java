@@ -0,0 +1,43 @@
+package io.github.vpavic.op.admin;
+
+import java.util.Objects;
+
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.http.HttpStatus;
+
+import io.github.vpavic.oauth2.grant.refresh.RefreshTokenStore;
+
+@WebEndpoint(id = "refreshtokens")
+public class RefreshTokensEndpoint {
+
+	private static final String SUBJECT = "subject";
+
+	private static final String CLIENT = "client";
+
+	private final RefreshTokenStore refreshTokenStore;
+
+	public RefreshTokensEndpoint(RefreshTokenStore refreshTokenStore) {
+		Objects.requireNonNull(refreshTokenStore, "refreshTokenStore must not be null");
+		this.refreshTokenStore = refreshTokenStore;
+	}
+
+	@DeleteOperation
+	public WebEndpointResponse<Void> revokeAll(@Selector String owner, @Selector String id) {
+		if (SUBJECT.equals(owner)) {
+			this.refreshTokenStore.revokeAllBySubject(new Subject(id));
+		}
+		else if (CLIENT.equals(owner)) {
+			this.refreshTokenStore.revokeAllByClientId(new ClientID(id));
+		}
+		else {
+			return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+		}
+		return new WebEndpointResponse<>(HttpStatus.NO_CONTENT.value());
+	}
+
+}
@@ -0,0 +1,75 @@
+package io.github.vpavic.op.config;
+
+import java.time.Duration;
+
+import com.hazelcast.config.ClasspathXmlConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapStoreConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.vpavic.oauth2.OpenIdProviderProperties;
+import io.github.vpavic.oauth2.grant.refresh.JdbcRefreshTokenMapStore;
+import io.github.vpavic.oauth2.grant.refresh.JdbcRefreshTokenStore;
+
+@Configuration
+public class HazelcastConfiguration {
+
+	static final String REFRESH_TOKENS_MAP_NAME = "op.refreshTokens";
+
+	private static final String CONFIG_LOCATION = "hazelcast.xml";
+
+	private final OpenIdProviderProperties properties;
+
+	private final ObjectProvider<JdbcOperations> jdbcOperations;
+
+	private final ObjectProvider<PlatformTransactionManager> transactionManager;
+
+	public HazelcastConfiguration(OpenIdProviderProperties properties, ObjectProvider<JdbcOperations> jdbcOperations,
+			ObjectProvider<PlatformTransactionManager> transactionManager) {
+		this.properties = properties;
+		this.jdbcOperations = jdbcOperations;
+		this.transactionManager = transactionManager;
+	}
+
+	@Bean
+	public Config hazelcastConfig() {
+		Config config = new ClasspathXmlConfig(CONFIG_LOCATION);
+		OpenIdProviderProperties.RefreshToken properties = this.properties.getRefreshToken();
+
+		// map stores can't be added to a running instance, as dynamic configuration is serialized across the cluster
+		if (properties.getStore() == OpenIdProviderProperties.RefreshToken.Store.HAZELCAST
+				&& properties.isMapStore()) {
+			// @formatter:off
+			MapStoreConfig mapStoreConfig = new MapStoreConfig()
+					.setImplementation(refreshTokenMapStore())
+					.setWriteDelaySeconds(properties.getMapStoreWriteDelay())
+					.setInitialLoadMode(MapStoreConfig.InitialLoadMode.LAZY);
+			// @formatter:on
+
+			config.addMapConfig(new MapConfig(REFRESH_TOKENS_MAP_NAME).setMapStoreConfig(mapStoreConfig));
+		}
+
+		return config;
+	}
+
+	@Bean
+	@ConditionalOnExpression("'${op.refresh-token.store:jdbc}'.equalsIgnoreCase('hazelcast') "
+			+ "and ${op.refresh-token.map-store:false}")
+	public JdbcRefreshTokenMapStore refreshTokenMapStore() {
+		OpenIdProviderProperties.RefreshToken properties = this.properties.getRefreshToken();
+		JdbcRefreshTokenStore refreshTokenStore = new JdbcRefreshTokenStore(this.jdbcOperations.getObject());
+		refreshTokenStore.setCleanupBatchSize(properties.getCleanupBatchSize());
+		refreshTokenStore.setCleanupBatchPause(Duration.ofMillis(properties.getCleanupBatchPause()));
+		refreshTokenStore.setPartitioned(properties.isPartitioned());
+		refreshTokenStore.setTransactionOperations(new TransactionTemplate(this.transactionManager.getObject()));
+		return new JdbcRefreshTokenMapStore(refreshTokenStore);
+	}
+
+}
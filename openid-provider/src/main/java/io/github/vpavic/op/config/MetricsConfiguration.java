@@ -0,0 +1,99 @@
+package io.github.vpavic.op.config;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.vpavic.oauth2.authentication.VerifiedAccessTokenCache;
+import io.github.vpavic.oauth2.grant.code.AuthorizationCodeService;
+import io.github.vpavic.oauth2.grant.code.InMemoryAuthorizationCodeService;
+import io.github.vpavic.oauth2.grant.refresh.JdbcRefreshTokenStore;
+import io.github.vpavic.oauth2.grant.refresh.RefreshTokenStore;
+import io.github.vpavic.oauth2.token.SigningExecutor;
+
+@Configuration
+public class MetricsConfiguration {
+
+	@Bean
+	public MeterBinder signingExecutorMetrics(ObjectProvider<SigningExecutor> signingExecutorProvider) {
+		return registry -> {
+			SigningExecutor signingExecutor = signingExecutorProvider.getIfAvailable();
+			if (signingExecutor == null) {
+				return;
+			}
+			Gauge.builder("op.signing.queue.size", signingExecutor, SigningExecutor::getQueueSize)
+					.description("Number of signing tasks waiting for a worker").register(registry);
+			Gauge.builder("op.signing.active", signingExecutor, SigningExecutor::getActiveCount)
+					.description("Number of workers currently signing").register(registry);
+			FunctionTimer.builder("op.signing", signingExecutor, SigningExecutor::getSigningCount,
+					SigningExecutor::getSigningTime, TimeUnit.NANOSECONDS)
+					.description("Time spent signing tokens").register(registry);
+			FunctionCounter.builder("op.signing.rejected", signingExecutor, SigningExecutor::getRejectedCount)
+					.description("Number of signing tasks rejected due to saturation").register(registry);
+		};
+	}
+
+	@Bean
+	public MeterBinder verifiedAccessTokenCacheMetrics(ObjectProvider<VerifiedAccessTokenCache> tokenCacheProvider) {
+		return registry -> {
+			VerifiedAccessTokenCache tokenCache = tokenCacheProvider.getIfAvailable();
+			if (tokenCache == null) {
+				return;
+			}
+			Gauge.builder("op.access-token.verified-cache.size", tokenCache, VerifiedAccessTokenCache::getSize)
+					.description("Number of cached verified access tokens").register(registry);
+			FunctionCounter.builder("op.access-token.verified-cache.requests", tokenCache,
+					VerifiedAccessTokenCache::getHitCount).tag("result", "hit")
+					.description("Number of verified access token cache lookups").register(registry);
+			FunctionCounter.builder("op.access-token.verified-cache.requests", tokenCache,
+					VerifiedAccessTokenCache::getMissCount).tag("result", "miss")
+					.description("Number of verified access token cache lookups").register(registry);
+		};
+	}
+
+	@Bean
+	public MeterBinder authorizationCodeServiceMetrics(AuthorizationCodeService authorizationCodeService) {
+		return registry -> {
+			if (!(authorizationCodeService instanceof InMemoryAuthorizationCodeService)) {
+				return;
+			}
+			InMemoryAuthorizationCodeService codeService = (InMemoryAuthorizationCodeService) authorizationCodeService;
+			Gauge.builder("op.authorization-code.size", codeService, InMemoryAuthorizationCodeService::getSize)
+					.description("Number of authorization codes held").register(registry);
+			Gauge.builder("op.authorization-code.capacity", codeService, InMemoryAuthorizationCodeService::getCapacity)
+					.description("Maximum number of authorization codes held").register(registry);
+			FunctionCounter.builder("op.authorization-code.removed", codeService,
+					InMemoryAuthorizationCodeService::getExpiredCount).tag("cause", "expired")
+					.description("Number of authorization codes removed without being consumed").register(registry);
+			FunctionCounter.builder("op.authorization-code.removed", codeService,
+					InMemoryAuthorizationCodeService::getEvictedCount).tag("cause", "evicted")
+					.description("Number of authorization codes removed without being consumed").register(registry);
+			FunctionCounter.builder("op.authorization-code.rejected", codeService,
+					InMemoryAuthorizationCodeService::getRejectedCount)
+					.description("Number of authorization codes rejected due to capacity").register(registry);
+		};
+	}
+
+	@Bean
+	public MeterBinder refreshTokenStoreMetrics(RefreshTokenStore refreshTokenStore) {
+		return registry -> {
+			if (!(refreshTokenStore instanceof JdbcRefreshTokenStore)) {
+				return;
+			}
+			JdbcRefreshTokenStore tokenStore = (JdbcRefreshTokenStore) refreshTokenStore;
+			FunctionTimer.builder("op.refresh-token.cleanup", tokenStore, JdbcRefreshTokenStore::getCleanupCount,
+					JdbcRefreshTokenStore::getCleanupTime, TimeUnit.NANOSECONDS)
+					.description("Time spent cleaning expired refresh tokens").register(registry);
+			FunctionCounter.builder("op.refresh-token.cleanup.deleted", tokenStore,
+					JdbcRefreshTokenStore::getCleanedTokenCount)
+					.description("Number of expired refresh tokens deleted by cleanup").register(registry);
+		};
+	}
+
+}
@@ -1,41 +1,52 @@
 package io.github.vpavic.op.config;
 
-import java.io.IOException;
-import java.text.ParseException;
 import java.time.Duration;
 
 import com.hazelcast.core.HazelcastInstance;
-import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.oauth2.sdk.GeneralException;
 import com.nimbusds.oauth2.sdk.OAuth2Error;
 import com.nimbusds.oauth2.sdk.id.Subject;
 import com.nimbusds.openid.connect.sdk.claims.UserInfo;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
-import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.util.FileCopyUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import io.github.vpavic.oauth2.OpenIdProviderConfiguration;
 import io.github.vpavic.oauth2.OpenIdProviderProperties;
 import io.github.vpavic.oauth2.claim.ClaimSource;
+import io.github.vpavic.oauth2.client.CachingClientRepository;
+import io.github.vpavic.oauth2.client.ClientInvalidationPublisher;
 import io.github.vpavic.oauth2.client.ClientRepository;
+import io.github.vpavic.oauth2.client.HazelcastClientInvalidationPublisher;
 import io.github.vpavic.oauth2.client.JdbcClientRepository;
+import io.github.vpavic.oauth2.grant.code.AuthorizationCodeReplayGuard;
 import io.github.vpavic.oauth2.grant.code.AuthorizationCodeService;
+import io.github.vpavic.oauth2.grant.code.EncryptedAuthorizationCodeService;
+import io.github.vpavic.oauth2.grant.code.HazelcastAuthorizationCodeReplayGuard;
 import io.github.vpavic.oauth2.grant.code.HazelcastAuthorizationCodeService;
+import io.github.vpavic.oauth2.grant.code.InMemoryAuthorizationCodeService;
 import io.github.vpavic.oauth2.grant.password.PasswordAuthenticationHandler;
+import io.github.vpavic.oauth2.grant.refresh.HazelcastRefreshTokenStore;
+import io.github.vpavic.oauth2.grant.refresh.JdbcRefreshTokenMapStore;
 import io.github.vpavic.oauth2.grant.refresh.JdbcRefreshTokenStore;
 import io.github.vpavic.oauth2.grant.refresh.RefreshTokenStore;
+import io.github.vpavic.oauth2.jwk.CachingJwkSetLoader;
 import io.github.vpavic.oauth2.jwk.JwkSetLoader;
 import io.github.vpavic.oauth2.scope.DefaultScopeResolver;
 import io.github.vpavic.oauth2.scope.ScopeResolver;
+import io.github.vpavic.oauth2.token.AccessTokenStore;
+import io.github.vpavic.oauth2.token.HazelcastAccessTokenStore;
+import io.github.vpavic.op.admin.RefreshTokensEndpoint;
 
 @Configuration
 @Import(OpenIdProviderConfiguration.class)
@@ -53,49 +64,109 @@ public class OAuth2Configuration {
 
 	private final HazelcastInstance hazelcastInstance;
 
+	private final PlatformTransactionManager transactionManager;
+
+	private final ObjectProvider<JdbcRefreshTokenMapStore> refreshTokenMapStore;
+
 	public OAuth2Configuration(ResourceLoader resourceLoader, OpenIdProviderProperties properties,
 			ObjectProvider<JdbcOperations> jdbcOperations, ObjectProvider<AuthenticationManager> authenticationManager,
-			ObjectProvider<HazelcastInstance> hazelcastInstance) {
+			ObjectProvider<HazelcastInstance> hazelcastInstance,
+			ObjectProvider<PlatformTransactionManager> transactionManager,
+			ObjectProvider<JdbcRefreshTokenMapStore> refreshTokenMapStore) {
 		this.resourceLoader = resourceLoader;
 		this.properties = properties;
 		this.jdbcOperations = jdbcOperations.getObject();
 		this.authenticationManager = authenticationManager.getObject();
 		this.hazelcastInstance = hazelcastInstance.getObject();
+		this.transactionManager = transactionManager.getObject();
+		this.refreshTokenMapStore = refreshTokenMapStore;
 	}
 
 	@Bean
 	public ClientRepository clientRepository() {
-		return new JdbcClientRepository(this.jdbcOperations);
+		OpenIdProviderProperties.Registration properties = this.properties.getRegistration();
+		JdbcClientRepository jdbcClientRepository = new JdbcClientRepository(this.jdbcOperations);
+		jdbcClientRepository.init();
+		CachingClientRepository clientRepository = new CachingClientRepository(jdbcClientRepository);
+		clientRepository.setMaxSize(properties.getClientCacheMaxSize());
+		clientRepository.setTtl(Duration.ofSeconds(properties.getClientCacheTtl()));
+		clientRepository.setInvalidationPublisher(clientInvalidationPublisher());
+		return clientRepository;
+	}
+
+	@Bean
+	public ClientInvalidationPublisher clientInvalidationPublisher() {
+		return new HazelcastClientInvalidationPublisher(this.hazelcastInstance);
 	}
 
 	@Bean
 	public JwkSetLoader jwkSetLoader() {
-		return () -> {
-			try {
-				Resource jwkSetResource = this.resourceLoader.getResource(JWK_SET_LOCATION);
-				String jwkSetJson = new String(FileCopyUtils.copyToByteArray(jwkSetResource.getInputStream()));
+		return new CachingJwkSetLoader(this.resourceLoader.getResource(JWK_SET_LOCATION));
+	}
 
-				return JWKSet.parse(jwkSetJson);
-			}
-			catch (IOException | ParseException e) {
-				throw new RuntimeException(e);
+	@Bean
+	public RefreshTokenStore refreshTokenStore() {
+		OpenIdProviderProperties.RefreshToken properties = this.properties.getRefreshToken();
+		if (properties.getStore() == OpenIdProviderProperties.RefreshToken.Store.HAZELCAST) {
+			HazelcastRefreshTokenStore refreshTokenStore = new HazelcastRefreshTokenStore(this.hazelcastInstance);
+			refreshTokenStore.setMapName(HazelcastConfiguration.REFRESH_TOKENS_MAP_NAME);
+			JdbcRefreshTokenMapStore mapStore = this.refreshTokenMapStore.getIfAvailable();
+			if (mapStore != null) {
+				refreshTokenStore.setMapStore(mapStore);
 			}
-		};
+			return refreshTokenStore;
+		}
+		JdbcRefreshTokenStore refreshTokenStore = new JdbcRefreshTokenStore(this.jdbcOperations);
+		refreshTokenStore.setCleanupBatchSize(properties.getCleanupBatchSize());
+		refreshTokenStore.setCleanupBatchPause(Duration.ofMillis(properties.getCleanupBatchPause()));
+		refreshTokenStore.setPartitioned(properties.isPartitioned());
+		refreshTokenStore.setTransactionOperations(new TransactionTemplate(this.transactionManager));
+		if (properties.isWriteBehind()) {
+			refreshTokenStore.setWriteBehind(true);
+			refreshTokenStore.setWriteBehindBatchSize(properties.getWriteBehindBatchSize());
+			refreshTokenStore.setWriteBehindMaxDelay(Duration.ofMillis(properties.getWriteBehindMaxDelay()));
+		}
+		return refreshTokenStore;
 	}
 
 	@Bean
-	public RefreshTokenStore refreshTokenStore() {
-		return new JdbcRefreshTokenStore(this.jdbcOperations);
+	public RefreshTokensEndpoint refreshTokensEndpoint() {
+		return new RefreshTokensEndpoint(refreshTokenStore());
+	}
+
+	@Bean
+	public AccessTokenStore accessTokenStore() {
+		return new HazelcastAccessTokenStore(this.hazelcastInstance);
 	}
 
 	@Bean
 	public AuthorizationCodeService authorizationCodeService() {
+		OpenIdProviderProperties.AuthorizationCode properties = this.properties.getCode();
+		if (properties.getStore() == OpenIdProviderProperties.AuthorizationCode.Store.IN_MEMORY) {
+			InMemoryAuthorizationCodeService authorizationCodeService = new InMemoryAuthorizationCodeService();
+			authorizationCodeService.setCodeLifetime(Duration.ofSeconds(properties.getLifetime()));
+			authorizationCodeService.setCapacity(properties.getCapacity());
+			return authorizationCodeService;
+		}
+		if (properties.getStore() == OpenIdProviderProperties.AuthorizationCode.Store.ENCRYPTED) {
+			EncryptedAuthorizationCodeService authorizationCodeService = new EncryptedAuthorizationCodeService(
+					jwkSetLoader(), authorizationCodeReplayGuard());
+			authorizationCodeService.setCodeLifetime(Duration.ofSeconds(properties.getLifetime()));
+			return authorizationCodeService;
+		}
 		HazelcastAuthorizationCodeService authorizationCodeService = new HazelcastAuthorizationCodeService(
 				this.hazelcastInstance);
-		authorizationCodeService.setCodeLifetime(Duration.ofSeconds(this.properties.getCode().getLifetime()));
+		authorizationCodeService.setCodeLifetime(Duration.ofSeconds(properties.getLifetime()));
+		authorizationCodeService.setPartitionAffinity(properties.isPartitionAffinity());
 		return authorizationCodeService;
 	}
 
+	@Bean
+	@ConditionalOnProperty(prefix = "op.code", name = "store", havingValue = "encrypted")
+	public AuthorizationCodeReplayGuard authorizationCodeReplayGuard() {
+		return new HazelcastAuthorizationCodeReplayGuard(this.hazelcastInstance);
+	}
+
 	@Bean
 	public ClaimSource claimSource() {
 		return (subject, claims) -> new UserInfo(subject);
@@ -32,7 +32,8 @@ public class SecurityConfiguration {
 	@Bean
 	public UserDetailsService userDetailsService() {
 		return new InMemoryUserDetailsManager(
-				User.withDefaultPasswordEncoder().username("user").password("password").roles("USER").build());
+				User.withDefaultPasswordEncoder().username("user").password("password").roles("USER").build(),
+				User.withDefaultPasswordEncoder().username("admin").password("password").roles("ADMIN").build());
 	}
 
 	@Bean
@@ -86,10 +87,13 @@ public class SecurityConfiguration {
 				.requestMatcher(EndpointRequest.toAnyEndpoint())
 				.authorizeRequests()
 					.requestMatchers(EndpointRequest.to("health", "info")).permitAll()
+					.requestMatchers(EndpointRequest.to("refreshtokens")).hasRole("ADMIN")
 					.anyRequest().authenticated()
 					.and()
 				.httpBasic()
 					.and()
+				.csrf()
+					.disable()
 				.sessionManagement()
 					.sessionCreationPolicy(SessionCreationPolicy.NEVER);
 			// @formatter:on
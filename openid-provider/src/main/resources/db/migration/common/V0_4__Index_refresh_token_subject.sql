@@ -0,0 +1 @@
+CREATE INDEX refresh_tokens_subject_idx ON refresh_tokens (subject);
@@ -0,0 +1,3 @@
+CREATE TABLE refresh_tokens_partitions (
+	week_start BIGINT PRIMARY KEY
+);
@@ -0,0 +1,74 @@
+package io.github.vpavic.op.admin;
+
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Subject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.github.vpavic.oauth2.grant.refresh.RefreshTokenStore;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class RefreshTokensEndpointTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@MockBean
+	private RefreshTokenStore refreshTokenStore;
+
+	@Test
+	public void revokeAll_Subject_ShouldRevokeBySubject() throws Exception {
+		this.mvc.perform(delete("/application/refreshtokens/subject/user").with(httpBasic("admin", "password")))
+				.andExpect(status().isNoContent());
+
+		verify(this.refreshTokenStore).revokeAllBySubject(new Subject("user"));
+	}
+
+	@Test
+	public void revokeAll_Client_ShouldRevokeByClientId() throws Exception {
+		this.mvc.perform(delete("/application/refreshtokens/client/test-client").with(httpBasic("admin", "password")))
+				.andExpect(status().isNoContent());
+
+		verify(this.refreshTokenStore).revokeAllByClientId(new ClientID("test-client"));
+	}
+
+	@Test
+	public void revokeAll_UnknownOwner_ShouldReturnNotFound() throws Exception {
+		this.mvc.perform(delete("/application/refreshtokens/other/test").with(httpBasic("admin", "password")))
+				.andExpect(status().isNotFound());
+
+		verify(this.refreshTokenStore, never()).revokeAllBySubject(any(Subject.class));
+		verify(this.refreshTokenStore, never()).revokeAllByClientId(any(ClientID.class));
+	}
+
+	@Test
+	public void revokeAll_NonAdmin_ShouldReturnForbidden() throws Exception {
+		this.mvc.perform(delete("/application/refreshtokens/subject/user").with(httpBasic("user", "password")))
+				.andExpect(status().isForbidden());
+
+		verify(this.refreshTokenStore, never()).revokeAllBySubject(any(Subject.class));
+	}
+
+	@Test
+	public void revokeAll_Anonymous_ShouldReturnUnauthorized() throws Exception {
+		this.mvc.perform(delete("/application/refreshtokens/subject/user")).andExpect(status().isUnauthorized());
+
+		verify(this.refreshTokenStore, never()).revokeAllBySubject(any(Subject.class));
+	}
+
+}
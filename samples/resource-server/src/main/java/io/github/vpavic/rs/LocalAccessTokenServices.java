@@ -0,0 +1,75 @@
+package io.github.vpavic.rs;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+
+import io.github.vpavic.oauth2.resource.AccessTokenClaims;
+import io.github.vpavic.oauth2.resource.AccessTokenValidator;
+import io.github.vpavic.oauth2.resource.InvalidAccessTokenException;
+
+/**
+ * {@link ResourceServerTokenServices} implementation that validates access tokens locally using
+ * {@link AccessTokenValidator}.
+ *
+ * @author Vedran Pavic
+ */
+public class LocalAccessTokenServices implements ResourceServerTokenServices {
+
+	private final AccessTokenValidator accessTokenValidator;
+
+	public LocalAccessTokenServices(AccessTokenValidator accessTokenValidator) {
+		Objects.requireNonNull(accessTokenValidator, "accessTokenValidator must not be null");
+		this.accessTokenValidator = accessTokenValidator;
+	}
+
+	@Override
+	public OAuth2Authentication loadAuthentication(String accessToken) {
+		AccessTokenClaims claims = validate(accessToken);
+		OAuth2Request request = new OAuth2Request(null, claims.getClientId(), null, true,
+				new HashSet<>(claims.getScope()), null, null, null, null);
+		Authentication userAuthentication = new UsernamePasswordAuthenticationToken(claims.getSubject(), "N/A",
+				AuthorityUtils.NO_AUTHORITIES);
+
+		return new OAuth2Authentication(request, userAuthentication);
+	}
+
+	@Override
+	public OAuth2AccessToken readAccessToken(String accessToken) {
+		AccessTokenClaims claims = validate(accessToken);
+		DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(accessToken);
+		Instant expirationTime = claims.getExpirationTime();
+
+		if (expirationTime != null) {
+			token.setExpiration(Date.from(expirationTime));
+		}
+
+		token.setScope(new LinkedHashSet<>(claims.getScope()));
+		token.setAdditionalInformation(new LinkedHashMap<>(claims.getClaims()));
+
+		return token;
+	}
+
+	private AccessTokenClaims validate(String accessToken) {
+		try {
+			return this.accessTokenValidator.validate(accessToken);
+		}
+		catch (InvalidAccessTokenException e) {
+			throw new InvalidTokenException(e.getMessage(), e);
+		}
+	}
+
+}
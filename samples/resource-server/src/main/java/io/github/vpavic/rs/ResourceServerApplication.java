@@ -1,18 +1,22 @@
 package io.github.vpavic.rs;
 
+import java.net.URL;
 import java.util.Collections;
 import java.util.Map;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
 import org.springframework.security.oauth2.config.annotation.web.configurers.ResourceServerSecurityConfigurer;
-import org.springframework.security.oauth2.provider.token.store.jwk.JwkTokenStore;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import io.github.vpavic.oauth2.resource.AccessTokenValidator;
+import io.github.vpavic.oauth2.resource.JwkSetCache;
+
 @RestController
 @SpringBootApplication
 public class ResourceServerApplication {
@@ -30,9 +34,21 @@ public class ResourceServerApplication {
 	@EnableResourceServer
 	static class SecurityConfig extends ResourceServerConfigurerAdapter {
 
+		private static final String ISSUER = "http://127.0.0.1:6432";
+
+		@Bean
+		public JwkSetCache jwkSetCache() throws Exception {
+			return new JwkSetCache(new URL(ISSUER + "/oauth2/keys"));
+		}
+
+		@Bean
+		public AccessTokenValidator accessTokenValidator() throws Exception {
+			return new AccessTokenValidator(ISSUER, jwkSetCache());
+		}
+
 		@Override
 		public void configure(ResourceServerSecurityConfigurer resources) throws Exception {
-			resources.tokenStore(new JwkTokenStore("http://localhost:6432/oauth2/keys"));
+			resources.tokenServices(new LocalAccessTokenServices(accessTokenValidator()));
 		}
 
 	}